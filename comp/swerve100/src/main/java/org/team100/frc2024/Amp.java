@@ -9,6 +9,8 @@ import org.team100.lib.follower.DriveTrajectoryFollower;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectorySource;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -19,7 +21,8 @@ public class Amp extends SequentialCommandGroup {
             LoggerFactory parent,
             SwerveDriveSubsystem m_swerve,
             DriveTrajectoryFollower controller,
-            SwerveKinodynamics limits) {
+            SwerveKinodynamics limits,
+            TrajectorySource source) {
 
         List<Pose2d> waypoint = new ArrayList<>();
         waypoint.add(new Pose2d(11.266917, 1.374847, new Rotation2d(0)));
@@ -29,7 +32,8 @@ public class Amp extends SequentialCommandGroup {
         addCommands(
                 // new DriveWithWaypoints(m_swerve, planner, controller, limits, waypoint)
                 new DriveWithWaypoints(parent, m_swerve, controller, limits,
-                        () -> AmpUtil.getShortestTrajecNew(m_swerve))
+                        () -> AmpUtil.getShortestTrajecNew(m_swerve),
+                        AsyncTrajectoryPlanner.get().withSource(source))
 
         // new DriveWithTrajectory(m_swerve, planner, controller, limits,
         // "src/main/deploy/choreo/Note3to4.traj")
@@ -3,6 +3,7 @@ package org.team100.frc2024;
 import java.util.Optional;
 
 import org.team100.frc2024.motion.shooter.DrumShooter;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.indicator.LEDIndicator;
 import org.team100.lib.indicator.LEDIndicator.State;
 import org.team100.lib.localization.VisionDataProvider24;
@@ -23,6 +24,7 @@ public class LEDSubsystem extends SubsystemBase {
     private final SensorInterface m_sensors;
     private final DrumShooter m_shooter;
     private final VisionDataProvider24 m_vision;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section("LEDSubsystem periodic");
 
     /**
      * 
@@ -45,6 +47,7 @@ public class LEDSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         m_indicator.setBack(State.WHITE);
 
         if (!DriverStation.isDSAttached() || DriverStation.isDisabled()) {
@@ -88,5 +91,6 @@ public class LEDSubsystem extends SubsystemBase {
 
         // actually change the indicator
         m_indicator.periodic();
+        m_timer.stop(startNs);
     }
 }
@@ -1,12 +1,15 @@
 package org.team100.frc2024;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.team100.frc2024.config.AutonChooser;
 import org.team100.lib.config.Identity;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.framework.TimedRobot100;
+import org.team100.lib.framework.Trace;
 import org.team100.lib.logging.JvmLogger;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.Logging;
@@ -38,6 +41,7 @@ public class Robot extends TimedRobot100 {
     private final StringLogger m_log_active_auton_routine;
     private final DoubleLogger m_log_voltage;
     private final JvmLogger m_jvmLogger;
+    private final LoopProfiler.Section m_schedulerTimer;
 
     private RobotContainer m_robotContainer;
 
@@ -52,6 +56,7 @@ public class Robot extends TimedRobot100 {
         m_log_active_auton_routine = m_robotLogger.stringLogger(Level.COMP, "active auton routine");
         m_log_voltage = m_robotLogger.doubleLogger(Level.TRACE, "voltage");
         m_jvmLogger = new JvmLogger(m_robotLogger);
+        m_schedulerTimer = LoopProfiler.instance().section("scheduler");
     }
 
     @Override
@@ -68,6 +73,11 @@ public class Robot extends TimedRobot100 {
 
         // log what the scheduler is doing
         SmartDashboard.putData(CommandScheduler.getInstance());
+        // blame overruns on the running commands
+        LoopProfiler.instance().watch(CommandScheduler.getInstance());
+        // /tmp on the RIO doesn't survive a reboot
+        if (isReal())
+            Trace.setDirectory(Path.of("/home/lvuser/traces"));
 
         try {
             m_robotContainer = new RobotContainer(this);
@@ -98,7 +108,9 @@ public class Robot extends TimedRobot100 {
         // for an entire cycle, but that we want to forget between cycles, so we
         // reset them all here.
         Memo.resetAll();
+        long startNs = m_schedulerTimer.start();
         CommandScheduler.getInstance().run();
+        m_schedulerTimer.stop(startNs);
         // TODO(dmontauk): why do we separate things between Robot and RobotContainer? What is the logical separation?
         m_robotContainer.periodic();
 
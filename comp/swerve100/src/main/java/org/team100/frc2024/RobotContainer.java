@@ -55,6 +55,7 @@ import org.team100.lib.hid.OperatorControlProxy;
 import org.team100.lib.indicator.LEDIndicator;
 import org.team100.lib.localization.AprilTagFieldLayoutWithCorrectOrientation;
 import org.team100.lib.localization.NotePosition24ArrayListener;
+import org.team100.lib.localization.OdometrySampler;
 import org.team100.lib.localization.SwerveDrivePoseEstimator100;
 import org.team100.lib.localization.VisionDataProvider24;
 import org.team100.lib.logging.FieldLogger;
@@ -71,6 +72,8 @@ import org.team100.lib.profile.HolonomicProfile;
 import org.team100.lib.sensors.Gyro;
 import org.team100.lib.sensors.GyroFactory;
 import org.team100.lib.swerve.AsymSwerveSetpointGenerator;
+import org.team100.lib.trajectory.TrajectoryCache;
+import org.team100.lib.trajectory.TrajectoryMemo;
 import org.team100.lib.util.Util;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
@@ -99,8 +102,10 @@ public class RobotContainer implements Glassy {
     private static final double kDriveStatorLimit = 100;
 
     private final SwerveModuleCollection m_modules;
+    private final OdometrySampler m_odometry;
     private final Command m_auton;
     private final DrumShooter m_shooter;
+    private final TrajectoryMemo m_trajectoryMemo;
     final SwerveDriveSubsystem m_drive;
 
     public RobotContainer(TimedRobot100 robot) throws IOException {
@@ -117,6 +122,7 @@ public class RobotContainer implements Glassy {
         final LoggerFactory logger = logging.rootLogger;
 
         final TrajectoryVisualization viz = new TrajectoryVisualization(fieldLogger);
+        m_trajectoryMemo = new TrajectoryMemo(logger, 32, TrajectoryCache.get());
         final DriverControl driverControl = new DriverControlProxy(logger, async);
         final OperatorControl operatorControl = new OperatorControlProxy(async);
         final SwerveKinodynamics swerveKinodynamics = SwerveKinodynamicsFactory.get();
@@ -167,13 +173,22 @@ public class RobotContainer implements Glassy {
                 setpointGenerator,
                 m_modules);
 
+        // samples odometry faster than the main loop, on its own thread.
+        m_odometry = new OdometrySampler(
+                driveLog,
+                gyro,
+                m_modules::samplePositions,
+                m_modules::sampleTimeS);
+
         m_drive = new SwerveDriveSubsystem(
                 fieldLogger,
                 driveLog,
                 gyro,
                 poseEstimator,
                 swerveLocal,
-                visionDataProvider);
+                visionDataProvider,
+                m_odometry);
+        m_odometry.start(OdometrySampler.kPeriodS);
 
         final NotePosition24ArrayListener noteListener = new NotePosition24ArrayListener(
                 poseEstimator);
@@ -303,7 +318,7 @@ public class RobotContainer implements Glassy {
         // whileTrue(driverControl::fullCycle, new OscillateDirect(comLog, m_drive));
         // new Oscillate(comLog, m_drive));
         // new RepeatCommand(
-        // new FullCycle(comLog, m_drive, controller, viz)));
+        // new FullCycle(comLog, m_drive, controller, viz, m_trajectoryMemo)));
 
         // whileTrue(operatorControl::intake,
         //         new RunIntakeAndAmpFeeder(intake, feeder, m_ampFeeder));
@@ -446,7 +461,8 @@ public class RobotContainer implements Glassy {
                 intake,
                 m_sensors,
                 swerveKinodynamics,
-                viz);
+                viz,
+                m_trajectoryMemo);
 
         // whileTrue(driverControl::test, m_AutoMaker.citrus(Alliance.Blue));
         whileTrue(driverControl::test, m_AutoMaker.fourNoteAuto(Alliance.Blue, m_sensors));
@@ -539,7 +555,7 @@ public class RobotContainer implements Glassy {
     }
 
     public void periodic() {
-        //
+        m_trajectoryMemo.periodic();
     }
 
     public void cancelAuton() {
@@ -550,6 +566,7 @@ public class RobotContainer implements Glassy {
 
     // this keeps the tests from conflicting via the use of simulated HAL ports.
     public void close() {
+        m_odometry.close();
         m_modules.close();
     }
 
@@ -46,7 +46,9 @@ import org.team100.lib.sensors.GyroFactory;
 import org.team100.lib.swerve.AsymSwerveSetpointGenerator;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.trajectory.TrajectoryCache;
 import org.team100.lib.trajectory.TrajectoryMaker;
+import org.team100.lib.trajectory.TrajectoryMemo;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
 import com.choreo.lib.Choreo;
@@ -232,7 +234,8 @@ public class RobotContainerParkingLot implements Glassy {
 
         // calibration
 
-        TrajectoryMaker maker = new TrajectoryMaker(constraints);
+        TrajectoryMemo memo = new TrajectoryMemo(driveLogger, 32, TrajectoryCache.get());
+        TrajectoryMaker maker = new TrajectoryMaker(constraints, memo);
 
         // make a one-meter line
         whileTrue(driverControl::never,
@@ -259,7 +262,7 @@ public class RobotContainerParkingLot implements Glassy {
                         maker::square, viz));
 
         // this should be a field.
-        final DrawSquare m_drawCircle = new DrawSquare(driveLogger, m_drive, controller, viz);
+        final DrawSquare m_drawCircle = new DrawSquare(driveLogger, m_drive, controller, viz, memo);
         whileTrue(driverControl::never, m_drawCircle);
     }
 
@@ -1,6 +1,7 @@
 package org.team100.frc2024.motion;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.team100.frc2024.SensorInterface;
 import org.team100.frc2024.commands.ShootPreload;
@@ -22,8 +23,9 @@ import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
 import org.team100.lib.trajectory.Trajectory100;
-import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectoryMemo;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -55,6 +57,7 @@ public class AutoMaker implements Glassy {
     private final DriveTrajectoryFollowerFactory m_factory;
     private final SwerveKinodynamics m_swerveKinodynamics;
     private final TrajectoryVisualization m_viz;
+    private final AsyncTrajectoryPlanner m_planner;
 
     public AutoMaker(
             LoggerFactory parent,
@@ -67,7 +70,8 @@ public class AutoMaker implements Glassy {
             Intake intake,
             SensorInterface sensor,
             SwerveKinodynamics swerveKinodynamics,
-            TrajectoryVisualization viz) {
+            TrajectoryVisualization viz,
+            TrajectoryMemo memo) {
         m_swerve = swerve;
         m_factory = factory;
         m_controller = controller;
@@ -84,6 +88,7 @@ public class AutoMaker implements Glassy {
         m_log = new DrivePIDFFollower.Log(m_logger);
         m_commandLog = new TrajectoryCommand100.Log(m_logger);
         m_viz = viz;
+        m_planner = AsyncTrajectoryPlanner.get().withSource(memo);
     }
 
     /** This encodes knowledge about how to approach each field point. */
@@ -143,7 +148,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 betweenHeading,
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
@@ -177,7 +182,7 @@ public class AutoMaker implements Glassy {
                 betweenHeading,
                 betweenHeading,
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_slow);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_slow);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_factory.goodPIDF(m_log),
                 m_viz);
     }
@@ -197,7 +202,7 @@ public class AutoMaker implements Glassy {
                 new Pose2d(2, 2, new Rotation2d()),
                 new Pose2d(5, 2, new Rotation2d()));
         List<Rotation2d> headings = List.of(new Rotation2d(Math.PI), new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
@@ -206,7 +211,7 @@ public class AutoMaker implements Glassy {
                 new Pose2d(0, 0, Rotation2d.fromDegrees(45)),
                 new Pose2d(1, 1, Rotation2d.fromDegrees(45)));
         List<Rotation2d> headings = List.of(Rotation2d.fromDegrees(0), Rotation2d.fromDegrees(0));
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
@@ -215,21 +220,21 @@ public class AutoMaker implements Glassy {
                 new Pose2d(5, 2, new Rotation2d(Math.PI)),
                 new Pose2d(2, 2, new Rotation2d(Math.PI)));
         List<Rotation2d> headings = List.of(new Rotation2d(Math.PI), new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
     public TrajectoryCommand100 tuningTrajectory3() {
         List<Pose2d> waypointsM = List.of(new Pose2d(), new Pose2d());
         List<Rotation2d> headings = List.of(new Rotation2d(Math.PI), new Rotation2d());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
     public TrajectoryCommand100 tuningTrajectory4() {
         List<Pose2d> waypointsM = List.of(new Pose2d(), new Pose2d());
         List<Rotation2d> headings = List.of(new Rotation2d(), new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
@@ -252,7 +257,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.stageBase(m_log), m_viz);
     }
@@ -280,7 +285,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.complementPIDF(m_log), m_viz);
     }
@@ -305,7 +310,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_slow);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_slow);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.complementPIDF(m_log), m_viz);
     }
@@ -331,7 +336,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 heading,
                 heading);
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_slow);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_slow);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.complementPIDF(m_log), m_viz);
     }
@@ -357,7 +362,7 @@ public class AutoMaker implements Glassy {
                 new Rotation2d(begHeading),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_slow);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_slow);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.complementPIDF(m_log), m_viz);
     }
@@ -376,7 +381,7 @@ public class AutoMaker implements Glassy {
         List<Rotation2d> headings = List.of(
                 startPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.straightPIDF(m_log), m_viz);
     }
@@ -396,7 +401,7 @@ public class AutoMaker implements Glassy {
 
         List<Pose2d> waypointsM = List.of(startWaypoint, endWaypoint);
         List<Rotation2d> headings = List.of(begHeading, endHeading);
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.straightPIDF(m_log), m_viz);
     }
@@ -415,7 +420,7 @@ public class AutoMaker implements Glassy {
 
         List<Pose2d> waypointsM = List.of(startWaypoint, endWaypoint);
         List<Rotation2d> headings = List.of(startPose.getRotation(), endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.complementPIDF(m_log), m_viz);
     }
@@ -435,7 +440,7 @@ public class AutoMaker implements Glassy {
 
         List<Pose2d> waypointsM = List.of(startWaypoint, endWaypoint);
         List<Rotation2d> headings = List.of(startPose.getRotation(), endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(
                 m_commandLog,
                 m_swerve,
@@ -459,7 +464,7 @@ public class AutoMaker implements Glassy {
         Rotation2d startHeading = startPose.getRotation();
         Rotation2d endHeading = new Rotation2d(Math.PI);
         List<Rotation2d> headings = List.of(startHeading, endHeading);
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory,
                 m_factory.newNewPIDF(m_log), m_viz);
     }
@@ -489,7 +494,7 @@ public class AutoMaker implements Glassy {
                 startPose.getRotation(),
                 betweenPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, m_fast);
+        CompletableFuture<Trajectory100> trajectory = m_planner.restToRest(waypointsM, headings, m_fast);
         return new TrajectoryCommand100(m_commandLog, m_swerve, trajectory, m_controller, m_viz);
     }
 
@@ -512,7 +517,7 @@ public class AutoMaker implements Glassy {
 
     public DriveToWaypoint100 driveToStraight(Alliance alliance, FieldPoint2024 point) {
         return new DriveToWaypoint100(m_logger, getPose(alliance, point), m_swerve, m_controller, m_swerveKinodynamics,
-                1, m_viz);
+                1, m_viz, m_planner);
     }
 
     public SequentialCommandGroup eightNoteAuto(Alliance alliance) {
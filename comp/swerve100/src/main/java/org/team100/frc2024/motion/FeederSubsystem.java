@@ -3,6 +3,7 @@ package org.team100.frc2024.motion;
 import org.team100.frc2024.SensorInterface;
 import org.team100.lib.config.Identity;
 import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -17,6 +18,7 @@ public class FeederSubsystem extends SubsystemBase implements Glassy {
     // this uses PWMSparkMax instead of PWM to get MotorSafety.
     private final PWMSparkMax feedRoller;
     private final SensorInterface m_sensors;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
 
     // LOGGERS
     private final DoubleLogger m_log_speed;
@@ -63,7 +65,9 @@ public class FeederSubsystem extends SubsystemBase implements Glassy {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         m_log_speed.log(feedRoller::get);
+        m_timer.stop(startNs);
     }
 
 }
@@ -1,5 +1,7 @@
 package org.team100.frc2024.motion;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.follower.DriveTrajectoryFollower;
 import org.team100.lib.logging.Level;
@@ -9,6 +11,7 @@ import org.team100.lib.logging.LoggerFactory.ChassisSpeedsLogger;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.logging.LoggerFactory.Pose2dLogger;
 import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.trajectory.TrajectoryTimeSampler;
@@ -23,6 +26,9 @@ import edu.wpi.first.wpilibj2.command.Command;
  * Follow a fixed trajectory, using the new 254-derived trajectory and follower
  * types.
  * 
+ * The trajectory may still be planning when the command starts; until it's
+ * ready, the robot holds still.
+ * 
  * This is an experiment.
  */
 public class TrajectoryCommand100 extends Command implements Glassy  {
@@ -47,35 +53,59 @@ public class TrajectoryCommand100 extends Command implements Glassy  {
     private final Log m_log;
     private final SwerveDriveSubsystem m_robotDrive;
     private final DriveTrajectoryFollower m_controller;
-    private final Trajectory100 m_trajectory;
-    private final Pose2d m_goal;
+    private final CompletableFuture<Trajectory100> m_future;
     private final TrajectoryVisualization m_viz;
 
+    /** Null until planning is done. */
+    private Trajectory100 m_trajectory;
+    private Pose2d m_goal;
+
     public TrajectoryCommand100(
             Log log,
             SwerveDriveSubsystem robotDrive,
             Trajectory100 trajectory,
             DriveTrajectoryFollower controller,
             TrajectoryVisualization viz) {
+        this(log, robotDrive, CompletableFuture.completedFuture(trajectory), controller, viz);
+    }
+
+    /** Use AsyncTrajectoryPlanner to make the future. */
+    public TrajectoryCommand100(
+            Log log,
+            SwerveDriveSubsystem robotDrive,
+            CompletableFuture<Trajectory100> trajectory,
+            DriveTrajectoryFollower controller,
+            TrajectoryVisualization viz) {
         m_log = log;
         m_robotDrive = robotDrive;
-        m_trajectory = trajectory;
+        m_future = trajectory;
         m_controller = controller;
-        m_goal = m_trajectory.getLastPoint().state().state().getPose();
         m_viz = viz;
-        log.m_log_goal.log(() -> m_goal);
         addRequirements(m_robotDrive);
     }
 
     @Override
     public void initialize() {
-        m_viz.setViz(m_trajectory);
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(new TrajectoryTimeSampler(m_trajectory));
-        m_controller.setTrajectory(iter);
+        m_trajectory = AsyncTrajectoryPlanner.getNow(m_future);
+        if (m_trajectory != null)
+            start(m_trajectory);
     }
 
     @Override
     public void execute() {
+        if (m_trajectory == null) {
+            m_trajectory = AsyncTrajectoryPlanner.getNow(m_future);
+            if (m_trajectory == null) {
+                // still planning
+                m_robotDrive.stop();
+                return;
+            }
+            start(m_trajectory);
+        }
+        if (m_trajectory.isEmpty()) {
+            m_robotDrive.stop();
+            return;
+        }
         final double now = Timer.getFPGATimestamp();
         Pose2d currentPose = m_robotDrive.getPose();
         ChassisSpeeds currentRobotRelativeSpeed = m_robotDrive.getChassisSpeeds();
@@ -92,6 +122,10 @@ public class TrajectoryCommand100 extends Command implements Glassy  {
 
     @Override
     public boolean isFinished() {
+        if (m_trajectory == null)
+            return false;
+        if (m_trajectory.isEmpty())
+            return true;
         return m_controller.isDone();
     }
 
@@ -101,4 +135,17 @@ public class TrajectoryCommand100 extends Command implements Glassy  {
         m_robotDrive.stop();
         m_viz.clear();
     }
+
+    ////////////////////////////////////////////////////
+
+    /** The plan is ready, so start following it. */
+    private void start(Trajectory100 trajectory) {
+        m_viz.setViz(trajectory);
+        if (trajectory.isEmpty())
+            return;
+        m_goal = trajectory.getLastPoint().state().state().getPose();
+        m_log.m_log_goal.log(() -> m_goal);
+        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(new TrajectoryTimeSampler(trajectory));
+        m_controller.setTrajectory(iter);
+    }
 }
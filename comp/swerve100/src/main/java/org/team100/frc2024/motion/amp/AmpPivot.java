@@ -12,6 +12,7 @@ import org.team100.lib.encoder.EncoderDrive;
 import org.team100.lib.encoder.RotaryPositionSensor;
 import org.team100.lib.encoder.SimulatedBareEncoder;
 import org.team100.lib.encoder.SimulatedRotaryPositionSensor;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.motion.mechanism.RotaryMechanism;
@@ -56,6 +57,7 @@ public class AmpPivot extends SubsystemBase implements Glassy {
     private static final double kGearRatio = 70;
 
     private final GravityServoInterface m_ampAngleServo;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
 
     private Profile100 m_activeProfile = new NullProfile();
 
@@ -146,7 +148,9 @@ public class AmpPivot extends SubsystemBase implements Glassy {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         m_ampAngleServo.periodic();
+        m_timer.stop(startNs);
     }
 
 }
@@ -6,6 +6,7 @@ import org.team100.lib.config.PIDConstants;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.encoder.CANSparkEncoder;
 import org.team100.lib.encoder.SimulatedBareEncoder;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.motor.MotorPhase;
 import org.team100.lib.motor.NeoVortexCANSparkMotor;
 import org.team100.lib.motor.SimulatedBareMotor;
@@ -88,6 +89,7 @@ public class ClimberSubsystem extends SubsystemBase implements Glassy {
 
     private final LinearPositionServo m_leftServo;
     private final LinearPositionServo m_rightServo;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
 
     // LOGGERS
     private final OptionalDoubleLogger m_log_left_position;
@@ -209,11 +211,13 @@ public class ClimberSubsystem extends SubsystemBase implements Glassy {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         m_left.periodic();
         m_right.periodic();
         m_log_left_position.log(m_left::getPositionM);
         m_log_right_position.log(m_right::getPositionM);
         m_log_left_velocity.log(m_left::getVelocityM_S);
         m_log_right_velocity.log(m_right::getVelocityM_S);
+        m_timer.stop(startNs);
     }
 }
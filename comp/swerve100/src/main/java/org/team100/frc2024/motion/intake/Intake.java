@@ -5,6 +5,7 @@ import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.Identity;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -30,6 +31,7 @@ public class Intake extends SubsystemBase implements Glassy {
     private final PWMSparkMax m_intake;
     private final PWMSparkMax m_centering;
     private final LimitedLinearVelocityServo superRollers;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
 
     // LOGGERS
     private final DoubleLogger m_log_lower;
@@ -135,8 +137,10 @@ public class Intake extends SubsystemBase implements Glassy {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         m_log_lower.log(m_intake::get);
         m_log_upper.log(superRollers::getVelocity);
         m_log_centering.log(m_centering::get);
+        m_timer.stop(startNs);
     }
 }
@@ -12,6 +12,7 @@ import org.team100.lib.encoder.EncoderDrive;
 import org.team100.lib.encoder.SimulatedBareEncoder;
 import org.team100.lib.encoder.SimulatedRotaryPositionSensor;
 import org.team100.lib.encoder.Talon6Encoder;
+import org.team100.lib.framework.LoopProfiler;
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
@@ -73,6 +74,7 @@ public class DrumShooter extends SubsystemBase implements Glassy {
     private final LinearVelocityServo leftRoller;
     private final LinearVelocityServo rightRoller;
     private final GravityServoInterface pivotServo;
+    private final LoopProfiler.Section m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
 
     // LOGGERS
 
@@ -328,11 +330,13 @@ public class DrumShooter extends SubsystemBase implements Glassy {
 
     @Override
     public void periodic() {
+        long startNs = m_timer.start();
         leftRoller.periodic();
         rightRoller.periodic();
         pivotServo.periodic();
         m_log_left_velocity.log(leftRoller::getVelocity);
         m_log_right_velocity.log(rightRoller::getVelocity);
         m_log_pivot_angle.log(pivotServo::getPositionRad);
+        m_timer.stop(startNs);
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import org.team100.frc2024.MockSensors;
 import org.team100.frc2024.SensorInterface;
 import org.team100.frc2024.motion.intake.Intake;
 import org.team100.frc2024.motion.shooter.DrumShooter;
+import org.team100.lib.config.Identity;
 import org.team100.lib.controller.drivetrain.HolonomicFieldRelativeController;
 import org.team100.lib.follower.DrivePIDFFollower;
 import org.team100.lib.follower.DriveTrajectoryFollower;
@@ -24,6 +25,9 @@ import org.team100.lib.motion.drivetrain.module.SwerveModuleCollection;
 import org.team100.lib.sensors.Gyro;
 import org.team100.lib.sensors.SimulatedGyro;
 import org.team100.lib.swerve.AsymSwerveSetpointGenerator;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectoryCache;
+import org.team100.lib.trajectory.TrajectoryMemo;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
@@ -39,13 +43,30 @@ class AutoMakerTest {
     public HolonomicFieldRelativeController controller;
     public LoggerFactory logger;
     public LoggerFactory fieldLogger;
+    public SensorInterface sensors;
 
     @Test
     void testAll() {
+        makeAll(autoMaker(SwerveKinodynamicsFactory.forTest()));
+    }
+
+    /**
+     * Fills the trajectory cache in src/main/deploy, using the comp bot limits.
+     * This does nothing unless the cache is writable; use the "trajectoryCache"
+     * task.
+     */
+    @Test
+    void populateTrajectoryCache() {
+        if (!Boolean.getBoolean(TrajectoryCache.kWriteProperty))
+            return;
+        makeAll(autoMaker(SwerveKinodynamicsFactory.get(Identity.COMP_BOT)));
+        AsyncTrajectoryPlanner.get().drain();
+    }
 
+    private AutoMaker autoMaker(SwerveKinodynamics kinodynamics) {
         logger = new TestLoggerFactory(new TestPrimitiveLogger());
         fieldLogger = new TestLoggerFactory(new TestPrimitiveLogger());
-        swerveKinodynamics = SwerveKinodynamicsFactory.forTest();
+        swerveKinodynamics = kinodynamics;
         collection = SwerveModuleCollection.get(logger, 10, 20, swerveKinodynamics);
         gyro = new SimulatedGyro(swerveKinodynamics, collection);
         final AsymSwerveSetpointGenerator setpointGenerator = new AsymSwerveSetpointGenerator(
@@ -82,14 +103,14 @@ class AutoMakerTest {
 
         var m_shooter = new DrumShooter(logger, 3, 13, 27, 58, 100);
 
-        SensorInterface m_sensors = new MockSensors();
-        final FeederSubsystem feeder = new FeederSubsystem(logger, m_sensors);
+        sensors = new MockSensors();
+        final FeederSubsystem feeder = new FeederSubsystem(logger, sensors);
 
-        Intake intake = new Intake(logger, m_sensors);
+        Intake intake = new Intake(logger, sensors);
 
         final TrajectoryVisualization viz = new TrajectoryVisualization(logger);
 
-        AutoMaker m_AutoMaker = new AutoMaker(
+        return new AutoMaker(
                 logger,
                 drive,
                 driveControllerFactory,
@@ -98,12 +119,15 @@ class AutoMakerTest {
                 feeder,
                 m_shooter,
                 intake,
-                m_sensors,
+                sensors,
                 swerveKinodynamics,
-                viz);
+                viz,
+                new TrajectoryMemo(logger, 32, TrajectoryCache.get()));
+    }
 
-        m_AutoMaker.fourNoteAuto(Alliance.Red, m_sensors);
-        m_AutoMaker.fourNoteAuto(Alliance.Blue, m_sensors);
+    private void makeAll(AutoMaker m_AutoMaker) {
+        m_AutoMaker.fourNoteAuto(Alliance.Red, sensors);
+        m_AutoMaker.fourNoteAuto(Alliance.Blue, sensors);
         m_AutoMaker.citrus(Alliance.Red);
         m_AutoMaker.citrus(Alliance.Blue);
         m_AutoMaker.citrusv2(Alliance.Red);
@@ -115,7 +139,6 @@ class AutoMakerTest {
 
         m_AutoMaker.eightNoteAuto(Alliance.Red);
         m_AutoMaker.eightNoteAuto(Alliance.Blue);
-
     }
 
 }
@@ -5,9 +5,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.team100.lib.util.Util;
 
@@ -31,29 +29,7 @@ public class ExecutorAsync implements Async {
 
     ExecutorAsync() {
         m_scheduler = Executors.newSingleThreadScheduledExecutor(
-                new MinPriorityThreads());
-    }
-
-    private static class MinPriorityThreads implements ThreadFactory {
-        private final AtomicInteger id;
-
-        private MinPriorityThreads() {
-            id = new AtomicInteger();
-        }
-
-        /**
-         * Should only ever be called once but just in case, there's an incrementing
-         * id so we can tell what's happening.
-         */
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r);
-            thread.setPriority(1);
-            thread.setDaemon(true);
-            thread.setName("Async Thread " + id.getAndIncrement());
-            return thread;
-        }
-
+                new MinPriorityThreads("Async Thread"));
     }
 
     private static class CrashWrapper implements Runnable {
@@ -0,0 +1,31 @@
+package org.team100.lib.async;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Makes daemon threads at the lowest priority, for work that shouldn't compete
+ * with the main loop.
+ */
+public class MinPriorityThreads implements ThreadFactory {
+    private final String m_name;
+    private final AtomicInteger id;
+
+    public MinPriorityThreads(String name) {
+        m_name = name;
+        id = new AtomicInteger();
+    }
+
+    /**
+     * Single-threaded executors should only call this once but just in case,
+     * there's an incrementing id so we can tell what's happening.
+     */
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r);
+        thread.setPriority(1);
+        thread.setDaemon(true);
+        thread.setName(m_name + " " + id.getAndIncrement());
+        return thread;
+    }
+}
@@ -11,6 +11,8 @@ import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.timing.ConstantConstraint;
 import org.team100.lib.trajectory.StraightLineTrajectory;
 import org.team100.lib.trajectory.TrajectoryMaker;
+import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectorySource;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -31,8 +33,19 @@ public class FullCycle extends SequentialCommandGroup implements Glassy {
             SwerveDriveSubsystem drivetrain,
             HolonomicFieldRelativeController controller,
             TrajectoryVisualization viz) {
+        this(parent, drivetrain, controller, viz, TrajectoryPlanner::generateTrajectory);
+    }
+
+    /** Use a TrajectoryMemo as the source to avoid replanning. */
+    public FullCycle(
+            LoggerFactory parent,
+            SwerveDriveSubsystem drivetrain,
+            HolonomicFieldRelativeController controller,
+            TrajectoryVisualization viz,
+            TrajectorySource source) {
         DriveToWaypoint3.Log log = new DriveToWaypoint3.Log(parent.child(this));
-        TrajectoryMaker tmaker = new TrajectoryMaker(List.of(new ConstantConstraint(maxVelocityM_S, maxAccelM_S_S)));
+        TrajectoryMaker tmaker = new TrajectoryMaker(
+                List.of(new ConstantConstraint(maxVelocityM_S, maxAccelM_S_S)), source);
         StraightLineTrajectory maker = new StraightLineTrajectory(true, tmaker);
         // for now just drive back and forth.
         addCommands(
@@ -1,6 +1,7 @@
 package org.team100.lib.commands.drivetrain;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.follower.DriveTrajectoryFollower;
@@ -11,8 +12,8 @@ import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
 import org.team100.lib.trajectory.Trajectory100;
-import org.team100.lib.trajectory.TrajectoryPlanner;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.trajectory.TrajectoryTimeSampler;
 import org.team100.lib.util.DriveUtil;
@@ -28,12 +29,16 @@ import edu.wpi.first.wpilibj2.command.Command;
 /**
  * A copy of DriveToWaypoint to explore the new holonomic trajectory classes we
  * cribbed from 254.
+ * 
+ * The trajectory is planned in the background; until it's ready, the robot
+ * holds still.
  */
 public class DriveToWaypoint100 extends Command implements Glassy {
     private final Pose2d m_goal;
     private final SwerveDriveSubsystem m_swerve;
     private final DriveTrajectoryFollower m_controller;
     private final List<TimingConstraint> m_constraints;
+    private final AsyncTrajectoryPlanner m_planner;
 
     private final double m_timeBuffer;
     private final TrajectoryVisualization m_viz;
@@ -42,7 +47,9 @@ public class DriveToWaypoint100 extends Command implements Glassy {
     // LOGGERS
     private final ChassisSpeedsLogger m_log_chassis_speeds;
 
-    private Trajectory100 m_trajectory = new Trajectory100();
+    private CompletableFuture<Trajectory100> m_future;
+    /** Null until planning is done. */
+    private Trajectory100 m_trajectory;
 
     public DriveToWaypoint100(
             LoggerFactory parent,
@@ -52,6 +59,19 @@ public class DriveToWaypoint100 extends Command implements Glassy {
             SwerveKinodynamics swerveKinodynamics,
             double timeBuffer,
             TrajectoryVisualization viz) {
+        this(parent, goal, drivetrain, controller, swerveKinodynamics, timeBuffer, viz,
+                AsyncTrajectoryPlanner.get());
+    }
+
+    public DriveToWaypoint100(
+            LoggerFactory parent,
+            Pose2d goal,
+            SwerveDriveSubsystem drivetrain,
+            DriveTrajectoryFollower controller,
+            SwerveKinodynamics swerveKinodynamics,
+            double timeBuffer,
+            TrajectoryVisualization viz,
+            AsyncTrajectoryPlanner planner) {
         LoggerFactory child = parent.child(this);
         m_log_chassis_speeds = child.chassisSpeedsLogger(Level.TRACE, "chassis speeds");
         m_goal = goal;
@@ -60,6 +80,7 @@ public class DriveToWaypoint100 extends Command implements Glassy {
         m_constraints = new TimingConstraintFactory(swerveKinodynamics).allGood();
         m_timeBuffer = timeBuffer;
         m_viz = viz;
+        m_planner = planner;
         addRequirements(m_swerve);
     }
 
@@ -67,31 +88,32 @@ public class DriveToWaypoint100 extends Command implements Glassy {
     public void initialize() {
         final Pose2d start = m_swerve.getPose();
         Pose2d end = m_goal;
-        m_timer.reset();
-        m_timer.start();
 
         List<Pose2d> waypointsM = getWaypoints(start, end);
         List<Rotation2d> headings = List.of(start.getRotation(), end.getRotation());
 
-        m_trajectory = TrajectoryPlanner.restToRest(
+        m_trajectory = null;
+        m_future = m_planner.restToRest(
                 waypointsM,
                 headings,
                 m_constraints);
-
-        m_viz.setViz(m_trajectory);
-
-        if (m_trajectory.isEmpty()) {
-            end(false);
-            return;
-        }
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(
-                new TrajectoryTimeSampler(m_trajectory));
-
-        m_controller.setTrajectory(iter);
     }
 
     @Override
     public void execute() {
+        if (m_trajectory == null) {
+            m_trajectory = AsyncTrajectoryPlanner.getNow(m_future);
+            if (m_trajectory == null) {
+                // still planning
+                m_swerve.stop();
+                return;
+            }
+            start(m_trajectory);
+        }
+        if (m_trajectory.isEmpty()) {
+            m_swerve.stop();
+            return;
+        }
         double now = Timer.getFPGATimestamp();
         Pose2d currentPose = m_swerve.getPose();
         ChassisSpeeds currentSpeed = m_swerve.getChassisSpeeds();
@@ -106,12 +128,18 @@ public class DriveToWaypoint100 extends Command implements Glassy {
 
     @Override
     public boolean isFinished() {
+        if (m_trajectory == null)
+            return false;
+        if (m_trajectory.isEmpty())
+            return true;
         // return m_controller.isDone();
         return m_timer.get() > m_trajectory.getLastPoint().state().getTimeS() + m_timeBuffer;
     }
 
     @Override
     public void end(boolean interrupted) {
+        if (m_future != null)
+            m_future.cancel(false);
         m_timer.stop();
         m_swerve.stop();
         m_viz.clear();
@@ -119,6 +147,18 @@ public class DriveToWaypoint100 extends Command implements Glassy {
 
     ////////////////////////////////////////////////////
 
+    /** The plan is ready, so start following it. */
+    private void start(Trajectory100 trajectory) {
+        m_viz.setViz(trajectory);
+        if (trajectory.isEmpty())
+            return;
+        m_timer.reset();
+        m_timer.start();
+        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(
+                new TrajectoryTimeSampler(trajectory));
+        m_controller.setTrajectory(iter);
+    }
+
     /** Waypoints where the rotation points in the direction of motion. */
     private static List<Pose2d> getWaypoints(Pose2d p0, Pose2d p1) {
         Translation2d t0 = p0.getTranslation();
@@ -2,6 +2,7 @@ package org.team100.lib.commands.drivetrain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import org.team100.lib.dashboard.Glassy;
@@ -13,8 +14,8 @@ import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
 import org.team100.lib.trajectory.Trajectory100;
-import org.team100.lib.trajectory.TrajectoryPlanner;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.trajectory.TrajectoryTimeSampler;
 import org.team100.lib.util.DriveUtil;
@@ -26,27 +27,47 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 
+/**
+ * Follows a trajectory through the waypoints, planned in the background; until
+ * it's ready, the robot holds still.
+ */
 public class DriveWithWaypoints extends Command implements Glassy {
     private final SwerveDriveSubsystem m_swerve;
     private final DriveTrajectoryFollower m_controller;
     private final List<TimingConstraint> constraints;
     private final Supplier<List<Pose2d>> m_goal;
+    private final AsyncTrajectoryPlanner m_planner;
 
     // LOGGERS
     private final ChassisSpeedsLogger m_log_chassis_speeds;
 
+    private CompletableFuture<Trajectory100> m_future;
+    /** Null until planning is done. */
+    private Trajectory100 m_trajectory;
+
     public DriveWithWaypoints(
             LoggerFactory parent,
             SwerveDriveSubsystem drivetrain,
             DriveTrajectoryFollower controller,
             SwerveKinodynamics limits,
             Supplier<List<Pose2d>> goal) {
+        this(parent, drivetrain, controller, limits, goal, AsyncTrajectoryPlanner.get());
+    }
+
+    public DriveWithWaypoints(
+            LoggerFactory parent,
+            SwerveDriveSubsystem drivetrain,
+            DriveTrajectoryFollower controller,
+            SwerveKinodynamics limits,
+            Supplier<List<Pose2d>> goal,
+            AsyncTrajectoryPlanner planner) {
         LoggerFactory child = parent.child(this);
         m_log_chassis_speeds = child.chassisSpeedsLogger(Level.TRACE, "chassis speeds");
         m_swerve = drivetrain;
         m_controller = controller;
         constraints = new TimingConstraintFactory(limits).fast();
         m_goal = goal;
+        m_planner = planner;
         addRequirements(m_swerve);
     }
 
@@ -63,15 +84,23 @@ public class DriveWithWaypoints extends Command implements Glassy {
 
         newWaypointM = getWaypointsList(newWaypointM);
 
-        Trajectory100 trajectory = TrajectoryPlanner.restToRest(newWaypointM, headings, constraints);
-
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(
-                new TrajectoryTimeSampler(trajectory));
-        m_controller.setTrajectory(iter);
+        m_trajectory = null;
+        m_future = m_planner.restToRest(newWaypointM, headings, constraints);
     }
 
     @Override
     public void execute() {
+        if (m_trajectory == null) {
+            m_trajectory = AsyncTrajectoryPlanner.getNow(m_future);
+            if (m_trajectory == null) {
+                // still planning
+                m_swerve.stop();
+                return;
+            }
+            TrajectoryTimeIterator iter = new TrajectoryTimeIterator(
+                    new TrajectoryTimeSampler(m_trajectory));
+            m_controller.setTrajectory(iter);
+        }
         double now = Timer.getFPGATimestamp();
         Pose2d currentPose = m_swerve.getPose();
         ChassisSpeeds currentSpeed = m_swerve.getChassisSpeeds();
@@ -83,11 +112,15 @@ public class DriveWithWaypoints extends Command implements Glassy {
 
     @Override
     public void end(boolean interrupted) {
+        if (m_future != null)
+            m_future.cancel(false);
         m_swerve.stop();
     }
 
     @Override
     public boolean isFinished() {
+        if (m_trajectory == null)
+            return false;
         return m_controller.isDone();
     }
 
@@ -9,6 +9,10 @@ import org.team100.lib.motor.BareMotor;
 
 import edu.wpi.first.wpilibj.Timer;
 
+/**
+ * Position is integrated from motor velocity, so it's synchronized, in case
+ * it's read by an odometry thread as well as the main loop.
+ */
 public class SimulatedBareEncoder implements IncrementalBareEncoder {
     private final BareMotor m_motor;
 
@@ -39,7 +43,7 @@ public class SimulatedBareEncoder implements IncrementalBareEncoder {
      * Derives position by integrating velocity over one time step.
      */
     @Override
-    public OptionalDouble getPositionRad() {
+    public synchronized OptionalDouble getPositionRad() {
         double now = Timer.getFPGATimestamp();
         double dt = now - m_time;
         double m_rate = m_motor.getVelocityRad_S();
@@ -49,7 +53,7 @@ public class SimulatedBareEncoder implements IncrementalBareEncoder {
     }
 
     @Override
-    public void reset() {
+    public synchronized void reset() {
         m_position = 0;
         m_time = Timer.getFPGATimestamp();
     }
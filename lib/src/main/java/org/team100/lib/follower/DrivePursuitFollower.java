@@ -1,7 +1,6 @@
 package org.team100.lib.follower;
 
 import java.util.Optional;
-import java.util.OptionalDouble;
 
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.geometry.Pose2dWithMotion;
@@ -15,10 +14,10 @@ import org.team100.lib.logging.LoggerFactory.Translation2dLogger;
 import org.team100.lib.logging.LoggerFactory.Twist2dLogger;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.timing.TimedPose;
+import org.team100.lib.trajectory.TrajectoryProjector;
 import org.team100.lib.trajectory.TrajectorySamplePoint;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.util.DriveUtil;
-import org.team100.lib.util.Math100;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -47,7 +46,6 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
     private static final double kPathMinLookaheadDistance = 12.0;
     private static final double kAdaptivePathMinLookaheadDistance = 0.1;
     private static final double kAdaptivePathMaxLookaheadDistance = 0.1;
-    private static final double kLookaheadSearchDt = 0.01;
     // 254 calls this "default cook"
     private static final double kMinSpeed = 0.5;
 
@@ -70,6 +68,7 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
     private Lookahead mSpeedLookahead = null;
 
     private TrajectoryTimeIterator m_iter;
+    private TrajectoryProjector m_projector;
     private boolean mIsReversed = false;
 
     /** Min speed is used at the start of a trajectory only. */
@@ -93,6 +92,7 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
     @Override
     public void setTrajectory(TrajectoryTimeIterator trajectory) {
         m_iter = trajectory;
+        m_projector = new TrajectoryProjector(trajectory.trajectory());
         useMinSpeed = true;
 
         for (int i = 0; i < trajectory.trajectory().length(); ++i) {
@@ -135,7 +135,12 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
         TimedPose mSetpoint = optionalSetpoint.get();
         m_log_setpoint.log(() -> mSetpoint);
 
-        double lookahead_time = kPathLookaheadTime;
+        double adaptive_lookahead_distance = mSpeedLookahead.getLookaheadForSpeed(mSetpoint.velocityM_S());
+
+        // Find the Point on the Trajectory that is Lookahead Distance Away,
+        // but at least the lookahead time away
+        double lookahead_time = Math.max(kPathLookaheadTime,
+                m_projector.ahead(adaptive_lookahead_distance) - m_iter.getProgress());
 
         Optional<TrajectorySamplePoint> preview = m_iter.preview(lookahead_time);
         if (!preview.isPresent()) {
@@ -147,20 +152,6 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
         m_log_lookahead.log(() -> preview.get().state());
 
         double actual_lookahead_distance = mSetpoint.state().distance(lookahead_state.state());
-        double adaptive_lookahead_distance = mSpeedLookahead.getLookaheadForSpeed(mSetpoint.velocityM_S());
-
-        // Find the Point on the Trajectory that is Lookahead Distance Away
-        while (actual_lookahead_distance < adaptive_lookahead_distance &&
-                m_iter.getRemainingProgress() > lookahead_time) {
-            lookahead_time += kLookaheadSearchDt;
-            Optional<TrajectorySamplePoint> preview2 = m_iter.preview(lookahead_time);
-            if (!preview2.isPresent()) {
-                Util.warn("No Preview2!");
-                return new ChassisSpeeds();
-            }
-            lookahead_state = preview2.get().state();
-            actual_lookahead_distance = mSetpoint.state().distance(lookahead_state.state());
-        }
 
         // If the Lookahead Point's Distance is less than the Lookahead Distance
         // transform it so it is the lookahead distance away
@@ -234,12 +225,9 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
      */
     Optional<TimedPose> getSetpoint(final Pose2d measuredPose) {
         // time to get to the trajectory point closest to the current pose
-        OptionalDouble previewQuantity = previewDt(m_iter, measuredPose);
-        if (!previewQuantity.isPresent()) {
-            return Optional.empty();
-        }
+        double previewQuantity = m_projector.project(measuredPose) - m_iter.getProgress();
 
-        Optional<TrajectorySamplePoint> sample_point = m_iter.advance(previewQuantity.getAsDouble());
+        Optional<TrajectorySamplePoint> sample_point = m_iter.advance(previewQuantity);
         if (!sample_point.isPresent()) {
             return Optional.empty();
         }
@@ -251,85 +239,4 @@ public class DrivePursuitFollower implements DriveTrajectoryFollower {
     public boolean isDone() {
         return m_iter != null && m_iter.isDone();
     }
-
-    /**
-     * Length of a constant-twist path between the current measured pose and a
-     * sample point.
-     */
-    private static double distance(Pose2d pose, TrajectorySamplePoint preview) {
-        Pose2d previewPose = preview.state().state().getPose();
-        return GeometryUtil.distance(previewPose, pose);
-    }
-
-    private static OptionalDouble initialDir(TrajectoryTimeIterator iter, Pose2d pose) {
-        Optional<TrajectorySamplePoint> fwdPreview = iter.preview(1.0);
-        if (!fwdPreview.isPresent()) {
-            return OptionalDouble.empty();
-        }
-        double fwd = distance(pose, fwdPreview.get());
-        Optional<TrajectorySamplePoint> revPreview = iter.preview(-1.0);
-        if (!revPreview.isPresent()) {
-            return OptionalDouble.empty();
-        }
-        double rev = distance(pose, revPreview.get());
-        // search the closer end first
-        return OptionalDouble.of(Math.signum(rev - fwd));
-    }
-
-    /**
-     * Find the preview time to reach the point on the trajectory closest to the
-     * given pose. This doesn't require that the given pose be on the trajectory at
-     * all, it just picks the nearest point.
-     * 
-     * NOTE: if the probe is at the end, we return a time that is past the end
-     * rather than the end arrival time.
-     * 
-     * @param iter
-     * @param pose probe pose
-     * @return preview time in seconds
-     */
-    static OptionalDouble previewDt(TrajectoryTimeIterator iter, Pose2d pose) {
-        OptionalDouble initialDir = initialDir(iter, pose);
-        if (!initialDir.isPresent())
-            return OptionalDouble.empty();
-        double dir = initialDir.getAsDouble();
-
-        double step = 1.0;
-        double dt = 0.0;
-        while (step > 0.001) {
-            Optional<TrajectorySamplePoint> dtPreview = iter.preview(dt);
-            if (!dtPreview.isPresent()) {
-                return OptionalDouble.empty();
-            }
-            if (Math100.epsilonEquals(distance(pose, dtPreview.get()), 0.0, 0.01))
-                break; // found the pose exactly
-            while (true) {
-                double probe = dt + step * dir;
-
-                Optional<TrajectorySamplePoint> probePreview = iter.preview(probe);
-                if (!probePreview.isPresent()) {
-                    return OptionalDouble.empty();
-                }
-                double probeDist = distance(pose, probePreview.get());
-
-                Optional<TrajectorySamplePoint> preview = iter.preview(dt);
-                if (!preview.isPresent()) {
-                    return OptionalDouble.empty();
-                }
-                double dtDist = distance(pose, preview.get());
-
-                if (probeDist < dtDist) {
-                    // probe is closer than current point, use the probe
-                    dt = probe;
-                } else {
-                    // probe is worse
-                    break;
-                }
-            }
-            // try the other way, slower
-            step /= 10.0;
-            dir *= -1;
-        }
-        return OptionalDouble.of(dt);
-    }
 }
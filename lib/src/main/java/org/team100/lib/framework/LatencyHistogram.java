@@ -0,0 +1,96 @@
+package org.team100.lib.framework;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-bucket latency histogram, HdrHistogram-style: linear below 32
+ * microseconds, then 32 buckets per power of two, so each bucket is within
+ * about 3% of the value. Everything lives in one primitive array, so recording
+ * is a shift, an add, and an increment, with no allocation.
+ *
+ * Values above about 16 seconds are clamped into the last bucket; the exact
+ * max is kept separately.
+ *
+ * Not thread-safe; record and read on the same thread.
+ */
+public class LatencyHistogram {
+    private static final int kSubBits = 5;
+    private static final int kSub = 1 << kSubBits;
+    /** Microseconds, exclusive. */
+    private static final long kLimitUs = 1L << 24;
+    private static final int kOctaves = 64 - Long.numberOfLeadingZeros(kLimitUs - 1) - kSubBits;
+    private static final int kBuckets = kSub + kOctaves * kSub;
+
+    private final long[] m_counts;
+    private long m_total;
+    private long m_maxNs;
+
+    public LatencyHistogram() {
+        m_counts = new long[kBuckets];
+    }
+
+    /** @param ns duration in nanoseconds, e.g. from System.nanoTime() */
+    public void record(long ns) {
+        if (ns < 0)
+            ns = 0;
+        m_counts[index(ns / 1000)]++;
+        m_total++;
+        if (ns > m_maxNs)
+            m_maxNs = ns;
+    }
+
+    /** Number of values recorded since the last reset. */
+    public long count() {
+        return m_total;
+    }
+
+    /** Largest value recorded since the last reset, in seconds. */
+    public double max() {
+        return m_maxNs * 1e-9;
+    }
+
+    /**
+     * The value below which the fraction p of the recorded values lie, in
+     * seconds. This is the top of the bucket, so it may be a little high, but
+     * never more than the max. Zero if empty.
+     *
+     * @param p in [0,1], e.g. 0.99
+     */
+    public double percentile(double p) {
+        if (m_total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * m_total));
+        long seen = 0;
+        for (int i = 0; i < kBuckets; ++i) {
+            seen += m_counts[i];
+            if (seen >= rank)
+                return Math.min(upperUs(i) * 1e-6, max());
+        }
+        return max();
+    }
+
+    public void reset() {
+        Arrays.fill(m_counts, 0);
+        m_total = 0;
+        m_maxNs = 0;
+    }
+
+    /** Bucket for a value in microseconds. */
+    static int index(long us) {
+        if (us >= kLimitUs)
+            us = kLimitUs - 1;
+        if (us < kSub)
+            return (int) us;
+        int shift = 63 - Long.numberOfLeadingZeros(us) - kSubBits;
+        return kSub + shift * kSub + (int) ((us >>> shift) & (kSub - 1));
+    }
+
+    /** Largest value in microseconds that falls in the bucket. */
+    static long upperUs(int index) {
+        if (index < kSub)
+            return index;
+        int shift = (index - kSub) / kSub;
+        long sub = (index - kSub) % kSub;
+        return ((kSub + sub + 1) << shift) - 1;
+    }
+}
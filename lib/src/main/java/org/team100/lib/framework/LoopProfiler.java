@@ -0,0 +1,239 @@
+package org.team100.lib.framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.LongLogger;
+import org.team100.lib.logging.LoggerFactory.StringLogger;
+import org.team100.lib.logging.Logging;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Loop timing, to find out what blows the 20 ms budget.
+ *
+ * Each timed thing is a Section, with a latency histogram and an overrun
+ * count. TimedRobot100 makes a section for each callback; anything else, e.g.
+ * a subsystem periodic(), can make its own:
+ *
+ * <pre>
+ * private final LoopProfiler.Section m_timer = LoopProfiler.instance().section("drive");
+ * ...
+ * long t0 = m_timer.start();
+ * // do stuff
+ * m_timer.stop(t0);
+ * </pre>
+ *
+ * WPILib doesn't have a hook around each subsystem periodic(), so subsystems
+ * opt in this way.
+ *
+ * Commands aren't timed individually either, so when the main loop overruns,
+ * the commands running at the time get the blame, and the worst few are
+ * published by name. An overrun also dumps the recent Trace spans, for a
+ * closer look.
+ *
+ * Summaries (p50, p99, max, overruns) are published about once a second, and
+ * the histograms start over, so each summary covers the last second.
+ *
+ * Everything here runs on the main thread.
+ */
+public class LoopProfiler implements Glassy {
+    /** Main loop cycles between summaries. */
+    private static final int kPublishPeriod = 50;
+    /** How many commands to publish. */
+    private static final int kWorst = 5;
+
+    private static final LoopProfiler instance = new LoopProfiler(Logging.instance().rootLogger);
+
+    private final LoggerFactory m_logger;
+    private final List<Section> m_sections;
+    /** Overrun blame for every command ever scheduled, by name. */
+    private final Map<String, Blame> m_blame;
+    private final List<Blame> m_running;
+    private final StringLogger[] m_log_worst;
+    private Section m_loop;
+    private int m_cycles;
+
+    LoopProfiler(LoggerFactory parent) {
+        m_logger = parent.child(this);
+        m_sections = new ArrayList<>();
+        m_blame = new HashMap<>();
+        m_running = new ArrayList<>();
+        m_log_worst = new StringLogger[kWorst];
+        for (int i = 0; i < kWorst; ++i) {
+            m_log_worst[i] = m_logger.stringLogger(Level.COMP, "worst commands/" + i);
+        }
+    }
+
+    /** A section without a budget, so it never overruns. */
+    public Section section(String name) {
+        return section(name, 0);
+    }
+
+    /**
+     * Sections are shared by name, so making the same one again, e.g. in tests,
+     * doesn't add another.
+     *
+     * @param budgetS longer than this is an overrun, zero for no budget
+     */
+    public Section section(String name, double budgetS) {
+        for (int i = 0; i < m_sections.size(); ++i) {
+            Section section = m_sections.get(i);
+            if (section.m_name.equals(name))
+                return section;
+        }
+        Section section = new Section(m_logger.child(name), name, budgetS);
+        m_sections.add(section);
+        return section;
+    }
+
+    /**
+     * The main loop section: its overruns are blamed on the running commands,
+     * and it sets the pace for the summaries.
+     */
+    public Section loop(String name, double budgetS) {
+        m_loop = section(name, budgetS);
+        return m_loop;
+    }
+
+    /** Keep track of which commands are running. */
+    public void watch(CommandScheduler scheduler) {
+        scheduler.onCommandInitialize(this::started);
+        scheduler.onCommandFinish(this::ended);
+        scheduler.onCommandInterrupt(this::ended);
+    }
+
+    private void started(Command command) {
+        started(command.getName());
+    }
+
+    private void ended(Command command) {
+        ended(command.getName());
+    }
+
+    void started(String name) {
+        m_running.add(m_blame.computeIfAbsent(name, Blame::new));
+    }
+
+    void ended(String name) {
+        m_running.remove(m_blame.get(name));
+    }
+
+    /** Commands with the most overruns, worst first, at most kWorst. */
+    List<Blame> worst() {
+        List<Blame> all = new ArrayList<>();
+        for (Blame b : m_blame.values()) {
+            if (b.m_overruns > 0)
+                all.add(b);
+        }
+        all.sort((a, b) -> Long.compare(b.m_overruns, a.m_overruns));
+        return all.subList(0, Math.min(kWorst, all.size()));
+    }
+
+    private void blame(long ns) {
+        for (int i = 0; i < m_running.size(); ++i) {
+            Blame b = m_running.get(i);
+            b.m_overruns++;
+            if (ns > b.m_maxNs)
+                b.m_maxNs = ns;
+        }
+    }
+
+    private void cycle() {
+        if (++m_cycles < kPublishPeriod)
+            return;
+        m_cycles = 0;
+        for (int i = 0; i < m_sections.size(); ++i) {
+            m_sections.get(i).publish();
+        }
+        List<Blame> worst = worst();
+        for (int i = 0; i < worst.size(); ++i) {
+            Blame b = worst.get(i);
+            m_log_worst[i].log(() -> String.format("%s: %d overruns, max %.1f ms",
+                    b.m_name, b.m_overruns, b.m_maxNs * 1e-6));
+        }
+    }
+
+    public static LoopProfiler instance() {
+        return instance;
+    }
+
+    /** Overruns of the main loop while the command was running. */
+    static class Blame {
+        final String m_name;
+        long m_overruns;
+        long m_maxNs;
+
+        Blame(String name) {
+            m_name = name;
+        }
+    }
+
+    public class Section {
+        private final String m_name;
+        private final LatencyHistogram m_histogram;
+        private final long m_budgetNs;
+        /** Since startup, not reset by publish(). */
+        private long m_overruns;
+        // LOGGERS
+        private final DoubleLogger m_log_p50;
+        private final DoubleLogger m_log_p99;
+        private final DoubleLogger m_log_max;
+        private final LongLogger m_log_overruns;
+
+        Section(LoggerFactory logger, String name, double budgetS) {
+            m_name = name;
+            m_histogram = new LatencyHistogram();
+            m_budgetNs = (long) (budgetS * 1e9);
+            m_log_p50 = logger.doubleLogger(Level.COMP, "p50 (s)");
+            m_log_p99 = logger.doubleLogger(Level.COMP, "p99 (s)");
+            m_log_max = logger.doubleLogger(Level.COMP, "max (s)");
+            m_log_overruns = logger.longLogger(Level.COMP, "overruns");
+        }
+
+        /** @return the start time, to pass to stop() */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /** @param startNs from start() */
+        public void stop(long startNs) {
+            record(System.nanoTime() - startNs);
+        }
+
+        public void record(long ns) {
+            m_histogram.record(ns);
+            boolean overrun = m_budgetNs > 0 && ns > m_budgetNs;
+            if (overrun)
+                m_overruns++;
+            if (this != m_loop)
+                return;
+            if (overrun) {
+                blame(ns);
+                Trace.overrun();
+            }
+            cycle();
+        }
+
+        public long overruns() {
+            return m_overruns;
+        }
+
+        private void publish() {
+            if (m_histogram.count() == 0)
+                return;
+            m_log_p50.log(m_histogram.percentile(0.5));
+            m_log_p99.log(m_histogram.percentile(0.99));
+            m_log_max.log(m_histogram.max());
+            m_log_overruns.log(m_overruns);
+            m_histogram.reset();
+        }
+    }
+}
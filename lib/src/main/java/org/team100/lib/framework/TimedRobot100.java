@@ -19,6 +19,8 @@ import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 /**
  * Copy of {@link edu.wpi.first.wpilibj.TimedRobot} in an effort to improve
  * instrumentation.
+ *
+ * Each callback is timed by the LoopProfiler, with the period as its budget.
  */
 public class TimedRobot100 extends IterativeRobotBase implements Glassy {
 
@@ -27,6 +29,7 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
         public double period;
         public double expirationTime;
         public DoubleLogger logger;
+        public LoopProfiler.Section section;
 
         /**
          * Construct a callback container.
@@ -37,9 +40,10 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
          * @param periodSeconds    The period at which to run the callback in seconds.
          * @param offsetSeconds    The offset from the common starting time in seconds.
          * @param name             for logging
+         * @param section          for timing
          */
         Callback(LoggerFactory logger, Runnable func, double startTimeSeconds, double periodSeconds,
-                double offsetSeconds, String name) {
+                double offsetSeconds, String name, LoopProfiler.Section section) {
             this.func = func;
             this.period = periodSeconds;
             this.expirationTime = startTimeSeconds
@@ -48,16 +52,15 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
                             * this.period
                     + this.period;
             this.logger = logger.doubleLogger(Level.COMP, "duration (s)/" + name);
+            this.section = section;
         }
 
         public void run() {
-
-            double startWaitingS = Timer.getFPGATimestamp();
+            long startNs = System.nanoTime();
             func.run();
-            double endWaitingS = Timer.getFPGATimestamp();
-            double durationS = endWaitingS - startWaitingS;
-            this.logger.log(() -> durationS);
-
+            long durationNs = System.nanoTime() - startNs;
+            this.logger.log(durationNs * 1e-9);
+            this.section.record(durationNs);
         }
 
         @Override
@@ -105,7 +108,8 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
         m_robotLogger = Logging.instance().rootLogger.child(this);
         m_log_slack = m_robotLogger.doubleLogger(Level.COMP, "slack time (s)");
         m_startTime = Timer.getFPGATimestamp();
-        addPeriodic(this::loopFunc, TimedRobot100.LOOP_PERIOD_S, "main loop");
+        m_callbacks.add(new Callback(m_robotLogger, this::loopFunc, m_startTime, LOOP_PERIOD_S, 0.0, "main loop",
+                LoopProfiler.instance().loop("main loop", LOOP_PERIOD_S)));
         NotifierJNI.setNotifierName(m_notifier, "TimedRobot");
         HAL.report(tResourceType.kResourceType_Framework, tInstances.kFramework_Timed);
     }
@@ -148,7 +152,7 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
             double endWaitingS = Timer.getFPGATimestamp();
             double slackS = endWaitingS - startWaitingS;
             // this is the main loop slack, don't let it go to zero!
-            m_log_slack.log(() -> slackS);
+            m_log_slack.log(slackS);
 
             callback.run();
 
@@ -187,7 +191,7 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
      * @param periodSeconds The period at which to run the callback in seconds.
      */
     public final void addPeriodic(Runnable callback, double periodSeconds, String name) {
-        m_callbacks.add(new Callback(m_robotLogger, callback, m_startTime, periodSeconds, 0.0, name));
+        addPeriodic(callback, periodSeconds, 0.0, name);
     }
 
     /**
@@ -206,7 +210,8 @@ public class TimedRobot100 extends IterativeRobotBase implements Glassy {
      *                      to TimedRobot.
      */
     public final void addPeriodic(Runnable callback, double periodSeconds, double offsetSeconds, String name) {
-        m_callbacks.add(new Callback(m_robotLogger, callback, m_startTime, periodSeconds, offsetSeconds, name));
+        m_callbacks.add(new Callback(m_robotLogger, callback, m_startTime, periodSeconds, offsetSeconds, name,
+                LoopProfiler.instance().section(name, periodSeconds)));
     }
 
 }
@@ -0,0 +1,264 @@
+package org.team100.lib.framework;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.team100.lib.async.MinPriorityThreads;
+import org.team100.lib.util.Util;
+
+/**
+ * Hot-path tracing, for timing inside the loop.
+ *
+ * <pre>
+ * Trace.begin("swerve/setpoint");
+ * try {
+ *     // do stuff
+ * } finally {
+ *     Trace.end();
+ * }
+ * </pre>
+ *
+ * Spans go into a ring buffer for each thread, preallocated on the first
+ * begin(), so after that tracing doesn't allocate: it's two nanoTime() calls
+ * and a few array stores. The name should be a constant, since the ring keeps
+ * the reference.
+ *
+ * Use dump() to write the recent spans as a Chrome trace JSON file, which
+ * https://ui.perfetto.dev or chrome://tracing can show. LoopProfiler also asks
+ * for a dump, in the background, when the main loop overruns, at most every
+ * few seconds, into the directory given to setDirectory().
+ *
+ * Dumping reads the rings while their threads keep writing, so spans that get
+ * overwritten during the dump are left out, and a span that ends during the
+ * dump may be missing.
+ */
+public class Trace {
+    private static final boolean ENABLED = true;
+    /** Spans per thread, a power of two. */
+    private static final int kCapacity = 1 << 14;
+    private static final int kMask = kCapacity - 1;
+    /** Deeper spans are ignored. */
+    private static final int kMaxDepth = 32;
+    /** Overrun dumps happen at most this often, */
+    private static final long kDumpIntervalNs = 10_000_000_000L;
+    /** and at most this many times, so they don't fill the disk. */
+    private static final int kMaxDumps = 20;
+
+    /** Trace time zero, so the timestamps are small. */
+    private static final long kStartNs = System.nanoTime();
+
+    private static final List<Ring> m_rings = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Ring> m_ring = ThreadLocal.withInitial(Trace::newRing);
+    private static final Executor m_executor = Executors.newSingleThreadExecutor(
+            new MinPriorityThreads("Trace Dump"));
+
+    private static volatile Path m_dir = Path.of(System.getProperty("java.io.tmpdir"));
+    private static long m_lastDumpNs;
+    private static int m_dumps;
+
+    private Trace() {
+        //
+    }
+
+    /** Start a span; there must be a matching end() on the same thread. */
+    public static void begin(String name) {
+        if (!ENABLED)
+            return;
+        m_ring.get().begin(name);
+    }
+
+    /** End the most recent open span. */
+    public static void end() {
+        if (!ENABLED)
+            return;
+        m_ring.get().end();
+    }
+
+    /** Where overrun dumps go. */
+    public static void setDirectory(Path dir) {
+        m_dir = dir;
+    }
+
+    /** Write the recent spans of all threads, now, on the calling thread. */
+    public static void dump(Path file) throws IOException {
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (Ring ring : m_rings) {
+                first = ring.write(w, first);
+            }
+            w.write("\n]}\n");
+        }
+    }
+
+    /**
+     * The main loop overran; dump in the background, if it's been a while
+     * since the last one. Call this from the main thread.
+     */
+    static void overrun() {
+        if (!ENABLED)
+            return;
+        long now = System.nanoTime();
+        if (m_dumps >= kMaxDumps || (m_dumps > 0 && now - m_lastDumpNs < kDumpIntervalNs))
+            return;
+        m_lastDumpNs = now;
+        m_dumps++;
+        Path file = m_dir.resolve("trace_" + System.currentTimeMillis() + ".json");
+        m_executor.execute(() -> {
+            try {
+                Files.createDirectories(file.getParent());
+                dump(file);
+                Util.printf("Wrote trace %s\n", file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private static Ring newRing() {
+        Thread thread = Thread.currentThread();
+        Ring ring = new Ring(thread.getName(), thread.getId());
+        m_rings.add(ring);
+        return ring;
+    }
+
+    /**
+     * One thread's spans. Only the owner thread writes. The head is published
+     * before the slot is overwritten, like a seqlock, so a dumper that reads a
+     * slot and then sees that the head has moved a full lap past it knows the
+     * slot may be torn.
+     */
+    static class Ring {
+        private final String m_thread;
+        private final long m_tid;
+        private final String[] m_names;
+        private final long[] m_begin;
+        /** Zero means still open. */
+        private final long[] m_end;
+        /** Sequence numbers of the open spans. */
+        private final long[] m_open;
+        private final AtomicLong m_head;
+        /** Owner's copy of the head. */
+        private long m_next;
+        private int m_depth;
+
+        Ring(String thread, long tid) {
+            m_thread = thread;
+            m_tid = tid;
+            m_names = new String[kCapacity];
+            m_begin = new long[kCapacity];
+            m_end = new long[kCapacity];
+            m_open = new long[kMaxDepth];
+            m_head = new AtomicLong();
+        }
+
+        void begin(String name) {
+            if (m_depth++ >= kMaxDepth)
+                return;
+            long seq = m_next++;
+            m_head.lazySet(m_next);
+            // the slot writes must not move ahead of the head.
+            VarHandle.storeStoreFence();
+            int i = (int) (seq & kMask);
+            m_names[i] = name;
+            m_end[i] = 0;
+            m_begin[i] = System.nanoTime();
+            m_open[m_depth - 1] = seq;
+        }
+
+        void end() {
+            if (m_depth == 0) {
+                // unbalanced, ignore it.
+                return;
+            }
+            if (--m_depth >= kMaxDepth)
+                return;
+            long seq = m_open[m_depth];
+            if (m_next - seq > kCapacity) {
+                // overwritten while open
+                return;
+            }
+            m_end[(int) (seq & kMask)] = System.nanoTime();
+        }
+
+        /** Closed spans only, oldest first. */
+        boolean write(Writer w, boolean first) throws IOException {
+            long head = m_head.get();
+            long from = Math.max(0, head - kCapacity);
+            StringBuilder b = new StringBuilder();
+            if (!first)
+                b.append(",\n");
+            b.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(m_tid)
+                    .append(",\"args\":{\"name\":\"");
+            escape(b, m_thread);
+            b.append("\"}}");
+            w.append(b);
+            long prevBegin = Long.MIN_VALUE;
+            for (long seq = from; seq < head; ++seq) {
+                int i = (int) (seq & kMask);
+                String name = m_names[i];
+                long begin = m_begin[i];
+                long end = m_end[i];
+                // the slot reads must not move after the head read.
+                VarHandle.loadLoadFence();
+                // the owner may have lapped us while we were reading.
+                if (seq < m_head.get() - kCapacity)
+                    continue;
+                // the newest slot may still hold the span from a lap ago, which
+                // began before the one in the previous slot.
+                if (begin < prevBegin)
+                    continue;
+                prevBegin = begin;
+                if (end == 0 || end < begin || name == null)
+                    continue;
+                b.setLength(0);
+                b.append(",\n{\"name\":\"");
+                escape(b, name);
+                b.append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(m_tid)
+                        .append(",\"ts\":");
+                micros(b, begin - kStartNs);
+                b.append(",\"dur\":");
+                micros(b, end - begin);
+                b.append('}');
+                w.append(b);
+            }
+            return false;
+        }
+    }
+
+    /** Microseconds with three decimals, without scientific notation. */
+    private static void micros(StringBuilder b, long ns) {
+        if (ns < 0) {
+            b.append('-');
+            ns = -ns;
+        }
+        b.append(ns / 1000).append('.');
+        long frac = ns % 1000;
+        if (frac < 100)
+            b.append('0');
+        if (frac < 10)
+            b.append('0');
+        b.append(frac);
+    }
+
+    private static void escape(StringBuilder b, String s) {
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\')
+                b.append('\\');
+            if (c < 0x20)
+                b.append(' ');
+            else
+                b.append(c);
+        }
+    }
+}
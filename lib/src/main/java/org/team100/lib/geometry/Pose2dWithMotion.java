@@ -148,6 +148,13 @@ public class Pose2dWithMotion {
         return GeometryUtil.getCourse(m_fieldRelativeMotionDirection);
     }
 
+    /**
+     * Field-relative change in location and heading, per meter traveled.
+     */
+    public Twist2d getFieldRelativeMotionDirection() {
+        return m_fieldRelativeMotionDirection;
+    }
+
     /**
      * Heading rate is radians per meter.
      * 
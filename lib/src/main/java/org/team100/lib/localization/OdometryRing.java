@@ -0,0 +1,234 @@
+package org.team100.lib.localization;
+
+/**
+ * Fixed-size, time-ordered circular buffer of odometry states, stored in
+ * primitive arrays, for the pose estimator.
+ *
+ * Each slot holds the time, the pose and velocity estimate (x, y, theta),
+ * and the positions of the four swerve modules (distance and angle, with NaN
+ * meaning "no angle").
+ *
+ * Slots are addressed by "logical" index, zero is the oldest. Nothing here
+ * allocates after construction.
+ *
+ * This is not thread-safe; the pose estimator is used only by the main loop.
+ */
+final class OdometryRing {
+    static final int kModules = 4;
+
+    private final int m_capacity;
+    private final int m_mask;
+    private final double m_historyS;
+
+    private final double[] m_t;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_theta;
+    private final double[] m_vx;
+    private final double[] m_vy;
+    private final double[] m_omega;
+    /** Module distance, meters, kModules per slot. */
+    private final double[] m_dist;
+    /** Module angle, radians, NaN if empty, kModules per slot. */
+    private final double[] m_angle;
+
+    /** Physical index of the oldest slot. */
+    private int m_head;
+    private int m_size;
+
+    /**
+     * @param capacity rounded up to a power of two. Make it big enough to hold
+     *                 the whole history at the highest odometry rate, plus
+     *                 vision updates. If it's too small, the oldest entries are
+     *                 dropped.
+     * @param historyS entries older than this, relative to the newest, are
+     *                 dropped.
+     */
+    OdometryRing(int capacity, double historyS) {
+        m_capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_mask = m_capacity - 1;
+        m_historyS = historyS;
+        m_t = new double[m_capacity];
+        m_x = new double[m_capacity];
+        m_y = new double[m_capacity];
+        m_theta = new double[m_capacity];
+        m_vx = new double[m_capacity];
+        m_vy = new double[m_capacity];
+        m_omega = new double[m_capacity];
+        m_dist = new double[m_capacity * kModules];
+        m_angle = new double[m_capacity * kModules];
+    }
+
+    int capacity() {
+        return m_capacity;
+    }
+
+    int size() {
+        return m_size;
+    }
+
+    void clear() {
+        m_head = 0;
+        m_size = 0;
+    }
+
+    /** True if the timestamp is older than the history window. */
+    boolean tooOld(double timestampS) {
+        if (m_size == 0)
+            return false;
+        return timestampS < m_t[phys(m_size - 1)] - m_historyS;
+    }
+
+    /**
+     * Make room for an entry at the given time, and return its logical index,
+     * or -1 if the buffer is full of newer entries.
+     *
+     * If there's already an entry with exactly this time, it is returned (and
+     * will be overwritten by the caller). Otherwise later entries are shifted
+     * to make room, which is O(tail length), just like the replay that always
+     * follows an insertion in the middle.
+     *
+     * Entries older than the history window, relative to the given time, are
+     * removed first, as are the oldest entries if the buffer is full.
+     */
+    int insert(double timeS) {
+        while (m_size > 0 && timeS - m_t[m_head] >= m_historyS) {
+            dropOldest();
+        }
+        int ceil = ceiling(timeS);
+        if (ceil < m_size && m_t[phys(ceil)] == timeS) {
+            return ceil;
+        }
+        if (m_size == m_capacity) {
+            if (ceil == 0) {
+                // full, and the new entry would be the oldest.
+                return -1;
+            }
+            dropOldest();
+            --ceil;
+        }
+        // shift [ceil, size) up by one.
+        for (int i = m_size; i > ceil; --i) {
+            copy(phys(i - 1), phys(i));
+        }
+        ++m_size;
+        m_t[phys(ceil)] = timeS;
+        return ceil;
+    }
+
+    /** Logical index of the newest entry strictly older than the time, or -1. */
+    int lower(double timeS) {
+        return ceiling(timeS) - 1;
+    }
+
+    /** Logical index of the newest entry at or before the time, or -1. */
+    int floor(double timeS) {
+        int c = ceiling(timeS);
+        if (c < m_size && m_t[phys(c)] == timeS)
+            return c;
+        return c - 1;
+    }
+
+    /**
+     * Logical index of the oldest entry at or after the time, or size() if
+     * there isn't one.
+     */
+    int ceiling(double timeS) {
+        int lo = 0;
+        int hi = m_size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (m_t[phys(mid)] >= timeS) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    ///////////////////////////////////////////////////////
+    //
+    // slot accessors, by logical index.
+    //
+
+    double t(int i) {
+        return m_t[phys(i)];
+    }
+
+    double x(int i) {
+        return m_x[phys(i)];
+    }
+
+    double y(int i) {
+        return m_y[phys(i)];
+    }
+
+    double theta(int i) {
+        return m_theta[phys(i)];
+    }
+
+    double vx(int i) {
+        return m_vx[phys(i)];
+    }
+
+    double vy(int i) {
+        return m_vy[phys(i)];
+    }
+
+    double omega(int i) {
+        return m_omega[phys(i)];
+    }
+
+    double dist(int i, int module) {
+        return m_dist[phys(i) * kModules + module];
+    }
+
+    /** NaN means no angle. */
+    double angle(int i, int module) {
+        return m_angle[phys(i) * kModules + module];
+    }
+
+    void setState(int i, double x, double y, double theta, double vx, double vy, double omega) {
+        int p = phys(i);
+        m_x[p] = x;
+        m_y[p] = y;
+        m_theta[p] = theta;
+        m_vx[p] = vx;
+        m_vy[p] = vy;
+        m_omega[p] = omega;
+    }
+
+    /**
+     * @param dist  module distances, meters
+     * @param angle module angles, radians, NaN if empty
+     */
+    void setPositions(int i, double[] dist, double[] angle) {
+        int p = phys(i) * kModules;
+        System.arraycopy(dist, 0, m_dist, p, kModules);
+        System.arraycopy(angle, 0, m_angle, p, kModules);
+    }
+
+    ///////////////////////////////////////////////////////
+
+    private int phys(int i) {
+        return (m_head + i) & m_mask;
+    }
+
+    private void dropOldest() {
+        m_head = (m_head + 1) & m_mask;
+        --m_size;
+    }
+
+    private void copy(int src, int dst) {
+        m_t[dst] = m_t[src];
+        m_x[dst] = m_x[src];
+        m_y[dst] = m_y[src];
+        m_theta[dst] = m_theta[src];
+        m_vx[dst] = m_vx[src];
+        m_vy[dst] = m_vy[src];
+        m_omega[dst] = m_omega[src];
+        System.arraycopy(m_dist, src * kModules, m_dist, dst * kModules, kModules);
+        System.arraycopy(m_angle, src * kModules, m_angle, dst * kModules, kModules);
+    }
+}
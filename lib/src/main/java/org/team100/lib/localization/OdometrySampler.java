@@ -0,0 +1,192 @@
+package org.team100.lib.localization;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePositions;
+import org.team100.lib.sensors.Gyro;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * Samples the gyro and the swerve module positions at a higher rate than the
+ * main loop, on its own thread, and hands the samples to the main loop, which
+ * feeds them to the pose estimator.
+ *
+ * Integrating odometry in smaller steps reduces the error from assuming
+ * constant twist between samples, which matters during fast, curvy auton
+ * paths.
+ *
+ * The handoff is a single-producer, single-consumer ring of primitive slots,
+ * with no locks: the sampling thread is the only writer of the tail, and the
+ * main loop is the only writer of the head. If the main loop falls behind and
+ * the ring fills up, new samples are dropped and counted.
+ *
+ * A pose reset bumps the epoch, and each sample carries the epoch it was
+ * taken in, so a sample that was in flight during the reset is dropped by
+ * drain() instead of being applied on top of the new pose.
+ *
+ * The pose estimator itself is not thread-safe, so it's only touched by the
+ * main loop, in drain().
+ */
+public class OdometrySampler implements Glassy {
+    /** 250 Hz */
+    public static final double kPeriodS = 0.004;
+    /** Enough for several main-loop cycles at the sampling rate. */
+    private static final int kCapacity = 64;
+    private static final int kModules = OdometryRing.kModules;
+
+    private final Gyro m_gyro;
+    private final Supplier<SwerveModulePositions> m_positions;
+    private final DoubleSupplier m_clock;
+
+    private final int m_mask;
+    private final double[] m_t;
+    private final double[] m_yaw;
+    private final double[] m_yawRate;
+    private final double[] m_dist;
+    private final double[] m_angle;
+    private final long[] m_epochs;
+    /** Incremented by clear(). Written only by the consumer. */
+    private final AtomicLong m_epoch;
+    /** Next slot to read. Written only by the consumer. */
+    private final AtomicLong m_head;
+    /** Next slot to write. Written only by the producer. */
+    private final AtomicLong m_tail;
+    /** Samples dropped because the ring was full. */
+    private final AtomicLong m_dropped;
+
+    // Consumer scratch, so that draining doesn't allocate.
+    private final double[] m_drainDist = new double[kModules];
+    private final double[] m_drainAngle = new double[kModules];
+    // Producer scratch.
+    private final double[] m_sampleDist = new double[kModules];
+    private final double[] m_sampleAngle = new double[kModules];
+
+    private final DoubleLogger m_log_drained;
+    private final DoubleLogger m_log_dropped;
+
+    private Notifier m_notifier;
+
+    /**
+     * @param gyro      read on the sampling thread, using the non-logging
+     *                  accessors.
+     * @param positions module positions, read on the sampling thread.
+     * @param clock     the time of the measurement, in seconds, on the same
+     *                  timebase as the estimator, read immediately after the
+     *                  positions, e.g. SwerveModuleCollection.sampleTimeS(),
+     *                  which is the timestamp of the sensor signals themselves.
+     */
+    public OdometrySampler(
+            LoggerFactory parent,
+            Gyro gyro,
+            Supplier<SwerveModulePositions> positions,
+            DoubleSupplier clock) {
+        LoggerFactory child = parent.child(this);
+        m_gyro = gyro;
+        m_positions = positions;
+        m_clock = clock;
+        m_mask = kCapacity - 1;
+        m_t = new double[kCapacity];
+        m_yaw = new double[kCapacity];
+        m_yawRate = new double[kCapacity];
+        m_dist = new double[kCapacity * kModules];
+        m_angle = new double[kCapacity * kModules];
+        m_epochs = new long[kCapacity];
+        m_epoch = new AtomicLong();
+        m_head = new AtomicLong();
+        m_tail = new AtomicLong();
+        m_dropped = new AtomicLong();
+        m_log_drained = child.doubleLogger(Level.TRACE, "drained");
+        m_log_dropped = child.doubleLogger(Level.TRACE, "dropped");
+    }
+
+    /** Start sampling on a notifier thread. */
+    public void start(double periodS) {
+        if (m_notifier != null)
+            return;
+        m_notifier = new Notifier(this::sample);
+        m_notifier.setName("Odometry");
+        m_notifier.startPeriodic(periodS);
+    }
+
+    public void close() {
+        if (m_notifier == null)
+            return;
+        m_notifier.stop();
+        m_notifier.close();
+        m_notifier = null;
+    }
+
+    /**
+     * Read the sensors and enqueue the sample. Called by the sampling thread,
+     * or directly, in tests.
+     */
+    public void sample() {
+        // before the sensors, so a reset during the read makes the sample stale.
+        long epoch = m_epoch.get();
+        double yaw = m_gyro.sampleYawNWU();
+        double yawRate = m_gyro.sampleYawRateNWU();
+        SwerveModulePositions positions = m_positions.get();
+        double timeS = m_clock.getAsDouble();
+        SwerveDrivePoseEstimator100.read(positions, m_sampleDist, m_sampleAngle);
+
+        long tail = m_tail.get();
+        if (tail - m_head.get() >= kCapacity) {
+            m_dropped.incrementAndGet();
+            return;
+        }
+        int slot = (int) tail & m_mask;
+        m_epochs[slot] = epoch;
+        m_t[slot] = timeS;
+        m_yaw[slot] = yaw;
+        m_yawRate[slot] = yawRate;
+        System.arraycopy(m_sampleDist, 0, m_dist, slot * kModules, kModules);
+        System.arraycopy(m_sampleAngle, 0, m_angle, slot * kModules, kModules);
+        // publish the slot.
+        m_tail.lazySet(tail + 1);
+    }
+
+    /**
+     * Feed all the pending samples to the estimator, oldest first, skipping
+     * samples from before the last clear(). Called by the main loop.
+     *
+     * @return the number of samples fed to the estimator
+     */
+    public int drain(SwerveDrivePoseEstimator100 estimator) {
+        long head = m_head.get();
+        long tail = m_tail.get();
+        long epoch = m_epoch.get();
+        int n = 0;
+        for (long i = head; i < tail; ++i) {
+            int slot = (int) i & m_mask;
+            if (m_epochs[slot] != epoch)
+                continue;
+            ++n;
+            System.arraycopy(m_dist, slot * kModules, m_drainDist, 0, kModules);
+            System.arraycopy(m_angle, slot * kModules, m_drainAngle, 0, kModules);
+            estimator.put(m_t[slot], m_yaw[slot], m_yawRate[slot], m_drainDist, m_drainAngle);
+        }
+        // release the slots.
+        m_head.lazySet(tail);
+        m_log_drained.log(n);
+        m_log_dropped.log(m_dropped.get());
+        return n;
+    }
+
+    /** Discard pending samples, e.g. after a pose reset. Called by the main loop. */
+    public void clear() {
+        m_epoch.incrementAndGet();
+        m_head.lazySet(m_tail.get());
+    }
+
+    /** Total samples dropped because the main loop fell behind. */
+    public long dropped() {
+        return m_dropped.get();
+    }
+}
@@ -1,5 +1,7 @@
 package org.team100.lib.localization;
 
+import java.util.List;
+
 import org.team100.lib.motion.drivetrain.SwerveModel;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -13,6 +15,15 @@ public interface PoseEstimator100 {
             double[] stateSigma,
             double[] visionSigma);
 
+    /**
+     * Apply a batch of vision measurements, in any order. The default just puts
+     * them one at a time; implementations with history replay should do better.
+     */
+    default void put(List<VisionUpdate> updates) {
+        for (VisionUpdate u : updates) {
+            put(u.timestampS(), u.measurement(), u.stateSigma(), u.visionSigma());
+        }
+    }
 
     SwerveModel get(double timestampS);
 }
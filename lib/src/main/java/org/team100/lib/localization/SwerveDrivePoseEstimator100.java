@@ -1,7 +1,8 @@
 package org.team100.lib.localization;
 
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.logging.Level;
@@ -9,32 +10,54 @@ import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.logging.LoggerFactory.Rotation2dLogger;
 import org.team100.lib.motion.drivetrain.SwerveModel;
-import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeDelta;
-import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveDriveKinematics100;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
-import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleDeltas;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePosition100;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePositions;
 import org.team100.lib.sensors.Gyro;
-import org.team100.lib.util.DriveUtil;
+import org.team100.lib.state.Model100;
 import org.team100.lib.util.Util;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 
+/**
+ * Combines odometry and vision into a pose estimate.
+ * 
+ * History is kept in a fixed-size ring of primitive slots, so the odometry
+ * path (put(time, gyro, positions)) produces no garbage, and the replay after
+ * a vision update runs in place over the ring.
+ */
 public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
     private static final double kBufferDuration = 1.5;
+    /** Size the history for this odometry rate, with room for vision. */
+    private static final double kMaxOdometryRateHz = 250;
+    private static final int kModules = OdometryRing.kModules;
+    private static final Comparator<VisionUpdate> kByTime = Comparator.comparingDouble(VisionUpdate::timestampS);
 
-    private final SwerveKinodynamics m_kinodynamics;
-    private final TimeInterpolatableBuffer100<InterpolationRecord> m_poseBuffer;
+    private final SwerveDriveKinematics100 m_kinematics;
+    private final OdometryRing m_ring;
     // LOGGERS
     private final Rotation2dLogger m_log_offset;
     private final DoubleLogger m_log_pose_x;
 
+    // Scratch space, so that updates don't allocate.
+    private final double[] m_dist = new double[kModules];
+    private final double[] m_angle = new double[kModules];
+    private final double[] m_deltaVector = new double[2 * kModules];
+    private final double[] m_twist = new double[3];
+    /** [x, y, theta, vx, vy, omega] */
+    private final double[] m_state = new double[6];
+    /** For sorting vision batches. */
+    private final List<VisionUpdate> m_batch = new ArrayList<>();
+
     /**
      * maintained in resetPosition().
      */
     private Rotation2d m_gyroOffset;
+    private double m_gyroOffsetRad;
 
     /**
      * @param kinodynamics      A correctly-configured kinodynamics object
@@ -52,21 +75,16 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             Pose2d initialPoseMeters,
             double timestampSeconds) {
         LoggerFactory child = parent.child(this);
-        m_kinodynamics = kinodynamics;
-        m_poseBuffer = new TimeInterpolatableBuffer100<>(
-                child,
-                kBufferDuration,
-                timestampSeconds,
-                new InterpolationRecord(
-                        m_kinodynamics.getKinematics(),
-                        new SwerveModel(
-                                initialPoseMeters,
-                                new FieldRelativeVelocity(0, 0, 0)),
-                        modulePositions));
-        Rotation2d gyroAngle = gyro.getYawNWU();
-        m_gyroOffset = initialPoseMeters.getRotation().minus(gyroAngle);
+        m_kinematics = kinodynamics.getKinematics();
+        m_ring = new OdometryRing(
+                (int) (2 * kBufferDuration * kMaxOdometryRateHz),
+                kBufferDuration);
         m_log_offset = child.rotation2dLogger(Level.TRACE, "GYRO OFFSET");
         m_log_pose_x = child.doubleLogger(Level.TRACE, "posex");
+        Rotation2d gyroAngle = gyro.getYawNWU();
+        m_gyroOffset = initialPoseMeters.getRotation().minus(gyroAngle);
+        m_gyroOffsetRad = m_gyroOffset.getRadians();
+        resetRing(modulePositions, initialPoseMeters, timestampSeconds);
     }
 
     /**
@@ -74,8 +92,11 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
      */
     @Override
     public SwerveModel get(double timestampSeconds) {
-        // System.out.println("SwerveDrivePoseEstimator.get() " + timestampSeconds);
-        return m_poseBuffer.get(timestampSeconds).m_state;
+        sample(timestampSeconds);
+        return new SwerveModel(
+                new Model100(m_state[0], m_state[3]),
+                new Model100(m_state[1], m_state[4]),
+                new Model100(m_state[2], m_state[5]));
     }
 
     /** Empty the buffer and add the given measurements. */
@@ -86,16 +107,12 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             double timestampSeconds) {
         Rotation2d gyroAngle = gyro.getYawNWU();
         m_gyroOffset = pose.getRotation().minus(gyroAngle);
+        m_gyroOffsetRad = m_gyroOffset.getRadians();
 
         // empty the buffer and add the current pose
-        m_poseBuffer.reset(
-                timestampSeconds,
-                new InterpolationRecord(
-                        m_kinodynamics.getKinematics(),
-                        new SwerveModel(pose, new FieldRelativeVelocity(0, 0, 0)),
-                        modulePositions));
+        resetRing(modulePositions, pose, timestampSeconds);
 
-        m_log_offset.log(() -> m_gyroOffset);
+        m_log_offset.log(m_gyroOffsetRad);
     }
 
     /**
@@ -108,6 +125,138 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             Pose2d measurement,
             double[] stateSigma,
             double[] visionSigma) {
+        int i = correct(timestampS, measurement, stateSigma, visionSigma);
+        if (i < 0)
+            return;
+        // Step 7: Replay odometry inputs between sample time and latest recorded sample
+        // to update the pose buffer and correct odometry.
+        replay(i + 1, m_ring.size());
+    }
+
+    /**
+     * Apply a batch of vision measurements with a single replay pass.
+     * 
+     * Putting measurements one at a time replays the whole tail for each one.
+     * Instead, this applies them in time order, replaying only as far as the
+     * next measurement in between, so the whole batch costs about one replay
+     * from the oldest measurement. The result is the same as putting them one at
+     * a time, in time order.
+     */
+    @Override
+    public void put(List<VisionUpdate> updates) {
+        if (updates.isEmpty())
+            return;
+        m_batch.clear();
+        m_batch.addAll(updates);
+        m_batch.sort(kByTime);
+        // replay is done up to here (exclusive).
+        int next = m_ring.size();
+        for (VisionUpdate u : m_batch) {
+            if (m_ring.tooOld(u.timestampS()))
+                continue;
+            // catch up through the entry that the sample will use.
+            int hi = Math.min(m_ring.ceiling(u.timestampS()) + 1, m_ring.size());
+            replay(next, hi);
+            int i = correct(u.timestampS(), u.measurement(), u.stateSigma(), u.visionSigma());
+            if (i < 0) {
+                // the ring didn't change.
+                next = Math.max(next, hi);
+                continue;
+            }
+            next = i + 1;
+        }
+        replay(next, m_ring.size());
+        m_batch.clear();
+    }
+    /**
+     * Put a new state estimate based on gyro and wheel data. These are expected to
+     * be current measurements -- there is no history replay here.
+     * 
+     * The gyro angle overrides the odometry-derived gyro measurement, and
+     * the gyro rate overrides the rate derived from the difference to the previous
+     * state.
+     */
+    public void put(double currentTimeS,
+            Gyro gyro,
+            SwerveModulePositions wheelPositions) {
+        put(currentTimeS, gyro.getYawNWU(), gyro.getYawRateNWU(), wheelPositions);
+    }
+
+    void put(
+            double currentTimeS,
+            Rotation2d gyroAngle,
+            double gyroRateRad_S,
+            SwerveModulePositions wheelPositions) {
+        put(currentTimeS, gyroAngle.getRadians(), gyroRateRad_S, wheelPositions);
+    }
+
+    /**
+     * Odometry update using primitives, which doesn't allocate.
+     * 
+     * @param gyroAngleRad the gyro reading, without the offset.
+     */
+    void put(
+            double currentTimeS,
+            double gyroAngleRad,
+            double gyroRateRad_S,
+            SwerveModulePositions wheelPositions) {
+        read(wheelPositions, m_dist, m_angle);
+        put(currentTimeS, gyroAngleRad, gyroRateRad_S, m_dist, m_angle);
+    }
+
+    /**
+     * Odometry update from primitive arrays, e.g. from the OdometrySampler.
+     * 
+     * @param gyroAngleRad the gyro reading, without the offset.
+     * @param dist         module distances, meters
+     * @param angle        module angles, radians, NaN if empty
+     */
+    void put(
+            double currentTimeS,
+            double gyroAngleRad,
+            double gyroRateRad_S,
+            double[] dist,
+            double[] angle) {
+
+        // the entry right before this one, the basis for integration.
+        int lower = m_ring.lower(currentTimeS);
+
+        if (lower < 0) {
+            Util.println("lower entry is null");
+            // We're at the beginning. There's nothing to apply the wheel position delta to.
+            // This should never happen.
+            return;
+        }
+
+        if (dist != m_dist) {
+            System.arraycopy(dist, 0, m_dist, 0, kModules);
+            System.arraycopy(angle, 0, m_angle, 0, kModules);
+        }
+
+        // the pose angle is based on the gyro (which is more accurate)
+        double heading = MathUtil.angleModulus(gyroAngleRad + m_gyroOffsetRad);
+        integrate(lower, currentTimeS, heading, gyroRateRad_S);
+        m_log_pose_x.log(m_state[0]);
+
+        int i = m_ring.insert(currentTimeS);
+        if (i < 0)
+            return;
+        m_ring.setState(i, m_state[0], m_state[1], m_state[2], m_state[3], m_state[4], m_state[5]);
+        m_ring.setPositions(i, m_dist, m_angle);
+    }
+
+    ///////////////////////////////////////
+
+    /**
+     * Add a corrected entry at the measurement time, without replay.
+     * 
+     * @return the index of the new entry, or -1 if nothing changed.
+     */
+    private int correct(
+            double timestampS,
+            Pose2d measurement,
+            double[] stateSigma,
+            double[] visionSigma) {
 
         // discount the vision update by this factor.
         final double[] k = new double[] {
@@ -118,126 +267,210 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
         // Step 0: If this measurement is old enough to be outside the pose buffer's
         // timespan, skip.
 
-        if (m_poseBuffer.tooOld(timestampS)) {
-            return;
+        if (m_ring.tooOld(timestampS)) {
+            return -1;
         }
 
         // Step 1: Get the pose odometry measured at the moment the vision measurement
         // was made.
-        InterpolationRecord sample = m_poseBuffer.get(timestampS);
+        sample(timestampS);
 
         // Step 2: Measure the twist between the odometry pose and the vision pose.
-        Pose2d pose = sample.m_state.pose();
+        Pose2d pose = new Pose2d(m_state[0], m_state[1], new Rotation2d(m_state[2]));
         Twist2d twist = pose.log(measurement);
 
         // Step 3: We should not trust the twist entirely, so instead we scale this
         // twist by a Kalman gain matrix representing how much we trust vision
         // measurements compared to our current pose.
-        // Matrix<N3, N1> k_times_twist = m_visionK.times(VecBuilder.fill(twist.dx,
-        // twist.dy, twist.dtheta));
 
         // Step 4: Convert back to Twist2d.
         Twist2d scaledTwist = new Twist2d(
                 k[0] * twist.dx,
                 k[1] * twist.dy,
                 k[2] * twist.dtheta);
-        // Twist2d scaledTwist = new Twist2d(k_times_twist.get(0, 0),
-        // k_times_twist.get(1, 0), k_times_twist.get(2, 0));
 
-        Pose2d newPose = sample.m_state.pose().exp(scaledTwist);
+        Pose2d newPose = pose.exp(scaledTwist);
 
         // Step 6: Record the current pose to allow multiple measurements from the same
         // timestamp
-        m_poseBuffer.put(
-                timestampS,
-                new InterpolationRecord(
-                        m_kinodynamics.getKinematics(),
-                        new SwerveModel(newPose, sample.m_state.velocity()),
-                        sample.m_wheelPositions));
-        // Step 7: Replay odometry inputs between sample time and latest recorded sample
-        // to update the pose buffer and correct odometry.
-        // note exclusive tailmap, don't need to reprocess the entry we just put there.
-        for (Map.Entry<Double, InterpolationRecord> entry : m_poseBuffer.tailMap(timestampS, false).entrySet()) {
-            double entryTimestampS = entry.getKey();
-            InterpolationRecord value = entry.getValue();
+        int i = m_ring.insert(timestampS);
+        if (i < 0)
+            return -1;
+        m_ring.setState(i,
+                newPose.getX(), newPose.getY(), newPose.getRotation().getRadians(),
+                m_state[3], m_state[4], m_state[5]);
+        m_ring.setPositions(i, m_dist, m_angle);
+        return i;
+    }
 
-            // this is what the gyro must have been given the pose and offset
-            Rotation2d entryGyroAngle = value.m_state.pose().getRotation().minus(m_gyroOffset);
-            double entryGyroRate = value.m_state.theta().v();
-            SwerveModulePositions wheelPositions = value.m_wheelPositions;
+    private void resetRing(SwerveModulePositions modulePositions, Pose2d pose, double timestampSeconds) {
+        m_ring.clear();
+        int i = m_ring.insert(timestampSeconds);
+        m_ring.setState(i, pose.getX(), pose.getY(), pose.getRotation().getRadians(), 0, 0, 0);
+        read(modulePositions, m_dist, m_angle);
+        m_ring.setPositions(i, m_dist, m_angle);
+    }
 
-            put(entryTimestampS, entryGyroAngle, entryGyroRate, wheelPositions);
+    /**
+     * Recompute each entry in [from, to), using the stored wheel positions,
+     * heading, and heading rate, starting from the (corrected) entry before it.
+     */
+    private void replay(int from, int to) {
+        for (int i = from; i < to; ++i) {
+            for (int m = 0; m < kModules; ++m) {
+                m_dist[m] = m_ring.dist(i, m);
+                m_angle[m] = m_ring.angle(i, m);
+            }
+            // the replayed gyro angle is the same as the pose angle.
+            integrate(i - 1, m_ring.t(i), m_ring.theta(i), m_ring.omega(i));
+            m_ring.setState(i, m_state[0], m_state[1], m_state[2], m_state[3], m_state[4], m_state[5]);
         }
-
     }
 
     /**
-     * Put a new state estimate based on gyro and wheel data. These are expected to
-     * be current measurements -- there is no history replay here.
+     * Integrate the wheel positions in m_dist and m_angle, starting from the
+     * ring entry at prev, writing the result to m_state.
      * 
-     * The gyro angle overrides the odometry-derived gyro measurement, and
-     * the gyro rate overrides the rate derived from the difference to the previous
-     * state.
+     * @param angleRad field-relative heading from the gyro
+     * @param omega    heading rate from the gyro
      */
-    public void put(double currentTimeS,
-            Gyro gyro,
-            SwerveModulePositions wheelPositions) {
-        put(currentTimeS, gyro.getYawNWU(), gyro.getYawRateNWU(), wheelPositions);
-    }
+    private void integrate(int prev, double timeS, double angleRad, double omega) {
+        double dt = timeS - m_ring.t(prev);
+        for (int m = 0; m < kModules; ++m) {
+            delta(m_dist[m] - m_ring.dist(prev, m), m_angle[m], m);
+        }
+        m_kinematics.toTwist2d(m_deltaVector, m_twist);
 
-    void put(
-            double currentTimeS,
-            Rotation2d gyroAngle,
-            double gyroRateRad_S,
-            SwerveModulePositions wheelPositions) {
+        double x0 = m_ring.x(prev);
+        double y0 = m_ring.y(prev);
+        double theta0 = m_ring.theta(prev);
+        // replace the twist dtheta with one derived from the gyro
+        double dtheta = MathUtil.angleModulus(angleRad - theta0);
+        exp(x0, y0, theta0, m_twist[0], m_twist[1], dtheta);
 
-        // the entry right before this one, the basis for integration.
-        Entry<Double, InterpolationRecord> lowerEntry = m_poseBuffer.lowerEntry(
-                currentTimeS);
+        // this is the backward finite difference velocity from odometry
+        m_state[3] = (m_state[0] - x0) / dt;
+        m_state[4] = (m_state[1] - y0) / dt;
+        // use the gyro rate instead of the odometry-derived rate
+        m_state[5] = omega;
+    }
 
-        if (lowerEntry == null) {
-            Util.println("lower entry is null");
-            // We're at the beginning. There's nothing to apply the wheel position delta to.
-            // This should never happen.
+    /**
+     * Sample the ring at the given time, writing the state to m_state and the
+     * wheel positions to m_dist and m_angle.
+     * 
+     * Interpolates the wheel positions, integrates them to find the pose, and
+     * interpolates the velocity. See InterpolationRecord.
+     */
+    private void sample(double timeS) {
+        int hi = m_ring.ceiling(timeS);
+        if (hi < m_ring.size() && m_ring.t(hi) == timeS) {
+            copy(hi);
             return;
         }
+        if (hi == m_ring.size()) {
+            copy(hi - 1);
+            return;
+        }
+        if (hi == 0) {
+            copy(0);
+            return;
+        }
+        int lo = hi - 1;
+        double t = (timeS - m_ring.t(lo)) / (m_ring.t(hi) - m_ring.t(lo));
+        for (int m = 0; m < kModules; ++m) {
+            double d0 = m_ring.dist(lo, m);
+            double a0 = m_ring.angle(lo, m);
+            double a1 = m_ring.angle(hi, m);
+            double dist = MathUtil.interpolate(d0, m_ring.dist(hi, m), t);
+            if (Double.isNaN(a0) && Double.isNaN(a1)) {
+                // no angle information at all == no idea where we are, just return zero.
+                dist = 0;
+                m_angle[m] = Double.NaN;
+            } else if (Double.isNaN(a0)) {
+                m_angle[m] = a1;
+            } else if (Double.isNaN(a1)) {
+                m_angle[m] = a0;
+            } else {
+                m_angle[m] = MathUtil.angleModulus(a0 + MathUtil.angleModulus(a1 - a0) * t);
+            }
+            m_dist[m] = dist;
+            delta(dist - d0, m_angle[m], m);
+        }
+        m_kinematics.toTwist2d(m_deltaVector, m_twist);
+        exp(m_ring.x(lo), m_ring.y(lo), m_ring.theta(lo), m_twist[0], m_twist[1], m_twist[2]);
 
-        double dt = currentTimeS - lowerEntry.getKey();
-        InterpolationRecord value = lowerEntry.getValue();
-        SwerveModel previousState = value.m_state;
-
-        SwerveModuleDeltas modulePositionDelta = DriveUtil.modulePositionDelta(
-                value.m_wheelPositions,
-                wheelPositions);
-
-        Twist2d twist = m_kinodynamics.getKinematics().toTwist2d(modulePositionDelta);
-
-        // replace the twist dtheta with one derived from the current pose
-        // pose angle based on the gyro (which is more accurate)
-
-        Rotation2d angle = gyroAngle.plus(m_gyroOffset);
-        twist.dtheta = angle.minus(previousState.pose().getRotation()).getRadians();
+        // these lerps are wrong but maybe close enough
+        m_state[3] = MathUtil.interpolate(m_ring.vx(lo), m_ring.vx(hi), t);
+        m_state[4] = MathUtil.interpolate(m_ring.vy(lo), m_ring.vy(hi), t);
+        m_state[5] = MathUtil.interpolate(m_ring.omega(lo), m_ring.omega(hi), t);
+    }
 
-        Pose2d newPose = previousState.pose().exp(twist);
-        m_log_pose_x.log(newPose::getX);
+    /** Copy the ring entry into the scratch state. */
+    private void copy(int i) {
+        m_state[0] = m_ring.x(i);
+        m_state[1] = m_ring.y(i);
+        m_state[2] = m_ring.theta(i);
+        m_state[3] = m_ring.vx(i);
+        m_state[4] = m_ring.vy(i);
+        m_state[5] = m_ring.omega(i);
+        for (int m = 0; m < kModules; ++m) {
+            m_dist[m] = m_ring.dist(i, m);
+            m_angle[m] = m_ring.angle(i, m);
+        }
+    }
 
-        // this is the backward finite difference velocity from odometry
-        FieldRelativeDelta odoVelo = FieldRelativeDelta.delta(
-                previousState.pose(), newPose)
-                .div(dt);
+    /**
+     * Fill the delta vector for one module, assuming a straight path at the
+     * given angle. See SwerveDriveKinematics100.deltas2Vector().
+     */
+    private void delta(double dist, double angleRad, int module) {
+        if (Double.isNaN(angleRad) || Math.abs(dist) < 1e-6) {
+            // the angle might be empty, if the encoder has failed
+            m_deltaVector[2 * module] = 0;
+            m_deltaVector[2 * module + 1] = 0;
+        } else {
+            m_deltaVector[2 * module] = dist * Math.cos(angleRad);
+            m_deltaVector[2 * module + 1] = dist * Math.sin(angleRad);
+        }
+    }
 
-        // use the gyro rate instead of the odometry-derived rate
-        FieldRelativeVelocity velocity = new FieldRelativeVelocity(
-                odoVelo.getX(),
-                odoVelo.getY(),
-                gyroRateRad_S);
+    /**
+     * Apply the twist to the pose, writing the result to m_state[0..2]. This is
+     * the same as Pose2d.exp().
+     */
+    private void exp(double x, double y, double theta, double dx, double dy, double dtheta) {
+        double sinTheta = Math.sin(dtheta);
+        double cosTheta = Math.cos(dtheta);
+        double s;
+        double c;
+        if (Math.abs(dtheta) < 1e-9) {
+            s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+            c = 0.5 * dtheta;
+        } else {
+            s = sinTheta / dtheta;
+            c = (1 - cosTheta) / dtheta;
+        }
+        double tx = dx * s - dy * c;
+        double ty = dx * c + dy * s;
+        double cos = Math.cos(theta);
+        double sin = Math.sin(theta);
+        m_state[0] = x + tx * cos - ty * sin;
+        m_state[1] = y + tx * sin + ty * cos;
+        m_state[2] = MathUtil.angleModulus(theta + dtheta);
+    }
 
-        SwerveModel swerveState = new SwerveModel(newPose, velocity);
+    /** Read the positions into primitive arrays, using NaN for empty angles. */
+    static void read(SwerveModulePositions positions, double[] dist, double[] angle) {
+        read(positions.frontLeft(), 0, dist, angle);
+        read(positions.frontRight(), 1, dist, angle);
+        read(positions.rearLeft(), 2, dist, angle);
+        read(positions.rearRight(), 3, dist, angle);
+    }
 
-        m_poseBuffer.put(
-                currentTimeS,
-                new InterpolationRecord(
-                        m_kinodynamics.getKinematics(), swerveState, wheelPositions));
+    private static void read(SwerveModulePosition100 p, int i, double[] dist, double[] angle) {
+        dist[i] = p.distanceMeters;
+        angle[i] = p.angle.isPresent() ? p.angle.get().getRadians() : Double.NaN;
     }
 
     ///////////////////////////////////////
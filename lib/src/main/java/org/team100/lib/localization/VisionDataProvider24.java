@@ -1,13 +1,16 @@
 package org.team100.lib.localization;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 
 import org.team100.lib.config.Camera;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.framework.Trace;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
@@ -83,6 +86,12 @@ public class VisionDataProvider24 implements VisionData, Glassy {
 
     private long latestTimeUs = 0;
 
+    /**
+     * Measurements from the current camera frame, applied together before the
+     * next camera reads the estimator, and at the end of update().
+     */
+    private final List<VisionUpdate> m_pending = new ArrayList<>();
+
     /**
      * @param layout
      * @param poseEstimator
@@ -116,6 +125,16 @@ public class VisionDataProvider24 implements VisionData, Glassy {
     }
 
     public void update() {
+        Trace.begin("vision/update");
+        try {
+            readEvents();
+        } finally {
+            flush();
+            Trace.end();
+        }
+    }
+
+    private void readEvents() {
         NetworkTableEvent[] events = m_poller.readQueue();
         for (NetworkTableEvent e : events) {
             ValueEventData ve = e.valueData;
@@ -150,7 +169,7 @@ public class VisionDataProvider24 implements VisionData, Glassy {
                     return;
 
                 double blipTimeSec = v.getServerTime() / 1000000.0;
-                estimateRobotPose(
+                estimate(
                         cameraSerialNumber,
                         blips,
                         blipTimeSec,
@@ -173,9 +192,29 @@ public class VisionDataProvider24 implements VisionData, Glassy {
             final Blip24[] blips,
             double blipTimeSec,
             Alliance alliance) {
+        estimate(cameraSerialNumber, blips, blipTimeSec, alliance);
+        flush();
+    }
+
+    /** Apply all the pending measurements in one batch. */
+    private void flush() {
+        if (m_pending.isEmpty())
+            return;
+        m_poseEstimator.put(m_pending);
+        m_pending.clear();
+    }
+
+    private void estimate(
+            String cameraSerialNumber,
+            final Blip24[] blips,
+            double blipTimeSec,
+            Alliance alliance) {
         m_log_alliance.log(() -> alliance);
         final Transform3d cameraInRobotCoordinates = Camera.get(cameraSerialNumber).getOffset();
 
+        // apply the previous camera's measurements first, so that this camera
+        // sees them, as it would if they were applied one at a time.
+        flush();
         final Rotation2d gyroRotation = m_poseEstimator.get(blipTimeSec).pose().getRotation();
 
         estimateFromBlips(
@@ -228,11 +267,11 @@ public class VisionDataProvider24 implements VisionData, Glassy {
                     // this hard limit excludes false positives, which were a bigger problem in 2023
                     // due to the coarse tag family used. in 2024 this might not be an issue.
                     latestTimeUs = RobotController.getFPGATime();
-                    m_poseEstimator.put(
+                    m_pending.add(new VisionUpdate(
                             frameTimeSec,
                             currentRobotinFieldCoords,
                             stateStdDevs(),
-                            visionMeasurementStdDevs(distanceM));
+                            visionMeasurementStdDevs(distanceM)));
                 }
             }
             lastRobotInFieldCoords = currentRobotinFieldCoords;
@@ -0,0 +1,18 @@
+package org.team100.lib.localization;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * One vision measurement, for batch updates.
+ * 
+ * @param timestampS  when the camera saw it
+ * @param measurement robot pose in field coordinates
+ * @param stateSigma  x, y, theta
+ * @param visionSigma x, y, theta
+ */
+public record VisionUpdate(
+        double timestampS,
+        Pose2d measurement,
+        double[] stateSigma,
+        double[] visionSigma) {
+}
@@ -13,6 +13,7 @@ import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.geometry.Vector2d;
 import org.team100.lib.localization.Blip24;
 import org.team100.lib.logging.primitive.PrimitiveLogger;
+import org.team100.lib.logging.primitive.UdpType;
 import org.team100.lib.motion.arm.ArmAngles;
 import org.team100.lib.motion.drivetrain.SwerveControl;
 import org.team100.lib.motion.drivetrain.SwerveModel;
@@ -49,6 +50,15 @@ import edu.wpi.first.math.trajectory.Trajectory.State;
  * container keep the root reference.
  * 
  * Don't use slashes in names, it confuses Glass.
+ * 
+ * Each logger takes a supplier, so that nothing is computed if the level is
+ * disabled. Most also have primitive overloads, e.g. log(x, y, theta), which
+ * avoid the lambda (and often the domain object) entirely; prefer those in
+ * code that runs every cycle. Every logger also has enabled(), which is true if
+ * its level is enabled; use it to guard any other work done just for logging.
+ * 
+ * Compound types like poses and chassis speeds are logged as a single struct
+ * (see UdpType), one key per record instead of one per field.
  */
 public class LoggerFactory {
     private final Supplier<Level> m_level;
@@ -85,6 +95,11 @@ public class LoggerFactory {
         return child(obj.getGlassName());
     }
 
+    /**
+     * The level supplier is final, and usually reads a plain field, so after
+     * inlining this is a field read and a compare, which the JIT can hoist out
+     * of loops.
+     */
     private boolean allow(Level level) {
         Level allowed = m_level.get();
         if (allowed == Level.COMP && level == Level.COMP) {
@@ -118,12 +133,22 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.booleanLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(BooleanSupplier vals) {
             if (!allow(m_level))
                 return;
             boolean val = vals.getAsBoolean();
             m_primitiveLogger.log(val);
         }
+
+        public void log(boolean val) {
+            if (!allow(m_level))
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public BooleanLogger booleanLogger(Level level, String leaf) {
@@ -139,6 +164,10 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.doubleLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(DoubleSupplier vals) {
             if (!allow(m_level))
                 return;
@@ -152,6 +181,12 @@ public class LoggerFactory {
             double val = vals.get();
             m_primitiveLogger.log(val);
         }
+
+        public void log(double val) {
+            if (!allow(m_level))
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public DoubleLogger doubleLogger(Level level, String leaf) {
@@ -167,12 +202,22 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.intLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(IntSupplier vals) {
             if (!allow(m_level))
                 return;
             int val = vals.getAsInt();
             m_primitiveLogger.log(val);
         }
+
+        public void log(int val) {
+            if (!allow(m_level))
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public IntLogger intLogger(Level level, String leaf) {
@@ -188,6 +233,10 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.doubleArrayLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<double[]> vals) {
             if (!allow(m_level))
                 return;
@@ -209,12 +258,22 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.longLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(LongSupplier vals) {
             if (!allow(m_level))
                 return;
             long val = vals.getAsLong();
             m_primitiveLogger.log(val);
         }
+
+        public void log(long val) {
+            if (!allow(m_level))
+                return;
+            m_primitiveLogger.log(val);
+        }
     }
 
     public LongLogger longLogger(Level level, String leaf) {
@@ -230,6 +289,10 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.stringLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<String> vals) {
             if (!allow(m_level))
                 return;
@@ -251,6 +314,10 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.doubleLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<OptionalDouble> vals) {
             if (!allow(m_level))
                 return;
@@ -274,6 +341,10 @@ public class LoggerFactory {
             m_primitiveLogger = m_pLogger.stringLogger(root(leaf));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Enum<?>> vals) {
             if (!allow(m_level))
                 return;
@@ -288,21 +359,32 @@ public class LoggerFactory {
 
     public class Pose2dLogger {
         private final Level m_level;
-        private final Translation2dLogger m_translation2dLogger;
-        private final Rotation2dLogger m_rotation2dLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.POSE2D.length()];
 
         Pose2dLogger(Level level, String leaf) {
             m_level = level;
-            m_translation2dLogger = translation2dLogger(level, join(leaf, "translation"));
-            m_rotation2dLogger = rotation2dLogger(level, join(leaf, "rotation"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.POSE2D, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<Pose2d> vals) {
             if (!allow(m_level))
                 return;
             Pose2d val = vals.get();
-            m_translation2dLogger.log(val::getTranslation);
-            m_rotation2dLogger.log(val::getRotation);
+            log(val.getX(), val.getY(), val.getRotation().getRadians());
+        }
+
+        public void log(double x, double y, double thetaRad) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = y;
+            m_val[2] = thetaRad;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -321,12 +403,24 @@ public class LoggerFactory {
             m_rotation3dLogger = rotation3dLogger(level, join(leaf, "rotation"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Transform3d> vals) {
             if (!allow(m_level))
                 return;
             Transform3d val = vals.get();
-            m_translation3dLogger.log(val::getTranslation);
-            m_rotation3dLogger.log(val::getRotation);
+            Translation3d t = val.getTranslation();
+            Rotation3d r = val.getRotation();
+            log(t.getX(), t.getY(), t.getZ(), r.getX(), r.getY(), r.getZ());
+        }
+
+        public void log(double x, double y, double z, double roll, double pitch, double yaw) {
+            if (!allow(m_level))
+                return;
+            m_translation3dLogger.log(x, y, z);
+            m_rotation3dLogger.log(roll, pitch, yaw);
         }
     }
 
@@ -347,13 +441,23 @@ public class LoggerFactory {
             m_zLogger = doubleLogger(level, join(leaf, "z"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Translation3d> vals) {
             if (!allow(m_level))
                 return;
             Translation3d val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
-            m_zLogger.log(val::getZ);
+            log(val.getX(), val.getY(), val.getZ());
+        }
+
+        public void log(double x, double y, double z) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(x);
+            m_yLogger.log(y);
+            m_zLogger.log(z);
         }
     }
 
@@ -374,13 +478,23 @@ public class LoggerFactory {
             m_yawLogger = doubleLogger(level, join(leaf, "yaw"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Rotation3d> vals) {
             if (!allow(m_level))
                 return;
             Rotation3d val = vals.get();
-            m_rollLogger.log(val::getX);
-            m_pitchLogger.log(val::getY);
-            m_yawLogger.log(val::getZ);
+            log(val.getX(), val.getY(), val.getZ());
+        }
+
+        public void log(double roll, double pitch, double yaw) {
+            if (!allow(m_level))
+                return;
+            m_rollLogger.log(roll);
+            m_pitchLogger.log(pitch);
+            m_yawLogger.log(yaw);
         }
     }
 
@@ -390,21 +504,31 @@ public class LoggerFactory {
 
     public class Translation2dLogger {
         private final Level m_level;
-        private final DoubleLogger m_xLogger;
-        private final DoubleLogger m_yLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.TRANSLATION2D.length()];
 
         Translation2dLogger(Level level, String leaf) {
             m_level = level;
-            m_xLogger = doubleLogger(level, join(leaf, "x"));
-            m_yLogger = doubleLogger(level, join(leaf, "y"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.TRANSLATION2D, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<Translation2d> vals) {
             if (!allow(m_level))
                 return;
             Translation2d val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
+            log(val.getX(), val.getY());
+        }
+
+        public void log(double x, double y) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = y;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -423,12 +547,22 @@ public class LoggerFactory {
             m_yLogger = doubleLogger(level, join(leaf, "y"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Vector2d> vals) {
             if (!allow(m_level))
                 return;
             Vector2d val = vals.get();
-            m_xLogger.log(val::getX);
-            m_yLogger.log(val::getY);
+            log(val.getX(), val.getY());
+        }
+
+        public void log(double x, double y) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(x);
+            m_yLogger.log(y);
         }
     }
 
@@ -445,11 +579,21 @@ public class LoggerFactory {
             m_radLogger = doubleLogger(level, join(leaf, "rad"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Rotation2d> vals) {
             if (!allow(m_level))
                 return;
             Rotation2d val = vals.get();
-            m_radLogger.log(val::getRadians);
+            m_radLogger.log(val.getRadians());
+        }
+
+        public void log(double rad) {
+            if (!allow(m_level))
+                return;
+            m_radLogger.log(rad);
         }
     }
 
@@ -466,11 +610,15 @@ public class LoggerFactory {
             m_timedPoseLogger = timedPoseLogger(level, join(leaf, "state"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<TrajectorySamplePoint> vals) {
             if (!allow(m_level))
                 return;
             TrajectorySamplePoint val = vals.get();
-            m_timedPoseLogger.log(val::state);
+            m_timedPoseLogger.log(val.state());
         }
     }
 
@@ -493,15 +641,23 @@ public class LoggerFactory {
             m_accelLogger = doubleLogger(level, join(leaf, "accel"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<TimedPose> vals) {
             if (!allow(m_level))
                 return;
-            TimedPose val = vals.get();
-            m_pose2dWithMotionLogger.log(val::state);
-            m_timeLogger.log(val::getTimeS);
-            m_velocityLogger.log(val::velocityM_S);
-            m_accelLogger.log(val::acceleration);
+            log(vals.get());
+        }
 
+        public void log(TimedPose val) {
+            if (!allow(m_level))
+                return;
+            m_pose2dWithMotionLogger.log(val.state());
+            m_timeLogger.log(val.getTimeS());
+            m_velocityLogger.log(val.velocityM_S());
+            m_accelLogger.log(val.acceleration());
         }
     }
 
@@ -518,11 +674,16 @@ public class LoggerFactory {
             m_pose2dLogger = pose2dLogger(level, join(leaf, "pose"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<PoseWithCurvature> vals) {
             if (!allow(m_level))
                 return;
             PoseWithCurvature val = vals.get();
-            m_pose2dLogger.log(() -> val.poseMeters);
+            Pose2d pose = val.poseMeters;
+            m_pose2dLogger.log(pose.getX(), pose.getY(), pose.getRotation().getRadians());
         }
     }
 
@@ -541,14 +702,24 @@ public class LoggerFactory {
             m_rotation2dLogger = rotation2dLogger(level, join(leaf, "course"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Pose2dWithMotion> vals) {
             if (!allow(m_level))
                 return;
-            Pose2dWithMotion val = vals.get();
-            m_pose2dLogger.log(val::getPose);
+            log(vals.get());
+        }
+
+        public void log(Pose2dWithMotion val) {
+            if (!allow(m_level))
+                return;
+            Pose2d pose = val.getPose();
+            m_pose2dLogger.log(pose.getX(), pose.getY(), pose.getRotation().getRadians());
             Optional<Rotation2d> course = val.getCourse();
             if (course.isPresent()) {
-                m_rotation2dLogger.log(course::get);
+                m_rotation2dLogger.log(course.get().getRadians());
             }
         }
     }
@@ -559,24 +730,32 @@ public class LoggerFactory {
 
     public class Twist2dLogger {
         private final Level m_level;
-        private final DoubleLogger m_dxLogger;
-        private final DoubleLogger m_dyLogger;
-        private final DoubleLogger m_dthetaLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.TWIST2D.length()];
 
         Twist2dLogger(Level level, String leaf) {
             m_level = level;
-            m_dxLogger = doubleLogger(level, join(leaf, "dx"));
-            m_dyLogger = doubleLogger(level, join(leaf, "dy"));
-            m_dthetaLogger = doubleLogger(level, join(leaf, "dtheta"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.TWIST2D, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<Twist2d> vals) {
             if (!allow(m_level))
                 return;
             Twist2d val = vals.get();
-            m_dxLogger.log(() -> val.dx);
-            m_dyLogger.log(() -> val.dy);
-            m_dthetaLogger.log(() -> val.dtheta);
+            log(val.dx, val.dy, val.dtheta);
+        }
+
+        public void log(double dx, double dy, double dtheta) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = dx;
+            m_val[1] = dy;
+            m_val[2] = dtheta;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -586,24 +765,32 @@ public class LoggerFactory {
 
     public class ChassisSpeedsLogger {
         private final Level m_level;
-        private final DoubleLogger m_vxLogger;
-        private final DoubleLogger m_vyLogger;
-        private final DoubleLogger m_omegaLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.CHASSIS_SPEEDS.length()];
 
         ChassisSpeedsLogger(Level level, String leaf) {
             m_level = level;
-            m_vxLogger = doubleLogger(level, join(leaf, "vx m_s"));
-            m_vyLogger = doubleLogger(level, join(leaf, "vy m_s"));
-            m_omegaLogger = doubleLogger(level, join(leaf, "omega rad_s"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.CHASSIS_SPEEDS, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<ChassisSpeeds> vals) {
             if (!allow(m_level))
                 return;
             ChassisSpeeds val = vals.get();
-            m_vxLogger.log(() -> val.vxMetersPerSecond);
-            m_vyLogger.log(() -> val.vyMetersPerSecond);
-            m_omegaLogger.log(() -> val.omegaRadiansPerSecond);
+            log(val.vxMetersPerSecond, val.vyMetersPerSecond, val.omegaRadiansPerSecond);
+        }
+
+        public void log(double vx, double vy, double omega) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = vx;
+            m_val[1] = vy;
+            m_val[2] = omega;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -613,24 +800,32 @@ public class LoggerFactory {
 
     public class FieldRelativeVelocityLogger {
         private final Level m_level;
-        private final DoubleLogger m_xLogger;
-        private final DoubleLogger m_yLogger;
-        private final DoubleLogger m_thetaLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.FIELD_RELATIVE_VELOCITY.length()];
 
         FieldRelativeVelocityLogger(Level level, String leaf) {
             m_level = level;
-            m_xLogger = doubleLogger(level, join(leaf, "x m_s"));
-            m_yLogger = doubleLogger(level, join(leaf, "y m_s"));
-            m_thetaLogger = doubleLogger(level, join(leaf, "theta rad_s"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.FIELD_RELATIVE_VELOCITY, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<FieldRelativeVelocity> vals) {
             if (!allow(m_level))
                 return;
             FieldRelativeVelocity val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            log(val.x(), val.y(), val.theta());
+        }
+
+        public void log(double x, double y, double theta) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = y;
+            m_val[2] = theta;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -651,13 +846,23 @@ public class LoggerFactory {
             m_thetaLogger = doubleLogger(level, join(leaf, "theta rad_s_s"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<FieldRelativeAcceleration> vals) {
             if (!allow(m_level))
                 return;
             FieldRelativeAcceleration val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            log(val.x(), val.y(), val.theta());
+        }
+
+        public void log(double x, double y, double theta) {
+            if (!allow(m_level))
+                return;
+            m_xLogger.log(x);
+            m_yLogger.log(y);
+            m_thetaLogger.log(theta);
         }
     }
 
@@ -667,44 +872,62 @@ public class LoggerFactory {
 
     public class Model100Logger {
         private final Level m_level;
-        private final DoubleLogger m_xLogger;
-        private final DoubleLogger m_vLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.MODEL100.length()];
 
         Model100Logger(Level level, String leaf) {
             m_level = level;
-            m_xLogger = doubleLogger(level, join(leaf, "x"));
-            m_vLogger = doubleLogger(level, join(leaf, "v"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.MODEL100, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<Model100> vals) {
             if (!allow(m_level))
                 return;
             Model100 val = vals.get();
-            m_xLogger.log(val::x);
-            m_vLogger.log(val::v);
+            log(val.x(), val.v());
+        }
+
+        public void log(double x, double v) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = v;
+            m_primitiveLogger.log(m_val);
         }
     }
 
     public class Control100Logger {
         private final Level m_level;
-        private final DoubleLogger m_xLogger;
-        private final DoubleLogger m_vLogger;
-        private final DoubleLogger m_aLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.CONTROL100.length()];
 
         Control100Logger(Level level, String leaf) {
             m_level = level;
-            m_xLogger = doubleLogger(level, join(leaf, "x"));
-            m_vLogger = doubleLogger(level, join(leaf, "v"));
-            m_aLogger = doubleLogger(level, join(leaf, "a"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.CONTROL100, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<Control100> vals) {
             if (!allow(m_level))
                 return;
             Control100 val = vals.get();
-            m_xLogger.log(val::x);
-            m_vLogger.log(val::v);
-            m_aLogger.log(val::a);
+            log(val.x(), val.v(), val.a());
+        }
+
+        public void log(double x, double v, double a) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = v;
+            m_val[2] = a;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -725,13 +948,20 @@ public class LoggerFactory {
             m_thetaLogger = control100Logger(level, join(leaf, "theta"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<SwerveControl> vals) {
             if (!allow(m_level))
                 return;
             SwerveControl val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            Control100 x = val.x();
+            Control100 y = val.y();
+            Control100 theta = val.theta();
+            m_xLogger.log(x.x(), x.v(), x.a());
+            m_yLogger.log(y.x(), y.v(), y.a());
+            m_thetaLogger.log(theta.x(), theta.v(), theta.a());
         }
     }
 
@@ -745,24 +975,39 @@ public class LoggerFactory {
 
     public class SwerveModelLogger {
         private final Level m_level;
-        private final Model100Logger m_xLogger;
-        private final Model100Logger m_yLogger;
-        private final Model100Logger m_thetaLogger;
+        private final PrimitiveLogger.PrimitiveStructLogger m_primitiveLogger;
+        private final double[] m_val = new double[UdpType.SWERVE_MODEL.length()];
 
         SwerveModelLogger(Level level, String leaf) {
             m_level = level;
-            m_xLogger = model100Logger(level, join(leaf, "x"));
-            m_yLogger = model100Logger(level, join(leaf, "y"));
-            m_thetaLogger = model100Logger(level, join(leaf, "theta"));
+            m_primitiveLogger = m_pLogger.structLogger(UdpType.SWERVE_MODEL, root(leaf));
+        }
+
+        public boolean enabled() {
+            return allow(m_level);
         }
 
         public void log(Supplier<SwerveModel> vals) {
             if (!allow(m_level))
                 return;
             SwerveModel val = vals.get();
-            m_xLogger.log(val::x);
-            m_yLogger.log(val::y);
-            m_thetaLogger.log(val::theta);
+            Model100 x = val.x();
+            Model100 y = val.y();
+            Model100 theta = val.theta();
+            log(x.x(), x.v(), y.x(), y.v(), theta.x(), theta.v());
+        }
+
+        /** Positions and velocities for each axis. */
+        public void log(double x, double vx, double y, double vy, double theta, double omega) {
+            if (!allow(m_level))
+                return;
+            m_val[0] = x;
+            m_val[1] = vx;
+            m_val[2] = y;
+            m_val[3] = vy;
+            m_val[4] = theta;
+            m_val[5] = omega;
+            m_primitiveLogger.log(m_val);
         }
     }
 
@@ -781,13 +1026,27 @@ public class LoggerFactory {
             m_rotation2dLogger = rotation2dLogger(level, join(leaf, "angle"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<SwerveModulePosition100> vals) {
             if (!allow(m_level))
                 return;
             SwerveModulePosition100 val = vals.get();
-            m_distanceLogger.log(() -> val.distanceMeters);
+            m_distanceLogger.log(val.distanceMeters);
             if (val.angle.isPresent()) {
-                m_rotation2dLogger.log(val.angle::get);
+                m_rotation2dLogger.log(val.angle.get().getRadians());
+            }
+        }
+
+        /** @param angleRad NaN means no angle. */
+        public void log(double distanceM, double angleRad) {
+            if (!allow(m_level))
+                return;
+            m_distanceLogger.log(distanceM);
+            if (!Double.isNaN(angleRad)) {
+                m_rotation2dLogger.log(angleRad);
             }
         }
     }
@@ -807,12 +1066,22 @@ public class LoggerFactory {
             m_th2Logger = doubleLogger(level, join(leaf, "th2"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<ArmAngles> vals) {
             if (!allow(m_level))
                 return;
             ArmAngles val = vals.get();
-            m_th1Logger.log(() -> val.th1);
-            m_th2Logger.log(() -> val.th2);
+            log(val.th1, val.th2);
+        }
+
+        public void log(double th1, double th2) {
+            if (!allow(m_level))
+                return;
+            m_th1Logger.log(th1);
+            m_th2Logger.log(th2);
         }
     }
 
@@ -835,14 +1104,19 @@ public class LoggerFactory {
             m_accelLogger = doubleLogger(level, join(leaf, "accel"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<State> vals) {
             if (!allow(m_level))
                 return;
             State val = vals.get();
-            m_poseLogger.log(() -> val.poseMeters);
-            m_curvatureLogger.log(() -> val.curvatureRadPerMeter);
-            m_velocityLogger.log(() -> val.velocityMetersPerSecond);
-            m_accelLogger.log(() -> val.accelerationMetersPerSecondSq);
+            Pose2d pose = val.poseMeters;
+            m_poseLogger.log(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+            m_curvatureLogger.log(val.curvatureRadPerMeter);
+            m_velocityLogger.log(val.velocityMetersPerSecond);
+            m_accelLogger.log(val.accelerationMetersPerSecondSq);
         }
     }
 
@@ -861,11 +1135,15 @@ public class LoggerFactory {
             m_transformLogger = transform3dLogger(level, join(leaf, "transform"));
         }
 
+        public boolean enabled() {
+            return allow(m_level);
+        }
+
         public void log(Supplier<Blip24> vals) {
             if (!allow(m_level))
                 return;
             Blip24 val = vals.get();
-            m_idLogger.log(val::getId);
+            m_idLogger.log(val.getId());
             m_transformLogger.log(val::getPose);
         }
     }
@@ -3,6 +3,7 @@ package org.team100.lib.logging;
 import org.team100.lib.logging.primitive.DummySender;
 import org.team100.lib.logging.primitive.NTPrimitiveLogger;
 import org.team100.lib.logging.primitive.PrimitiveLogger;
+import org.team100.lib.logging.primitive.UdpBatchSender;
 import org.team100.lib.logging.primitive.UdpPrimitiveLogger;
 import org.team100.lib.logging.primitive.UdpSender;
 import org.team100.lib.util.Util;
@@ -13,6 +14,10 @@ import com.ctre.phoenix6.SignalLogger;
 public class Logging {
     private static final boolean USE_UDP_LOGGING = false;
     private static final boolean USE_REAL_UDP = false;
+    /** Send UDP log packets on a separate thread, not the main loop. */
+    private static final boolean USE_SENDER_THREAD = true;
+    /** Smaller UDP log packets, for slow links, see UdpCompactProtocol. */
+    private static final boolean USE_COMPACT_UDP = false;
 
     private static final Logging instance = new Logging();
 
@@ -38,15 +43,26 @@ public class Logging {
             Util.warn("Using UDP network logging!");
             Util.warn("You must have a log listener connected!");
             Util.warn("=======================================");
-            if (USE_REAL_UDP) {
+            if (USE_REAL_UDP && USE_SENDER_THREAD) {
+                UdpBatchSender sender = new UdpBatchSender(UdpSender.data());
+                sender.start();
+                UdpSender meta = UdpSender.meta();
+                udpLogger = new UdpPrimitiveLogger(
+                        sender,
+                        meta);
+                udpLogger.useLabelAcks(meta::receive);
+            } else if (USE_REAL_UDP) {
+                UdpSender meta = UdpSender.meta();
                 udpLogger = new UdpPrimitiveLogger(
                         UdpSender.data(),
-                        UdpSender.meta());
+                        meta);
+                udpLogger.useLabelAcks(meta::receive);
             } else {
                 udpLogger = new UdpPrimitiveLogger(
                         new DummySender(),
                         new DummySender());
             }
+            udpLogger.setCompact(USE_COMPACT_UDP);
             fieldLogger = new LoggerFactory(() -> m_level, "field", udpLogger);
             rootLogger = new LoggerFactory(() -> m_level, "log", udpLogger);
         } else {
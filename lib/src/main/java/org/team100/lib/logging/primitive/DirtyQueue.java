@@ -0,0 +1,47 @@
+package org.team100.lib.logging.primitive;
+
+import java.util.Arrays;
+
+/**
+ * The loggers with values waiting to be flushed, in the order they were first
+ * dirtied.
+ * 
+ * Each logger keeps its own dirty flag, and adds itself here only on the
+ * transition from clean to dirty, so it appears at most once, and the value
+ * written at flush time is the newest one.
+ * 
+ * Capacity is reserved when a logger is registered, so add() never allocates.
+ * 
+ * This is not thread-safe; logging happens on the main loop.
+ */
+final class DirtyQueue<T> {
+    private Object[] m_items = new Object[16];
+    private int m_capacity;
+    private int m_size;
+
+    /** Make room for one more logger; call at registration. */
+    void reserve() {
+        ++m_capacity;
+        if (m_capacity > m_items.length)
+            m_items = Arrays.copyOf(m_items, m_items.length * 2);
+    }
+
+    void add(T item) {
+        m_items[m_size++] = item;
+    }
+
+    int size() {
+        return m_size;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int i) {
+        return (T) m_items[i];
+    }
+
+    /** Forget the queued loggers, without releasing the space. */
+    void clear() {
+        Arrays.fill(m_items, 0, m_size, null);
+        m_size = 0;
+    }
+}
@@ -48,4 +48,31 @@ public interface PrimitiveLogger {
     }
 
     PrimitiveStringLogger stringLogger(String label);
+
+    /**
+     * Logs a fixed-layout struct of doubles (see UdpType) with one call.
+     */
+    @FunctionalInterface
+    interface PrimitiveStructLogger {
+        /** @param val at least type.length() values; not retained. */
+        void log(double[] val);
+    }
+
+    /**
+     * The default makes a double logger for each field, named label/field, for
+     * loggers without native struct support.
+     */
+    default PrimitiveStructLogger structLogger(UdpType type, String label) {
+        if (!type.isStruct())
+            throw new IllegalArgumentException("not a struct type " + type.name());
+        final PrimitiveDoubleLogger[] fields = new PrimitiveDoubleLogger[type.length()];
+        for (int i = 0; i < fields.length; ++i) {
+            fields[i] = doubleLogger(label + "/" + type.field(i));
+        }
+        return val -> {
+            for (int i = 0; i < fields.length; ++i) {
+                fields[i].log(val[i]);
+            }
+        };
+    }
 }
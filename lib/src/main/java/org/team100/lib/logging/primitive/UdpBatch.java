@@ -0,0 +1,54 @@
+package org.team100.lib.logging.primitive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One cycle's worth of encoded log records, bigger than a packet, with the end
+ * offset of each record, so the sender can split it into packets without
+ * parsing it.
+ * 
+ * The main loop writes it, the sender thread reads it; UdpBatchSender hands it
+ * from one to the other.
+ */
+final class UdpBatch {
+    private final UdpPrimitiveProtocol m_protocol;
+    /** End offset of each record in the buffer. */
+    private final int[] m_ends;
+    private int m_count;
+    /** Filled and not yet sent. Ordered by the handoff in UdpBatchSender. */
+    boolean m_fresh;
+
+    /** @param bufferSize bytes, including the timestamp. */
+    UdpBatch(int bufferSize) {
+        m_protocol = new UdpPrimitiveProtocol(bufferSize);
+        // the smallest record (compact boolean) is 2 bytes.
+        m_ends = new int[bufferSize / 2];
+    }
+
+    UdpPrimitiveProtocol protocol() {
+        return m_protocol;
+    }
+
+    void clear() {
+        m_protocol.clear();
+        m_count = 0;
+    }
+
+    /** Note the end of the record just written. */
+    void mark() {
+        m_ends[m_count++] = m_protocol.buffer().position();
+    }
+
+    int count() {
+        return m_count;
+    }
+
+    int end(int i) {
+        return m_ends[i];
+    }
+
+    /** The whole buffer, timestamp first; use absolute reads only. */
+    ByteBuffer buffer() {
+        return m_protocol.buffer();
+    }
+}
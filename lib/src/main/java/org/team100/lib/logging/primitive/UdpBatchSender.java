@@ -0,0 +1,145 @@
+package org.team100.lib.logging.primitive;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Splits log batches into packets and sends them, on a low-priority thread of
+ * its own, so that the main loop only pays for copying the values.
+ * 
+ * There are three batches: the main loop fills the "front" one, the sender
+ * thread sends the "back" one, and they trade through the "middle" one, with
+ * no locks. Neither side ever waits for the other. If the main loop publishes
+ * twice before the sender picks up, the older batch is dropped and counted.
+ */
+public class UdpBatchSender {
+    /** Enough for about 20k doubles per flush. */
+    private static final int kBatchSize = 256 * 1024;
+    private static final int kTimestampBytes = 8;
+
+    private final Consumer<ByteBuffer> m_sink;
+    private final AtomicReference<UdpBatch> m_middle;
+    private final AtomicLong m_dropped;
+    /** Written only by the sender thread. */
+    private final ByteBuffer m_packet;
+
+    /** Main loop only. */
+    private UdpBatch m_front;
+    /** Sender thread only. */
+    private UdpBatch m_back;
+
+    private volatile Thread m_thread;
+
+    /** @param sink e.g. UdpSender, called by the sender thread. */
+    public UdpBatchSender(Consumer<ByteBuffer> sink) {
+        this(sink, kBatchSize);
+    }
+
+    UdpBatchSender(Consumer<ByteBuffer> sink, int batchSize) {
+        m_sink = sink;
+        m_front = new UdpBatch(batchSize);
+        m_middle = new AtomicReference<>(new UdpBatch(batchSize));
+        m_back = new UdpBatch(batchSize);
+        m_dropped = new AtomicLong();
+        // direct buffer goes slightly faster out the network
+        m_packet = ByteBuffer.allocateDirect(UdpSender.MTU);
+        m_packet.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    public void start() {
+        if (m_thread != null)
+            return;
+        Thread t = new Thread(this::run, "UdpLog");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        m_thread = t;
+        t.start();
+    }
+
+    public void close() {
+        Thread t = m_thread;
+        if (t == null)
+            return;
+        m_thread = null;
+        t.interrupt();
+    }
+
+    /** Total batches dropped because the sender fell behind. */
+    public long dropped() {
+        return m_dropped.get();
+    }
+
+    /** The batch for the main loop to fill. */
+    UdpBatch front() {
+        return m_front;
+    }
+
+    /** Hand the front batch to the sender, and take an empty one. */
+    void publish() {
+        m_front.m_fresh = true;
+        m_front = m_middle.getAndSet(m_front);
+        if (m_front.m_fresh) {
+            // the sender never got to this one.
+            m_dropped.incrementAndGet();
+            m_front.m_fresh = false;
+        }
+        m_front.clear();
+        Thread t = m_thread;
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+
+    /**
+     * Send the pending batch, if there is one. Called by the sender thread, or
+     * directly, in tests.
+     * 
+     * @return true if there was a batch to send
+     */
+    boolean sendPending() {
+        if (!m_middle.get().m_fresh)
+            return false;
+        m_back = m_middle.getAndSet(m_back);
+        send(m_back);
+        m_back.m_fresh = false;
+        return true;
+    }
+
+    private void run() {
+        while (m_thread != null && !Thread.currentThread().isInterrupted()) {
+            if (!sendPending())
+                LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Split the batch at record boundaries into packets no bigger than the MTU,
+     * each with the timestamp first. Sends at least one packet, like
+     * UdpPrimitiveLogger.flush().
+     */
+    private void send(UdpBatch batch) {
+        ByteBuffer src = batch.buffer();
+        int start = kTimestampBytes;
+        int prev = kTimestampBytes;
+        for (int i = 0; i < batch.count(); ++i) {
+            int end = batch.end(i);
+            if (kTimestampBytes + end - start > UdpSender.MTU) {
+                sendPacket(src, start, prev);
+                start = prev;
+            }
+            prev = end;
+        }
+        sendPacket(src, start, prev);
+    }
+
+    private void sendPacket(ByteBuffer src, int start, int end) {
+        m_packet.clear();
+        m_packet.put(0, src, 0, kTimestampBytes);
+        m_packet.put(kTimestampBytes, src, start, end - start);
+        m_packet.limit(kTimestampBytes + end - start);
+        m_sink.accept(m_packet);
+    }
+}
@@ -0,0 +1,260 @@
+package org.team100.lib.logging.primitive;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
+
+/**
+ * Compact log data protocol, an option for slow links.
+ *
+ * Same packet layout as UdpPrimitiveProtocol (timestamp, then a list of
+ * records), but the top bit of the timestamp is set, and each record is
+ * smaller:
+ *
+ * * key: varint, 1 byte for keys below 128, 3 at most
+ * * tag (1 byte): type id in the low nibble, plus a flag bit
+ * * value (varies)
+ *
+ * Booleans carry the value in the tag flag, so there's no payload. Ints and
+ * longs are zigzag varints. Strings and double arrays are the same as
+ * UdpPrimitiveProtocol.
+ *
+ * Doubles, and struct fields, are XOR'ed against a reference, Gorilla-style
+ * but byte-aligned: a header byte with the count of leading zero bytes in the
+ * high nibble and the count of meaningful bytes in the low nibble, then the
+ * meaningful bytes. An unchanged value is just the header byte, zero.
+ *
+ * <pre>
+ * KTGHxxKTGHxx
+ * ^            key (1-3 bytes)
+ *  ^           tag: type = DOUBLE, flag = delta
+ *   ^          generation of the reference
+ *    ^         header: 2 leading zero bytes, 2 meaningful bytes
+ *     ^^       the XOR without the zero bytes
+ * </pre>
+ *
+ * UDP loses packets, so the reference is not the last value sent, it's the
+ * last "full" value sent, and the sender sends a full value every so often.
+ * Each full value starts a new generation, and the deltas name the
+ * generation they're against, so a receiver that missed the full value knows
+ * to drop the deltas, instead of decoding them wrong.
+ */
+public class UdpCompactProtocol {
+    /** Marks compact packets, in the timestamp, which is otherwise positive. */
+    static final long kCompactFlag = Long.MIN_VALUE;
+    private static final int kTypeMask = 0x0f;
+    /** Boolean value, or, for doubles, delta instead of full. */
+    private static final int kFlag = 0x10;
+
+    private UdpCompactProtocol() {
+        //
+    }
+
+    /** True if the packet timestamp says the packet is compact. */
+    public static boolean isCompact(long timestamp) {
+        return (timestamp & kCompactFlag) != 0;
+    }
+
+    /** The packet timestamp without the compact flag. */
+    public static long timestamp(long timestamp) {
+        return timestamp & ~kCompactFlag;
+    }
+
+    /**
+     * <pre>
+     * KT
+     * ^  key
+     *  ^ tag: type = BOOLEAN, flag = value
+     * </pre>
+     */
+    static boolean encodeBoolean(ByteBuffer buf, int key, boolean val) {
+        if (buf.remaining() < 4)
+            return false;
+        putVarint(buf, key);
+        buf.put((byte) (UdpType.BOOLEAN.id | (val ? kFlag : 0)));
+        return true;
+    }
+
+    /** Zigzag varint, so small negative numbers are small too. */
+    static boolean encodeLong(ByteBuffer buf, int key, UdpType type, long val) {
+        if (buf.remaining() < 14)
+            return false;
+        putVarint(buf, key);
+        buf.put(type.id);
+        putVarint(buf, (val << 1) ^ (val >> 63));
+        return true;
+    }
+
+    /**
+     * If full, writes the value and makes it the reference, otherwise writes
+     * the XOR against the reference.
+     *
+     * @param ref the bits of the reference, one element, updated if full
+     * @param gen the generation of the reference, new if full
+     */
+    static boolean encodeDouble(ByteBuffer buf, int key, double val, long[] ref, int gen, boolean full) {
+        if (buf.remaining() < 5 + 9)
+            return false;
+        putHeader(buf, key, UdpType.DOUBLE, gen, full);
+        putField(buf, Double.doubleToRawLongBits(val), ref, 0, full);
+        return true;
+    }
+
+    /** Like encodeDouble, field by field. */
+    static boolean encodeStruct(ByteBuffer buf, int key, UdpType type, double[] val, long[] ref, int gen,
+            boolean full) {
+        final int n = type.length();
+        if (buf.remaining() < 5 + 9 * n)
+            return false;
+        putHeader(buf, key, type, gen, full);
+        for (int i = 0; i < n; ++i) {
+            putField(buf, Double.doubleToRawLongBits(val[i]), ref, i, full);
+        }
+        return true;
+    }
+
+    /** Compact key and tag, then the same as UdpPrimitiveProtocol. */
+    static boolean encodeDoubleArray(ByteBuffer buf, int key, double[] val) {
+        if (val.length > 255)
+            throw new IllegalArgumentException();
+        if (buf.remaining() < 5 + val.length * 8)
+            return false;
+        putVarint(buf, key);
+        buf.put(UdpType.DOUBLE_ARRAY.id);
+        buf.put((byte) val.length);
+        for (int i = 0; i < val.length; ++i) {
+            buf.putDouble(val[i]);
+        }
+        return true;
+    }
+
+    /** Compact key and tag, then the same as UdpPrimitiveProtocol. */
+    static boolean encodeString(ByteBuffer buf, int key, byte[] bytes) {
+        if (bytes.length > 255)
+            throw new IllegalArgumentException();
+        if (buf.remaining() < 5 + bytes.length)
+            return false;
+        putVarint(buf, key);
+        buf.put(UdpType.STRING.id);
+        buf.put((byte) bytes.length);
+        buf.put(bytes);
+        return true;
+    }
+
+    public static int decodeKey(ByteBuffer buf) throws ProtocolException {
+        long key = decodeVarint(buf);
+        if (key > 0xffff)
+            throw new ProtocolException();
+        return (int) key;
+    }
+
+    /** The whole tag byte; see type(), flag(). */
+    public static int decodeTag(ByteBuffer buf) throws ProtocolException {
+        try {
+            return buf.get() & 0xff;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ProtocolException();
+        }
+    }
+
+    public static UdpType type(int tag) {
+        return UdpType.get((byte) (tag & kTypeMask));
+    }
+
+    /** Boolean value, or delta (not full) for doubles and structs. */
+    public static boolean flag(int tag) {
+        return (tag & kFlag) != 0;
+    }
+
+    public static long decodeZigzag(ByteBuffer buf) throws ProtocolException {
+        long v = decodeVarint(buf);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** Generation byte, for doubles and structs. */
+    public static int decodeGeneration(ByteBuffer buf) throws ProtocolException {
+        return decodeTag(buf);
+    }
+
+    /**
+     * One double or struct field.
+     *
+     * @param delta  from the tag flag
+     * @param refBits the reference, for a delta
+     * @return the bits of the value
+     */
+    public static long decodeField(ByteBuffer buf, boolean delta, long refBits) throws ProtocolException {
+        try {
+            if (!delta)
+                return buf.getLong();
+            int header = buf.get() & 0xff;
+            if (header == 0)
+                return refBits;
+            int lead = header >>> 4;
+            int n = header & 0x0f;
+            if (n == 0 || lead + n > 8)
+                throw new ProtocolException();
+            long xor = 0;
+            for (int i = 0; i < n; ++i) {
+                xor = (xor << 8) | (buf.get() & 0xff);
+            }
+            return refBits ^ (xor << (8 * (8 - lead - n)));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ProtocolException();
+        }
+    }
+
+    //////////////////////////////////////////
+
+    private static void putHeader(ByteBuffer buf, int key, UdpType type, int gen, boolean full) {
+        putVarint(buf, key);
+        buf.put((byte) (type.id | (full ? 0 : kFlag)));
+        buf.put((byte) gen);
+    }
+
+    private static void putField(ByteBuffer buf, long bits, long[] ref, int i, boolean full) {
+        if (full) {
+            buf.putLong(bits);
+            ref[i] = bits;
+            return;
+        }
+        long xor = bits ^ ref[i];
+        if (xor == 0) {
+            buf.put((byte) 0);
+            return;
+        }
+        int lead = Long.numberOfLeadingZeros(xor) / 8;
+        int trail = Long.numberOfTrailingZeros(xor) / 8;
+        int n = 8 - lead - trail;
+        buf.put((byte) ((lead << 4) | n));
+        xor >>>= 8 * trail;
+        for (int j = n - 1; j >= 0; --j) {
+            buf.put((byte) (xor >>> (8 * j)));
+        }
+    }
+
+    /** Unsigned, seven bits per byte, low bits first. */
+    static void putVarint(ByteBuffer buf, long val) {
+        while ((val & ~0x7fL) != 0) {
+            buf.put((byte) ((val & 0x7f) | 0x80));
+            val >>>= 7;
+        }
+        buf.put((byte) val);
+    }
+
+    static long decodeVarint(ByteBuffer buf) throws ProtocolException {
+        try {
+            long val = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf.get();
+                val |= (long) (b & 0x7f) << shift;
+                if (b >= 0)
+                    return val;
+            }
+            throw new ProtocolException();
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ProtocolException();
+        }
+    }
+}
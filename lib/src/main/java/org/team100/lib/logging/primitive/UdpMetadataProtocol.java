@@ -40,6 +40,15 @@ import edu.wpi.first.wpilibj.RobotController;
  *                             ^     string length = 3
  *                              ^^^  string in ascii for label 18
  * </pre>
+ * 
+ * The receiver acks each metadata packet with the number of labels it has,
+ * counting up from key 1 with no gaps, so the sender can skip those.
+ * 
+ * <pre>
+ * DDDDDDDDCCCC
+ * ^^^^^^^^     timestamp
+ *         ^^^^ count
+ * </pre>
  */
 public class UdpMetadataProtocol {
 
@@ -99,6 +108,20 @@ public class UdpMetadataProtocol {
         timestamp = Instant.now().getEpochSecond();
     }
 
+    public static void encodeAck(ByteBuffer buf, long timestamp, int count) {
+        buf.putLong(timestamp);
+        buf.putInt(count);
+    }
+
+    /** @return the count, or -1 if the ack is malformed or for another session */
+    static int decodeAck(ByteBuffer buf) {
+        if (buf.remaining() < 12)
+            return -1;
+        if (buf.getLong() != timestamp)
+            return -1;
+        return buf.getInt();
+    }
+
     boolean put(int key, UdpType type, String label) {
         return add(m_buffer, key, type, label);
     }
@@ -8,7 +8,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
+import org.team100.lib.framework.Trace;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.wpilibj.Timer;
@@ -23,6 +25,13 @@ import edu.wpi.first.wpilibj.Timer;
  * 
  * This logger accepts inputs only one value per key per flush period; the
  * newest value wins.
+ * 
+ * Each logger queues itself when it becomes dirty, so flushing costs time
+ * proportional to the number of changed values, not the number of keys.
+ * 
+ * For slow links, setCompact() uses the smaller encoding in
+ * UdpCompactProtocol, and useLabelAcks() stops re-sending labels the receiver
+ * already has.
  */
 public class UdpPrimitiveLogger implements PrimitiveLogger {
     /** if false, throw when a duplicate logger is created. */
@@ -40,14 +49,17 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
     }
 
     private static final double kFlushPeriod = 0.1;
-
-    /** Using lists makes the scan for flushing ever-so-slightly faster */
-    private final List<UdpBooleanLogger> booleanLoggers = new ArrayList<>();
-    private final List<UdpDoubleLogger> doubleLoggers = new ArrayList<>();
-    private final List<UdpIntLogger> integerLoggers = new ArrayList<>();
-    private final List<UdpDoubleArrayLogger> doubleArrayLoggers = new ArrayList<>();
-    private final List<UdpLongLogger> longLoggers = new ArrayList<>();
-    private final List<UdpStringLogger> stringLoggers = new ArrayList<>();
+    /** In compact mode, send a full double every this many sends. */
+    private static final int kFullPeriod = 16;
+
+    /** Dirty loggers, by type, so the packet layout is the same as a full scan. */
+    private final DirtyQueue<UdpBooleanLogger> dirtyBooleans = new DirtyQueue<>();
+    private final DirtyQueue<UdpDoubleLogger> dirtyDoubles = new DirtyQueue<>();
+    private final DirtyQueue<UdpIntLogger> dirtyInts = new DirtyQueue<>();
+    private final DirtyQueue<UdpDoubleArrayLogger> dirtyDoubleArrays = new DirtyQueue<>();
+    private final DirtyQueue<UdpLongLogger> dirtyLongs = new DirtyQueue<>();
+    private final DirtyQueue<UdpStringLogger> dirtyStrings = new DirtyQueue<>();
+    private final DirtyQueue<UdpStructLogger> dirtyStructs = new DirtyQueue<>();
 
     final List<Metadata> metadata = new ArrayList<>();
     /**
@@ -61,28 +73,77 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
     private final Map<String, UdpDoubleArrayLogger> doubleArrayIdx = new HashMap<>();
     private final Map<String, UdpLongLogger> longIdx = new HashMap<>();
     private final Map<String, UdpStringLogger> stringIdx = new HashMap<>();
+    private final Map<String, UdpStructLogger> structIdx = new HashMap<>();
     private final Consumer<ByteBuffer> m_bufferSink;
     private final Consumer<ByteBuffer> m_metadataSink;
 
+    /** Nullable. If present, the data sink is unused. */
+    private final UdpBatchSender m_batchSender;
+
     // keep the output buffers forever because allocating it is slow.
-    private final UdpPrimitiveProtocol m_dataProtocol;
+    /** With a batch sender, this is the front batch, during flush(). */
+    private UdpPrimitiveProtocol m_dataProtocol;
     private final UdpMetadataProtocol m_metadataProtocol;
 
     /** Current offset of label dumper */
     int offset = 0;
 
     private double flushTime;
+    /** Values dropped because the batch was full. */
+    private long m_batchOverflow;
+
+    private boolean m_compact;
+    /** Nullable. Reads the receiver's label acks, see UdpSender.receive(). */
+    private ToIntFunction<ByteBuffer> m_ackSource;
+    private final ByteBuffer m_ack;
+    /** The receiver has labels for keys 1 through this. */
+    private int m_acked;
+
+    public UdpPrimitiveLogger(
+            Consumer<ByteBuffer> dataSink,
+            Consumer<ByteBuffer> metadataSink) {
+        this(dataSink, null, metadataSink);
+    }
 
+    /**
+     * Flushing only copies values into a batch; the sender splits it into
+     * packets and sends them on its own thread.
+     */
     public UdpPrimitiveLogger(
+            UdpBatchSender batchSender,
+            Consumer<ByteBuffer> metadataSink) {
+        this(null, batchSender, metadataSink);
+    }
+
+    private UdpPrimitiveLogger(
             Consumer<ByteBuffer> dataSink,
+            UdpBatchSender batchSender,
             Consumer<ByteBuffer> metadataSink) {
         m_bufferSink = dataSink;
+        m_batchSender = batchSender;
         m_metadataSink = metadataSink;
         m_dataProtocol = new UdpPrimitiveProtocol();
         m_metadataProtocol = new UdpMetadataProtocol();
+        m_ack = ByteBuffer.allocateDirect(UdpSender.MTU);
         flushTime = 0;
     }
 
+    /**
+     * Use the compact encoding, see UdpCompactProtocol. Set it once, at
+     * startup.
+     */
+    public void setCompact(boolean compact) {
+        m_compact = compact;
+    }
+
+    /**
+     * Read label acks from the receiver, e.g. via UdpSender::receive on the
+     * metadata sender, so that dumpLabels() can skip the labels it already has.
+     */
+    public void useLabelAcks(ToIntFunction<ByteBuffer> ackSource) {
+        m_ackSource = ackSource;
+    }
+
     /**
      * Call this once when the specific logger class is instantiated.
      * 
@@ -99,6 +160,11 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
         return metadata.size();
     }
 
+    /** Values dropped because the batch was full. */
+    public long batchOverflow() {
+        return m_batchOverflow;
+    }
+
     /** Emits some labels and flushes all dirty values. */
     public void periodic() {
         double now = Timer.getFPGATimestamp();
@@ -122,7 +188,14 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
     public boolean dumpLabels() {
         if (metadata.isEmpty())
             return false;
+        readAcks();
         m_metadataProtocol.clear();
+        if (m_acked >= metadata.size()) {
+            // the receiver has them all; send just the timestamp, so that it
+            // keeps acking, and we find out if it restarts.
+            m_metadataSink.accept(m_metadataProtocol.trim());
+            return false;
+        }
         for (int i = offset; i < metadata.size(); ++i) {
             Metadata d = metadata.get(i);
             if (!m_metadataProtocol.put(d.key, d.type, d.label)) {
@@ -134,20 +207,66 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
         }
         // added them all, send what we have.
         m_metadataSink.accept(m_metadataProtocol.trim());
-        offset = 0;
+        offset = m_acked;
         return false;
     }
 
-    /** Send at least one packet. */
+    /** Take the newest ack, if any. */
+    private void readAcks() {
+        if (m_ackSource == null)
+            return;
+        while (true) {
+            m_ack.clear();
+            if (m_ackSource.applyAsInt(m_ack) == 0)
+                return;
+            m_ack.flip();
+            int acked = UdpMetadataProtocol.decodeAck(m_ack);
+            if (acked < 0)
+                continue;
+            m_acked = acked;
+            if (offset < m_acked)
+                offset = m_acked;
+        }
+    }
+
+    /**
+     * Send at least one packet. With a batch sender, hand the values to the
+     * sender instead.
+     */
     public void flush() {
-        m_dataProtocol.clear();
+        Trace.begin("log/flush");
+        try {
+            if (m_batchSender != null) {
+                flushBatch();
+                return;
+            }
+            m_dataProtocol.clear();
+            m_dataProtocol.setCompact(m_compact);
+            flushBoolean();
+            flushDouble();
+            flushInteger();
+            flushDoubleArray();
+            flushLong();
+            flushString();
+            flushStruct();
+            m_bufferSink.accept(m_dataProtocol.trim());
+        } finally {
+            Trace.end();
+        }
+    }
+
+    private void flushBatch() {
+        UdpBatch batch = m_batchSender.front();
+        m_dataProtocol = batch.protocol();
+        m_dataProtocol.setCompact(m_compact);
         flushBoolean();
         flushDouble();
         flushInteger();
         flushDoubleArray();
         flushLong();
         flushString();
-        m_bufferSink.accept(m_dataProtocol.trim());
+        flushStruct();
+        m_batchSender.publish();
     }
 
     public class UdpBooleanLogger implements PrimitiveLogger.PrimitiveBooleanLogger {
@@ -157,30 +276,37 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
         public UdpBooleanLogger(String label) {
             m_key = getKey(UdpType.BOOLEAN, label);
-            booleanLoggers.add(this);
+            dirtyBooleans.reserve();
         }
 
         @Override
         public void log(boolean val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyBooleans.add(this);
+            }
         }
     }
 
     public class UdpDoubleLogger implements PrimitiveLogger.PrimitiveDoubleLogger {
         private final int m_key;
+        private final CompactRef m_ref = new CompactRef(1);
         private double m_val;
         private boolean m_dirty;
 
         public UdpDoubleLogger(String label) {
             m_key = getKey(UdpType.DOUBLE, label);
-            doubleLoggers.add(this);
+            dirtyDoubles.reserve();
         }
 
         @Override
         public void log(double val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyDoubles.add(this);
+            }
         }
 
     }
@@ -192,13 +318,16 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
         public UdpIntLogger(String label) {
             m_key = getKey(UdpType.INT, label);
-            integerLoggers.add(this);
+            dirtyInts.reserve();
         }
 
         @Override
         public void log(int val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyInts.add(this);
+            }
         }
     }
 
@@ -209,13 +338,16 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
         public UdpDoubleArrayLogger(String label) {
             m_key = getKey(UdpType.DOUBLE_ARRAY, label);
-            doubleArrayLoggers.add(this);
+            dirtyDoubleArrays.reserve();
         }
 
         @Override
         public void log(double[] val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyDoubleArrays.add(this);
+            }
         }
     }
 
@@ -226,13 +358,16 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
         public UdpLongLogger(String label) {
             m_key = getKey(UdpType.LONG, label);
-            longLoggers.add(this);
+            dirtyLongs.reserve();
         }
 
         @Override
         public void log(long val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyLongs.add(this);
+            }
         }
 
     }
@@ -244,13 +379,70 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
         public UdpStringLogger(String label) {
             m_key = getKey(UdpType.STRING, label);
-            stringLoggers.add(this);
+            dirtyStrings.reserve();
         }
 
         @Override
         public void log(String val) {
             m_val = val;
-            m_dirty = true;
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyStrings.add(this);
+            }
+        }
+    }
+
+    public class UdpStructLogger implements PrimitiveLogger.PrimitiveStructLogger {
+        private final int m_key;
+        private final UdpType m_type;
+        private final double[] m_val;
+        private final CompactRef m_ref;
+        private boolean m_dirty;
+
+        public UdpStructLogger(UdpType type, String label) {
+            m_key = getKey(type, label);
+            m_type = type;
+            m_val = new double[type.length()];
+            m_ref = new CompactRef(type.length());
+            dirtyStructs.reserve();
+        }
+
+        @Override
+        public void log(double[] val) {
+            System.arraycopy(val, 0, m_val, 0, m_val.length);
+            if (!m_dirty) {
+                m_dirty = true;
+                dirtyStructs.add(this);
+            }
+        }
+    }
+
+    /**
+     * The reference that a compact double, or struct, is XOR'ed against, and its
+     * generation. The reference is replaced with a full value every
+     * kFullPeriod sends, so a receiver that misses one recovers soon.
+     */
+    private static final class CompactRef {
+        private final long[] m_bits;
+        private int m_gen;
+        private int m_sends;
+
+        CompactRef(int n) {
+            m_bits = new long[n];
+        }
+
+        boolean full() {
+            return m_sends % kFullPeriod == 0;
+        }
+
+        int gen() {
+            return full() ? (m_gen + 1) & 0xff : m_gen;
+        }
+
+        /** Call after the value is written. */
+        void sent() {
+            m_gen = gen();
+            ++m_sends;
         }
     }
 
@@ -258,6 +450,15 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
 
     /** @param putter puts the value if there's room, returns false if not. */
     private void putAndMaybeSend(BooleanSupplier putter) {
+        if (m_batchSender != null) {
+            if (putter.getAsBoolean()) {
+                m_batchSender.front().mark();
+            } else {
+                // the batch is full; drop the rest.
+                ++m_batchOverflow;
+            }
+            return;
+        }
         if (!putter.getAsBoolean()) {
             // time to send the packet
             m_bufferSink.accept(m_dataProtocol.trim());
@@ -269,57 +470,104 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
     }
 
     private void flushBoolean() {
-        for (UdpBooleanLogger logger : booleanLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyBooleans.size(); ++i) {
+            UdpBooleanLogger logger = dirtyBooleans.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> m_dataProtocol.putCompactBoolean(logger.m_key, logger.m_val));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putBoolean(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyBooleans.clear();
     }
 
     private void flushDouble() {
-        for (UdpDoubleLogger logger : doubleLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyDoubles.size(); ++i) {
+            UdpDoubleLogger logger = dirtyDoubles.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> putCompactDouble(logger));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putDouble(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyDoubles.clear();
     }
 
     private void flushInteger() {
-        for (UdpIntLogger logger : integerLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyInts.size(); ++i) {
+            UdpIntLogger logger = dirtyInts.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> m_dataProtocol.putCompactLong(logger.m_key, UdpType.INT, logger.m_val));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putInt(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyInts.clear();
     }
 
     private void flushDoubleArray() {
-        for (UdpDoubleArrayLogger logger : doubleArrayLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyDoubleArrays.size(); ++i) {
+            UdpDoubleArrayLogger logger = dirtyDoubleArrays.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> m_dataProtocol.putCompactDoubleArray(logger.m_key, logger.m_val));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putDoubleArray(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyDoubleArrays.clear();
     }
 
     private void flushLong() {
-        for (UdpLongLogger logger : longLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyLongs.size(); ++i) {
+            UdpLongLogger logger = dirtyLongs.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> m_dataProtocol.putCompactLong(logger.m_key, UdpType.LONG, logger.m_val));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putLong(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyLongs.clear();
     }
 
     private void flushString() {
-        for (UdpStringLogger logger : stringLoggers) {
-            if (logger.m_dirty) {
+        for (int i = 0; i < dirtyStrings.size(); ++i) {
+            UdpStringLogger logger = dirtyStrings.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> m_dataProtocol.putCompactString(logger.m_key, logger.m_val));
+            else
                 putAndMaybeSend(() -> m_dataProtocol.putString(logger.m_key, logger.m_val));
-                logger.m_dirty = false;
-            }
+            logger.m_dirty = false;
         }
+        dirtyStrings.clear();
+    }
+
+    private void flushStruct() {
+        for (int i = 0; i < dirtyStructs.size(); ++i) {
+            UdpStructLogger logger = dirtyStructs.get(i);
+            if (m_compact)
+                putAndMaybeSend(() -> putCompactStruct(logger));
+            else
+                putAndMaybeSend(() -> m_dataProtocol.putStruct(logger.m_key, logger.m_type, logger.m_val));
+            logger.m_dirty = false;
+        }
+        dirtyStructs.clear();
+    }
+
+    private boolean putCompactDouble(UdpDoubleLogger logger) {
+        CompactRef ref = logger.m_ref;
+        if (!m_dataProtocol.putCompactDouble(logger.m_key, logger.m_val, ref.m_bits, ref.gen(), ref.full()))
+            return false;
+        ref.sent();
+        return true;
+    }
+
+    private boolean putCompactStruct(UdpStructLogger logger) {
+        CompactRef ref = logger.m_ref;
+        if (!m_dataProtocol.putCompactStruct(
+                logger.m_key, logger.m_type, logger.m_val, ref.m_bits, ref.gen(), ref.full()))
+            return false;
+        ref.sent();
+        return true;
     }
 
     @Override
@@ -412,4 +660,21 @@ public class UdpPrimitiveLogger implements PrimitiveLogger {
         return x;
     }
 
+    @Override
+    public PrimitiveStructLogger structLogger(UdpType type, String label) {
+        if (!type.isStruct())
+            throw new IllegalArgumentException("not a struct type " + type.name());
+        UdpStructLogger existing = structIdx.get(label);
+        if (existing != null) {
+            if (ALLOW_DUPLICATES && existing.m_type == type) {
+                Util.warn("duplicate label " + label);
+                return existing;
+            } else {
+                throw new IllegalArgumentException("duplicate label " + label);
+            }
+        }
+        UdpStructLogger x = new UdpStructLogger(type, label);
+        structIdx.put(label, x);
+        return x;
+    }
 }
@@ -35,6 +35,11 @@ import java.nio.charset.StandardCharsets;
  *                          ^ boolean value = true (1 byte)
  * </pre>
  * 
+ * Struct types (see UdpType) are a fixed number of doubles, with no length
+ * byte, since the type implies the length.
+ * 
+ * In compact mode, the records are smaller, see UdpCompactProtocol.
+ * 
  * Decoders throw ProtocolException in case of bounds exceptions.
  * 
  * These operations used to use offsets but the only use cases are
@@ -45,6 +50,7 @@ public class UdpPrimitiveProtocol {
     }
 
     private final ByteBuffer m_buffer;
+    private boolean m_compact;
 
     public UdpPrimitiveProtocol(int bufferSize) {
         // direct buffer goes slightly faster out the network
@@ -71,7 +77,22 @@ public class UdpPrimitiveProtocol {
     /** Clear the underlying buffer and rewrite the timestamp into it. */
     void clear() {
         m_buffer.clear();
-        m_buffer.putLong(UdpMetadataProtocol.timestamp);
+        m_buffer.putLong(timestamp());
+    }
+
+    /**
+     * Use the compact encoding for the records that follow, and mark the packet
+     * with it.
+     */
+    void setCompact(boolean compact) {
+        m_compact = compact;
+        m_buffer.putLong(0, timestamp());
+    }
+
+    private long timestamp() {
+        if (m_compact)
+            return UdpMetadataProtocol.timestamp | UdpCompactProtocol.kCompactFlag;
+        return UdpMetadataProtocol.timestamp;
     }
 
     /** @return true if written */
@@ -104,6 +125,41 @@ public class UdpPrimitiveProtocol {
         return encodeDoubleArray(m_buffer, key, val) != 0;
     }
 
+    /** @return true if written */
+    public boolean putStruct(int key, UdpType type, double[] val) {
+        return encodeStruct(m_buffer, key, type, val) != 0;
+    }
+
+    /** @return true if written */
+    boolean putCompactBoolean(int key, boolean val) {
+        return UdpCompactProtocol.encodeBoolean(m_buffer, key, val);
+    }
+
+    /** @return true if written */
+    boolean putCompactLong(int key, UdpType type, long val) {
+        return UdpCompactProtocol.encodeLong(m_buffer, key, type, val);
+    }
+
+    /** @return true if written */
+    boolean putCompactDouble(int key, double val, long[] ref, int gen, boolean full) {
+        return UdpCompactProtocol.encodeDouble(m_buffer, key, val, ref, gen, full);
+    }
+
+    /** @return true if written */
+    boolean putCompactStruct(int key, UdpType type, double[] val, long[] ref, int gen, boolean full) {
+        return UdpCompactProtocol.encodeStruct(m_buffer, key, type, val, ref, gen, full);
+    }
+
+    /** @return true if written */
+    boolean putCompactDoubleArray(int key, double[] val) {
+        return UdpCompactProtocol.encodeDoubleArray(m_buffer, key, val);
+    }
+
+    /** @return true if written */
+    boolean putCompactString(int key, String val) {
+        return UdpCompactProtocol.encodeString(m_buffer, key, val.getBytes(StandardCharsets.US_ASCII));
+    }
+
     /** just the key */
     public static int decodeKey(ByteBuffer buf) throws ProtocolException {
         try {
@@ -309,4 +365,47 @@ public class UdpPrimitiveProtocol {
             throw new ProtocolException();
         }
     }
+
+    /**
+     * A fixed-layout struct of doubles; the type determines the length.
+     * 
+     * <pre>
+     * KKTdddddddddddddddd
+     * ^^                  key (2 bytes)
+     *   ^                 type (1 byte)
+     *    ^^^^^^^^         field 0 (8 bytes)
+     *            ^^^^^^^^ field 1 (8 bytes)
+     * </pre>
+     * 
+     * @param val at least type.length() values
+     */
+    static int encodeStruct(ByteBuffer buf, int key, UdpType type, double[] val) {
+        if (!type.isStruct())
+            throw new IllegalArgumentException("not a struct type " + type.name());
+        final int n = type.length();
+        final int totalLength = 3 + n * 8;
+        if (buf.remaining() < totalLength)
+            return 0;
+        buf.putChar((char) key); // 2 bytes
+        buf.put(type.id); // type = 1 byte
+        for (int i = 0; i < n; ++i) {
+            buf.putDouble(val[i]); // 8 bytes
+        }
+        return totalLength;
+    }
+
+    /**
+     * Just the fields.
+     * 
+     * @param val at least type.length() long, overwritten.
+     */
+    public static void decodeStruct(ByteBuffer buf, UdpType type, double[] val) throws ProtocolException {
+        try {
+            for (int i = 0; i < type.length(); ++i) {
+                val[i] = buf.getDouble();
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new ProtocolException();
+        }
+    }
 }
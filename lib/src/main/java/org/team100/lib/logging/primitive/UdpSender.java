@@ -65,6 +65,22 @@ public class UdpSender implements Consumer<ByteBuffer> {
         }
     }
 
+    /**
+     * Reads a reply from the other end, e.g. a label ack, without blocking.
+     * 
+     * @return bytes read, zero if there's nothing, or no listener.
+     */
+    public int receive(ByteBuffer dst) {
+        if (m_channel == null)
+            return 0;
+        try {
+            return m_channel.read(dst);
+        } catch (IOException e) {
+            // e.g. port unreachable, i.e. no receiver running
+            return 0;
+        }
+    }
+
     @Override
     public void accept(ByteBuffer bb) {
         if (m_channel == null) {
@@ -2,6 +2,14 @@ package org.team100.lib.logging.primitive;
 
 import java.util.Arrays;
 
+/**
+ * The type of a logged value.
+ * 
+ * The "struct" types are fixed lists of doubles, keyed once, so that a pose,
+ * for example, costs one key (and one label) instead of three. The field names
+ * are the same as the per-field keys the LoggerFactory would otherwise make,
+ * so a receiver can expand a struct into the same topics.
+ */
 public enum UdpType {
     UNKNOWN(0),
     BOOLEAN(1),
@@ -9,9 +17,19 @@ public enum UdpType {
     INT(3),
     DOUBLE_ARRAY(4),
     LONG(5),
-    STRING(6);
+    STRING(6),
+    POSE2D(7, "translation/x", "translation/y", "rotation/rad"),
+    TRANSLATION2D(8, "x", "y"),
+    TWIST2D(9, "dx", "dy", "dtheta"),
+    CHASSIS_SPEEDS(10, "vx m_s", "vy m_s", "omega rad_s"),
+    FIELD_RELATIVE_VELOCITY(11, "x m_s", "y m_s", "theta rad_s"),
+    MODEL100(12, "x", "v"),
+    CONTROL100(13, "x", "v", "a"),
+    SWERVE_MODEL(14, "x/x", "x/v", "y/x", "y/v", "theta/x", "theta/v");
 
     public final byte id;
+    /** Struct field names, empty for scalar types. */
+    private final String[] m_fields;
 
     private static final UdpType[] list = new UdpType[values().length];
 
@@ -25,12 +43,27 @@ public enum UdpType {
     public static UdpType get(byte id) {
         if (id < 0)
             return UNKNOWN;
-        if (id > values().length)
+        if (id >= list.length)
             return UNKNOWN;
         return list[id];
     }
 
-    private UdpType(int typeId) {
+    private UdpType(int typeId, String... fields) {
         id = (byte) typeId;
+        m_fields = fields;
     }
-}
\ No newline at end of file
+
+    /** True for the fixed-layout struct types. */
+    public boolean isStruct() {
+        return m_fields.length > 0;
+    }
+
+    /** Number of doubles in the struct, zero for scalar types. */
+    public int length() {
+        return m_fields.length;
+    }
+
+    public String field(int i) {
+        return m_fields[i];
+    }
+}
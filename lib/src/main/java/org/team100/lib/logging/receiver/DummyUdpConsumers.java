@@ -64,6 +64,13 @@ public class DummyUdpConsumers implements UdpConsumersInterface {
             System.out.printf("string key: %d value: %s\n", key, val);
     }
 
+    @Override
+    public void acceptStruct(int key, UdpType type, double[] val) {
+        counter.incrementAndGet();
+        if (PRINT)
+            System.out.printf("%s key: %d value: %s\n", type.name(), key, Arrays.toString(val));
+    }
+
     @Override
     public void acceptMeta(int key, UdpType type, String val) {
         counter.incrementAndGet();
@@ -5,11 +5,11 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
 
 import org.team100.lib.logging.primitive.UdpType;
 
@@ -30,7 +30,9 @@ import edu.wpi.first.util.datalog.StringLogEntry;
 /**
  * All the publishers and log entries.
  * The meta reader adds new entries here (in its own thread), and the data
- * reader adds items (in its own thread), so we use ConcurrentHashMap.
+ * decoder reads them (in its own thread). Keys are chars, so the tables are
+ * arrays indexed by key, which is much cheaper than boxing the key for a map
+ * lookup on every value.
  */
 public class UdpConsumers implements UdpConsumersInterface {
     // see DataLogManager.java
@@ -45,27 +47,40 @@ public class UdpConsumers implements UdpConsumersInterface {
 
     // write the count periodically
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private final AtomicInteger counter = new AtomicInteger(0);
+    private final LongAdder counter = new LongAdder();
 
     NetworkTableInstance inst;
     DataLog log_file;
 
     volatile long m_timestamp;
 
-    Map<Integer, BooleanPublisher> booleanPublishers = new ConcurrentHashMap<>();
-    Map<Integer, BooleanLogEntry> booleanEntries = new ConcurrentHashMap<>();
-    Map<Integer, DoublePublisher> doublePublishers = new ConcurrentHashMap<>();
-    Map<Integer, DoubleLogEntry> doubleEntries = new ConcurrentHashMap<>();
-    Map<Integer, IntegerPublisher> intPublishers = new ConcurrentHashMap<>();
-    Map<Integer, IntegerLogEntry> intEntries = new ConcurrentHashMap<>();
-    Map<Integer, DoubleArrayPublisher> doubleArrayPublishers = new ConcurrentHashMap<>();
-    Map<Integer, DoubleArrayLogEntry> doubleArrayEntries = new ConcurrentHashMap<>();
-    Map<Integer, StringPublisher> stringPublishers = new ConcurrentHashMap<>();
-    Map<Integer, StringLogEntry> stringEntries = new ConcurrentHashMap<>();
+    /** Replaced, not cleared, when the timestamp changes. */
+    volatile Tables m_tables = new Tables();
+
+    /**
+     * One slot per key. The meta reader is the only writer, so it doesn't need
+     * to compare-and-set; the arrays make its writes visible to the decoder.
+     */
+    static class Tables {
+        private static final int kKeys = 1 << Character.SIZE;
+        final AtomicReferenceArray<BooleanPublisher> booleanPublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<BooleanLogEntry> booleanEntries = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<DoublePublisher> doublePublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<DoubleLogEntry> doubleEntries = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<IntegerPublisher> intPublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<IntegerLogEntry> intEntries = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<DoubleArrayPublisher> doubleArrayPublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<DoubleArrayLogEntry> doubleArrayEntries = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<StringPublisher> stringPublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<StringLogEntry> stringEntries = new AtomicReferenceArray<>(kKeys);
+        // structs are expanded into one double topic per field, label/field.
+        final AtomicReferenceArray<DoublePublisher[]> structPublishers = new AtomicReferenceArray<>(kKeys);
+        final AtomicReferenceArray<DoubleLogEntry[]> structEntries = new AtomicReferenceArray<>(kKeys);
+    }
 
     public UdpConsumers() {
         scheduler.scheduleAtFixedRate(
-                () -> System.out.printf("counter %d\n", counter.getAndSet(0)),
+                () -> System.out.printf("counter %d\n", counter.sumThenReset()),
                 0, 1, SECONDS);
         if (PUB) {
             // inst = NetworkTableInstance.getDefault();
@@ -91,17 +106,8 @@ public class UdpConsumers implements UdpConsumersInterface {
         if (m_timestamp == 0 || timestamp != m_timestamp) {
             System.out.println("new timestamp");
             m_timestamp = 0;
-            
-            booleanPublishers.clear();
-            booleanEntries.clear();
-            doublePublishers.clear();
-            doubleEntries.clear();
-            intPublishers.clear();
-            intEntries.clear();
-            doubleArrayPublishers.clear();
-            doubleArrayEntries.clear();
-            stringPublishers.clear();
-            stringEntries.clear();
+
+            m_tables = new Tables();
 
             // make a new log file?
             if (log_file != null)
@@ -129,15 +135,15 @@ public class UdpConsumers implements UdpConsumersInterface {
     public void acceptBoolean(int key, boolean val) {
         if (m_timestamp == 0)
             return;
-        counter.incrementAndGet();
-        System.out.println("bool " + val);
+        Tables tables = m_tables;
+        counter.increment();
         if (PUB) {
-            BooleanPublisher pub = booleanPublishers.get(key);
+            BooleanPublisher pub = tables.booleanPublishers.get(key);
             if (pub != null)
                 pub.set(val);
         }
         if (LOG) {
-            BooleanLogEntry entry = booleanEntries.get(key);
+            BooleanLogEntry entry = tables.booleanEntries.get(key);
             if (entry != null)
                 entry.append(val);
         }
@@ -147,14 +153,15 @@ public class UdpConsumers implements UdpConsumersInterface {
     public void acceptDouble(int key, double val) {
         if (m_timestamp == 0)
             return;
-        counter.incrementAndGet();
+        Tables tables = m_tables;
+        counter.increment();
         if (PUB) {
-            DoublePublisher pub = doublePublishers.get(key);
+            DoublePublisher pub = tables.doublePublishers.get(key);
             if (pub != null)
                 pub.set(val);
         }
         if (LOG) {
-            DoubleLogEntry entry = doubleEntries.get(key);
+            DoubleLogEntry entry = tables.doubleEntries.get(key);
             if (entry != null)
                 entry.append(val);
         }
@@ -164,14 +171,15 @@ public class UdpConsumers implements UdpConsumersInterface {
     public void acceptInt(int key, int val) {
         if (m_timestamp == 0)
             return;
-        counter.incrementAndGet();
+        Tables tables = m_tables;
+        counter.increment();
         if (PUB) {
-            IntegerPublisher pub = intPublishers.get(key);
+            IntegerPublisher pub = tables.intPublishers.get(key);
             if (pub != null)
                 pub.set(val);
         }
         if (LOG) {
-            IntegerLogEntry entry = intEntries.get(key);
+            IntegerLogEntry entry = tables.intEntries.get(key);
             if (entry != null)
                 entry.append(val);
         }
@@ -181,14 +189,15 @@ public class UdpConsumers implements UdpConsumersInterface {
     public void acceptDoubleArray(int key, double[] val) {
         if (m_timestamp == 0)
             return;
-        counter.incrementAndGet();
+        Tables tables = m_tables;
+        counter.increment();
         if (PUB) {
-            DoubleArrayPublisher pub = doubleArrayPublishers.get(key);
+            DoubleArrayPublisher pub = tables.doubleArrayPublishers.get(key);
             if (pub != null)
                 pub.set(val);
         }
         if (LOG) {
-            DoubleArrayLogEntry entry = doubleArrayEntries.get(key);
+            DoubleArrayLogEntry entry = tables.doubleArrayEntries.get(key);
             if (entry != null)
                 entry.append(val);
         }
@@ -198,26 +207,52 @@ public class UdpConsumers implements UdpConsumersInterface {
     public void acceptString(int key, String val) {
         if (m_timestamp == 0)
             return;
-        counter.incrementAndGet();
+        Tables tables = m_tables;
+        counter.increment();
         if (PUB) {
-            StringPublisher pub = stringPublishers.get(key);
+            StringPublisher pub = tables.stringPublishers.get(key);
             if (pub != null)
                 pub.set(val);
         }
         if (LOG) {
-            StringLogEntry entry = stringEntries.get(key);
+            StringLogEntry entry = tables.stringEntries.get(key);
             if (entry != null)
                 entry.append(val);
         }
     }
 
+    @Override
+    public void acceptStruct(int key, UdpType type, double[] val) {
+        if (m_timestamp == 0)
+            return;
+        Tables tables = m_tables;
+        counter.increment();
+        if (PUB) {
+            DoublePublisher[] pubs = tables.structPublishers.get(key);
+            if (pubs != null) {
+                for (int i = 0; i < pubs.length; ++i) {
+                    pubs[i].set(val[i]);
+                }
+            }
+        }
+        if (LOG) {
+            DoubleLogEntry[] entries = tables.structEntries.get(key);
+            if (entries != null) {
+                for (int i = 0; i < entries.length; ++i) {
+                    entries[i].append(val[i]);
+                }
+            }
+        }
+    }
+
     @Override
     public void acceptMeta(int key, UdpType type, String val) {
-        counter.incrementAndGet();
+        counter.increment();
+        Tables tables = m_tables;
         if (PUB) {
             switch (type) {
                 case BOOLEAN -> {
-                    booleanPublishers.computeIfAbsent(key, k -> {
+                    setIfAbsent(tables.booleanPublishers, key, k -> {
                         var t = inst.getBooleanTopic(val);
                         var p = t.publish(PubSubOption.keepDuplicates(true));
                         t.setRetained(true);
@@ -225,7 +260,7 @@ public class UdpConsumers implements UdpConsumersInterface {
                     });
                 }
                 case DOUBLE -> {
-                    doublePublishers.computeIfAbsent(key, k -> {
+                    setIfAbsent(tables.doublePublishers, key, k -> {
                         var t = inst.getDoubleTopic(val);
                         var p = t.publish(PubSubOption.keepDuplicates(true));
                         t.setRetained(true);
@@ -233,7 +268,7 @@ public class UdpConsumers implements UdpConsumersInterface {
                     });
                 }
                 case INT, LONG -> {
-                    intPublishers.computeIfAbsent(key, k -> {
+                    setIfAbsent(tables.intPublishers, key, k -> {
                         var t = inst.getIntegerTopic(val);
                         var p = t.publish(PubSubOption.keepDuplicates(true));
                         t.setRetained(true);
@@ -241,7 +276,7 @@ public class UdpConsumers implements UdpConsumersInterface {
                     });
                 }
                 case DOUBLE_ARRAY -> {
-                    doubleArrayPublishers.computeIfAbsent(key, k -> {
+                    setIfAbsent(tables.doubleArrayPublishers, key, k -> {
                         var t = inst.getDoubleArrayTopic(val);
                         var p = t.publish(PubSubOption.keepDuplicates(true));
                         t.setRetained(true);
@@ -249,13 +284,25 @@ public class UdpConsumers implements UdpConsumersInterface {
                     });
                 }
                 case STRING -> {
-                    stringPublishers.computeIfAbsent(key, k -> {
+                    setIfAbsent(tables.stringPublishers, key, k -> {
                         var t = inst.getStringTopic(val);
                         var p = t.publish(PubSubOption.keepDuplicates(true));
                         t.setRetained(true);
                         return p;
                     });
                 }
+                case POSE2D, TRANSLATION2D, TWIST2D, CHASSIS_SPEEDS,
+                        FIELD_RELATIVE_VELOCITY, MODEL100, CONTROL100, SWERVE_MODEL -> {
+                    setIfAbsent(tables.structPublishers, key, k -> {
+                        DoublePublisher[] pubs = new DoublePublisher[type.length()];
+                        for (int i = 0; i < pubs.length; ++i) {
+                            var t = inst.getDoubleTopic(val + "/" + type.field(i));
+                            pubs[i] = t.publish(PubSubOption.keepDuplicates(true));
+                            t.setRetained(true);
+                        }
+                        return pubs;
+                    });
+                }
                 default -> {
                     System.out.println("unknown meta type 1");
                 }
@@ -263,16 +310,25 @@ public class UdpConsumers implements UdpConsumersInterface {
         }
         if (LOG) {
             switch (type) {
-                case BOOLEAN -> booleanEntries.computeIfAbsent(key,
+                case BOOLEAN -> setIfAbsent(tables.booleanEntries, key,
                         k -> new BooleanLogEntry(log_file, val));
-                case DOUBLE -> doubleEntries.computeIfAbsent(key,
+                case DOUBLE -> setIfAbsent(tables.doubleEntries, key,
                         k -> new DoubleLogEntry(log_file, val));
-                case INT, LONG -> intEntries.computeIfAbsent(key,
+                case INT, LONG -> setIfAbsent(tables.intEntries, key,
                         k -> new IntegerLogEntry(log_file, val));
-                case DOUBLE_ARRAY -> doubleArrayEntries.computeIfAbsent(key,
+                case DOUBLE_ARRAY -> setIfAbsent(tables.doubleArrayEntries, key,
                         k -> new DoubleArrayLogEntry(log_file, val));
-                case STRING -> stringEntries.computeIfAbsent(key,
+                case STRING -> setIfAbsent(tables.stringEntries, key,
                         k -> new StringLogEntry(log_file, val));
+                case POSE2D, TRANSLATION2D, TWIST2D, CHASSIS_SPEEDS,
+                        FIELD_RELATIVE_VELOCITY, MODEL100, CONTROL100, SWERVE_MODEL -> setIfAbsent(tables.structEntries, key,
+                                k -> {
+                                    DoubleLogEntry[] entries = new DoubleLogEntry[type.length()];
+                                    for (int i = 0; i < entries.length; ++i) {
+                                        entries[i] = new DoubleLogEntry(log_file, val + "/" + type.field(i));
+                                    }
+                                    return entries;
+                                });
                 default -> {
                     System.out.println("unknown meta type 2");
                 }
@@ -280,6 +336,12 @@ public class UdpConsumers implements UdpConsumersInterface {
         }
     }
 
+    /** Only the meta reader calls this, so there's no race to fill the slot. */
+    private static <T> void setIfAbsent(AtomicReferenceArray<T> table, int key, IntFunction<T> make) {
+        if (table.get(key) == null)
+            table.set(key, make.apply(key));
+    }
+
     /**
      * Network Tables has a compile-time 2MB output buffer, so it would be good to
      * call flush() often enough to keep it from filling up (thus dropping values).
@@ -16,6 +16,12 @@ public interface UdpConsumersInterface {
 
     void acceptString(int key, String val);
 
+    /**
+     * @param val type.length() values, in the order of the type's fields. The
+     *            array is reused, so don't keep it.
+     */
+    void acceptStruct(int key, UdpType type, double[] val);
+
     void acceptMeta(int key, UdpType type, String val);
 
     void flush();
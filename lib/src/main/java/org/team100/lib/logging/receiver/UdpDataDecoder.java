@@ -1,7 +1,9 @@
 package org.team100.lib.logging.receiver;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+import org.team100.lib.logging.primitive.UdpCompactProtocol;
 import org.team100.lib.logging.primitive.UdpPrimitiveProtocol;
 import org.team100.lib.logging.primitive.UdpType;
 import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
@@ -9,10 +11,28 @@ import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
 public class UdpDataDecoder {
     private static final int kFlushFrequency = 50;
     private final UdpConsumersInterface m_consumers;
+    /** Scratch for struct values, indexed by type id, so decoding doesn't allocate. */
+    private final double[][] m_structs;
+    private final double[] m_double;
+    /** Compact XOR references by key, allocated when first seen. */
+    private final long[][] m_refs;
+    /** Generation of each reference, or -1 if there isn't one. */
+    private final int[] m_gens;
     private int flushCounter = 0;
+    /** Of the current packet. */
+    private boolean m_compact;
+    private long m_timestamp;
 
     public UdpDataDecoder(UdpConsumersInterface consumers) {
         m_consumers = consumers;
+        m_structs = new double[UdpType.values().length][];
+        for (UdpType t : UdpType.values()) {
+            m_structs[t.id] = new double[t.length()];
+        }
+        m_double = new double[1];
+        m_refs = new long[1 << Character.SIZE][];
+        m_gens = new int[1 << Character.SIZE];
+        Arrays.fill(m_gens, -1);
     }
 
     /**
@@ -22,6 +42,13 @@ public class UdpDataDecoder {
      */
     public boolean validateTimestamp(ByteBuffer buf) throws ProtocolException {
         long timestamp = UdpPrimitiveProtocol.decodeLong(buf);
+        m_compact = UdpCompactProtocol.isCompact(timestamp);
+        timestamp = UdpCompactProtocol.timestamp(timestamp);
+        if (timestamp != m_timestamp) {
+            // new session, the old references are no good.
+            m_timestamp = timestamp;
+            Arrays.fill(m_gens, -1);
+        }
         return m_consumers.validateTimestamp(timestamp);
     }
 
@@ -30,6 +57,10 @@ public class UdpDataDecoder {
      * Flushes the consumers at the end.
      */
     public void decode(ByteBuffer buf) throws ProtocolException {
+        if (m_compact) {
+            decodeCompact(buf);
+            return;
+        }
         int key = UdpPrimitiveProtocol.decodeKey(buf);
         UdpType type = UdpPrimitiveProtocol.decodeType(buf);
         switch (type) {
@@ -57,6 +88,12 @@ public class UdpDataDecoder {
                 String v = UdpPrimitiveProtocol.decodeString(buf);
                 m_consumers.acceptString(key, v);
             }
+            case POSE2D, TRANSLATION2D, TWIST2D, CHASSIS_SPEEDS,
+                    FIELD_RELATIVE_VELOCITY, MODEL100, CONTROL100, SWERVE_MODEL -> {
+                double[] v = m_structs[type.id];
+                UdpPrimitiveProtocol.decodeStruct(buf, type, v);
+                m_consumers.acceptStruct(key, type, v);
+            }
             default -> System.out.println("unknown data decoder type");
         }
         if (flushCounter++ > kFlushFrequency) {
@@ -64,4 +101,59 @@ public class UdpDataDecoder {
             flushCounter = 0;
         }
     }
+
+    private void decodeCompact(ByteBuffer buf) throws ProtocolException {
+        int key = UdpCompactProtocol.decodeKey(buf);
+        int tag = UdpCompactProtocol.decodeTag(buf);
+        UdpType type = UdpCompactProtocol.type(tag);
+        switch (type) {
+            case BOOLEAN -> m_consumers.acceptBoolean(key, UdpCompactProtocol.flag(tag));
+            case INT, LONG -> m_consumers.acceptInt(key, (int) UdpCompactProtocol.decodeZigzag(buf));
+            case DOUBLE_ARRAY -> m_consumers.acceptDoubleArray(key, UdpPrimitiveProtocol.decodeDoubleArray(buf));
+            case STRING -> m_consumers.acceptString(key, UdpPrimitiveProtocol.decodeString(buf));
+            case DOUBLE -> {
+                if (decodeFields(buf, key, tag, 1, m_double))
+                    m_consumers.acceptDouble(key, m_double[0]);
+            }
+            case POSE2D, TRANSLATION2D, TWIST2D, CHASSIS_SPEEDS,
+                    FIELD_RELATIVE_VELOCITY, MODEL100, CONTROL100, SWERVE_MODEL -> {
+                double[] v = m_structs[type.id];
+                if (decodeFields(buf, key, tag, type.length(), v))
+                    m_consumers.acceptStruct(key, type, v);
+            }
+            default -> System.out.println("unknown data decoder type");
+        }
+        if (flushCounter++ > kFlushFrequency) {
+            m_consumers.flush();
+            flushCounter = 0;
+        }
+    }
+
+    /**
+     * Reads n doubles, full or XOR'ed.
+     * 
+     * @return false if they're XOR'ed against a reference we don't have.
+     */
+    private boolean decodeFields(ByteBuffer buf, int key, int tag, int n, double[] v) throws ProtocolException {
+        boolean delta = UdpCompactProtocol.flag(tag);
+        int gen = UdpCompactProtocol.decodeGeneration(buf);
+        long[] ref = m_refs[key];
+        if (ref == null || ref.length != n) {
+            ref = new long[n];
+            m_refs[key] = ref;
+            m_gens[key] = -1;
+        }
+        // read all the fields even if they're no good, to get to the next record.
+        for (int i = 0; i < n; ++i) {
+            long bits = UdpCompactProtocol.decodeField(buf, delta, ref[i]);
+            v[i] = Double.longBitsToDouble(bits);
+            if (!delta)
+                ref[i] = bits;
+        }
+        if (!delta) {
+            m_gens[key] = gen;
+            return true;
+        }
+        return m_gens[key] == gen;
+    }
 }
@@ -0,0 +1,48 @@
+package org.team100.lib.logging.receiver;
+
+import java.nio.ByteBuffer;
+
+import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
+
+/**
+ * Takes packets from the ring and decodes them, on its own thread, so that
+ * decoding and publishing don't hold up the socket reader.
+ *
+ * There's just one of these per socket: values for the same key in different
+ * packets need to stay in order.
+ */
+public class UdpDataDecoderLoop implements Runnable {
+    private final UdpPacketRing m_ring;
+    private final UdpDataDecoder m_decoder;
+
+    public UdpDataDecoderLoop(UdpPacketRing ring, UdpDataDecoder decoder) {
+        m_ring = ring;
+        m_decoder = decoder;
+    }
+
+    @Override
+    public void run() {
+        System.out.println("data decoder running...");
+        while (true) {
+            ByteBuffer buf;
+            try {
+                buf = m_ring.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (!m_decoder.validateTimestamp(buf)) {
+                    System.out.println("data timestamp is bad, bail");
+                    return;
+                }
+                while (buf.remaining() > 0) {
+                    m_decoder.decode(buf);
+                }
+            } catch (ProtocolException e) {
+                e.printStackTrace();
+            } finally {
+                m_ring.release();
+            }
+        }
+    }
+}
@@ -3,47 +3,55 @@ package org.team100.lib.logging.receiver;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.DatagramChannel;
 
 import org.team100.lib.logging.primitive.UdpSender;
-import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
 
+/**
+ * Reads packets from the socket into the ring, and nothing else, so the socket
+ * is drained as fast as possible. UdpDataDecoderLoop does the decoding, on
+ * another thread.
+ */
 public class UdpDataReader implements Runnable {
-    private final UdpDataDecoder m_decoder;
+    private final UdpPacketRing m_ring;
 
     /** nullable */
     private final DatagramChannel m_channel;
 
-    /** TODO: maybe this should be the "protocol"'s buffer' */
-    private final ByteBuffer m_buffer;
+    /** For packets that don't fit in the ring. */
+    private final ByteBuffer m_discard;
 
-    public UdpDataReader(UdpDataDecoder decoder) {
-        m_decoder = decoder;
-        m_channel = makeChannel(UdpSender.kPort);
-        m_buffer = ByteBuffer.allocateDirect(UdpSender.MTU);
-        // big-endian is the default, but just to make it clear...
-        m_buffer.order(ByteOrder.BIG_ENDIAN);
+    public UdpDataReader(UdpPacketRing ring) {
+        this(makeChannel(UdpSender.kPort), ring);
+    }
+
+    UdpDataReader(DatagramChannel channel, UdpPacketRing ring) {
+        m_ring = ring;
+        m_channel = channel;
+        m_discard = ByteBuffer.allocateDirect(UdpSender.MTU);
     }
 
     @Override
     public void run() {
         System.out.println("data reader running...");
-        while (true) {
+        while (!Thread.currentThread().isInterrupted()) {
             try {
-                m_buffer.clear();
-                // TODO: replace this with socket.read with a timeout
-                m_channel.receive(m_buffer);
-                m_buffer.limit(m_buffer.position());
-                m_buffer.position(0);
-                if (!m_decoder.validateTimestamp(m_buffer)) {
-                    System.out.println("data timestamp is bad, bail");
-                    return;
+                ByteBuffer buf = m_ring.claim();
+                if (buf == null) {
+                    // decoder is behind, drop this one.
+                    m_discard.clear();
+                    m_channel.receive(m_discard);
+                    m_ring.drop();
+                    continue;
                 }
-                while (m_buffer.remaining() > 0) {
-                    m_decoder.decode(m_buffer);
-                }
-            } catch (IOException | ProtocolException e) {
+                // TODO: replace this with socket.read with a timeout
+                m_channel.receive(buf);
+                buf.flip();
+                m_ring.publish();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
                 e.printStackTrace();
             }
         }
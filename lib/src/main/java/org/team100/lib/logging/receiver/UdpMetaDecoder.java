@@ -1,6 +1,7 @@
 package org.team100.lib.logging.receiver;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.team100.lib.logging.primitive.UdpPrimitiveProtocol;
 import org.team100.lib.logging.primitive.UdpType;
@@ -11,6 +12,11 @@ public class UdpMetaDecoder {
 
     private final UdpConsumersInterface m_consumers;
     private int flushCounter = 0;
+    /** Keys with labels, this session. */
+    private final boolean[] m_labeled = new boolean[1 << Character.SIZE];
+    /** Keys 1 through this all have labels. */
+    private int m_contiguous;
+    private long m_timestamp;
 
     public UdpMetaDecoder(UdpConsumersInterface consumers) {
         m_consumers = consumers;
@@ -23,6 +29,11 @@ public class UdpMetaDecoder {
      */
     public boolean validateTimestamp(ByteBuffer buf) throws ProtocolException {
         long timestamp = UdpPrimitiveProtocol.decodeLong(buf);
+        if (timestamp != m_timestamp) {
+            m_timestamp = timestamp;
+            Arrays.fill(m_labeled, false);
+            m_contiguous = 0;
+        }
         return m_consumers.validateTimestamp(timestamp);
     }
 
@@ -31,10 +42,23 @@ public class UdpMetaDecoder {
         int key = UdpPrimitiveProtocol.decodeKey(buf);
         UdpType type = UdpPrimitiveProtocol.decodeType(buf);
         String v = UdpPrimitiveProtocol.decodeString(buf);
+        m_labeled[key] = true;
+        while (m_contiguous + 1 < m_labeled.length && m_labeled[m_contiguous + 1])
+            ++m_contiguous;
         m_consumers.acceptMeta(key, type, v);
         if (flushCounter++ > kFlushFrequency) {
             m_consumers.flush();
             flushCounter = 0;
         }
     }
+
+    /** Session of the last packet. */
+    public long timestamp() {
+        return m_timestamp;
+    }
+
+    /** For the ack: keys 1 through this all have labels. */
+    public int labeled() {
+        return m_contiguous;
+    }
 }
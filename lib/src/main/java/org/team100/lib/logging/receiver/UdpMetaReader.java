@@ -2,13 +2,19 @@ package org.team100.lib.logging.receiver;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.DatagramChannel;
 
+import org.team100.lib.logging.primitive.UdpMetadataProtocol;
 import org.team100.lib.logging.primitive.UdpSender;
 import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
 
+/**
+ * Reads label packets, and acks each one, so the sender can stop sending
+ * labels we already have.
+ */
 public class UdpMetaReader implements Runnable {
     private final UdpMetaDecoder m_decoder;
 
@@ -17,6 +23,7 @@ public class UdpMetaReader implements Runnable {
 
     /** TODO: maybe this should be the "protocol"'s buffer' */
     private final ByteBuffer m_buffer;
+    private final ByteBuffer m_ack;
 
     public UdpMetaReader(UdpMetaDecoder decoder) {
         m_decoder = decoder;
@@ -24,6 +31,7 @@ public class UdpMetaReader implements Runnable {
         m_buffer = ByteBuffer.allocateDirect(UdpSender.MTU);
         // big-endian is the default, but just to make it clear...
         m_buffer.order(ByteOrder.BIG_ENDIAN);
+        m_ack = ByteBuffer.allocateDirect(12);
     }
 
     @Override
@@ -33,7 +41,7 @@ public class UdpMetaReader implements Runnable {
             try {
                 m_buffer.clear();
                 // TODO: replace this with socket.read with a timeout
-                m_channel.receive(m_buffer);
+                SocketAddress sender = m_channel.receive(m_buffer);
                 m_buffer.limit(m_buffer.position());
                 m_buffer.position(0);
                 if (!m_decoder.validateTimestamp(m_buffer)) {
@@ -43,6 +51,10 @@ public class UdpMetaReader implements Runnable {
                 while (m_buffer.remaining() > 0) {
                     m_decoder.decode(m_buffer);
                 }
+                m_ack.clear();
+                UdpMetadataProtocol.encodeAck(m_ack, m_decoder.timestamp(), m_decoder.labeled());
+                m_ack.flip();
+                m_channel.send(m_ack, sender);
             } catch (IOException | ProtocolException e) {
                 e.printStackTrace();
             }
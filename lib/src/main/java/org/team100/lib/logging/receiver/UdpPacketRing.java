@@ -0,0 +1,137 @@
+package org.team100.lib.logging.receiver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.team100.lib.logging.primitive.UdpSender;
+
+/**
+ * Single-producer single-consumer ring of pooled direct buffers, one packet
+ * per slot, between the socket reader thread and the decoder thread.
+ *
+ * The buffers are allocated once and stay in their slots: the reader fills
+ * the slot at the head, the decoder drains the slot at the tail. Each index is
+ * written by only one side, so there are no locks and no CAS, just
+ * release/acquire ordering. If the decoder falls behind and the ring fills,
+ * the reader drops packets, which is what the kernel would do anyway.
+ */
+public class UdpPacketRing {
+    /**
+     * Polls before parking, so the producer doesn't have to unpark the consumer
+     * for every packet. Spinning only helps if the producer has another core.
+     */
+    private static final int kSpins = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+
+    private final ByteBuffer[] m_slots;
+    private final int m_mask;
+    /** Next slot to fill. Written by the producer only. */
+    private final AtomicLong m_head;
+    /** Next slot to drain. Written by the consumer only. */
+    private final AtomicLong m_tail;
+    private final AtomicLong m_dropped;
+    /** Producer's copy of the tail, to avoid reading it every time. */
+    private long m_cachedTail;
+    /** Consumer's copy of the head. */
+    private long m_cachedHead;
+    /** The consumer, while it's parked. */
+    private volatile Thread m_waiter;
+
+    /** @param size number of packets, a power of two */
+    public UdpPacketRing(int size) {
+        if (Integer.bitCount(size) != 1)
+            throw new IllegalArgumentException("size must be a power of two");
+        m_slots = new ByteBuffer[size];
+        for (int i = 0; i < size; ++i) {
+            m_slots[i] = ByteBuffer.allocateDirect(UdpSender.MTU);
+            m_slots[i].order(ByteOrder.BIG_ENDIAN);
+        }
+        m_mask = size - 1;
+        m_head = new AtomicLong();
+        m_tail = new AtomicLong();
+        m_dropped = new AtomicLong();
+    }
+
+    /**
+     * Producer: the empty buffer at the head, or null if the ring is full.
+     * Fill it, then publish().
+     */
+    public ByteBuffer claim() {
+        long head = m_head.getPlain();
+        if (head - m_cachedTail >= m_slots.length) {
+            m_cachedTail = m_tail.getAcquire();
+            if (head - m_cachedTail >= m_slots.length)
+                return null;
+        }
+        ByteBuffer buf = m_slots[(int) head & m_mask];
+        buf.clear();
+        return buf;
+    }
+
+    /** Producer: hand the claimed buffer, ready to read, to the consumer. */
+    public void publish() {
+        // volatile, not release, so that it's ordered before the waiter read,
+        // see take().
+        m_head.set(m_head.getPlain() + 1);
+        Thread waiter = m_waiter;
+        if (waiter != null)
+            LockSupport.unpark(waiter);
+    }
+
+    /** Producer: count a packet that didn't fit. */
+    public void drop() {
+        m_dropped.incrementAndGet();
+    }
+
+    /**
+     * Consumer: the buffer at the tail, or null if the ring is empty. Read it,
+     * then release().
+     */
+    public ByteBuffer poll() {
+        long tail = m_tail.getPlain();
+        if (tail >= m_cachedHead) {
+            m_cachedHead = m_head.getAcquire();
+            if (tail >= m_cachedHead)
+                return null;
+        }
+        return m_slots[(int) tail & m_mask];
+    }
+
+    /** Consumer: wait for the buffer at the tail. */
+    public ByteBuffer take() throws InterruptedException {
+        while (true) {
+            ByteBuffer buf = poll();
+            if (buf != null)
+                return buf;
+            for (int i = 0; i < kSpins; ++i) {
+                Thread.onSpinWait();
+                buf = poll();
+                if (buf != null)
+                    return buf;
+            }
+            m_waiter = Thread.currentThread();
+            // check again, in case the producer published before it saw the
+            // waiter. both sides use volatile access here, so they can't both
+            // miss each other.
+            if (m_tail.getPlain() < m_head.get()) {
+                m_waiter = null;
+                continue;
+            }
+            LockSupport.park(this);
+            m_waiter = null;
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    /** Consumer: give the buffer back to the producer. */
+    public void release() {
+        m_tail.setRelease(m_tail.getPlain() + 1);
+    }
+
+    /** Total packets dropped because the ring was full. */
+    public long dropped() {
+        return m_dropped.get();
+    }
+}
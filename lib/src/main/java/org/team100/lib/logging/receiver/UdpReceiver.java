@@ -1,18 +1,46 @@
 package org.team100.lib.logging.receiver;
 
+import java.nio.file.Path;
+
+/**
+ * Data goes through three stages, each on its own thread: the reader drains
+ * the socket into a ring of buffers, the decoder loop decodes them, and the
+ * consumers publish the values.
+ */
 public class UdpReceiver {
+    /** About 1.5 MB of packets, a few hundred ms at full speed. */
+    private static final int kRingSize = 1024;
+    /**
+     * Record straight to .wpilog files in the working directory, instead of
+     * publishing to Network Tables and DataLog.
+     */
+    private static final boolean DIRECT_LOG = false;
 
     public static void run() throws InterruptedException {
         // sender can go about 30M keys/sec.
-        // real consumer can go about 4M keys/sec.
-        UdpConsumersInterface consumers = new UdpConsumers();
-        // the dummy consumer can keep up, about 30M keys/sec
-        // UdpConsumersInterface consumers = new DummyUdpConsumers();
+        // real consumer used to go about 4M keys/sec, with boxed map lookups
+        // inline in the reader.
+        UdpConsumersInterface consumers;
+        UdpConsumersInterface metaConsumers;
+        if (DIRECT_LOG) {
+            WpiLogSink sink = new WpiLogSink(Path.of("."));
+            consumers = sink.data();
+            metaConsumers = sink.meta();
+        } else {
+            consumers = new UdpConsumers();
+            // the dummy consumer can keep up, about 30M keys/sec
+            // consumers = new DummyUdpConsumers();
+            metaConsumers = consumers;
+        }
         UdpDataDecoder dataDecoder = new UdpDataDecoder(consumers);
-        UdpMetaDecoder metaDecoder = new UdpMetaDecoder(consumers);
-        UdpDataReader dataReader = new UdpDataReader(dataDecoder);
+        UdpMetaDecoder metaDecoder = new UdpMetaDecoder(metaConsumers);
+        UdpPacketRing ring = new UdpPacketRing(kRingSize);
+        UdpDataReader dataReader = new UdpDataReader(ring);
+        UdpDataDecoderLoop dataDecoderLoop = new UdpDataDecoderLoop(ring, dataDecoder);
         UdpMetaReader metaReader = new UdpMetaReader(metaDecoder);
-        Thread dataReaderThread = new Thread(dataReader);
+        Thread dataDecoderThread = new Thread(dataDecoderLoop, "UdpDataDecoder");
+        dataDecoderThread.start();
+        Thread dataReaderThread = new Thread(dataReader, "UdpDataReader");
         dataReaderThread.start();
         Thread metaReaderThread = new Thread(metaReader);
         metaReaderThread.start();
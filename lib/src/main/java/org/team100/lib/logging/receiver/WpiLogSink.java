@@ -0,0 +1,313 @@
+package org.team100.lib.logging.receiver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.team100.lib.logging.primitive.UdpType;
+
+/**
+ * Records decoded values straight into .wpilog files, without going through
+ * DataLog or Network Tables, so it can keep up with the full data rate.
+ *
+ * There's a new file for each session, i.e. each robot-side timestamp, named
+ * the same way as DataLogManager names them. The record timestamps are
+ * microseconds since the file was opened, stamped once per packet.
+ *
+ * The data and meta decoders run on different threads, so each gets its own
+ * view: data() writes, on the data decoder thread, and meta() just queues the
+ * labels for the data thread to pick up. The sender may not resend labels
+ * (see UdpPrimitiveLogger.useLabelAcks()), so labels that arrive before their
+ * session's data are kept until the file for that session is opened.
+ */
+public class WpiLogSink {
+    private static final ZoneId m_utc = ZoneId.of("UTC");
+    private static final DateTimeFormatter m_timeFormatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
+            .withZone(m_utc);
+
+    private record Label(long session, int key, UdpType type, String name) {
+    }
+
+    private final Path m_dir;
+    private final Queue<Label> m_labels;
+    private final Data m_data;
+    private final Meta m_meta;
+
+    /** @param dir where to put the files */
+    public WpiLogSink(Path dir) {
+        m_dir = dir;
+        m_labels = new ConcurrentLinkedQueue<>();
+        m_data = new Data();
+        m_meta = new Meta();
+    }
+
+    /** For the data decoder. */
+    public UdpConsumersInterface data() {
+        return m_data;
+    }
+
+    /** For the meta decoder. */
+    public UdpConsumersInterface meta() {
+        return m_meta;
+    }
+
+    /** Runs on the meta decoder thread. */
+    private class Meta implements UdpConsumersInterface {
+        private long m_session;
+
+        @Override
+        public boolean validateTimestamp(long timestamp) {
+            m_session = timestamp;
+            return true;
+        }
+
+        @Override
+        public void acceptMeta(int key, UdpType type, String val) {
+            m_labels.add(new Label(m_session, key, type, val));
+        }
+
+        @Override
+        public void acceptBoolean(int key, boolean val) {
+        }
+
+        @Override
+        public void acceptDouble(int key, double val) {
+        }
+
+        @Override
+        public void acceptInt(int key, int val) {
+        }
+
+        @Override
+        public void acceptDoubleArray(int key, double[] val) {
+        }
+
+        @Override
+        public void acceptString(int key, String val) {
+        }
+
+        @Override
+        public void acceptStruct(int key, UdpType type, double[] val) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Runs on the data decoder thread, which does all the writing. */
+    private class Data implements UdpConsumersInterface {
+        /**
+         * First entry id for each key, zero if it hasn't been labeled yet. Struct
+         * fields use consecutive ids.
+         */
+        private final int[] m_entries = new int[1 << Character.SIZE];
+        /** Newest label for each key, of any session. */
+        private final Label[] m_known = new Label[1 << Character.SIZE];
+        /** Null between sessions. */
+        private WpiLogWriter m_writer;
+        private long m_session;
+        private long m_startNs;
+        private int m_nextEntry;
+        /** Microseconds since the start of the file, for the current packet. */
+        private long m_now;
+
+        @Override
+        public boolean validateTimestamp(long timestamp) {
+            if (timestamp != m_session)
+                rotate(timestamp);
+            m_now = (System.nanoTime() - m_startNs) / 1000;
+            Label label;
+            while ((label = m_labels.poll()) != null) {
+                m_known[label.key()] = label;
+                if (label.session() == m_session)
+                    start(label);
+            }
+            return true;
+        }
+
+        @Override
+        public void acceptBoolean(int key, boolean val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                m_writer.appendBoolean(entry, m_now, val);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptDouble(int key, double val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                m_writer.appendDouble(entry, m_now, val);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptInt(int key, int val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                m_writer.appendLong(entry, m_now, val);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptDoubleArray(int key, double[] val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                m_writer.appendDoubleArray(entry, m_now, val);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptString(int key, String val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                m_writer.appendString(entry, m_now, val);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptStruct(int key, UdpType type, double[] val) {
+            int entry = m_entries[key];
+            if (m_writer == null || entry == 0)
+                return;
+            try {
+                for (int i = 0; i < type.length(); ++i) {
+                    m_writer.appendDouble(entry + i, m_now, val[i]);
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void acceptMeta(int key, UdpType type, String val) {
+            // labels come through the queue.
+        }
+
+        @Override
+        public void flush() {
+            if (m_writer == null)
+                return;
+            try {
+                m_writer.flush();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            rotate(0);
+        }
+
+        private void start(Label label) {
+            if (m_writer == null || m_entries[label.key()] != 0)
+                return;
+            UdpType type = label.type();
+            try {
+                int entry = m_nextEntry;
+                if (type.isStruct()) {
+                    for (int i = 0; i < type.length(); ++i) {
+                        m_writer.start(entry + i, label.name() + "/" + type.field(i), "double", m_now);
+                    }
+                    m_nextEntry += type.length();
+                } else {
+                    String typeName = typeName(type);
+                    if (typeName == null) {
+                        System.out.println("unknown meta type " + type);
+                        return;
+                    }
+                    m_writer.start(entry, label.name(), typeName, m_now);
+                    m_nextEntry += 1;
+                }
+                m_entries[label.key()] = entry;
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        /** Close the current file, if any, and open one for the new session. */
+        private void rotate(long timestamp) {
+            if (m_writer != null) {
+                try {
+                    m_writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                m_writer = null;
+            }
+            m_session = timestamp;
+            Arrays.fill(m_entries, 0);
+            m_nextEntry = 1;
+            m_startNs = System.nanoTime();
+            if (timestamp == 0) {
+                // not a real timestamp, see UdpConsumers.validateTimestamp().
+                return;
+            }
+            String name = "FRC_" + m_timeFormatter.format(Instant.ofEpochSecond(timestamp)) + ".wpilog";
+            try {
+                m_writer = new WpiLogWriter(m_dir.resolve(name), "");
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            for (Label label : m_known) {
+                if (label != null && label.session() == timestamp)
+                    start(label);
+            }
+        }
+
+        /** Give up on this session. */
+        private void fail(IOException e) {
+            e.printStackTrace();
+            try {
+                m_writer.close();
+            } catch (IOException e2) {
+                e2.printStackTrace();
+            }
+            m_writer = null;
+        }
+    }
+
+    /** wpilog type names, null for types that don't have one. */
+    static String typeName(UdpType type) {
+        return switch (type) {
+            case BOOLEAN -> "boolean";
+            case DOUBLE -> "double";
+            case INT, LONG -> "int64";
+            case DOUBLE_ARRAY -> "double[]";
+            case STRING -> "string";
+            default -> null;
+        };
+    }
+}
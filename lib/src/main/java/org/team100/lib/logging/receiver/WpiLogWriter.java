@@ -0,0 +1,165 @@
+package org.team100.lib.logging.receiver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends records to a .wpilog file, in the format WPILib DataLog writes, see
+ * https://github.com/wpilibsuite/allwpilib/blob/main/wpiutil/doc/datalog.adoc
+ *
+ * Records are encoded into a large direct buffer, which goes to the file in
+ * one sequential write when it fills (or when flush() finds it stale), and the
+ * file is synced to disk every kSyncBytes or kSyncNs, not on every write.
+ *
+ * Not thread-safe: one thread does all the writing.
+ */
+public class WpiLogWriter implements AutoCloseable {
+    private static final int kBufferBytes = 1 << 20;
+    /** Write the buffer at least this often, even if it's not full. */
+    private static final long kWriteNs = 100_000_000;
+    private static final long kSyncBytes = 64 << 20;
+    private static final long kSyncNs = 1_000_000_000;
+    private static final byte kControlStart = 0;
+
+    private final FileChannel m_channel;
+    private final ByteBuffer m_buf;
+    private long m_unsyncedBytes;
+    private long m_writeTimeNs;
+    private long m_syncTimeNs;
+
+    public WpiLogWriter(Path file, String extraHeader) throws IOException {
+        m_channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        m_buf = ByteBuffer.allocateDirect(kBufferBytes);
+        m_buf.order(ByteOrder.LITTLE_ENDIAN);
+        byte[] extra = extraHeader.getBytes(StandardCharsets.UTF_8);
+        m_buf.put("WPILOG".getBytes(StandardCharsets.US_ASCII));
+        m_buf.putShort((short) 0x0100); // version 1.0
+        m_buf.putInt(extra.length);
+        m_buf.put(extra);
+        m_writeTimeNs = System.nanoTime();
+        m_syncTimeNs = m_writeTimeNs;
+    }
+
+    /**
+     * Start an entry. Entry ids are positive; zero is for control records.
+     *
+     * @param timestampUs microseconds
+     */
+    public void start(int entry, String name, String type, long timestampUs) throws IOException {
+        byte[] n = name.getBytes(StandardCharsets.UTF_8);
+        byte[] t = type.getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 4 + 4 + n.length + 4 + t.length + 4;
+        header(0, size, timestampUs);
+        m_buf.put(kControlStart);
+        m_buf.putInt(entry);
+        m_buf.putInt(n.length);
+        m_buf.put(n);
+        m_buf.putInt(t.length);
+        m_buf.put(t);
+        m_buf.putInt(0); // no metadata
+    }
+
+    public void appendDouble(int entry, long timestampUs, double val) throws IOException {
+        header(entry, 8, timestampUs);
+        m_buf.putDouble(val);
+    }
+
+    public void appendLong(int entry, long timestampUs, long val) throws IOException {
+        header(entry, 8, timestampUs);
+        m_buf.putLong(val);
+    }
+
+    public void appendBoolean(int entry, long timestampUs, boolean val) throws IOException {
+        header(entry, 1, timestampUs);
+        m_buf.put((byte) (val ? 1 : 0));
+    }
+
+    public void appendString(int entry, long timestampUs, String val) throws IOException {
+        byte[] b = val.getBytes(StandardCharsets.UTF_8);
+        header(entry, b.length, timestampUs);
+        m_buf.put(b);
+    }
+
+    public void appendDoubleArray(int entry, long timestampUs, double[] val) throws IOException {
+        header(entry, 8 * val.length, timestampUs);
+        for (double v : val) {
+            m_buf.putDouble(v);
+        }
+    }
+
+    /**
+     * Writes the buffer if it has been sitting for a while, and syncs if it's
+     * time. Cheap enough to call often.
+     */
+    public void flush() throws IOException {
+        long now = System.nanoTime();
+        if (m_buf.position() > 0 && now - m_writeTimeNs > kWriteNs)
+            write();
+        if (m_unsyncedBytes > 0 && now - m_syncTimeNs > kSyncNs)
+            sync();
+    }
+
+    /** Writes everything, syncs, and closes the file. */
+    @Override
+    public void close() throws IOException {
+        write();
+        sync();
+        m_channel.close();
+    }
+
+    /**
+     * Record header: a length bitfield, then the entry id, payload size, and
+     * timestamp, each in as few little-endian bytes as they fit in. Makes room
+     * for the payload too.
+     */
+    private void header(int entry, int size, long timestampUs) throws IOException {
+        int entryLen = length(entry & 0xffffffffL, 4);
+        int sizeLen = length(size & 0xffffffffL, 4);
+        int timeLen = length(timestampUs, 8);
+        int total = 1 + entryLen + sizeLen + timeLen + size;
+        if (total > m_buf.capacity())
+            throw new IOException("record too large: " + size);
+        if (m_buf.remaining() < total)
+            write();
+        m_buf.put((byte) ((entryLen - 1) | ((sizeLen - 1) << 2) | ((timeLen - 1) << 4)));
+        putLittle(entry, entryLen);
+        putLittle(size, sizeLen);
+        putLittle(timestampUs, timeLen);
+    }
+
+    /** Bytes needed for val, at least 1, at most max. */
+    private static int length(long val, int max) {
+        int bytes = (Long.SIZE - Long.numberOfLeadingZeros(val) + 7) / 8;
+        return Math.max(1, Math.min(max, bytes));
+    }
+
+    private void putLittle(long val, int bytes) {
+        for (int i = 0; i < bytes; ++i) {
+            m_buf.put((byte) (val >>> (8 * i)));
+        }
+    }
+
+    private void write() throws IOException {
+        m_buf.flip();
+        while (m_buf.hasRemaining()) {
+            m_unsyncedBytes += m_channel.write(m_buf);
+        }
+        m_buf.clear();
+        m_writeTimeNs = System.nanoTime();
+        if (m_unsyncedBytes >= kSyncBytes)
+            sync();
+    }
+
+    private void sync() throws IOException {
+        // fdatasync: skips the timestamps, still covers the length.
+        m_channel.force(false);
+        m_unsyncedBytes = 0;
+        m_syncTimeNs = System.nanoTime();
+    }
+}
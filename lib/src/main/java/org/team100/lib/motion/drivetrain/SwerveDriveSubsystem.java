@@ -2,7 +2,10 @@ package org.team100.lib.motion.drivetrain;
 
 import org.team100.lib.config.DriverSkill;
 import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.framework.LoopProfiler;
+import org.team100.lib.framework.Trace;
 import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.localization.OdometrySampler;
 import org.team100.lib.localization.SwerveDrivePoseEstimator100;
 import org.team100.lib.localization.VisionData;
 import org.team100.lib.logging.Level;
@@ -33,10 +36,14 @@ public class SwerveDriveSubsystem extends SubsystemBase implements Glassy, Drive
     private final SwerveDrivePoseEstimator100 m_poseEstimator;
     private final SwerveLocal m_swerveLocal;
     private final VisionData m_cameras;
+    /** Null means odometry is sampled by the main loop. */
+    private final OdometrySampler m_odometry;
 
     // CACHES
     private final Memo.CotemporalCache<SwerveModel> m_stateSupplier;
 
+    private final LoopProfiler.Section m_timer;
+
     // LOGGERS
     private final SwerveModelLogger m_log_state;
     private final DoubleLogger m_log_turning;
@@ -53,11 +60,29 @@ public class SwerveDriveSubsystem extends SubsystemBase implements Glassy, Drive
             SwerveDrivePoseEstimator100 poseEstimator,
             SwerveLocal swerveLocal,
             VisionData cameras) {
+        this(fieldLogger, parent, gyro, poseEstimator, swerveLocal, cameras, null);
+    }
+
+    /**
+     * @param odometry if not null, samples odometry on its own thread, and this
+     *                 subsystem feeds the samples to the estimator. Call
+     *                 odometry.start() to start sampling.
+     */
+    public SwerveDriveSubsystem(
+            LoggerFactory fieldLogger,
+            LoggerFactory parent,
+            Gyro gyro,
+            SwerveDrivePoseEstimator100 poseEstimator,
+            SwerveLocal swerveLocal,
+            VisionData cameras,
+            OdometrySampler odometry) {
         LoggerFactory child = parent.child(this);
+        m_timer = LoopProfiler.instance().section(getGlassName() + " periodic");
         m_gyro = gyro;
         m_poseEstimator = poseEstimator;
         m_swerveLocal = swerveLocal;
         m_cameras = cameras;
+        m_odometry = odometry;
         m_stateSupplier = Memo.of(this::update);
         stop();
         m_log_state = child.swerveModelLogger(Level.COMP, "state");
@@ -174,6 +199,10 @@ public class SwerveDriveSubsystem extends SubsystemBase implements Glassy, Drive
     public void resetPose(Pose2d robotPose) {
         Util.warn("Make sure resetting the swerve module collection doesn't break anything");
         m_swerveLocal.reset();
+        if (m_odometry != null) {
+            // pending samples are relative to the old pose.
+            m_odometry.clear();
+        }
         m_poseEstimator.reset(
                 m_gyro,
                 m_swerveLocal.positions(),
@@ -212,30 +241,39 @@ public class SwerveDriveSubsystem extends SubsystemBase implements Glassy, Drive
      */
     @Override
     public void periodic() {
-        // m_poseEstimator.periodic();
-        m_stateSupplier.reset();
-        m_log_state.log(this::getState);
-        m_log_turning.log(() -> getPose().getRotation().getDegrees());
-        m_log_pose_array.log(
-                () -> new double[] {
-                        getPose().getX(),
-                        getPose().getY(),
-                        getPose().getRotation().getRadians()
-                });
-
-        // Update the Field2d widget
-        // the name "field" is used by Field2d.
-        // the name "robot" can be anything.
-        m_log_field_robot.log(() -> new double[] {
-                getPose().getX(),
-                getPose().getY(),
-                getPose().getRotation().getDegrees()
-        });
-        m_log_yaw_rate.log(m_gyro::getYawRateNWU);
-        m_swerveLocal.periodic();
+        long startNs = m_timer.start();
+        Trace.begin("swerve/periodic");
+        try {
+            // m_poseEstimator.periodic();
+            m_stateSupplier.reset();
+            m_log_state.log(this::getState);
+            m_log_turning.log(() -> getPose().getRotation().getDegrees());
+            m_log_pose_array.log(
+                    () -> new double[] {
+                            getPose().getX(),
+                            getPose().getY(),
+                            getPose().getRotation().getRadians()
+                    });
+
+            // Update the Field2d widget
+            // the name "field" is used by Field2d.
+            // the name "robot" can be anything.
+            m_log_field_robot.log(() -> new double[] {
+                    getPose().getX(),
+                    getPose().getY(),
+                    getPose().getRotation().getDegrees()
+            });
+            m_log_yaw_rate.log(m_gyro::getYawRateNWU);
+            m_swerveLocal.periodic();
+        } finally {
+            Trace.end();
+        }
+        m_timer.stop(startNs);
     }
 
     public void close() {
+        if (m_odometry != null)
+            m_odometry.close();
         m_swerveLocal.close();
     }
 
@@ -245,10 +283,14 @@ public class SwerveDriveSubsystem extends SubsystemBase implements Glassy, Drive
     private SwerveModel update() {
         double now = Timer.getFPGATimestamp();
         // System.out.println("SwerveDriveSubsystem.update() " + now);
-        m_poseEstimator.put(
-                now,
-                m_gyro,
-                m_swerveLocal.positions());
+        if (m_odometry == null) {
+            m_poseEstimator.put(
+                    now,
+                    m_gyro,
+                    m_swerveLocal.positions());
+        } else {
+            m_odometry.drain(m_poseEstimator);
+        }
         m_cameras.update();
         return m_poseEstimator.get(now);
     }
@@ -83,11 +83,22 @@ public class SwerveDriveKinematics100 {
      * </pre>
      */
     final SimpleMatrix m_forwardKinematics;
+    /** Copy of m_forwardKinematics, (3 x 2n) row-major, for the primitive path. */
+    private final double[] m_forward;
+    /** Module x, for the primitive inverse path. */
+    private final double[] m_x;
+    /** Module -y, for the primitive inverse path. */
+    private final double[] m_negY;
     /**
      * Used when velocity is zero, to keep the steering the same.
      * elements are nullable.
      */
     private SwerveModuleHeadings m_moduleHeadings;
+    /**
+     * Scratch for the methods that update the headings, which are for the main
+     * loop only; other threads should use toModuleVector().
+     */
+    private final double[] m_moduleVector;
 
     /**
      * array order:
@@ -105,6 +116,19 @@ public class SwerveDriveKinematics100 {
         m_moduleLocations = Arrays.copyOf(moduleTranslationsM, m_numModules);
         m_inverseKinematics = inverseMatrix(m_moduleLocations);
         m_forwardKinematics = m_inverseKinematics.pseudoInverse();
+        m_forward = new double[3 * 2 * m_numModules];
+        for (int row = 0; row < 3; ++row) {
+            for (int col = 0; col < 2 * m_numModules; ++col) {
+                m_forward[row * 2 * m_numModules + col] = m_forwardKinematics.get(row, col);
+            }
+        }
+        m_x = new double[m_numModules];
+        m_negY = new double[m_numModules];
+        for (int i = 0; i < m_numModules; ++i) {
+            m_x[i] = m_moduleLocations[i].getX();
+            m_negY[i] = -m_moduleLocations[i].getY();
+        }
+        m_moduleVector = new double[2 * m_numModules];
         // nulls avoid startup transient
         m_moduleHeadings = nulls();
     }
@@ -127,10 +151,13 @@ public class SwerveDriveKinematics100 {
         if (fullStop(chassisSpeeds)) {
             return constantModuleHeadings(); // avoid steering when stopped
         }
-        // [vx; vy; omega] (3 x 1)
-        SimpleMatrix chassisSpeedsVector = chassisSpeeds2Vector(chassisSpeeds);
         // [v cos; v sin; ...] (2n x 1)
-        SwerveModuleStates states = statesFromVector(chassisSpeedsVector);
+        toModuleVector(
+                chassisSpeeds.vxMetersPerSecond,
+                chassisSpeeds.vyMetersPerSecond,
+                chassisSpeeds.omegaRadiansPerSecond,
+                m_moduleVector);
+        SwerveModuleStates states = statesFromVector(m_moduleVector);
         updateHeadings(states);
         return states;
     }
@@ -144,11 +171,9 @@ public class SwerveDriveKinematics100 {
         if (fullStop(twist)) {
             return constantModulePositions();
         }
-        // [dx; dy; dtheta] (3 x 1)
-        SimpleMatrix twistVector = twist2Vector(twist);
         // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = m_inverseKinematics.mult(twistVector);
-        SwerveModuleDeltas deltas = deltasFromVector(deltaVector);
+        toModuleVector(twist.dx, twist.dy, twist.dtheta, m_moduleVector);
+        SwerveModuleDeltas deltas = deltasFromVector(m_moduleVector);
         updateHeadings(deltas);
         return deltas;
     }
@@ -171,10 +196,11 @@ public class SwerveDriveKinematics100 {
     public ChassisSpeeds toChassisSpeeds(SwerveModuleStates states) {
         // checkLength(states);
         // [v cos; v sin; ...] (2n x 1)
-        SimpleMatrix statesVector = states2Vector(states);
+        double[] statesVector = states2Vector(states);
         // [vx; vy; omega]
-        SimpleMatrix chassisSpeedsVector = m_forwardKinematics.mult(statesVector);
-        return vector2ChassisSpeeds(chassisSpeedsVector);
+        double[] chassisSpeedsVector = new double[3];
+        forward(statesVector, 0, chassisSpeedsVector, 0);
+        return new ChassisSpeeds(chassisSpeedsVector[0], chassisSpeedsVector[1], chassisSpeedsVector[2]);
     }
 
     /**
@@ -187,10 +213,51 @@ public class SwerveDriveKinematics100 {
     public Twist2d toTwist2d(SwerveModuleDeltas deltas) {
         // checkLength(deltas);
         // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = deltas2Vector(deltas);
+        double[] deltaVector = deltas2Vector(deltas);
         // [dx ;dy; dtheta]
-        SimpleMatrix twistVector = m_forwardKinematics.mult(deltaVector);
-        return vector2Twist(twistVector);
+        double[] twistVector = new double[3];
+        forward(deltaVector, 0, twistVector, 0);
+        return new Twist2d(twistVector[0], twistVector[1], twistVector[2]);
+    }
+
+    /**
+     * FORWARD: module deltas -> twist, using primitive arrays, so it doesn't
+     * allocate.
+     * 
+     * NOTE: do not use the returned dtheta, use the gyro instead.
+     * 
+     * @param deltaVector [d cos; d sin; ...] (2n), like deltas2Vector()
+     * @param twist       output: [dx; dy; dtheta]
+     */
+    public void toTwist2d(double[] deltaVector, double[] twist) {
+        forward(deltaVector, 0, twist, 0);
+    }
+
+    /**
+     * FORWARD: module states -> chassis speeds, using primitive arrays, so it
+     * doesn't allocate.
+     * 
+     * @param statesVector [v cos; v sin; ...] (2n)
+     * @param speeds       output: [vx; vy; omega]
+     */
+    public void toChassisSpeeds(double[] statesVector, double[] speeds) {
+        forward(statesVector, 0, speeds, 0);
+    }
+
+    /**
+     * INVERSE: chassis speeds (or twist) -> module vectors, using primitive
+     * arrays, so it doesn't allocate.
+     * 
+     * Unlike toSwerveModuleStates(), this is just the matrix multiplication: it
+     * doesn't handle full stop, and doesn't touch the saved headings.
+     * 
+     * @param vx           or dx
+     * @param vy           or dy
+     * @param omega        or dtheta
+     * @param moduleVector output: [vx0; vy0; vx1; ...] (2n)
+     */
+    public void toModuleVector(double vx, double vy, double omega, double[] moduleVector) {
+        inverse(vx, vy, omega, moduleVector, 0);
     }
 
     /**
@@ -217,74 +284,101 @@ public class SwerveDriveKinematics100 {
     ///////////////////////////////////////
 
     /** states -> [v cos; v sin; ... v cos; v sin] (2n x 1) */
-    private SimpleMatrix states2Vector(SwerveModuleStates moduleStates) {
+    private double[] states2Vector(SwerveModuleStates moduleStates) {
         SwerveModuleState100[] moduleStatesAll = moduleStates.all();
-        SimpleMatrix moduleStatesMatrix = new SimpleMatrix(m_numModules * 2, 1);
+        double[] moduleStatesVector = new double[m_numModules * 2];
         for (int i = 0; i < m_numModules; i++) {
             SwerveModuleState100 module = moduleStatesAll[i];
             if (Math.abs(module.speedMetersPerSecond) < 1e-6 || module.angle.isEmpty()) {
                 // wheel is stopped, or angle is invalid so pretend it's stopped.
-                moduleStatesMatrix.set(i * 2, 0, 0);
-                moduleStatesMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleStatesMatrix.set(i * 2, 0, module.speedMetersPerSecond * module.angle.get().getCos());
-                moduleStatesMatrix.set(i * 2 + 1, 0, module.speedMetersPerSecond * module.angle.get().getSin());
-
+                // (the array is already zero)
+                continue;
             }
+            moduleStatesVector[i * 2] = module.speedMetersPerSecond * module.angle.get().getCos();
+            moduleStatesVector[i * 2 + 1] = module.speedMetersPerSecond * module.angle.get().getSin();
         }
-        return moduleStatesMatrix;
+        return moduleStatesVector;
     }
 
     /**
      * produces a vector of corner dx and dy, assuming the module deltas represent
      * straight line paths.
      * 
-     * @param moduleDeltas [d cos; d sin; ... ] (2n x 1)
+     * @return [d cos; d sin; ... ] (2n x 1)
      */
-    private SimpleMatrix deltas2Vector(SwerveModuleDeltas moduleDeltas) {
+    private double[] deltas2Vector(SwerveModuleDeltas moduleDeltas) {
         SwerveModuleDelta[] deltas = moduleDeltas.all();
-        SimpleMatrix moduleDeltaMatrix = new SimpleMatrix(m_numModules * 2, 1);
+        double[] moduleDeltaVector = new double[m_numModules * 2];
         for (int i = 0; i < m_numModules; i++) {
             SwerveModuleDelta module = deltas[i];
             if (Math.abs(module.distanceMeters) < 1e-6 || module.angle.isEmpty()) {
-                moduleDeltaMatrix.set(i * 2, 0, 0);
-                moduleDeltaMatrix.set(i * 2 + 1, 0, 0);
-            } else {
-                moduleDeltaMatrix.set(i * 2, 0, module.distanceMeters * module.angle.get().getCos());
-                moduleDeltaMatrix.set(i * 2 + 1, 0, module.distanceMeters * module.angle.get().getSin());
+                continue;
             }
+            moduleDeltaVector[i * 2] = module.distanceMeters * module.angle.get().getCos();
+            moduleDeltaVector[i * 2 + 1] = module.distanceMeters * module.angle.get().getSin();
         }
-        return moduleDeltaMatrix;
+        return moduleDeltaVector;
     }
 
-    /** ChassisSpeeds -> [vx; vy; omega] (3 x 1) */
-    private SimpleMatrix chassisSpeeds2Vector(ChassisSpeeds chassisSpeeds) {
-        SimpleMatrix chassisSpeedsVector = new SimpleMatrix(3, 1);
-        chassisSpeedsVector.setColumn(
-                0,
-                0,
-                chassisSpeeds.vxMetersPerSecond,
-                chassisSpeeds.vyMetersPerSecond,
-                chassisSpeeds.omegaRadiansPerSecond);
-        return chassisSpeedsVector;
-    }
-
-    /** Twist as a 3x1 column vector: [dx; dy; dtheta] */
-    private static SimpleMatrix twist2Vector(Twist2d twist) {
-        return new SimpleMatrix(new double[] {
-                twist.dx,
-                twist.dy,
-                twist.dtheta });
-    }
-
-    /** [vx; vy; omega] (3 x 1) -> ChassisSpeeds */
-    private static ChassisSpeeds vector2ChassisSpeeds(SimpleMatrix v) {
-        return new ChassisSpeeds(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /**
+     * Same as m_inverseKinematics.mult([vx; vy; omega]), term by term in the
+     * same order, so the result is the same.
+     * 
+     * @param out    [vx0; vy0; vx1; ...] starting at offset
+     * @param offset index of vx0 in out
+     */
+    private void inverse(double vx, double vy, double omega, double[] out, int offset) {
+        if (m_numModules == 4) {
+            out[offset] = vx + m_negY[0] * omega;
+            out[offset + 1] = vy + m_x[0] * omega;
+            out[offset + 2] = vx + m_negY[1] * omega;
+            out[offset + 3] = vy + m_x[1] * omega;
+            out[offset + 4] = vx + m_negY[2] * omega;
+            out[offset + 5] = vy + m_x[2] * omega;
+            out[offset + 6] = vx + m_negY[3] * omega;
+            out[offset + 7] = vy + m_x[3] * omega;
+            return;
+        }
+        for (int i = 0; i < m_numModules; ++i) {
+            out[offset + 2 * i] = vx + m_negY[i] * omega;
+            out[offset + 2 * i + 1] = vy + m_x[i] * omega;
+        }
     }
 
-    /** [dx; dy; dtheta] (3 x 1) -> Twist2d */
-    private static Twist2d vector2Twist(SimpleMatrix v) {
-        return new Twist2d(v.get(0, 0), v.get(1, 0), v.get(2, 0));
+    /**
+     * Same as m_forwardKinematics.mult(v), summing in the same order, so the
+     * result is the same.
+     * 
+     * @param in  [vx0; vy0; vx1; ...] starting at inOffset
+     * @param out [vx; vy; omega] starting at outOffset
+     */
+    private void forward(double[] in, int inOffset, double[] out, int outOffset) {
+        final double[] f = m_forward;
+        if (m_numModules == 4) {
+            final double v0 = in[inOffset];
+            final double v1 = in[inOffset + 1];
+            final double v2 = in[inOffset + 2];
+            final double v3 = in[inOffset + 3];
+            final double v4 = in[inOffset + 4];
+            final double v5 = in[inOffset + 5];
+            final double v6 = in[inOffset + 6];
+            final double v7 = in[inOffset + 7];
+            out[outOffset] = f[0] * v0 + f[1] * v1 + f[2] * v2 + f[3] * v3
+                    + f[4] * v4 + f[5] * v5 + f[6] * v6 + f[7] * v7;
+            out[outOffset + 1] = f[8] * v0 + f[9] * v1 + f[10] * v2 + f[11] * v3
+                    + f[12] * v4 + f[13] * v5 + f[14] * v6 + f[15] * v7;
+            out[outOffset + 2] = f[16] * v0 + f[17] * v1 + f[18] * v2 + f[19] * v3
+                    + f[20] * v4 + f[21] * v5 + f[22] * v6 + f[23] * v7;
+            return;
+        }
+        final int n = 2 * m_numModules;
+        for (int row = 0; row < 3; ++row) {
+            double sum = 0;
+            for (int col = 0; col < n; ++col) {
+                sum += f[row * n + col] * in[inOffset + col];
+            }
+            out[outOffset + row] = sum;
+        }
     }
 
     /** True if speeds are (nearly) stopped. Deadband upstream for this to work. */
@@ -322,15 +416,14 @@ public class SwerveDriveKinematics100 {
      * 
      * The resulting module speed is always positive.
      * 
-     * @param chassisSpeedsVector [vx0; vy0; vx1; ...]
+     * @param moduleVector [vx0; vy0; vx1; ...]
      */
-    SwerveModuleStates statesFromVector(SimpleMatrix chassisSpeedsVector) {
-        SimpleMatrix moduleStatesMatrix = m_inverseKinematics.mult(chassisSpeedsVector);
+    private SwerveModuleStates statesFromVector(double[] moduleVector) {
         return new SwerveModuleStates(
-                stateFromVector(moduleStatesMatrix.get(0, 0), moduleStatesMatrix.get(1, 0)),
-                stateFromVector(moduleStatesMatrix.get(2, 0), moduleStatesMatrix.get(3, 0)),
-                stateFromVector(moduleStatesMatrix.get(4, 0), moduleStatesMatrix.get(5, 0)),
-                stateFromVector(moduleStatesMatrix.get(6, 0), moduleStatesMatrix.get(7, 0)));
+                stateFromVector(moduleVector[0], moduleVector[1]),
+                stateFromVector(moduleVector[2], moduleVector[3]),
+                stateFromVector(moduleVector[4], moduleVector[5]),
+                stateFromVector(moduleVector[6], moduleVector[7]));
     }
 
     private SwerveModuleState100 stateFromVector(double x, double y) {
@@ -351,12 +444,12 @@ public class SwerveDriveKinematics100 {
      * @param moduleDeltaVector [d cos; d sin; ...] (2n x 1),
      *                          equivalently [dx0; dy0; dx1; ...]
      */
-    private SwerveModuleDeltas deltasFromVector(SimpleMatrix moduleDeltaVector) {
+    private SwerveModuleDeltas deltasFromVector(double[] moduleDeltaVector) {
         return new SwerveModuleDeltas(
-                new SwerveModuleDelta(moduleDeltaVector.get(0, 0), moduleDeltaVector.get(1, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(2, 0), moduleDeltaVector.get(3, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(4, 0), moduleDeltaVector.get(5, 0)),
-                new SwerveModuleDelta(moduleDeltaVector.get(6, 0), moduleDeltaVector.get(7, 0)));
+                new SwerveModuleDelta(moduleDeltaVector[0], moduleDeltaVector[1]),
+                new SwerveModuleDelta(moduleDeltaVector[2], moduleDeltaVector[3]),
+                new SwerveModuleDelta(moduleDeltaVector[4], moduleDeltaVector[5]),
+                new SwerveModuleDelta(moduleDeltaVector[6], moduleDeltaVector[7]));
     }
 
     /** Keep a copy of headings in case we need them for full-stop. */
@@ -266,6 +266,25 @@ public class SwerveKinodynamics implements Glassy {
         return m_MaxCapsizeAccelM_S2;
     }
 
+    /**
+     * The configured inputs and geometry; everything else is derived from these.
+     * Used to identify cached trajectories.
+     */
+    public double[] getParameters() {
+        return new double[] {
+                m_MaxDriveVelocityM_S,
+                m_StallAccelerationM_S2,
+                m_MaxDriveAccelerationM_S2,
+                m_MaxDriveDecelerationM_S2,
+                m_MaxSteeringVelocityRad_S,
+                m_maxSteeringAccelerationRad_S2,
+                m_fronttrack,
+                m_backtrack,
+                m_wheelbase,
+                m_frontoffset,
+                m_vcg };
+    }
+
     /**
      * @param fronttrack
      * @param backtrack
@@ -319,6 +338,28 @@ public class SwerveKinodynamics implements Glassy {
         return m_kinematics.toSwerveModuleStates(descretized);
     }
 
+    /**
+     * Same as toSwerveModuleStates(), as module vectors, without the full-stop
+     * case, and without touching the saved headings, so it's safe to use off
+     * the main loop, e.g. in the trajectory planner.
+     * 
+     * @param moduleVector output: [vx0; vy0; vx1; ...] (2n)
+     */
+    public void toModuleVector(ChassisSpeeds in, double gyroRateRad_S, double[] moduleVector) {
+        Rotation2d angle = new Rotation2d(VeeringCorrection.correctionRad(gyroRateRad_S));
+        ChassisSpeeds chassisSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(
+                in.vxMetersPerSecond,
+                in.vyMetersPerSecond,
+                in.omegaRadiansPerSecond,
+                angle);
+        ChassisSpeeds descretized = ChassisSpeeds.discretize(chassisSpeeds, TimedRobot100.LOOP_PERIOD_S);
+        m_kinematics.toModuleVector(
+                descretized.vxMetersPerSecond,
+                descretized.vyMetersPerSecond,
+                descretized.omegaRadiansPerSecond,
+                moduleVector);
+    }
+
     /**
      * The resulting state speeds are always positive.
      */
@@ -22,7 +22,12 @@ import org.team100.lib.util.Util;
  */
 public class SwerveKinodynamicsFactory {
     public static SwerveKinodynamics get() {
-        switch (Identity.instance) {
+        return get(Identity.instance);
+    }
+
+    /** For a specific robot, e.g. to precompute trajectories on the desktop. */
+    public static SwerveKinodynamics get(Identity identity) {
+        switch (identity) {
             case COMP_BOT:
                 // these numbers are a guess based on the betabot numbers.
                 // the comp bot uses the "fast" ratio and FOC falcons
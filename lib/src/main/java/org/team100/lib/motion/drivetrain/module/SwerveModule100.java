@@ -12,6 +12,7 @@ import org.team100.lib.state.Control100;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Feedforward and feedback control of a single module.
@@ -125,6 +126,25 @@ public abstract class SwerveModule100 implements Glassy {
                 Optional.of(new Rotation2d(turningPosition.getAsDouble())));
     }
 
+    /**
+     * For odometry sampling on another thread. getPosition() reads through
+     * caches and loggers that belong to the main loop, so modules with real
+     * hardware override this. Simulated modules have no caches, so by default
+     * this is the same as getPosition().
+     */
+    public SwerveModulePosition100 samplePosition() {
+        return getPosition();
+    }
+
+    /**
+     * The time of the measurement in the last samplePosition(), in seconds, on
+     * the FPGA timebase. Modules with real hardware use the sensor timestamp;
+     * by default it's just the current time.
+     */
+    public double sampleTimeS() {
+        return Timer.getFPGATimestamp();
+    }
+
     boolean atSetpoint() {
         return m_turningServo.atSetpoint();
     }
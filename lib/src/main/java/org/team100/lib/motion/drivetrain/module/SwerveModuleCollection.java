@@ -214,6 +214,23 @@ public class SwerveModuleCollection {
                 m_rearRight.getPosition());
     }
 
+    /** For odometry sampling on another thread, see SwerveModule100.samplePosition(). */
+    public SwerveModulePositions samplePositions() {
+        return new SwerveModulePositions(
+                m_frontLeft.samplePosition(),
+                m_frontRight.samplePosition(),
+                m_rearLeft.samplePosition(),
+                m_rearRight.samplePosition());
+    }
+
+    /** The mean time of the measurements in the last samplePositions(). */
+    public double sampleTimeS() {
+        return (m_frontLeft.sampleTimeS()
+                + m_frontRight.sampleTimeS()
+                + m_rearLeft.sampleTimeS()
+                + m_rearRight.sampleTimeS()) / 4;
+    }
+
     public SwerveModuleStates states() {
         return new SwerveModuleStates(
                 m_frontLeft.getState(),
@@ -1,5 +1,7 @@
 package org.team100.lib.motion.drivetrain.module;
 
+import java.util.Optional;
+
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.encoder.AS5048RotaryPositionSensor;
@@ -9,8 +11,10 @@ import org.team100.lib.encoder.DutyCycleRotaryPositionSensor;
 import org.team100.lib.encoder.EncoderDrive;
 import org.team100.lib.encoder.RotaryPositionSensor;
 import org.team100.lib.encoder.Talon6Encoder;
+import org.team100.lib.localization.OdometrySampler;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePosition100;
 import org.team100.lib.motion.mechanism.LinearMechanism;
 import org.team100.lib.motion.mechanism.RotaryMechanism;
 import org.team100.lib.motion.mechanism.SimpleLinearMechanism;
@@ -22,8 +26,13 @@ import org.team100.lib.motion.servo.OutboardLinearVelocityServo;
 import org.team100.lib.motor.Falcon6Motor;
 import org.team100.lib.motor.Kraken6Motor;
 import org.team100.lib.motor.MotorPhase;
+import org.team100.lib.motor.Talon6Motor;
 import org.team100.lib.profile.Profile100;
 
+import com.ctre.phoenix6.StatusSignal;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
 public class WCPSwerveModule100 extends SwerveModule100 {
     private static final double kSteeringSupplyLimit = 10;
     private static final double kSteeringStatorLimit = 20;
@@ -56,6 +65,14 @@ public class WCPSwerveModule100 extends SwerveModule100 {
 
     // WCP 4 inch wheel
     private static final double kWheelDiameterM = 0.0975; // 0.1015
+    private static final double kTurningRad_Rev = 2 * Math.PI / kSteeringRatio;
+
+    // for odometry sampling, see samplePosition()
+    private final StatusSignal<Double> m_driveRev;
+    private final StatusSignal<Double> m_turningRev;
+    private final double m_driveM_Rev;
+    /** Written and read only by the sampling thread. */
+    private double m_sampleTimeS;
 
     /**
      * MAKE SURE THAT THE BEVELS ON THE WHEELS FOR ZEROING GO TO THE RIGHT
@@ -73,25 +90,32 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             SwerveKinodynamics kinodynamics,
             EncoderDrive drive,
             MotorPhase motorPhase) {
-
-        LinearVelocityServo driveServo = driveKrakenServo(
-                parent.child("Drive"),
+        LoggerFactory driveLog = parent.child("Drive");
+        LoggerFactory turningLog = parent.child("Turning");
+        Kraken6Motor driveMotor = driveKrakenMotor(
+                driveLog,
                 supplyLimitAmps,
                 statorLimitAmps,
-                driveMotorCanId,
+                driveMotorCanId);
+        Falcon6Motor turningMotor = turningMotor(
+                turningLog,
+                turningMotorCanId,
+                motorPhase);
+        LinearVelocityServo driveServo = driveServo(
+                driveLog,
+                driveMotor,
                 ratio);
         AngularPositionServo turningServo = turningServo(
-                parent.child("Turning"),
+                turningLog,
+                turningMotor,
                 encoderClass,
-                turningMotorCanId,
                 turningEncoderChannel,
                 turningOffset,
                 kSteeringRatio,
                 kinodynamics,
-                drive,
-                motorPhase);
+                drive);
 
-        return new WCPSwerveModule100(driveServo, turningServo);
+        return new WCPSwerveModule100(driveServo, turningServo, driveMotor, turningMotor, ratio);
     }
 
     /**
@@ -110,35 +134,42 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             SwerveKinodynamics kinodynamics,
             EncoderDrive drive,
             MotorPhase motorPhase) {
-        LinearVelocityServo driveServo = driveFalconServo(
-                parent.child("Drive"),
+        LoggerFactory driveLog = parent.child("Drive");
+        LoggerFactory turningLog = parent.child("Turning");
+        Falcon6Motor driveMotor = driveFalconMotor(
+                driveLog,
                 supplyLimitAmps,
                 statorLimitAmps,
-                driveMotorCanId,
+                driveMotorCanId);
+        Falcon6Motor turningMotor = turningMotor(
+                turningLog,
+                turningMotorCanId,
+                motorPhase);
+        LinearVelocityServo driveServo = driveServo(
+                driveLog,
+                driveMotor,
                 ratio);
         AngularPositionServo turningServo = turningServo(
-                parent.child("Turning"),
+                turningLog,
+                turningMotor,
                 encoderClass,
-                turningMotorCanId,
                 turningEncoderChannel,
                 turningOffset,
                 kSteeringRatio,
                 kinodynamics,
-                drive,
-                motorPhase);
-        return new WCPSwerveModule100(driveServo, turningServo);
+                drive);
+        return new WCPSwerveModule100(driveServo, turningServo, driveMotor, turningMotor, ratio);
     }
 
-    private static LinearVelocityServo driveKrakenServo(
+    private static Kraken6Motor driveKrakenMotor(
             LoggerFactory parent,
             double supplyLimit,
             double statorLimit,
-            int driveMotorCanId,
-            DriveRatio ratio) {
+            int driveMotorCanId) {
         Feedforward100 ff = Feedforward100.makeWCPSwerveDriveFalcon6();
         // note (10/2/24) 0.4 produces oscillation, on carpet.
         PIDConstants pid = new PIDConstants(0.3);
-        Kraken6Motor driveMotor = new Kraken6Motor(
+        return new Kraken6Motor(
                 parent,
                 driveMotorCanId,
                 MotorPhase.FORWARD,
@@ -146,25 +177,16 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 statorLimit,
                 pid,
                 ff);
-        LinearMechanism mech = new SimpleLinearMechanism(
-                driveMotor,
-                new Talon6Encoder(parent, driveMotor),
-                ratio.m_ratio,
-                kWheelDiameterM);
-        return new OutboardLinearVelocityServo(
-                parent,
-                mech);
     }
 
-    private static LinearVelocityServo driveFalconServo(
+    private static Falcon6Motor driveFalconMotor(
             LoggerFactory parent,
             double supplyLimit,
             double statorLimit,
-            int driveMotorCanId,
-            DriveRatio ratio) {
+            int driveMotorCanId) {
         Feedforward100 ff = Feedforward100.makeWCPSwerveDriveFalcon6();
         PIDConstants pid = new PIDConstants(0.2);
-        Falcon6Motor driveMotor = new Falcon6Motor(
+        return new Falcon6Motor(
                 parent,
                 driveMotorCanId,
                 MotorPhase.FORWARD,
@@ -172,6 +194,12 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 statorLimit,
                 pid,
                 ff);
+    }
+
+    private static LinearVelocityServo driveServo(
+            LoggerFactory parent,
+            Talon6Motor driveMotor,
+            DriveRatio ratio) {
         LinearMechanism mech = new SimpleLinearMechanism(
                 driveMotor,
                 new Talon6Encoder(parent, driveMotor),
@@ -182,17 +210,10 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 mech);
     }
 
-    private static AngularPositionServo turningServo(
+    private static Falcon6Motor turningMotor(
             LoggerFactory parent,
-            Class<? extends RotaryPositionSensor> encoderClass,
             int turningMotorCanId,
-            int turningEncoderChannel,
-            double turningOffset,
-            double gearRatio,
-            SwerveKinodynamics kinodynamics,
-            EncoderDrive drive,
             MotorPhase motorPhase) {
-
         // Talon outboard POSITION PID
         // 10/2/24 drive torque produces about a 0.5 degree deviation so maybe
         // this is too low.
@@ -201,7 +222,7 @@ public class WCPSwerveModule100 extends SwerveModule100 {
         // java uses this to calculate feedforward voltages from target velocities etc
         Feedforward100 ff = Feedforward100.makeWCPSwerveTurningFalcon6();
 
-        Falcon6Motor turningMotor = new Falcon6Motor(
+        return new Falcon6Motor(
                 parent,
                 turningMotorCanId,
                 motorPhase,
@@ -209,7 +230,17 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 kSteeringStatorLimit,
                 lowLevelPID,
                 ff);
+    }
 
+    private static AngularPositionServo turningServo(
+            LoggerFactory parent,
+            Falcon6Motor turningMotor,
+            Class<? extends RotaryPositionSensor> encoderClass,
+            int turningEncoderChannel,
+            double turningOffset,
+            double gearRatio,
+            SwerveKinodynamics kinodynamics,
+            EncoderDrive drive) {
         RotaryPositionSensor turningEncoder = turningEncoder(
                 encoderClass,
                 parent,
@@ -280,8 +311,36 @@ public class WCPSwerveModule100 extends SwerveModule100 {
 
     private WCPSwerveModule100(
             LinearVelocityServo driveServo,
-            AngularPositionServo turningServo) {
+            AngularPositionServo turningServo,
+            Talon6Motor driveMotor,
+            Talon6Motor turningMotor,
+            DriveRatio ratio) {
         super(driveServo, turningServo);
-        //
+        double hz = 1 / OdometrySampler.kPeriodS;
+        m_driveRev = driveMotor.positionSampler(hz);
+        m_turningRev = turningMotor.positionSampler(hz);
+        m_driveM_Rev = Math.PI * kWheelDiameterM / ratio.m_ratio;
+    }
+
+    /**
+     * Reads the motor position signals directly, with the same conversions as
+     * the mechanisms: the drive is SimpleLinearMechanism, and the steering is
+     * SimpleRotaryMechanism, whose motor encoder CombinedEncoder keeps in sync
+     * with the absolute encoder.
+     */
+    @Override
+    public SwerveModulePosition100 samplePosition() {
+        double driveRev = m_driveRev.refresh().getValueAsDouble();
+        m_sampleTimeS = m_driveRev.getTimestamp().getTime();
+        double turningRev = m_turningRev.refresh().getValueAsDouble();
+        return new SwerveModulePosition100(
+                driveRev * m_driveM_Rev,
+                Optional.of(new Rotation2d(turningRev * kTurningRad_Rev)));
+    }
+
+    /** The timestamp of the drive position signal. */
+    @Override
+    public double sampleTimeS() {
+        return m_sampleTimeS;
     }
 }
@@ -10,6 +10,7 @@ import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.util.Memo;
 import org.team100.lib.util.Util;
 
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.PositionVoltage;
@@ -268,6 +269,21 @@ public abstract class Talon6Motor implements BareMotor {
         return m_position.getAsDouble();
     }
 
+    /**
+     * For odometry sampling on another thread: a private copy of the position
+     * signal, so it doesn't touch the memo, which belongs to the main loop.
+     * Also raises the position update frequency to match the sampling rate.
+     * 
+     * Refresh it on the sampling thread. The value is in revolutions, and the
+     * timestamp is the time of the measurement, on the FPGA timebase.
+     *
+     * @param hz sampling rate
+     */
+    public StatusSignal<Double> positionSampler(double hz) {
+        Phoenix100.crash(() -> m_motor.getPosition().setUpdateFrequency(hz));
+        return m_motor.getPosition().clone();
+    }
+
     /** wait a long time for a new value, do not use outside testing. */
     public double getPositionBlockingRev() {
         return m_motor.getPosition().waitForUpdate(1).getValueAsDouble();
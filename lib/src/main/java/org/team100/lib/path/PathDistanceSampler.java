@@ -1,14 +1,20 @@
 package org.team100.lib.path;
 
 import org.team100.lib.timing.TimingUtil;
+import org.team100.lib.util.SearchCursor;
 
 /**
  * Samples a path by distance along it.
+ * 
+ * Sampling uses a cursor that remembers the previous sample, so walking
+ * forward along the path is amortized O(1) per sample, and random access is
+ * O(log n). Because of the cursor, this is not thread-safe.
  */
 public class PathDistanceSampler {
     private final Path100 m_path;
     /** in meters */
     private final double[] m_distances;
+    private final SearchCursor m_cursor;
 
     public PathDistanceSampler(final Path100 path) {
         m_path = path;
@@ -18,6 +24,7 @@ public class PathDistanceSampler {
             m_distances[i] = m_distances[i - 1]
                     + m_path.getPoint(i - 1).state().distance(m_path.getPoint(i).state());
         }
+        m_cursor = new SearchCursor(m_distances);
     }
 
     /**
@@ -32,21 +39,19 @@ public class PathDistanceSampler {
             PathPoint point = m_path.getPoint(0);
             return new PathSamplePoint(point.state(), point.index(), point.index());
         }
-        for (int i = 1; i < m_distances.length; ++i) {
-            final PathPoint point = m_path.getPoint(i);
-            if (m_distances[i] >= distance) {
-                final PathPoint prev_s = m_path.getPoint(i - 1);
-                if (Math.abs(m_distances[i] - m_distances[i - 1]) <= 1e-12) {
-                    return new PathSamplePoint(point.state(), point.index(), point.index());
-                } else {
-                    return new PathSamplePoint(
-                            prev_s.state().interpolate(point.state(),
-                                    (distance - m_distances[i - 1]) / (m_distances[i] - m_distances[i - 1])),
-                            i - 1, i);
-                }
-            }
+        final int i = m_cursor.ceiling(distance);
+        if (m_distances[i] < distance) {
+            throw new TimingUtil.TimingException();
         }
-        throw new TimingUtil.TimingException();
+        final PathPoint point = m_path.getPoint(i);
+        final PathPoint prev_s = m_path.getPoint(i - 1);
+        if (Math.abs(m_distances[i] - m_distances[i - 1]) <= 1e-12) {
+            return new PathSamplePoint(point.state(), point.index(), point.index());
+        }
+        return new PathSamplePoint(
+                prev_s.state().interpolate(point.state(),
+                        (distance - m_distances[i - 1]) / (m_distances[i] - m_distances[i - 1])),
+                i - 1, i);
     }
 
     public double getMaxDistance() {
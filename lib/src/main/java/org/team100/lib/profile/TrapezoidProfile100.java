@@ -73,8 +73,9 @@ public class TrapezoidProfile100 implements Profile100 {
         return new TrapezoidProfile100(m_maxVelocity, s * m_maxAcceleration, m_tolerance);
     }
 
+    /** Scale factor for the desired ETA, see solveForSlowerETAClosedForm(). */
     public double solve(double dt, Model100 i, Model100 g, double eta, double etaTolerance) {
-        return solveForSlowerETA(
+        return solveForSlowerETAClosedForm(
                 m_maxVelocity,
                 m_maxAcceleration,
                 m_tolerance,
@@ -114,6 +115,93 @@ public class TrapezoidProfile100 implements Profile100 {
                 sTolerance, 100);
     }
 
+    /**
+     * Same as solveForSlowerETA(), but in constant time, by solving the
+     * duration equations for acceleration directly.
+     * 
+     * The minimum-time path is I+G-, I+CG-, I-G+, or I-CG+, and for each of
+     * these, the duration is simple enough to invert. For I+G- it's a quadratic
+     * in acceleration, and for I+CG- it's linear in the inverse of acceleration.
+     * The first candidate that's consistent with its own assumptions is checked
+     * against calculateWithETA(). If none is, e.g. if the initial speed is above
+     * the limit, this falls back to the root finder.
+     * 
+     * Unlike the root finder, the result is the actual scale, not its position
+     * within the search interval, so it's a bit larger, and more accurate.
+     */
+    public static double solveForSlowerETAClosedForm(
+            double maxV,
+            double maxA,
+            double tol,
+            double dt,
+            Model100 initial,
+            Model100 goal,
+            double eta,
+            double etaTolerance) {
+        final double minS = 0.01;
+        final double maxS = 1.0;
+        double fastest = getEtaS(maxV, maxA, tol, dt, initial, goal, 0, maxS);
+        if (fastest == 0 || eta <= fastest + etaTolerance) {
+            // already there, or can't go any slower
+            return maxS;
+        }
+        if (Math.abs(initial.v()) <= maxV) {
+            double x0 = initial.x();
+            double v0 = initial.v();
+            double xg = goal.x();
+            double vg = MathUtil.clamp(goal.v(), -maxV, maxV);
+            // positive direction first, then mirror for the negative.
+            for (double dir = 1; dir >= -1; dir -= 2) {
+                double d = dir * (xg - x0);
+                double a = accelForDuration(maxV, d, dir * v0, dir * vg, eta);
+                if (Double.isNaN(a))
+                    continue;
+                double s = MathUtil.clamp(a / maxA, minS, maxS);
+                double etaS = getEtaS(maxV, maxA, tol, dt, initial, goal, 0, s);
+                if (Math.abs(etaS - eta) <= etaTolerance || s == minS)
+                    return s;
+            }
+        }
+        return solveForSlowerETA(maxV, maxA, tol, dt, initial, goal, eta, etaTolerance);
+    }
+
+    /**
+     * Acceleration that makes the positive-first path (I+G- or I+CG-) take the
+     * given duration, or NaN if there isn't one.
+     * 
+     * @param vMax cruise speed
+     * @param d    distance to the goal
+     * @param v0   initial velocity
+     * @param vg   goal velocity
+     * @param t    desired duration
+     */
+    static double accelForDuration(double vMax, double d, double v0, double vg, double t) {
+        final double eps = 1e-9;
+        // I+G-: the switch velocity is vs = (aT + v0 + vg)/2 and also
+        // vs^2 = a d + (v0^2 + vg^2)/2, so
+        // T^2 a^2 + (2T(v0 + vg) - 4d) a - (v0 - vg)^2 = 0
+        // and the product of the roots is not positive, so take the larger one.
+        double b = 2 * t * (v0 + vg) - 4 * d;
+        double c = -1.0 * (v0 - vg) * (v0 - vg);
+        double a = (-b + Math.sqrt(b * b - 4 * t * t * c)) / (2 * t * t);
+        if (a > eps) {
+            double vs = (a * t + v0 + vg) / 2;
+            if (vs >= v0 - eps && vs >= vg - eps && vs <= vMax + eps)
+                return a;
+        }
+        // I+CG-: T = K/a + d/vMax, where
+        // K = ((vMax - v0)^2 + (vMax - vg)^2) / (2 vMax)
+        double cruiseT = t - d / vMax;
+        if (cruiseT > eps) {
+            double k = ((vMax - v0) * (vMax - v0) + (vMax - vg) * (vMax - vg)) / (2 * vMax);
+            a = k / cruiseT;
+            // the unconstrained switch velocity has to exceed the cruise speed.
+            if (a > eps && a * d + (v0 * v0 + vg * vg) / 2 >= vMax * vMax - eps)
+                return a;
+        }
+        return Double.NaN;
+    }
+
     private static double getEtaS(
             double maxV,
             double maxA,
@@ -420,7 +508,7 @@ public class TrapezoidProfile100 implements Profile100 {
             double duration = durationAtMaxA(initial.v(), goal.v());
             return new ResultWithETA(result, duration);
         }
-        double durationFromGPlusToGoal = durationAtMaxA(m_maxVelocity, goal.v());
+        double durationFromGPlusToGoal = durationAtMaxA(-m_maxVelocity, goal.v());
         if (durationToGPlus < dt) {
             double tremaining = dt - durationToGPlus;
             ResultWithETA r = calculateWithETA(tremaining, new Model100(gplus, -m_maxVelocity), goal);
@@ -18,6 +18,20 @@ public interface Gyro extends Glassy {
     /** Yaw rate in rad/s, NWU, counterclockwise positive. */
     double getYawRateNWU();
 
+    /**
+     * Yaw in radians, NWU, for sampling on another thread: implementations that
+     * log in getYawNWU() override this to skip the logging, since the loggers
+     * belong to the main loop.
+     */
+    default double sampleYawNWU() {
+        return getYawNWU().getRadians();
+    }
+
+    /** Yaw rate in rad/s, NWU, for sampling on another thread, see sampleYawNWU(). */
+    default double sampleYawRateNWU() {
+        return getYawRateNWU();
+    }
+
     /** Pitch in radians, NWU, positive-down. */
     Rotation2d getPitchNWU();
 
@@ -53,6 +53,18 @@ public class ReduxGyro implements Gyro {
         return yawRateRad_S;
     }
 
+    /** No logging. */
+    @Override
+    public double sampleYawNWU() {
+        return Units.rotationsToRadians(m_gyro.getYaw());
+    }
+
+    /** No logging. */
+    @Override
+    public double sampleYawRateNWU() {
+        return Units.rotationsToRadians(m_gyro.getAngularVelocityYaw());
+    }
+
     @Override
     public Rotation2d getPitchNWU() {
         Rotation2d pitchNWU = Rotation2d.fromRotations(m_gyro.getPitch());
@@ -11,6 +11,9 @@ import edu.wpi.first.wpilibj.Timer;
 
 /**
  * A simulated gyro that uses drivetrain odometry.
+ * 
+ * The yaw integrates, so it's synchronized, in case it's read by an odometry
+ * thread as well as the main loop.
  */
 public class SimulatedGyro implements Gyro {
     private double m_heading = 0;
@@ -26,7 +29,7 @@ public class SimulatedGyro implements Gyro {
     }
 
     @Override
-    public Rotation2d getYawNWU() {
+    public synchronized Rotation2d getYawNWU() {
         SwerveModuleStates states = m_moduleCollection.states();
         // discretization is not necessary here because we only use the rotation, which
         // is invariant
@@ -88,7 +88,8 @@ public class SingleNavXGyro implements Gyro {
 
     /** To work around NavX badness, for now. */
     private Rotation2d m_prevYawNWURad = null;
-    private double m_yawRateRad_S = 0;
+    /** Written by periodic(), may be read by the sampling thread. */
+    private volatile double m_yawRateRad_S = 0;
 
     /**
      * NOTE: the async is just for logging, maybe don't use a whole thread for it.
@@ -178,6 +179,18 @@ public class SingleNavXGyro implements Gyro {
         // return currentHeadingRateNWU;
     }
 
+    /** No logging. */
+    @Override
+    public double sampleYawNWU() {
+        return Math.toRadians(-1.0 * m_ahrs.getYaw() * m_yawScaleFactor);
+    }
+
+    /** No logging. */
+    @Override
+    public double sampleYawRateNWU() {
+        return m_yawRateRad_S;
+    }
+
     @Override
     public Rotation2d getPitchNWU() {
         Rotation2d pitchNWU = Rotation2d.fromDegrees(-1.0 * getPitchDeg());
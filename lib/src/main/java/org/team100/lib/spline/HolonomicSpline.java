@@ -28,11 +28,11 @@ import edu.wpi.first.math.geometry.Twist2d;
 public class HolonomicSpline {
     /** spline control points need to be not too close to a u-turn. */
     private static final double MIN_ANGLE = 2 * Math.PI / 3;
-    private static final double kEpsilon = 1e-5;
-    private static final double kStepSize = 1.0;
-    private static final double kMinDelta = 0.001;
-    private static final int kSamples = 100;
-    private static final int kMaxIterations = 100;
+    static final double kEpsilon = 1e-5;
+    static final double kStepSize = 1.0;
+    static final double kMinDelta = 0.001;
+    static final int kSamples = 100;
+    static final int kMaxIterations = 100;
 
     private final Spline1d x;
     private final Spline1d y;
@@ -131,6 +131,8 @@ public class HolonomicSpline {
     /**
      * Finds the optimal second derivative values for a set of splines to reduce the
      * sum of the change in curvature squared over the path
+     * 
+     * See also HolonomicSplineOptimizer, which does the same thing faster.
      *
      * @param splines the list of splines to optimize
      * @return the final sumDCurvature2
@@ -164,6 +166,19 @@ public class HolonomicSpline {
         return theta.getVelocity(t);
     }
 
+    Spline1d x() {
+        return x;
+    }
+
+    Spline1d y() {
+        return y;
+    }
+
+    /** Return a new spline that is a copy of this one, but with substitute x and y. */
+    HolonomicSpline withXY(Spline1d newX, Spline1d newY) {
+        return new HolonomicSpline(newX, newY, theta, r0);
+    }
+
     /**
      * Return a new spline that is a copy of this one, but with substitute
      * second derivatives.
@@ -350,6 +365,23 @@ public class HolonomicSpline {
         private double ddy;
     }
 
+    /**
+     * True if the control point between the splines can't be optimized. The
+     * endpoint courses don't depend on the second derivatives, so this doesn't
+     * change during optimization.
+     */
+    static boolean isColinear(HolonomicSpline a, HolonomicSpline b) {
+        Optional<Pose2d> startPose = a.getStartPose();
+        Optional<Pose2d> startPose2 = b.getStartPose();
+        Optional<Pose2d> endPose = a.getEndPose();
+        Optional<Pose2d> endPose2 = b.getEndPose();
+        if (startPose.isEmpty() || startPose2.isEmpty() || endPose.isEmpty() || endPose2.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        return GeometryUtil.isColinear(startPose.get(), startPose2.get())
+                || GeometryUtil.isColinear(endPose.get(), endPose2.get());
+    }
+
     /**
      * Runs a single optimization iteration
      */
@@ -395,17 +427,8 @@ public class HolonomicSpline {
     }
 
     private static void finish(List<HolonomicSpline> splines, ControlPoint[] controlPoints, double stepSize, int i) {
-        Optional<Pose2d> startPose = splines.get(i).getStartPose();
-        Optional<Pose2d> startPose2 = splines.get(i + 1).getStartPose();
-        Optional<Pose2d> endPose = splines.get(i).getEndPose();
-        Optional<Pose2d> endPose2 = splines.get(i + 1).getEndPose();
-        if (startPose.isEmpty() || startPose2.isEmpty() || endPose.isEmpty() || endPose2.isEmpty()) {
-            throw new IllegalArgumentException();
-        }
-        if (GeometryUtil.isColinear(startPose.get(), startPose2.get())
-                || GeometryUtil.isColinear(endPose.get(), endPose2.get())) {
+        if (isColinear(splines.get(i), splines.get(i + 1)))
             return;
-        }
 
         // why would this happen?
         if (controlPoints[i] == null)
@@ -422,17 +445,8 @@ public class HolonomicSpline {
     }
 
     private static void forwards(List<HolonomicSpline> splines, ControlPoint[] controlPoints, int i) {
-        Optional<Pose2d> startPose = splines.get(i).getStartPose();
-        Optional<Pose2d> startPose2 = splines.get(i + 1).getStartPose();
-        Optional<Pose2d> endPose = splines.get(i).getEndPose();
-        Optional<Pose2d> endPose2 = splines.get(i + 1).getEndPose();
-        if (startPose.isEmpty() || startPose2.isEmpty() || endPose.isEmpty() || endPose2.isEmpty()) {
-            throw new IllegalArgumentException();
-        }
-        if (GeometryUtil.isColinear(startPose.get(), startPose2.get())
-                || GeometryUtil.isColinear(endPose.get(), endPose2.get())) {
+        if (isColinear(splines.get(i), splines.get(i + 1)))
             return;
-        }
 
         // why would this happen?
         if (controlPoints[i] == null)
@@ -451,17 +465,8 @@ public class HolonomicSpline {
             ControlPoint[] controlPoints,
             double magnitude,
             int i) {
-        Optional<Pose2d> startPose = splines.get(i).getStartPose();
-        Optional<Pose2d> startPose2 = splines.get(i + 1).getStartPose();
-        Optional<Pose2d> endPose = splines.get(i).getEndPose();
-        Optional<Pose2d> endPose2 = splines.get(i + 1).getEndPose();
-        if (startPose.isEmpty() || startPose2.isEmpty() || endPose.isEmpty() || endPose2.isEmpty()) {
-            throw new IllegalArgumentException();
-        }
-        if (GeometryUtil.isColinear(startPose.get(), startPose2.get())
-                || GeometryUtil.isColinear(endPose.get(), endPose2.get())) {
+        if (isColinear(splines.get(i), splines.get(i + 1)))
             return;
-        }
 
         // why would this happen?
         if (controlPoints[i] == null)
@@ -488,17 +493,8 @@ public class HolonomicSpline {
         double magnitude = 0;
         for (int i = 0; i < splines.size() - 1; ++i) {
             // don't try to optimize colinear points
-            Optional<Pose2d> startPose = splines.get(i).getStartPose();
-            Optional<Pose2d> startPose2 = splines.get(i + 1).getStartPose();
-            Optional<Pose2d> endPose = splines.get(i).getEndPose();
-            Optional<Pose2d> endPose2 = splines.get(i + 1).getEndPose();
-            if (startPose.isEmpty() || startPose2.isEmpty() || endPose.isEmpty() || endPose2.isEmpty()) {
-                throw new IllegalArgumentException();
-            }
-            if (GeometryUtil.isColinear(startPose.get(), startPose2.get())
-                    || GeometryUtil.isColinear(endPose.get(), endPose2.get())) {
+            if (isColinear(splines.get(i), splines.get(i + 1)))
                 continue;
-            }
             double original = sumDCurvature2(splines);
 
             // holds the gradient at a control point
@@ -525,7 +521,7 @@ public class HolonomicSpline {
      *
      * @return the x coordinate of the vertex of the parabola
      */
-    private static double fitParabola(Translation2d p1, Translation2d p2, Translation2d p3) {
+    static double fitParabola(Translation2d p1, Translation2d p2, Translation2d p3) {
         double A = (p3.getX() * (p2.getY() - p1.getY()) + p2.getX() * (p1.getY() - p3.getY())
                 + p1.getX() * (p3.getY() - p2.getY()));
         double B = (p3.getX() * p3.getX() * (p1.getY() - p2.getY()) + p2.getX() * p2.getX() * (p3.getY() - p1.getY())
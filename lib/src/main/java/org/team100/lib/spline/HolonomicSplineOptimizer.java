@@ -0,0 +1,283 @@
+package org.team100.lib.spline;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Same as HolonomicSpline.optimizeSpline(), i.e. gradient descent on the
+ * second derivatives at the joints to minimize the sum of dCurvature^2, but
+ * faster:
+ *
+ * <ul>
+ * <li>The x and y coefficients are kept in arrays, adjusted in place, instead
+ * of making new splines for every step.</li>
+ * <li>The integral for each spline is cached, and only recomputed if the spline
+ * changed. Moving a control point only changes its two neighbors, so each
+ * partial derivative needs two integrals, not all of them.</li>
+ * <li>For long paths, the partial derivatives, and the integrals, are computed
+ * in parallel, using the common fork-join pool.</li>
+ * </ul>
+ *
+ * The partial derivatives are also a bit more accurate, since the original
+ * leaves each finite-difference probe in place.
+ */
+public class HolonomicSplineOptimizer {
+    /**
+     * Fewer splines than this are done serially. Each integral only takes a few
+     * microseconds, so the fork-join overhead only pays off for long paths.
+     */
+    private static final int kMinParallel = 32;
+    /** Coefficient change (crackle, snap, jerk, accel) for ddx0 += 1. */
+    private static final double[] kStart = { -0.5, 1.5, -1.5, 0.5 };
+    /** Coefficient change (crackle, snap, jerk, accel) for ddx1 += 1. */
+    private static final double[] kEnd = { 0.5, -1.0, 0.5, 0 };
+
+    private final int m_n;
+    /** x coefficients for each spline, highest order first. */
+    private final double[][] m_x;
+    /** y coefficients for each spline, highest order first. */
+    private final double[][] m_y;
+    /** Cached integral of dCurvature^2 for each spline. */
+    private final double[] m_integral;
+    /** Splines that changed since their integral was computed. */
+    private final boolean[] m_dirty;
+    /** Control points (between spline i and i+1) that can move. */
+    private final boolean[] m_active;
+    /** Gradient at each control point. */
+    private final double[] m_ddx;
+    private final double[] m_ddy;
+    private final boolean m_parallel;
+    private int m_iterations;
+
+    HolonomicSplineOptimizer(List<HolonomicSpline> splines, boolean parallel) {
+        m_n = splines.size();
+        m_x = new double[m_n][];
+        m_y = new double[m_n][];
+        m_integral = new double[m_n];
+        m_dirty = new boolean[m_n];
+        m_active = new boolean[Math.max(0, m_n - 1)];
+        m_ddx = new double[m_active.length];
+        m_ddy = new double[m_active.length];
+        m_parallel = parallel;
+        for (int i = 0; i < m_n; ++i) {
+            m_x[i] = splines.get(i).x().getCoefs();
+            m_y[i] = splines.get(i).y().getCoefs();
+            m_dirty[i] = true;
+        }
+        for (int i = 0; i < m_active.length; ++i) {
+            m_active[i] = !HolonomicSpline.isColinear(splines.get(i), splines.get(i + 1));
+        }
+    }
+
+    /**
+     * Optimizes the splines, replacing them in the list.
+     *
+     * @param splines the list of splines to optimize
+     * @return the final sumDCurvature2
+     */
+    public static double optimize(List<HolonomicSpline> splines) {
+        boolean parallel = splines.size() >= kMinParallel
+                && Runtime.getRuntime().availableProcessors() > 1;
+        HolonomicSplineOptimizer optimizer = new HolonomicSplineOptimizer(splines, parallel);
+        double result = optimizer.run();
+        optimizer.update(splines);
+        return result;
+    }
+
+    /** @return the final sumDCurvature2 */
+    double run() {
+        int count = 0;
+        double prev = sumDCurvature2();
+        while (count < HolonomicSpline.kMaxIterations) {
+            runOptimizationIteration();
+            m_iterations++;
+            double current = sumDCurvature2();
+            if (prev - current < HolonomicSpline.kMinDelta)
+                return current;
+            prev = current;
+            count++;
+        }
+        Util.warn("Spline optimization failed");
+        return prev;
+    }
+
+    int iterations() {
+        return m_iterations;
+    }
+
+    /** Replace the splines with the optimized ones. */
+    void update(List<HolonomicSpline> splines) {
+        for (int i = 0; i < m_n; ++i) {
+            splines.set(i, splines.get(i).withXY(
+                    Spline1d.fromCoefs(m_x[i]),
+                    Spline1d.fromCoefs(m_y[i])));
+        }
+    }
+
+    private void runOptimizationIteration() {
+        // can't optimize anything with less than 2 splines
+        if (m_n <= 1)
+            return;
+        sumDCurvature2();
+        forEach(m_active.length, this::gradient);
+        double magnitude = 0;
+        boolean any = false;
+        for (int i = 0; i < m_active.length; ++i) {
+            if (!m_active[i])
+                continue;
+            any = true;
+            magnitude += m_ddx[i] * m_ddx[i] + m_ddy[i] * m_ddy[i];
+        }
+        if (!any)
+            return;
+        magnitude = Math.sqrt(magnitude);
+        if (Double.isNaN(magnitude))
+            throw new IllegalArgumentException();
+        if (magnitude == 0)
+            return;
+
+        // minimize along the direction of the gradient
+        // first calculate 3 points along the direction of the gradient
+
+        // middle point is at the current location
+        Translation2d p2 = new Translation2d(0, sumDCurvature2());
+
+        // first point is offset from the middle location by -stepSize
+        for (int i = 0; i < m_active.length; ++i) {
+            if (!m_active[i])
+                continue;
+            // normalize to step size
+            m_ddx[i] *= HolonomicSpline.kStepSize / magnitude;
+            m_ddy[i] *= HolonomicSpline.kStepSize / magnitude;
+            move(i, -1);
+        }
+        Translation2d p1 = new Translation2d(-HolonomicSpline.kStepSize, sumDCurvature2());
+
+        // last point is offset from the middle location by +stepSize
+        for (int i = 0; i < m_active.length; ++i) {
+            if (m_active[i])
+                move(i, 2);
+        }
+        Translation2d p3 = new Translation2d(HolonomicSpline.kStepSize, sumDCurvature2());
+
+        // approximate step size to minimize sumDCurvature2 along the gradient
+        double stepSize = HolonomicSpline.fitParabola(p1, p2, p3);
+
+        for (int i = 0; i < m_active.length; ++i) {
+            if (!m_active[i])
+                continue;
+            // move by the step size calculated by the parabola fit (+1 to offset for the
+            // final transformation to find p3)
+            m_ddx[i] *= 1 + stepSize / HolonomicSpline.kStepSize;
+            m_ddy[i] *= 1 + stepSize / HolonomicSpline.kStepSize;
+            move(i, 1);
+        }
+    }
+
+    /**
+     * Partial derivatives at control point i, from the cached integrals of its
+     * neighbors, which must be current.
+     */
+    private void gradient(int i) {
+        if (!m_active[i])
+            return;
+        double eps = HolonomicSpline.kEpsilon;
+        double original = m_integral[i] + m_integral[i + 1];
+        double dx = integral(m_x[i], kEnd, eps, m_y[i], kEnd, 0)
+                + integral(m_x[i + 1], kStart, eps, m_y[i + 1], kStart, 0);
+        double dy = integral(m_x[i], kEnd, 0, m_y[i], kEnd, eps)
+                + integral(m_x[i + 1], kStart, 0, m_y[i + 1], kStart, eps);
+        m_ddx[i] = (dx - original) / eps;
+        m_ddy[i] = (dy - original) / eps;
+    }
+
+    /** Move control point i by the scaled gradient. */
+    private void move(int i, double scale) {
+        double ddx = scale * m_ddx[i];
+        double ddy = scale * m_ddy[i];
+        add(m_x[i], kEnd, ddx);
+        add(m_y[i], kEnd, ddy);
+        add(m_x[i + 1], kStart, ddx);
+        add(m_y[i + 1], kStart, ddy);
+        m_dirty[i] = true;
+        m_dirty[i + 1] = true;
+    }
+
+    /** Sum of the integrals, recomputing the ones that changed. */
+    private double sumDCurvature2() {
+        forEach(m_n, i -> {
+            if (m_dirty[i]) {
+                m_integral[i] = integral(m_x[i], kStart, 0, m_y[i], kStart, 0);
+                m_dirty[i] = false;
+            }
+        });
+        double sum = 0;
+        for (int i = 0; i < m_n; ++i) {
+            sum += m_integral[i];
+        }
+        if (Double.isNaN(sum))
+            throw new IllegalArgumentException();
+        return sum;
+    }
+
+    private void forEach(int n, IntConsumer action) {
+        if (m_parallel) {
+            IntStream.range(0, n).parallel().forEach(action);
+        } else {
+            for (int i = 0; i < n; ++i) {
+                action.accept(i);
+            }
+        }
+    }
+
+    private static void add(double[] coefs, double[] delta, double scale) {
+        for (int j = 0; j < delta.length; ++j) {
+            coefs[j] += delta[j] * scale;
+        }
+    }
+
+    /**
+     * Integral of dCurvature^2 over the spline with coefficients x and y, each
+     * adjusted by a scaled delta, without modifying them. Same as
+     * HolonomicSpline.sumDCurvature2().
+     */
+    static double integral(
+            double[] x, double[] dx, double sx,
+            double[] y, double[] dy, double sy) {
+        double xa = x[0] + dx[0] * sx;
+        double xb = x[1] + dx[1] * sx;
+        double xc = x[2] + dx[2] * sx;
+        double xd = x[3] + dx[3] * sx;
+        double xe = x[4];
+        double ya = y[0] + dy[0] * sy;
+        double yb = y[1] + dy[1] * sy;
+        double yc = y[2] + dy[2] * sy;
+        double yd = y[3] + dy[3] * sy;
+        double ye = y[4];
+        double dt = 1.0 / HolonomicSpline.kSamples;
+        double sum = 0;
+        for (double t = 0; t < 1.0; t += dt) {
+            double t2 = t * t;
+            double t3 = t2 * t;
+            double t4 = t3 * t;
+            double vx = 5 * xa * t4 + 4 * xb * t3 + 3 * xc * t2 + 2 * xd * t + xe;
+            double vy = 5 * ya * t4 + 4 * yb * t3 + 3 * yc * t2 + 2 * yd * t + ye;
+            double ax = 20 * xa * t3 + 12 * xb * t2 + 6 * xc * t + 2 * xd;
+            double ay = 20 * ya * t3 + 12 * yb * t2 + 6 * yc * t + 2 * yd;
+            double jx = 60 * xa * t2 + 24 * xb * t + 6 * xc;
+            double jy = 60 * ya * t2 + 24 * yb * t + 6 * yc;
+            double dx2dy2 = vx * vx + vy * vy;
+            if (dx2dy2 == 0)
+                throw new IllegalArgumentException();
+            double num = (vx * jy - jx * vy) * dx2dy2
+                    - 3 * (vx * ay - ax * vy) * (vx * ax + vy * ay);
+            sum += (dt * num * num / (dx2dy2 * dx2dy2 * dx2dy2 * dx2dy2 * dx2dy2));
+        }
+        return sum;
+    }
+}
@@ -63,6 +63,16 @@ public class Spline1d {
         return new Spline1d(a, b, c, d, e, f);
     }
 
+    /** From coefficients, highest order first, as in getCoefs(). */
+    static Spline1d fromCoefs(double[] coefs) {
+        return new Spline1d(coefs[0], coefs[1], coefs[2], coefs[3], coefs[4], coefs[5]);
+    }
+
+    /** Coefficients, highest order first, i.e. crackle through position. */
+    double[] getCoefs() {
+        return new double[] { a, b, c, d, e, f };
+    }
+
     Spline1d addCoefs(Spline1d other) {
         double aa = a + other.a;
         double bb = b + other.b;
@@ -5,6 +5,7 @@ import java.util.function.DoubleSupplier;
 
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.framework.TimedRobot100;
+import org.team100.lib.framework.Trace;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveDriveKinematics100;
@@ -12,6 +13,7 @@ import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleState100;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleStates;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
@@ -28,6 +30,10 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
  * converge to the desired setpoint quickly while avoiding any intermediate
  * state that is kinematically infeasible (and can result in wheel slip or robot
  * heading drift as a result).
+ * 
+ * The intermediate module state is kept in preallocated primitive arrays, so
+ * the only garbage is the returned setpoint itself. This means the generator
+ * isn't thread-safe, which is fine, it's only used by the drive loop.
  */
 public class AsymSwerveSetpointGenerator implements Glassy {
     // turns greater than this will flip
@@ -42,6 +48,19 @@ public class AsymSwerveSetpointGenerator implements Glassy {
     private final DriveAccelerationLimiter m_DriveAccelerationLimiter;
     private final BatterySagLimiter m_BatterySagLimiter;
 
+    // Scratch state, reused every cycle.
+    // Headings are radians, NaN if unknown.
+    // Overrides are radians, NaN if not overridden.
+    private final double[] m_desiredSpeeds = new double[3];
+    private final double[] m_moduleVector = new double[8];
+    private final double[] m_prevVx = new double[4];
+    private final double[] m_prevVy = new double[4];
+    private final double[] m_prevHeading = new double[4];
+    private final double[] m_desiredVx = new double[4];
+    private final double[] m_desiredVy = new double[4];
+    private final double[] m_desiredHeading = new double[4];
+    private final double[] m_overrideSteering = new double[4];
+
     public AsymSwerveSetpointGenerator(
             LoggerFactory parent,
             SwerveKinodynamics limits,
@@ -68,31 +87,39 @@ public class AsymSwerveSetpointGenerator implements Glassy {
     public SwerveSetpoint generateSetpoint(
             SwerveSetpoint prevSetpoint,
             ChassisSpeeds desiredState) {
+        Trace.begin("swerve/setpoint");
+        try {
+            return generate(prevSetpoint, desiredState);
+        } finally {
+            Trace.end();
+        }
+    }
+
+    private SwerveSetpoint generate(
+            SwerveSetpoint prevSetpoint,
+            ChassisSpeeds desiredState) {
         SwerveModuleStates prevModuleStates = prevSetpoint.getModuleStates();
         // the desired module state speeds are always positive.
         SwerveModuleStates desiredModuleStates = m_limits.toSwerveModuleStatesWithoutDiscretization(
                 desiredState);
-        desiredState = desaturate(desiredState, desiredModuleStates);
-        boolean desiredIsStopped = SwerveUtil.desiredIsStopped(desiredState, desiredModuleStates, prevModuleStates);
+        desaturate(desiredState, desiredModuleStates, m_desiredSpeeds);
+        boolean desiredIsStopped = SwerveUtil.desiredIsStopped(m_desiredSpeeds, desiredModuleStates,
+                prevModuleStates);
 
         // For each module, compute local Vx and Vy vectors.
-        double[] prev_vx = computeVx(prevModuleStates);
-        double[] prev_vy = computeVy(prevModuleStates);
-        // elements may be null.
-        Rotation2d[] prev_heading = computeHeading(prevModuleStates);
+        computeVxVy(prevModuleStates, m_prevVx, m_prevVy);
+        computeHeading(prevModuleStates, m_prevHeading);
 
-        double[] desired_vx = computeVx(desiredModuleStates);
-        double[] desired_vy = computeVy(desiredModuleStates);
-        // elements may be null.
-        Rotation2d[] desired_heading = computeHeading(desiredModuleStates);
+        computeVxVy(desiredModuleStates, m_desiredVx, m_desiredVy);
+        computeHeading(desiredModuleStates, m_desiredHeading);
 
-        boolean shouldStopAndReverse = shouldStopAndReverse(prev_heading, desired_heading);
+        boolean shouldStopAndReverse = shouldStopAndReverse(m_prevHeading, m_desiredHeading);
         if (shouldStopAndReverse
                 && !GeometryUtil.isZero(prevSetpoint.getChassisSpeeds())
-                && !GeometryUtil.isZero(desiredState)) {
+                && !SwerveUtil.isZero(m_desiredSpeeds)) {
             // It will (likely) be faster to stop the robot, rotate the modules in place to
             // the complement of the desired angle, and accelerate again.
-            return generateSetpoint(prevSetpoint, new ChassisSpeeds());
+            return generate(prevSetpoint, new ChassisSpeeds());
         }
 
         // Compute the deltas between start and goal. We can then interpolate from the
@@ -101,9 +128,9 @@ public class AsymSwerveSetpointGenerator implements Glassy {
         // no kinematic limit is exceeded.
 
         ChassisSpeeds chassisSpeeds = prevSetpoint.getChassisSpeeds();
-        double dx = desiredState.vxMetersPerSecond - chassisSpeeds.vxMetersPerSecond;
-        double dy = desiredState.vyMetersPerSecond - chassisSpeeds.vyMetersPerSecond;
-        double dtheta = desiredState.omegaRadiansPerSecond - chassisSpeeds.omegaRadiansPerSecond;
+        double dx = m_desiredSpeeds[0] - chassisSpeeds.vxMetersPerSecond;
+        double dy = m_desiredSpeeds[1] - chassisSpeeds.vyMetersPerSecond;
+        double dtheta = m_desiredSpeeds[2] - chassisSpeeds.omegaRadiansPerSecond;
 
         // 's' interpolates between start and goal. At 0, we are at prevState and at 1,
         // we are at desiredState.
@@ -116,40 +143,40 @@ public class AsymSwerveSetpointGenerator implements Glassy {
         // steering angle to command (since
         // inverse kinematics doesn't care about angle, we can be opportunistically
         // lazy).
+        // Both branches write every entry, so there's no need to clear it first.
         SwerveModuleState100[] prevModuleStatesAll = prevModuleStates.all();
-        Rotation2d[] overrideSteering = new Rotation2d[prevModuleStatesAll.length];
 
         if (desiredIsStopped) {
             for (int i = 0; i < prevModuleStatesAll.length; ++i) {
-                if (prevModuleStatesAll[i].angle.isEmpty()) {
-                    overrideSteering[i] = null;
+                if (prevModuleStatesAll[i].angle.isPresent()) {
+                    m_overrideSteering[i] = prevModuleStatesAll[i].angle.get().getRadians();
                 } else {
-                    overrideSteering[i] = prevModuleStatesAll[i].angle.get();
+                    m_overrideSteering[i] = Double.NaN;
                 }
             }
         } else {
             double override_min_s = m_SteeringOverride.overrideIfStopped(
                     desiredModuleStates,
                     prevModuleStates,
-                    overrideSteering);
+                    m_overrideSteering);
             min_s = Math.min(min_s, override_min_s);
 
             double steering_min_s = m_steeringRateLimiter.enforceSteeringLimit(
-                    prev_vx,
-                    prev_vy,
-                    prev_heading,
-                    desired_vx,
-                    desired_vy,
-                    desired_heading,
-                    overrideSteering);
+                    m_prevVx,
+                    m_prevVy,
+                    m_prevHeading,
+                    m_desiredVx,
+                    m_desiredVy,
+                    m_desiredHeading,
+                    m_overrideSteering);
             min_s = Math.min(min_s, steering_min_s);
         }
 
         double accel_min_s = m_DriveAccelerationLimiter.enforceWheelAccelLimit(
-                prev_vx,
-                prev_vy,
-                desired_vx,
-                desired_vy);
+                m_prevVx,
+                m_prevVy,
+                m_desiredVx,
+                m_desiredVy);
 
         min_s = Math.min(min_s, accel_min_s);
 
@@ -163,58 +190,44 @@ public class AsymSwerveSetpointGenerator implements Glassy {
                 dy,
                 dtheta,
                 min_s,
-                overrideSteering);
+                m_overrideSteering);
     }
 
     ///////////////////////////////////////////////////////
 
-    private double[] computeVx(SwerveModuleStates states) {
+    /** Module velocity components, zero if stopped or unknown. */
+    private static void computeVxVy(SwerveModuleStates states, double[] vx, double[] vy) {
         SwerveModuleState100[] statesAll = states.all();
-        double[] vx = new double[statesAll.length];
         for (int i = 0; i < statesAll.length; ++i) {
             SwerveModuleState100 state = statesAll[i];
             if (Math.abs(state.speedMetersPerSecond) < 1e-6 || state.angle.isEmpty()) {
                 vx[i] = 0;
-            } else {
-                vx[i] = state.angle.get().getCos() * state.speedMetersPerSecond;
-            }
-        }
-        return vx;
-    }
-
-    private double[] computeVy(SwerveModuleStates states) {
-        SwerveModuleState100[] statesAll = states.all();
-        double[] vy = new double[statesAll.length];
-        for (int i = 0; i < statesAll.length; ++i) {
-            SwerveModuleState100 state = statesAll[i];
-            if (Math.abs(state.speedMetersPerSecond) < 1e-6 || state.angle.isEmpty()) {
                 vy[i] = 0;
             } else {
+                vx[i] = state.angle.get().getCos() * state.speedMetersPerSecond;
                 vy[i] = state.angle.get().getSin() * state.speedMetersPerSecond;
             }
         }
-        return vy;
     }
 
     /**
      * Which way each module is actually going, taking speed polarity into account.
      * 
-     * @return elements are nullable.
+     * @param heading output, radians, NaN if unknown.
      */
-    private Rotation2d[] computeHeading(SwerveModuleStates states) {
+    private static void computeHeading(SwerveModuleStates states, double[] heading) {
         SwerveModuleState100[] statesAll = states.all();
-        Rotation2d[] heading = new Rotation2d[statesAll.length];
         for (int i = 0; i < statesAll.length; ++i) {
             if (statesAll[i].angle.isEmpty()) {
-                heading[i] = null;
+                heading[i] = Double.NaN;
                 continue;
             }
-            heading[i] = statesAll[i].angle.get();
+            heading[i] = statesAll[i].angle.get().getRadians();
             if (statesAll[i].speedMetersPerSecond < 0.0) {
-                heading[i] = GeometryUtil.flip(heading[i]);
+                // same as GeometryUtil.flip()
+                heading[i] = MathUtil.angleModulus(heading[i] + Math.PI);
             }
         }
-        return heading;
     }
 
     /**
@@ -222,13 +235,13 @@ public class AsymSwerveSetpointGenerator implements Glassy {
      * and then reverse. This is certainly true for near-180 degree turns, but
      * it's definitely not true for near-90 degree turns.
      */
-    private boolean shouldStopAndReverse(Rotation2d[] prev_heading, Rotation2d[] desired_heading) {
+    private static boolean shouldStopAndReverse(double[] prev_heading, double[] desired_heading) {
         for (int i = 0; i < prev_heading.length; ++i) {
-            if (desired_heading[i] == null || prev_heading[i] == null) {
+            if (Double.isNaN(desired_heading[i]) || Double.isNaN(prev_heading[i])) {
                 return false;
             }
-            Rotation2d diff = desired_heading[i].minus(prev_heading[i]);
-            if (Math.abs(diff.getRadians()) < flipLimitRad) {
+            double diff = MathUtil.angleModulus(desired_heading[i] - prev_heading[i]);
+            if (Math.abs(diff) < flipLimitRad) {
                 return false;
             }
         }
@@ -237,15 +250,27 @@ public class AsymSwerveSetpointGenerator implements Glassy {
 
     /**
      * Make sure desiredState respects velocity limits.
+     * 
+     * @param desiredSpeeds output: the desaturated [vx; vy; omega]
      */
-    private ChassisSpeeds desaturate(
+    private void desaturate(
             ChassisSpeeds desiredState,
-            SwerveModuleStates desiredModuleStates) {
+            SwerveModuleStates desiredModuleStates,
+            double[] desiredSpeeds) {
         if (m_limits.getMaxDriveVelocityM_S() > 0.0) {
             SwerveDriveKinematics100.desaturateWheelSpeeds(desiredModuleStates, m_limits.getMaxDriveVelocityM_S());
-            desiredState = m_limits.toChassisSpeeds(desiredModuleStates);
+            // same as m_limits.toChassisSpeeds(desiredModuleStates)
+            computeVxVy(desiredModuleStates, m_desiredVx, m_desiredVy);
+            for (int i = 0; i < 4; ++i) {
+                m_moduleVector[2 * i] = m_desiredVx[i];
+                m_moduleVector[2 * i + 1] = m_desiredVy[i];
+            }
+            m_limits.getKinematics().toChassisSpeeds(m_moduleVector, desiredSpeeds);
+        } else {
+            desiredSpeeds[0] = desiredState.vxMetersPerSecond;
+            desiredSpeeds[1] = desiredState.vyMetersPerSecond;
+            desiredSpeeds[2] = desiredState.omegaRadiansPerSecond;
         }
-        return desiredState;
     }
 
     private SwerveSetpoint makeSetpoint(
@@ -255,7 +280,7 @@ public class AsymSwerveSetpointGenerator implements Glassy {
             double dy,
             double dtheta,
             double min_s,
-            Rotation2d[] overrideSteering) {
+            double[] overrideSteering) {
         ChassisSpeeds setpointSpeeds = makeSpeeds(
                 prevSetpoint.getChassisSpeeds(),
                 dx,
@@ -272,20 +297,23 @@ public class AsymSwerveSetpointGenerator implements Glassy {
         return new SwerveSetpoint(setpointSpeeds, setpointStates);
     }
 
-    /** Overwrite the states with the supplied steering overrides, if any. */
-    private void applyOverrides(Rotation2d[] overrides, SwerveModuleStates states) {
+    /**
+     * Overwrite the states with the supplied steering overrides, if any.
+     * 
+     * @param overrides radians, NaN if not overridden
+     */
+    private void applyOverrides(double[] overrides, SwerveModuleStates states) {
         SwerveModuleState100[] statesAll = states.all();
         for (int i = 0; i < statesAll.length; ++i) {
             if (statesAll[i].angle.isEmpty()) {
                 continue;
             }
-            final Rotation2d maybeOverride = overrides[i];
-            if (maybeOverride != null) {
-                Rotation2d override = maybeOverride;
-                if (SwerveUtil.shouldFlip(override.minus(statesAll[i].angle.get()))) {
+            final double override = overrides[i];
+            if (!Double.isNaN(override)) {
+                if (SwerveUtil.shouldFlip(override - statesAll[i].angle.get().getRadians())) {
                     statesAll[i].speedMetersPerSecond *= -1.0;
                 }
-                statesAll[i].angle = Optional.of(override);
+                statesAll[i].angle = Optional.of(new Rotation2d(override));
             }
         }
     }
@@ -298,7 +326,8 @@ public class AsymSwerveSetpointGenerator implements Glassy {
             if (setpointStatesAll[i].angle.isEmpty() || prevStatesAll[i].angle.isEmpty()) {
                 continue;
             }
-            final Rotation2d deltaRotation = setpointStatesAll[i].angle.get().minus(prevStatesAll[i].angle.get());
+            final double deltaRotation = setpointStatesAll[i].angle.get().getRadians()
+                    - prevStatesAll[i].angle.get().getRadians();
             if (SwerveUtil.shouldFlip(deltaRotation)) {
                 setpointStatesAll[i].angle = Optional.of(GeometryUtil.flip(setpointStatesAll[i].angle.get()));
                 setpointStatesAll[i].speedMetersPerSecond *= -1.0;
@@ -2,7 +2,7 @@ package org.team100.lib.swerve;
 
 import java.util.function.DoubleSupplier;
 
-import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
+import org.team100.lib.util.Math100;
 
 /**
  * Attempts to limit acceleration based on the battery voltage, to avoid
@@ -14,21 +14,24 @@ import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
  * We set the brownout voltage to 5.5 V in {@link Robot}.
  */
 public class BatterySagLimiter {
+    private static final double kFullVoltage = 7.0;
+    private static final double kZeroVoltage = 6.0;
 
     private final DoubleSupplier m_voltage;
-    private final InterpolatingDoubleTreeMap m_table;
 
     public BatterySagLimiter(DoubleSupplier voltage) {
         // there's a supplier here so that the tests don't need to use the
         // RobotController HAL, which sometimes mysteriously fails.
         m_voltage = voltage;
-        m_table = new InterpolatingDoubleTreeMap();
-        m_table.put(7.0, 1.0);
-        m_table.put(6.0, 0.0);
     }
 
+    /**
+     * Linear between the two voltages, same as a two-point interpolating table,
+     * but without boxing the key.
+     */
     public double get() {
-        return m_table.get(m_voltage.getAsDouble());
+        double v = m_voltage.getAsDouble();
+        return Math100.limit((v - kZeroVoltage) / (kFullVoltage - kZeroVoltage), 0, 1);
     }
 
 }
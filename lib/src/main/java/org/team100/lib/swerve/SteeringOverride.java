@@ -1,10 +1,7 @@
 package org.team100.lib.swerve;
 
-import java.util.OptionalDouble;
-
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.framework.TimedRobot100;
-import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.logging.Level;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
@@ -13,7 +10,6 @@ import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleState100;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleStates;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.geometry.Rotation2d;
 
 /**
  * if any module is stopped and misaligned, stop everything until it's aligned.
@@ -35,12 +31,13 @@ public class SteeringOverride implements Glassy {
     /**
      * @param desiredModuleStates
      * @param prevModuleStates
-     * @param overrideSteering    outvar, nullable entries
+     * @param overrideSteering    outvar, radians, NaN for no override. Every
+     *                            entry is written.
      */
     public double overrideIfStopped(
             SwerveModuleStates desiredModuleStates,
             SwerveModuleStates prevModuleStates,
-            Rotation2d[] overrideSteering) {
+            double[] overrideSteering) {
         SwerveModuleState100[] desiredModuleStatesAll = desiredModuleStates.all();
         SwerveModuleState100[] prevModuleStatesAll = prevModuleStates.all();
         // in one cycle we can go this many radians. note this assumes infinite
@@ -56,56 +53,59 @@ public class SteeringOverride implements Glassy {
                     // Just leave module at its current angle.
                     if (prevModuleStatesAll[i].angle.isEmpty()) {
                         // there is no current angle, give up
-                        overrideSteering[i] = null;
+                        overrideSteering[i] = Double.NaN;
                         continue;
                     } else {
-                        overrideSteering[i] = prevModuleStatesAll[i].angle.get();
+                        overrideSteering[i] = prevModuleStatesAll[i].angle.get().getRadians();
                         continue;
                     }
                 }
 
-                OptionalDouble rotationRad = rotationRad(desiredModuleStatesAll[i], prevModuleStatesAll[i]);
-                if (rotationRad.isEmpty()) {
-                    overrideSteering[i] = null;
+                double rotationRad = rotationRad(desiredModuleStatesAll[i], prevModuleStatesAll[i]);
+                if (Double.isNaN(rotationRad)) {
+                    overrideSteering[i] = Double.NaN;
                     continue;
                 }
 
-                double numStepsNeeded = Math.abs(rotationRad.getAsDouble()) / maxThetaStepRad;
+                double numStepsNeeded = Math.abs(rotationRad) / maxThetaStepRad;
 
                 if (numStepsNeeded <= 1.0) {
                     // goal is achievable in one time step.
                     // note this angle is the *unflipped* one, which means that something downstream
                     // may decide to flip it.
-                    if (desiredModuleStatesAll[i].angle.isEmpty()) {
-                        overrideSteering[i] = null;
-                    } else {
-                        overrideSteering[i] = desiredModuleStatesAll[i].angle.get();
-                    }
+                    overrideSteering[i] = desiredModuleStatesAll[i].angle.get().getRadians();
                 } else {
                     // goal is not achievable, so move as much as possible in one step.
                     // note this moves in the "flipped" direction if required.
-                    Rotation2d oneStepOfRotation = Rotation2d
-                            .fromRadians(Math.signum(rotationRad.getAsDouble()) * maxThetaStepRad);
-                    overrideSteering[i] = prevModuleStatesAll[i].angle.get().rotateBy(oneStepOfRotation);
+                    overrideSteering[i] = MathUtil.angleModulus(
+                            prevModuleStatesAll[i].angle.get().getRadians()
+                                    + Math.signum(rotationRad) * maxThetaStepRad);
                     // stop all drive motors until steering is aligned
                     min_s = 0.0;
                 }
+            } else {
+                // moving modules are not overridden.
+                overrideSteering[i] = Double.NaN;
             }
         }
-        final double s = min_s;
-        m_log_s.log(() -> s);
+        m_log_s.log(min_s);
         return min_s;
     }
 
-    /** Actual rotation required, taking flipping into account. */
-    private OptionalDouble rotationRad(SwerveModuleState100 desiredModuleState, SwerveModuleState100 prevModuleState) {
+    /**
+     * Actual rotation required, taking flipping into account.
+     * 
+     * @return radians, or NaN if either angle is unknown
+     */
+    private double rotationRad(SwerveModuleState100 desiredModuleState, SwerveModuleState100 prevModuleState) {
         if (desiredModuleState.angle.isEmpty() || prevModuleState.angle.isEmpty()) {
-            return OptionalDouble.empty();
+            return Double.NaN;
         }
-        Rotation2d necessaryRotation = desiredModuleState.angle.get().minus(prevModuleState.angle.get());
+        double necessaryRotation = MathUtil.angleModulus(
+                desiredModuleState.angle.get().getRadians() - prevModuleState.angle.get().getRadians());
         if (SwerveUtil.shouldFlip(necessaryRotation)) {
-            necessaryRotation = necessaryRotation.rotateBy(GeometryUtil.kRotation180);
+            necessaryRotation = MathUtil.angleModulus(necessaryRotation + Math.PI);
         }
-        return OptionalDouble.of(MathUtil.angleModulus(necessaryRotation.getRadians()));
+        return necessaryRotation;
     }
 }
@@ -7,8 +7,6 @@ import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 
-import edu.wpi.first.math.geometry.Rotation2d;
-
 /**
  * Enforces steering velocity limits.
  * 
@@ -29,40 +27,44 @@ public class SteeringRateLimiter implements Glassy {
         m_log_s = child.doubleLogger(Level.TRACE, "s");
     }
 
+    /**
+     * @param prev_heading     radians, NaN if unknown
+     * @param desired_heading  radians, NaN if unknown
+     * @param overrideSteering radians, NaN if not overridden
+     */
     public double enforceSteeringLimit(
             double[] prev_vx,
             double[] prev_vy,
-            Rotation2d[] prev_heading, // nullable entries
+            double[] prev_heading,
             double[] desired_vx,
             double[] desired_vy,
-            Rotation2d[] desired_heading, // nullable entries
-            Rotation2d[] overrideSteering) {
+            double[] desired_heading,
+            double[] overrideSteering) {
 
         double min_s = 1.0;
 
         for (int i = 0; i < prev_vx.length; ++i) {
-            if (prev_heading[i] == null || desired_heading[i] == null) {
+            if (Double.isNaN(prev_heading[i]) || Double.isNaN(desired_heading[i])) {
                 // don't know what to do here
                 continue;
             }
-            if (overrideSteering[i] != null) {
+            if (!Double.isNaN(overrideSteering[i])) {
                 // ignore overridden wheels
                 continue;
             }
             double s = SwerveUtil.findSteeringMaxS(
                     prev_vx[i],
                     prev_vy[i],
-                    prev_heading[i].getRadians(),
+                    prev_heading[i],
                     desired_vx[i],
                     desired_vy[i],
-                    desired_heading[i].getRadians(),
+                    desired_heading[i],
                     TimedRobot100.LOOP_PERIOD_S * m_limits.getMaxSteeringVelocityRad_S(),
                     kMaxIterations);
 
             min_s = Math.min(min_s, s);
         }
-        double s = min_s;
-        m_log_s.log(() -> s);
+        m_log_s.log(min_s);
         return min_s;
     }
 
@@ -1,7 +1,5 @@
 package org.team100.lib.swerve;
 
-import java.util.function.DoubleBinaryOperator;
-
 import org.team100.lib.framework.TimedRobot100;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
@@ -11,7 +9,6 @@ import org.team100.lib.util.Math100;
 
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
 public class SwerveUtil {
     /**
@@ -23,7 +20,12 @@ public class SwerveUtil {
      *         the drive direction.
      */
     public static boolean shouldFlip(Rotation2d prevToGoal) {
-        return Math.abs(MathUtil.angleModulus(prevToGoal.getRadians())) > Math.PI / 2.0;
+        return shouldFlip(prevToGoal.getRadians());
+    }
+
+    /** @param prevToGoalRad not necessarily normalized */
+    public static boolean shouldFlip(double prevToGoalRad) {
+        return Math.abs(MathUtil.angleModulus(prevToGoalRad)) > Math.PI / 2.0;
     }
 
     public static double unwrapAngle(double ref, double angle) {
@@ -69,10 +71,8 @@ public class SwerveUtil {
 
         double offset = f_0 + Math.signum(diff) * max_deviation;
 
-        DoubleBinaryOperator func = (x, y) -> SwerveUtil.unwrapAngle(f_0, Math.atan2(y, x)) - offset;
-
-        return Math100.findRoot(
-                func,
+        return findRoot(
+                true, f_0, offset,
                 x_0, y_0, f_0 - offset,
                 x_1, y_1, f_1 - offset,
                 max_iterations);
@@ -94,21 +94,70 @@ public class SwerveUtil {
             return 1.0;
         }
         double offset = f_0 + Math.signum(diff) * max_vel_step;
-        DoubleBinaryOperator func = (x, y) -> (Math.hypot(x, y) - offset);
-        return Math100.findRoot(func, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
+        return findRoot(false, 0, offset, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
+    }
+
+    /**
+     * Same as Math100.findRoot(), for the steering and drive functions above,
+     * written out so that it doesn't need a capturing lambda, which would be
+     * allocated on every call.
+     * 
+     * @param steering true for the steering function, false for drive
+     * @param ref      steering reference angle, for unwrapping
+     * @param offset   subtracted from the function value
+     */
+    private static double findRoot(
+            boolean steering,
+            double ref,
+            double offset,
+            double x_0,
+            double y_0,
+            double f_0,
+            double x_1,
+            double y_1,
+            double f_1,
+            int iterations_left) {
+        if (iterations_left < 0) {
+            return 1.0;
+        }
+        if (Math.abs(f_0 - f_1) <= Math100.kRootTolerance) {
+            return 1.0;
+        }
+        double s_guess = Math.max(0.0, Math.min(1.0, -f_0 / (f_1 - f_0)));
+        double x_guess = (x_1 - x_0) * s_guess + x_0;
+        double y_guess = (y_1 - y_0) * s_guess + y_0;
+        double f_guess = steering
+                ? unwrapAngle(ref, Math.atan2(y_guess, x_guess)) - offset
+                : Math.hypot(x_guess, y_guess) - offset;
+
+        if (Math.abs(f_guess) < Math100.kRootTolerance) {
+            return s_guess;
+        }
+
+        if (Math.signum(f_0) == Math.signum(f_guess)) {
+            // 0 and guess on same side of root, so use upper bracket.
+            return s_guess + (1.0 - s_guess) * findRoot(
+                    steering, ref, offset, x_guess, y_guess, f_guess, x_1, y_1, f_1, iterations_left - 1);
+        } else {
+            // Use lower bracket.
+            return s_guess * findRoot(
+                    steering, ref, offset, x_0, y_0, f_0, x_guess, y_guess, f_guess, iterations_left - 1);
+        }
     }
 
     /**
      * DesiredState is a complete stop. In this case, module angle is
      * arbitrary, so just use the previous angle.
+     * 
+     * @param desiredState [vx; vy; omega]
      */
     public static boolean desiredIsStopped(
-            ChassisSpeeds desiredState,
+            double[] desiredState,
             SwerveModuleStates desiredModuleStates,
             SwerveModuleStates prevModuleStates) {
         SwerveModuleState100[] desiredModuleStatesAll = desiredModuleStates.all();
         SwerveModuleState100[] prevModuleStatesAll = prevModuleStates.all();
-        if (GeometryUtil.isZero(desiredState)) {
+        if (isZero(desiredState)) {
             for (int i = 0; i < prevModuleStatesAll.length; ++i) {
                 desiredModuleStatesAll[i].angle = prevModuleStatesAll[i].angle;
                 desiredModuleStatesAll[i].speedMetersPerSecond = 0.0;
@@ -183,6 +232,13 @@ public class SwerveUtil {
         return (dot >= 0);
     }
 
+    /** Same as GeometryUtil.isZero(ChassisSpeeds), for [vx; vy; omega]. */
+    static boolean isZero(double[] speeds) {
+        return Math.abs(speeds[0]) < 1E-9
+                && Math.abs(speeds[1]) < 1E-9
+                && Math.abs(speeds[2]) < 1E-9;
+    }
+
     private SwerveUtil() {
         //
     }
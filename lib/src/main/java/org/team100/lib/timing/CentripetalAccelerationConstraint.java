@@ -37,4 +37,9 @@ public class CentripetalAccelerationConstraint implements TimingConstraint {
     public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocity) {
         return MinMaxAcceleration.kNoLimits;
     }
+
+    @Override
+    public double[] getParameters() {
+        return new double[] { mMaxCentripetalAccel };
+    }
 }
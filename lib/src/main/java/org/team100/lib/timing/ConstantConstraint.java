@@ -26,4 +26,9 @@ public class ConstantConstraint implements TimingConstraint {
         return new MinMaxAcceleration(-m_maxAccel, m_maxAccel);
     }
 
+    @Override
+    public double[] getParameters() {
+        return new double[] { m_maxVelocity, m_maxAccel };
+    }
+
 }
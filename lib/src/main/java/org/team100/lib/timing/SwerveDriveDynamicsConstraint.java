@@ -1,8 +1,7 @@
 package org.team100.lib.timing;
 
 import java.util.Optional;
-import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleState100;
-import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleStates;
+
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
@@ -18,8 +17,14 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
  * 
  * This *should* provide the same answer as the YawRateConstraint, if the
  * omega limit calculation is correct.
+ * 
+ * This runs on the planner thread, so it uses the kinematics without touching
+ * the drivetrain's saved module headings.
  */
 public class SwerveDriveDynamicsConstraint implements TimingConstraint {
+    /** Four modules. Constraints may be shared between planner threads. */
+    private static final ThreadLocal<double[]> m_moduleVector = ThreadLocal.withInitial(() -> new double[8]);
+
     private final SwerveKinodynamics m_limits;
 
     /** Use the factory. */
@@ -49,10 +54,18 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
         // which is like moving 1 m/s.
         ChassisSpeeds chassis_speeds = new ChassisSpeeds(vx, vy, vtheta);
 
-        SwerveModuleStates module_states = m_limits.toSwerveModuleStates(chassis_speeds, vtheta);
+        // [vx0; vy0; vx1; ...]
+        double[] moduleVector = m_moduleVector.get();
+        m_limits.toModuleVector(chassis_speeds, vtheta, moduleVector);
         double max_vel = Double.POSITIVE_INFINITY;
-        for (SwerveModuleState100 module : module_states.all()) {
-            max_vel = Math.min(max_vel, m_limits.getMaxDriveVelocityM_S() / Math.abs(module.speedMetersPerSecond));
+        for (int i = 0; i < moduleVector.length; i += 2) {
+            double x = moduleVector[i];
+            double y = moduleVector[i + 1];
+            // stopped, like SwerveDriveKinematics100.stateFromVector()
+            if (Math.abs(x) < 0.004 && Math.abs(y) < 0.004)
+                continue;
+            double speed = Math.hypot(x, y);
+            max_vel = Math.min(max_vel, m_limits.getMaxDriveVelocityM_S() / speed);
         }
         return new NonNegativeDouble(max_vel);
     }
@@ -75,4 +88,9 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
                 minAccel,
                 maxAccel);
     }
+
+    @Override
+    public double[] getParameters() {
+        return m_limits.getParameters();
+    }
 }
\ No newline at end of file
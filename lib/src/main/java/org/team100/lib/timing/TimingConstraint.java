@@ -33,6 +33,18 @@ public interface TimingConstraint {
      */
     MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S);
 
+    /**
+     * Everything that determines the behavior of the constraint, used by
+     * TrajectoryCache to identify trajectories. Two constraints of the same
+     * class with the same parameters must produce the same limits.
+     * 
+     * Null means the constraint can't be described this way, so trajectories
+     * using it aren't cached.
+     */
+    default double[] getParameters() {
+        return null;
+    }
+
     class MinMaxAcceleration {
         public static final MinMaxAcceleration kNoLimits = new MinMaxAcceleration();
 
@@ -13,6 +13,11 @@ import org.team100.lib.util.Util;
  * Velocity is always positive.
  * Max accel is positive.
  * Min accel is negative.
+ * 
+ * The passes work on primitive arrays, one slot per sample, with an extra
+ * slot at each end for the start and end conditions, so that the work is
+ * linear in the number of samples, and there's no per-sample object other
+ * than the output.
  */
 public class TimingUtil {
     private static final double kEpsilon = 1e-6;
@@ -28,6 +33,9 @@ public class TimingUtil {
 
     /**
      * sample the path evenly by distance, and then assign times to each sample.
+     * 
+     * The samples move forward, so the sampler's cursor makes this a single
+     * walk along the path.
      */
     public Trajectory100 timeParameterizeTrajectory(
             PathDistanceSampler sampler,
@@ -39,10 +47,9 @@ public class TimingUtil {
             if (maxDistance == 0)
                 throw new IllegalArgumentException();
             int num_states = (int) Math.ceil(maxDistance / step + 1);
-            List<Pose2dWithMotion> samples = new ArrayList<>(num_states);
+            Pose2dWithMotion[] samples = new Pose2dWithMotion[num_states];
             for (int i = 0; i < num_states; ++i) {
-                Pose2dWithMotion state = sampler.sample(Math.min(i * step, maxDistance)).state();
-                samples.add(state);
+                samples[i] = sampler.sample(Math.min(i * step, maxDistance)).state();
             }
             return timeParameterizeTrajectory(samples, start_vel, end_vel);
         } catch (TimingException e) {
@@ -57,13 +64,40 @@ public class TimingUtil {
      * these same samples with time.
      */
     private Trajectory100 timeParameterizeTrajectory(
-            List<Pose2dWithMotion> samples,
+            Pose2dWithMotion[] samples,
             double start_vel,
             double end_vel) throws TimingException {
-        List<ConstrainedState> constrainedStates = forwardPass(samples, start_vel);
-        Pose2dWithMotion lastState = samples.get(samples.size() - 1);
-        backwardsPass(lastState, end_vel, constrainedStates);
-        return integrate(constrainedStates);
+        Pass pass = new Pass(samples);
+        forwardPass(pass, start_vel);
+        backwardsPass(pass, end_vel);
+        return integrate(pass);
+    }
+
+    /**
+     * The state of the passes. Slot k + 1 is sample k; slot 0 is the start
+     * condition and slot n + 1 is the end condition, both at the same place as
+     * the sample next to them.
+     */
+    private static final class Pass {
+        final int n;
+        final Pose2dWithMotion[] states;
+        /** Cumulative distance along the path */
+        final double[] distance;
+        final double[] vel;
+        final double[] minAccel;
+        final double[] maxAccel;
+
+        Pass(Pose2dWithMotion[] samples) {
+            n = samples.length;
+            states = new Pose2dWithMotion[n + 2];
+            System.arraycopy(samples, 0, states, 1, n);
+            states[0] = samples[0];
+            states[n + 1] = samples[n - 1];
+            distance = new double[n + 2];
+            vel = new double[n + 2];
+            minAccel = new double[n + 2];
+            maxAccel = new double[n + 2];
+        }
     }
 
     /**
@@ -77,61 +111,54 @@ public class TimingUtil {
      * end velocity to the state's maximum allowed velocity and will repair the
      * acceleration during the backward pass (by slowing down the predecessor).
      */
-    private List<ConstrainedState> forwardPass(List<Pose2dWithMotion> samples, double start_vel) {
-        ConstrainedState predecessor = new ConstrainedState(samples.get(0), 0);
-        predecessor.setVel(start_vel);
-        predecessor.setMin_acceleration(-HIGH_ACCEL);
-        predecessor.setMax_acceleration(HIGH_ACCEL);
+    private void forwardPass(Pass p, double start_vel) {
+        p.distance[0] = 0;
+        setVel(p, 0, start_vel);
+        p.minAccel[0] = -HIGH_ACCEL;
+        p.maxAccel[0] = HIGH_ACCEL;
 
         // work forward through the samples
-        List<ConstrainedState> constrainedStates = new ArrayList<>(samples.size());
-        for (Pose2dWithMotion sample : samples) {
-            double ds = sample.distance(predecessor.getState());
-            ConstrainedState constrainedState = new ConstrainedState(sample, ds + predecessor.getDistance());
-            constrainedStates.add(constrainedState);
-            forwardWork(predecessor, constrainedState);
-            predecessor = constrainedState;
+        for (int k = 1; k <= p.n; ++k) {
+            // constant-twist path length between states
+            // note this is zero for turn-in-place.
+            double ds = p.states[k].distance(p.states[k - 1]);
+            p.distance[k] = p.distance[k - 1] + ds;
+            forwardWork(p, k - 1, k, ds);
         }
-        return constrainedStates;
     }
 
-    private void forwardWork(ConstrainedState s0, ConstrainedState s1) {
-        // constant-twist path length between states
-        // note this is zero for turn-in-place.
-        double ds = s1.getState().distance(s0.getState());
-
+    private void forwardWork(Pass p, int s0, int s1, double ds) {
         // We may need to iterate to find the maximum end velocity and common
         // acceleration, since acceleration limits may be a function of velocity.
         while (true) {
             // first try the previous state accel to get the new state velocity
-            double v1 = v1(s0.getVel(), s0.getMax_acceleration(), ds);
-            s1.setVel(v1);
+            setVel(p, s1, v1(p.vel[s0], p.maxAccel[s0], ds));
 
             // also use max accels for the new state accels
-            s1.setMin_acceleration(-HIGH_ACCEL);
-            s1.setMax_acceleration(HIGH_ACCEL);
+            p.minAccel[s1] = -HIGH_ACCEL;
+            p.maxAccel[s1] = HIGH_ACCEL;
 
             // reduce velocity according to constraints
-            s1.clampVelocity(m_constraints);
+            clampVelocity(p, s1);
 
             // reduce accel according to constraints
-            s1.clampAccel(m_constraints);
+            clampAccel(p, s1);
 
             // motionless
             if (Math.abs(ds) < kEpsilon) {
                 return;
             }
 
-            double accel = accel(s0.getVel(), s1.getVel(), ds);
-            if (accel > s1.getMax_acceleration() + kEpsilon) {
+            double accel = accel(p.vel[s0], p.vel[s1], ds);
+            if (accel > p.maxAccel[s1] + kEpsilon) {
                 // implied accel is too high because v1 is too high, perhaps because
                 // a0 was too high, try again with the (lower) constrained value
-                s0.setMax_acceleration(s1.getMax_acceleration());
+                p.maxAccel[s0] = p.maxAccel[s1];
                 continue;
             }
-            if (accel > s0.getMin_acceleration() + kEpsilon) {
+            if (accel > p.minAccel[s0] + kEpsilon) {
                 // set the previous state accel to whatever the constrained velocity implies
-                s0.setMax_acceleration(accel);
+                p.maxAccel[s0] = accel;
             }
             return;
         }
@@ -140,29 +167,24 @@ public class TimingUtil {
     /**
      * Backwards pass
      */
-    private void backwardsPass(
-            Pose2dWithMotion lastState,
-            double end_velocity,
-            List<ConstrainedState> constrainedStates) {
-        // "successor" comes before in the backwards walk. start with the last state.
-        ConstrainedState endState = constrainedStates.get(constrainedStates.size() - 1);
-        ConstrainedState successor = new ConstrainedState(lastState, endState.getDistance());
-        successor.setVel(end_velocity);
-        successor.setMin_acceleration(-HIGH_ACCEL);
-        successor.setMax_acceleration(HIGH_ACCEL);
-
-        // work backwards through the states list
-        for (int i = constrainedStates.size() - 1; i >= 0; --i) {
-            ConstrainedState constrainedState = constrainedStates.get(i);
-            backwardsWork(constrainedState, successor);
-            successor = constrainedState;
+    private void backwardsPass(Pass p, double end_velocity) {
+        // "successor" comes before in the backwards walk. start with the end condition.
+        int end = p.n + 1;
+        p.distance[end] = p.distance[p.n];
+        setVel(p, end, end_velocity);
+        p.minAccel[end] = -HIGH_ACCEL;
+        p.maxAccel[end] = HIGH_ACCEL;
+
+        // work backwards through the samples
+        for (int k = p.n; k >= 1; --k) {
+            backwardsWork(p, k, k + 1);
         }
     }
 
     /** s0 is earlier, s1 is "successor", we're walking backwards. */
-    private void backwardsWork(ConstrainedState s0, ConstrainedState s1) {
+    private void backwardsWork(Pass p, int s0, int s1) {
         // backwards (negative) distance from successor to initial state.
-        double ds = s0.getDistance() - s1.getDistance();
+        double ds = p.distance[s0] - p.distance[s1];
         if (ds > 0) {
             // must be negative if we're walking backwards.
             throw new IllegalStateException();
@@ -172,18 +194,18 @@ public class TimingUtil {
             // s0 velocity can't be more than the accel implies
             // so this is actually an estimate for v0
             // min a is negative, ds is negative, so v0 is faster than v1
-            double v0 = v1(s1.getVel(), s1.getMin_acceleration(), ds);
+            double v0 = v1(p.vel[s1], p.minAccel[s1], ds);
 
-            if (s0.getVel() <= v0) {
+            if (p.vel[s0] <= v0) {
                 // s0 v is slower than implied v0, which means
                 // that actual accel is larger than the min, so we're fine
                 // No new limits to impose.
                 return;
             }
             // s0 v is too fast, turn it down to obey v1 min accel.
-            s0.setVel(v0);
+            setVel(p, s0, v0);
 
-            s0.clampAccel(m_constraints);
+            clampAccel(p, s0);
 
             // motionless
             if (Math.abs(ds) < kEpsilon) {
@@ -191,32 +213,66 @@ public class TimingUtil {
             }
 
             // implied accel using the constrained v0
-            double accel = accel(s1.getVel(), s0.getVel(), ds);
-            if (accel < s0.getMin_acceleration() - kEpsilon) {
+            double accel = accel(p.vel[s1], p.vel[s0], ds);
+            if (accel < p.minAccel[s0] - kEpsilon) {
                 // accel is too low which implies that s1 accel is too low, try again
-                s1.setMin_acceleration(s0.getMin_acceleration());
+                p.minAccel[s1] = p.minAccel[s0];
                 continue;
             }
             // set final accel to the implied value
-            s1.setMin_acceleration(accel);
+            p.minAccel[s1] = accel;
             return;
         }
     }
 
+    private static void setVel(Pass p, int k, double vel) {
+        if (Double.isNaN(vel))
+            throw new IllegalArgumentException();
+        p.vel[k] = vel;
+    }
+
+    /**
+     * Clamp state velocity to constraints.
+     */
+    private void clampVelocity(Pass p, int k) {
+        for (TimingConstraint constraint : m_constraints) {
+            double value = constraint.getMaxVelocity(p.states[k]).getValue();
+            setVel(p, k, Math.min(p.vel[k], value));
+        }
+    }
+
+    /**
+     * Clamp state accelerations to the constraints.
+     */
+    private void clampAccel(Pass p, int k) {
+        for (TimingConstraint constraint : m_constraints) {
+            TimingConstraint.MinMaxAcceleration min_max_accel = constraint
+                    .getMinMaxAcceleration(p.states[k], p.vel[k]);
+            double minAccel = min_max_accel.getMinAccel();
+            if (Double.isNaN(minAccel))
+                throw new IllegalArgumentException();
+            p.minAccel[k] = Math.max(p.minAccel[k], minAccel);
+            double maxAccel = min_max_accel.getMaxAccel();
+            if (Double.isNaN(maxAccel))
+                throw new IllegalArgumentException();
+            p.maxAccel[k] = Math.min(p.maxAccel[k], maxAccel);
+        }
+    }
+
     /**
      * Integrate the constrained states forward in time to obtain the TimedStates.
      * 
      * last state accel is always zero, which might be wrong.
      */
-    private static Trajectory100 integrate(List<ConstrainedState> states) throws TimingException {
-        List<TimedPose> poses = new ArrayList<>(states.size());
+    private static Trajectory100 integrate(Pass p) throws TimingException {
+        List<TimedPose> poses = new ArrayList<>(p.n);
         double time = 0.0; // time along path
         double distance = 0.0; // distance along path
         double v0 = 0.0;
-        for (int i = 0; i < states.size(); ++i) {
-            ConstrainedState state = states.get(i);
-            final double ds = state.getDistance() - distance;
-            final double v1 = state.getVel();
+        for (int i = 0; i < p.n; ++i) {
+            final int k = i + 1;
+            final double ds = p.distance[k] - distance;
+            final double v1 = p.vel[k];
             double dt = 0.0;
             if (i > 0) {
                 double prevAccel = accel(v0, v1, ds);
@@ -227,9 +283,9 @@ public class TimingUtil {
             if (Double.isNaN(time) || Double.isInfinite(time)) {
                 throw new TimingException();
             }
-            poses.add(new TimedPose(state.getState(), time, v1, 0));
+            poses.add(new TimedPose(p.states[k], time, v1, 0));
             v0 = v1;
-            distance = state.getDistance();
+            distance = p.distance[k];
         }
         return new Trajectory100(poses);
     }
@@ -39,4 +39,9 @@ public class VelocityLimitRegionConstraint implements TimingConstraint {
         return MinMaxAcceleration.kNoLimits;
     }
 
+    @Override
+    public double[] getParameters() {
+        return new double[] { m_min.getX(), m_min.getY(), m_max.getX(), m_max.getY(), m_limit };
+    }
+
 }
\ No newline at end of file
@@ -49,4 +49,9 @@ public class YawRateConstraint implements TimingConstraint {
     public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocity) {
         return MinMaxAcceleration.kNoLimits;
     }
+
+    @Override
+    public double[] getParameters() {
+        return new double[] { m_maxOmegaRad_S };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package org.team100.lib.trajectory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.team100.lib.async.MinPriorityThreads;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Runs TrajectoryPlanner on a low-priority thread, so that commands can start
+ * without planning inside the main loop.
+ * 
+ * Commands should poll the result in execute(), using getNow(), and do
+ * something harmless (e.g. hold still) until it's ready.
+ */
+public class AsyncTrajectoryPlanner {
+    private static final AsyncTrajectoryPlanner instance = new AsyncTrajectoryPlanner(
+            Executors.newSingleThreadExecutor(new MinPriorityThreads("Trajectory Planner")));
+
+    private final Executor m_executor;
+    private final TrajectorySource m_source;
+
+    /** Use the executor Runnable::run to plan synchronously, e.g. in tests. */
+    public AsyncTrajectoryPlanner(Executor executor) {
+        this(executor, TrajectoryPlanner::generateTrajectory);
+    }
+
+    private AsyncTrajectoryPlanner(Executor executor, TrajectorySource source) {
+        m_executor = executor;
+        m_source = source;
+    }
+
+    /** The shared planner, with one background thread. */
+    public static AsyncTrajectoryPlanner get() {
+        return instance;
+    }
+
+    /**
+     * A planner using the same executor, which gets trajectories from the
+     * source, e.g. a TrajectoryCache or TrajectoryMemo.
+     */
+    public AsyncTrajectoryPlanner withSource(TrajectorySource source) {
+        return new AsyncTrajectoryPlanner(m_executor, source);
+    }
+
+    /** Waits for everything submitted so far; the executor must be FIFO. */
+    public void drain() {
+        CompletableFuture.runAsync(() -> {
+        }, m_executor).join();
+    }
+
+    public CompletableFuture<Trajectory100> restToRest(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints) {
+        return generateTrajectory(waypoints, headings, constraints, 0.0, 0.0);
+    }
+
+    public CompletableFuture<Trajectory100> generateTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel) {
+        // copies, in case the caller changes them while we're working.
+        final List<Pose2d> w = List.copyOf(waypoints);
+        final List<Rotation2d> h = List.copyOf(headings);
+        final List<TimingConstraint> c = List.copyOf(constraints);
+        return CompletableFuture.supplyAsync(
+                () -> m_source.generateTrajectory(w, h, c, start_vel, end_vel),
+                m_executor);
+    }
+
+    /**
+     * The result, if it's ready, or null if not. If planning failed, the
+     * result is an empty trajectory, like TrajectoryPlanner's.
+     */
+    public static Trajectory100 getNow(CompletableFuture<Trajectory100> future) {
+        if (!future.isDone())
+            return null;
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            Util.warn("Trajectory planning failed: " + e);
+            return new Trajectory100();
+        }
+    }
+}
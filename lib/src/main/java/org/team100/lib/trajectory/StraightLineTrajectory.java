@@ -52,7 +52,7 @@ public class StraightLineTrajectory {
         Rotation2d startingAngle = currentSpeed.angle().orElse(angleToGoal);
 
         try {
-            return TrajectoryPlanner.generateTrajectory(
+            return m_maker.m_source.generateTrajectory(
                     List.of(
                             new Pose2d(
                                     currentTranslation,
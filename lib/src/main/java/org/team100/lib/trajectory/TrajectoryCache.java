@@ -0,0 +1,242 @@
+package org.team100.lib.trajectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Precomputed trajectories, stored as files named by a hash of everything
+ * that goes into planning them: the waypoints, headings, end velocities,
+ * constraint classes and parameters, and the planner's own tolerances.
+ * 
+ * The files are made on the desktop (see the "trajectoryCache" task in the
+ * robot project), deployed with everything else in the deploy directory, and
+ * memory-mapped on the robot, so the robot doesn't need to optimize splines
+ * for trajectories it's seen before.
+ * 
+ * If anything changes, the key changes, so a stale file is never used; it's
+ * just ignored. To clean up, delete the directory and run the task again.
+ * 
+ * Misses are planned the usual way, and written only if the cache is writable.
+ * 
+ * Each file is a magic number, the point count, and then, for each point, the
+ * time, pose, motion direction, curvature, velocity, and acceleration, as
+ * doubles.
+ */
+public class TrajectoryCache implements TrajectorySource {
+    /**
+     * Change this when the planner's behavior changes without its inputs, or
+     * when the file layout changes.
+     */
+    private static final int kVersion = 3;
+    /** "TRJ2", marks a trajectory file. */
+    private static final int kMagic = 0x54524a32;
+    private static final int kDoublesPerPoint = 11;
+    private static final String kSuffix = ".traj";
+    /** Set this system property to "true" to populate the cache. */
+    public static final String kWriteProperty = "team100.trajectoryCache.write";
+
+    private final Path m_dir;
+    private final boolean m_writable;
+
+    public TrajectoryCache(Path dir, boolean writable) {
+        m_dir = dir;
+        m_writable = writable;
+    }
+
+    /**
+     * The "trajectories" directory inside the deploy directory, writable only if
+     * the system property is set. On the desktop, the deploy directory is the
+     * project's src/main/deploy.
+     */
+    public static TrajectoryCache get() {
+        return new TrajectoryCache(
+                Filesystem.getDeployDirectory().toPath().resolve("trajectories"),
+                Boolean.getBoolean(kWriteProperty));
+    }
+
+    /** Same as TrajectoryPlanner.generateTrajectory(), but cached. */
+    @Override
+    public Trajectory100 generateTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel) {
+        String key = key(waypoints, headings, constraints, start_vel, end_vel);
+        if (key == null) {
+            // some constraint can't be identified.
+            return TrajectoryPlanner.generateTrajectory(
+                    waypoints, headings, constraints, start_vel, end_vel);
+        }
+        Path path = m_dir.resolve(key + kSuffix);
+        Trajectory100 cached = load(path);
+        if (cached != null)
+            return cached;
+        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+                waypoints, headings, constraints, start_vel, end_vel);
+        if (m_writable && !trajectory.isEmpty())
+            store(path, trajectory);
+        return trajectory;
+    }
+
+    /**
+     * Hex SHA-256 of the planner inputs, or null if some constraint doesn't
+     * provide its parameters.
+     */
+    static String key(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has SHA-256
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(Double.BYTES);
+        update(digest, buf, kVersion);
+        update(digest, buf, TrajectoryPlanner.kMaxDx);
+        update(digest, buf, TrajectoryPlanner.kMaxDy);
+        update(digest, buf, TrajectoryPlanner.kMaxDTheta);
+        update(digest, buf, start_vel);
+        update(digest, buf, end_vel);
+        update(digest, buf, waypoints.size());
+        for (Pose2d p : waypoints) {
+            update(digest, buf, p.getX());
+            update(digest, buf, p.getY());
+            update(digest, buf, p.getRotation().getRadians());
+        }
+        update(digest, buf, headings.size());
+        for (Rotation2d r : headings) {
+            update(digest, buf, r.getRadians());
+        }
+        update(digest, buf, constraints.size());
+        for (TimingConstraint c : constraints) {
+            double[] parameters = c.getParameters();
+            if (parameters == null)
+                return null;
+            digest.update(c.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            update(digest, buf, parameters.length);
+            for (double v : parameters) {
+                update(digest, buf, v);
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    /** Null if the file is missing or unreadable. */
+    private static Trajectory100 load(Path path) {
+        if (!Files.isRegularFile(path))
+            return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buf);
+        } catch (IOException | IllegalArgumentException e) {
+            Util.warn("Bad cached trajectory " + path + ": " + e);
+            return null;
+        }
+    }
+
+    /** Writes a temporary file and renames it, so readers never see half a file. */
+    private static void store(Path path, Trajectory100 trajectory) {
+        ByteBuffer buf = ByteBuffer.allocate(8 + kDoublesPerPoint * Double.BYTES * trajectory.length());
+        write(trajectory, buf);
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), "trajectory", ".tmp");
+            Files.write(tmp, buf.array());
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Util.warn("Can't write cached trajectory " + path + ": " + e);
+        }
+    }
+
+    static void write(Trajectory100 trajectory, ByteBuffer buf) {
+        buf.putInt(kMagic);
+        buf.putInt(trajectory.length());
+        for (int i = 0; i < trajectory.length(); ++i) {
+            TimedPose timedPose = trajectory.getPoint(i).state();
+            Pose2dWithMotion state = timedPose.state();
+            Pose2d pose = state.getPose();
+            Twist2d motion = state.getFieldRelativeMotionDirection();
+            buf.putDouble(timedPose.getTimeS());
+            buf.putDouble(pose.getX());
+            buf.putDouble(pose.getY());
+            buf.putDouble(pose.getRotation().getRadians());
+            buf.putDouble(motion.dx);
+            buf.putDouble(motion.dy);
+            buf.putDouble(motion.dtheta);
+            buf.putDouble(state.getCurvature());
+            buf.putDouble(state.getDCurvatureDs());
+            buf.putDouble(timedPose.velocityM_S());
+            buf.putDouble(timedPose.acceleration());
+        }
+    }
+
+    /** @throws IllegalArgumentException if the buffer doesn't contain a trajectory */
+    static Trajectory100 read(ByteBuffer buf) {
+        if (buf.remaining() < 8)
+            throw new IllegalArgumentException("too short");
+        if (buf.getInt() != kMagic)
+            throw new IllegalArgumentException("not a trajectory");
+        int n = buf.getInt();
+        if (n <= 0 || buf.remaining() < (long) kDoublesPerPoint * Double.BYTES * n)
+            throw new IllegalArgumentException("bad length " + n);
+        List<TimedPose> poses = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            double t = buf.getDouble();
+            Pose2d pose = new Pose2d(buf.getDouble(), buf.getDouble(), new Rotation2d(buf.getDouble()));
+            Twist2d motion = new Twist2d(buf.getDouble(), buf.getDouble(), buf.getDouble());
+            double curvature = buf.getDouble();
+            double dcurvature = buf.getDouble();
+            double velocity = buf.getDouble();
+            double accel = buf.getDouble();
+            poses.add(new TimedPose(
+                    new Pose2dWithMotion(pose, motion, curvature, dcurvature),
+                    t,
+                    velocity,
+                    accel));
+        }
+        return new Trajectory100(poses);
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer buf, double v) {
+        buf.clear();
+        buf.putDouble(v);
+        digest.update(buf.array());
+    }
+
+    private static void update(MessageDigest digest, ByteBuffer buf, int v) {
+        buf.clear();
+        buf.putInt(v);
+        digest.update(buf.array(), 0, Integer.BYTES);
+    }
+}
@@ -17,9 +17,16 @@ import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGeneratio
  */
 public class TrajectoryMaker {
     final List<TimingConstraint> m_constraints;
+    final TrajectorySource m_source;
 
     public TrajectoryMaker(List<TimingConstraint> constraints) {
+        this(constraints, TrajectoryPlanner::generateTrajectory);
+    }
+
+    /** Use a TrajectoryMemo as the source to avoid replanning. */
+    public TrajectoryMaker(List<TimingConstraint> constraints, TrajectorySource source) {
         m_constraints = constraints;
+        m_source = source;
     }
 
     /** A square counterclockwise starting with +x. */
@@ -61,7 +68,7 @@ public class TrajectoryMaker {
         Translation2d translationToGoal = goalTranslation.minus(currentTranslation);
         Rotation2d angleToGoal = translationToGoal.getAngle();
         try {
-            return TrajectoryPlanner.restToRest(
+            return m_source.restToRest(
                     List.of(
                             new Pose2d(currentTranslation, angleToGoal),
                             new Pose2d(goalTranslation, angleToGoal)),
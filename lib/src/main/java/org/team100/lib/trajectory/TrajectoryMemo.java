@@ -0,0 +1,220 @@
+package org.team100.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.logging.Level;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.LoggerFactory.IntLogger;
+import org.team100.lib.timing.TimingConstraint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Remembers recent trajectories, so that asking for nearly the same one again,
+ * e.g. pressing the auto-align button twice from about the same spot, doesn't
+ * replan.
+ *
+ * The key is the inputs rounded to a centimeter, a hundredth of a radian, and
+ * a centimeter per second, plus the constraint classes and parameters. So a hit
+ * may return a trajectory planned from a slightly different start; the
+ * follower takes care of the difference.
+ *
+ * Least-recently-used trajectories are evicted beyond the capacity.
+ *
+ * This is thread-safe, so it can be used by AsyncTrajectoryPlanner. Since
+ * logging isn't, the counters are logged in periodic(), which should be called
+ * from the main loop.
+ */
+public class TrajectoryMemo implements TrajectorySource, Glassy {
+    private static final double kTranslationQuantumM = 0.01;
+    private static final double kAngleQuantumRad = 0.01;
+    private static final double kVelocityQuantumM_S = 0.01;
+
+    private final TrajectorySource m_source;
+    /** Access order, so iteration starts with the least recently used. */
+    private final Map<Key, Trajectory100> m_map;
+
+    // LOGGERS
+    private final IntLogger m_log_hits;
+    private final IntLogger m_log_misses;
+    private final IntLogger m_log_evictions;
+    private final IntLogger m_log_size;
+
+    // guarded by this
+    private int m_hits;
+    private int m_misses;
+    private int m_evictions;
+
+    public TrajectoryMemo(LoggerFactory parent, int capacity) {
+        this(parent, capacity, TrajectoryPlanner::generateTrajectory);
+    }
+
+    /** Misses go to the source, e.g. a TrajectoryCache. */
+    public TrajectoryMemo(LoggerFactory parent, int capacity, TrajectorySource source) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+        LoggerFactory child = parent.child(this);
+        m_log_hits = child.intLogger(Level.TRACE, "hits");
+        m_log_misses = child.intLogger(Level.TRACE, "misses");
+        m_log_evictions = child.intLogger(Level.TRACE, "evictions");
+        m_log_size = child.intLogger(Level.TRACE, "size");
+        m_source = source;
+        m_map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Trajectory100> eldest) {
+                if (size() <= capacity)
+                    return false;
+                m_evictions++;
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Trajectory100 generateTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel) {
+        Key key = Key.of(waypoints, headings, constraints, start_vel, end_vel);
+        if (key != null) {
+            synchronized (this) {
+                Trajectory100 trajectory = m_map.get(key);
+                if (trajectory != null) {
+                    m_hits++;
+                    return trajectory;
+                }
+            }
+        }
+        // plan outside the lock, so that hits aren't stuck behind a miss.
+        Trajectory100 trajectory = m_source.generateTrajectory(
+                waypoints, headings, constraints, start_vel, end_vel);
+        synchronized (this) {
+            m_misses++;
+            if (key != null && !trajectory.isEmpty())
+                m_map.put(key, trajectory);
+        }
+        return trajectory;
+    }
+
+    public synchronized int hits() {
+        return m_hits;
+    }
+
+    public synchronized int misses() {
+        return m_misses;
+    }
+
+    public synchronized int evictions() {
+        return m_evictions;
+    }
+
+    public synchronized int size() {
+        return m_map.size();
+    }
+
+    public synchronized void clear() {
+        m_map.clear();
+    }
+
+    /** Logs the counters. Call this from the main loop. */
+    public void periodic() {
+        int hits;
+        int misses;
+        int evictions;
+        int size;
+        synchronized (this) {
+            hits = m_hits;
+            misses = m_misses;
+            evictions = m_evictions;
+            size = m_map.size();
+        }
+        m_log_hits.log(hits);
+        m_log_misses.log(misses);
+        m_log_evictions.log(evictions);
+        m_log_size.log(size);
+    }
+
+    /** Rounded inputs, and the constraint classes. */
+    private static final class Key {
+        private final long[] m_values;
+        private final List<Class<?>> m_classes;
+        private final int m_hash;
+
+        private Key(long[] values, List<Class<?>> classes) {
+            m_values = values;
+            m_classes = classes;
+            m_hash = 31 * Arrays.hashCode(values) + classes.hashCode();
+        }
+
+        /** Null if some constraint doesn't provide its parameters. */
+        static Key of(
+                List<Pose2d> waypoints,
+                List<Rotation2d> headings,
+                List<TimingConstraint> constraints,
+                double start_vel,
+                double end_vel) {
+            List<Class<?>> classes = new ArrayList<>(constraints.size());
+            List<double[]> parameters = new ArrayList<>(constraints.size());
+            int n = 4 + 3 * waypoints.size() + headings.size() + constraints.size();
+            for (TimingConstraint c : constraints) {
+                double[] p = c.getParameters();
+                if (p == null)
+                    return null;
+                classes.add(c.getClass());
+                parameters.add(p);
+                n += p.length;
+            }
+            long[] values = new long[n];
+            int i = 0;
+            values[i++] = round(start_vel, kVelocityQuantumM_S);
+            values[i++] = round(end_vel, kVelocityQuantumM_S);
+            values[i++] = waypoints.size();
+            for (Pose2d p : waypoints) {
+                values[i++] = round(p.getX(), kTranslationQuantumM);
+                values[i++] = round(p.getY(), kTranslationQuantumM);
+                values[i++] = round(p.getRotation().getRadians(), kAngleQuantumRad);
+            }
+            values[i++] = headings.size();
+            for (Rotation2d r : headings) {
+                values[i++] = round(r.getRadians(), kAngleQuantumRad);
+            }
+            for (double[] p : parameters) {
+                // parameters are exact, and the length separates them.
+                values[i++] = p.length;
+                for (double v : p) {
+                    values[i++] = Double.doubleToLongBits(v);
+                }
+            }
+            return new Key(values, classes);
+        }
+
+        private static long round(double x, double quantum) {
+            return Math.round(x / quantum);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return m_hash == other.m_hash
+                    && Arrays.equals(m_values, other.m_values)
+                    && m_classes.equals(other.m_classes);
+        }
+
+        @Override
+        public int hashCode() {
+            return m_hash;
+        }
+    }
+}
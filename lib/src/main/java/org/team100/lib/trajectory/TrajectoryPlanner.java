@@ -16,9 +16,9 @@ import edu.wpi.first.math.geometry.Rotation2d;
  * centripetal) so if you want those, supply them.
  */
 public class TrajectoryPlanner {
-    private static final double kMaxDx = 0.0127; // m
-    private static final double kMaxDy = 0.0127; // m
-    private static final double kMaxDTheta = Math.toRadians(1.0);
+    static final double kMaxDx = 0.0127; // m
+    static final double kMaxDy = 0.0127; // m
+    static final double kMaxDTheta = Math.toRadians(1.0);
 
     public static Trajectory100 restToRest(
             List<Pose2d> waypoints,
@@ -0,0 +1,166 @@
+package org.team100.lib.trajectory;
+
+import org.team100.lib.util.Math100;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * Finds the point on a trajectory closest to a given position, and the point
+ * some distance further along, for pursuit followers.
+ *
+ * The trajectory poses are indexed up front as a list of segments, with the
+ * cumulative path length at each point. The search starts at the
+ * previous answer and only moves forward, walking as long as it keeps finding
+ * closer segments, and then a little further to get past small bumps. So the
+ * cost per cycle depends on how far the robot moved, not on the length of the
+ * trajectory.
+ *
+ * For the projection, heading counts too, scaled by kHeadingM, so that a turn
+ * in place has some length and the answer moves along it as the robot turns.
+ * So the "path length" used by project() is a mix of meters of translation and
+ * radians of heading. The lookahead in ahead() is a plain translation distance
+ * in meters, like the pursuit lookahead, so it uses a separate coordinate,
+ * without the heading.
+ *
+ * The cursor is mutable, so this is not thread-safe.
+ */
+public class TrajectoryProjector {
+    /** Keep looking this far past the best segment so far. */
+    private static final double kWindowM = 0.5;
+    /** Path length per radian of heading, about the robot radius. */
+    private static final double kHeadingM = 0.5;
+
+    private final double[] m_x;
+    private final double[] m_y;
+    /** Unwrapped heading, scaled by kHeadingM. */
+    private final double[] m_h;
+    /**
+     * Path length at each point, for projection: the cumulative norm of
+     * translation, in meters, and heading, in radians times kHeadingM.
+     */
+    private final double[] m_s;
+    /** Translation distance along the path at each point, in meters. */
+    private final double[] m_d;
+    /** Time of each point, in seconds. */
+    private final double[] m_t;
+
+    /** Segment [i, i+1] of the most recent answer. */
+    private int m_index;
+    /** Path length, m_s, of the most recent answer. */
+    private double m_sM;
+
+    public TrajectoryProjector(Trajectory100 trajectory) {
+        int n = trajectory.length();
+        m_x = new double[n];
+        m_y = new double[n];
+        m_h = new double[n];
+        m_s = new double[n];
+        m_d = new double[n];
+        m_t = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Pose2d pose = trajectory.getPoint(i).state().state().getPose();
+            Translation2d p = pose.getTranslation();
+            double h = pose.getRotation().getRadians();
+            if (i > 0)
+                h = Math100.getMinDistance(m_h[i - 1] / kHeadingM, h);
+            m_x[i] = p.getX();
+            m_y[i] = p.getY();
+            m_h[i] = h * kHeadingM;
+            m_t[i] = trajectory.getPoint(i).state().getTimeS();
+            if (i > 0) {
+                m_s[i] = m_s[i - 1] + norm(m_x[i] - m_x[i - 1], m_y[i] - m_y[i - 1], m_h[i] - m_h[i - 1]);
+                m_d[i] = m_d[i - 1] + norm(m_x[i] - m_x[i - 1], m_y[i] - m_y[i - 1], 0);
+            }
+        }
+        reset();
+    }
+
+    /** Start over from the beginning. */
+    public void reset() {
+        m_index = 0;
+        m_sM = 0;
+    }
+
+    /**
+     * Time of the trajectory point closest to the given pose, at or after the
+     * previous answer.
+     *
+     * @param pose field-relative pose
+     * @return trajectory time in seconds
+     */
+    public double project(Pose2d pose) {
+        if (m_t.length < 2)
+            return m_t.length == 0 ? 0 : m_t[0];
+        double px = pose.getX();
+        double py = pose.getY();
+        double heading = pose.getRotation().getRadians();
+        int best = m_index;
+        double bestU = 0;
+        double bestD2 = Double.POSITIVE_INFINITY;
+        for (int i = m_index; i < m_t.length - 1; ++i) {
+            if (m_s[i] > m_s[best] + bestU * (m_s[best + 1] - m_s[best]) + kWindowM)
+                break;
+            // the measured heading nearest this segment's start
+            double ph = Math100.getMinDistance(m_h[i] / kHeadingM, heading) * kHeadingM;
+            double dx = m_x[i + 1] - m_x[i];
+            double dy = m_y[i + 1] - m_y[i];
+            double dh = m_h[i + 1] - m_h[i];
+            double len2 = dx * dx + dy * dy + dh * dh;
+            double u = 0;
+            if (len2 > 1e-12)
+                u = Math.max(0, Math.min(1,
+                        ((px - m_x[i]) * dx + (py - m_y[i]) * dy + (ph - m_h[i]) * dh) / len2));
+            double ex = m_x[i] + u * dx - px;
+            double ey = m_y[i] + u * dy - py;
+            double eh = m_h[i] + u * dh - ph;
+            double d2 = ex * ex + ey * ey + eh * eh;
+            // on a tie, e.g. a repeated point, prefer the later segment.
+            if (d2 <= bestD2) {
+                best = i;
+                bestU = u;
+                bestD2 = d2;
+            }
+        }
+        // don't go backwards within the current segment either.
+        double s = m_s[best] + bestU * (m_s[best + 1] - m_s[best]);
+        if (best == m_index && s < m_sM) {
+            s = m_sM;
+        }
+        m_index = best;
+        m_sM = s;
+        return timeAt(m_s, best, s);
+    }
+
+    /**
+     * Time of the trajectory point the given translation distance past the most
+     * recent answer, or the end time if that's past the end. Heading doesn't
+     * count here, so a turn in place is skipped.
+     *
+     * @param distanceM translation distance along the path, in meters
+     * @return trajectory time in seconds
+     */
+    public double ahead(double distanceM) {
+        if (m_t.length < 2)
+            return m_t.length == 0 ? 0 : m_t[0];
+        int i = m_index;
+        double ds = m_s[i + 1] - m_s[i];
+        double u = ds < 1e-12 ? 1 : (m_sM - m_s[i]) / ds;
+        double d = m_d[i] + u * (m_d[i + 1] - m_d[i]) + distanceM;
+        while (i < m_t.length - 2 && m_d[i + 1] < d)
+            ++i;
+        return timeAt(m_d, i, Math.min(d, m_d[m_d.length - 1]));
+    }
+
+    private static double norm(double x, double y, double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /** Time at coordinate s within segment [i, i+1], where s is m_s or m_d. */
+    private double timeAt(double[] coordinate, int i, double s) {
+        double ds = coordinate[i + 1] - coordinate[i];
+        if (ds < 1e-12)
+            return m_t[i + 1];
+        return m_t[i] + (s - coordinate[i]) / ds * (m_t[i + 1] - m_t[i]);
+    }
+}
@@ -0,0 +1,31 @@
+package org.team100.lib.trajectory;
+
+import java.util.List;
+
+import org.team100.lib.timing.TimingConstraint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Makes trajectories: TrajectoryPlanner itself, or a cache in front of it.
+ * 
+ * Trajectories may be shared between callers, so don't modify them.
+ */
+@FunctionalInterface
+public interface TrajectorySource {
+    /** Same as TrajectoryPlanner.generateTrajectory(). */
+    Trajectory100 generateTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel);
+
+    default Trajectory100 restToRest(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints) {
+        return generateTrajectory(waypoints, headings, constraints, 0.0, 0.0);
+    }
+}
@@ -2,19 +2,34 @@ package org.team100.lib.trajectory;
 
 import java.util.Optional;
 
+import org.team100.lib.util.SearchCursor;
+
 /**
  * Allows sampling a trajectory by its schedule.
  * Derived from 254 TimedView.
+ * 
+ * The schedule is indexed up front, and sampling uses a cursor that remembers
+ * the previous sample, so the usual case (time moves forward a little) is
+ * amortized O(1), and the worst case is O(log n). Because of the cursor, this
+ * is not thread-safe.
  */
 public class TrajectoryTimeSampler {
     private final Trajectory100 m_trajectory;
+    /** Time of each point, in seconds. */
+    private final double[] m_times;
+    private final SearchCursor m_cursor;
     private final double m_startS;
     private final double m_endS;
 
     public TrajectoryTimeSampler(Trajectory100 trajectory) {
         m_trajectory = trajectory;
-        m_startS = m_trajectory.getPoint(0).state().getTimeS();
-        m_endS = m_trajectory.getPoint(m_trajectory.length() - 1).state().getTimeS();
+        m_times = new double[m_trajectory.length()];
+        for (int i = 0; i < m_times.length; ++i) {
+            m_times[i] = m_trajectory.getPoint(i).state().getTimeS();
+        }
+        m_cursor = new SearchCursor(m_times);
+        m_startS = m_times[0];
+        m_endS = m_times[m_times.length - 1];
     }
 
     public double getStartS() {
@@ -43,21 +58,20 @@ public class TrajectoryTimeSampler {
             TrajectoryPoint point = m_trajectory.getPoint(0);
             return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
         }
-        for (int i = 1; i < m_trajectory.length(); ++i) {
-            final TrajectoryPoint point = m_trajectory.getPoint(i);
-            if (point.state().getTimeS() >= timeS) {
-                final TrajectoryPoint prev_s = m_trajectory.getPoint(i - 1);
-                if (Math.abs(point.state().getTimeS() - prev_s.state().getTimeS()) <= 1e-12) {
-                    return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
-                }
-                return Optional.of(new TrajectorySamplePoint(
-                        prev_s.state().interpolate2(point.state(),
-                                (timeS - prev_s.state().getTimeS())
-                                        / (point.state().getTimeS() - prev_s.state().getTimeS())),
-                        i - 1, i));
-            }
+        final int i = m_cursor.ceiling(timeS);
+        final TrajectoryPoint point = m_trajectory.getPoint(i);
+        if (m_times[i] < timeS) {
+            // should never happen, since timeS < m_endS.
+            return Optional.empty();
+        }
+        final TrajectoryPoint prev_s = m_trajectory.getPoint(i - 1);
+        if (Math.abs(m_times[i] - m_times[i - 1]) <= 1e-12) {
+            return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
         }
-        return Optional.empty();
+        return Optional.of(new TrajectorySamplePoint(
+                prev_s.state().interpolate2(point.state(),
+                        (timeS - m_times[i - 1]) / (m_times[i] - m_times[i - 1])),
+                i - 1, i));
     }
 
     public Trajectory100 trajectory() {
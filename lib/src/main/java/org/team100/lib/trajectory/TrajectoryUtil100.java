@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.team100.lib.path.Path100;
 import org.team100.lib.spline.HolonomicSpline;
+import org.team100.lib.spline.HolonomicSplineOptimizer;
 import org.team100.lib.spline.SplineGenerator;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -24,7 +25,7 @@ public class TrajectoryUtil100 {
                     waypoints.get(i - 1), waypoints.get(i),
                     headings.get(i - 1), headings.get(i)));
         }
-        HolonomicSpline.optimizeSpline(splines);
+        HolonomicSplineOptimizer.optimize(splines);
         return new Path100(SplineGenerator.parameterizeSplines(splines, maxDx, maxDy, maxDTheta));
     }
 
@@ -13,7 +13,7 @@ import edu.wpi.first.math.MathUtil;
 public class Math100 {
     private static final double EPSILON = 1e-6;
     // we just don't need very precise answers.
-    private static final double kRootTolerance = 0.0001;
+    public static final double kRootTolerance = 0.0001;
 
     /**
      * Returns the real solutions to the quadratic ax^2 + bx + c.
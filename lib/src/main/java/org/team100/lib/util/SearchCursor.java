@@ -0,0 +1,74 @@
+package org.team100.lib.util;
+
+/**
+ * Finds the segment of a sorted array that contains a key.
+ *
+ * Samplers (by time or by distance) usually ask for keys that move forward a
+ * little bit each time, so the cursor remembers the last answer and walks
+ * forward from there, which is amortized O(1). Backwards or long jumps use
+ * binary search, so the worst case is O(log n).
+ *
+ * The cursor is mutable, so it's not thread-safe.
+ */
+public class SearchCursor {
+    /** Walk this far before giving up and using binary search. */
+    private static final int kMaxWalk = 8;
+
+    private final double[] m_keys;
+    /** The most recent answer. */
+    private int m_index;
+
+    /**
+     * @param keys sorted ascending. Not copied, so don't change it.
+     */
+    public SearchCursor(double[] keys) {
+        m_keys = keys;
+        m_index = 1;
+    }
+
+    /**
+     * Returns the smallest index i >= 1 such that keys[i] >= key, i.e. the upper
+     * end of the segment [i-1, i] containing the key. Keys beyond the ends are
+     * clamped to the first or last segment; callers should handle those cases
+     * (and arrays shorter than two) separately.
+     */
+    public int ceiling(double key) {
+        int i = m_index;
+        if (m_keys[i - 1] < key) {
+            // walk forward a bit.
+            for (int n = 0; n < kMaxWalk && i < m_keys.length; ++n, ++i) {
+                if (m_keys[i] >= key) {
+                    m_index = i;
+                    return i;
+                }
+            }
+        }
+        m_index = ceiling(m_keys, key);
+        return m_index;
+    }
+
+    /** Forget the previous answer. */
+    public void reset() {
+        m_index = 1;
+    }
+
+    /**
+     * Stateless version, using binary search.
+     *
+     * Returns the smallest index i >= 1 such that keys[i] >= key, or the last
+     * index if there isn't one.
+     */
+    public static int ceiling(double[] keys, double key) {
+        int lo = 1;
+        int hi = keys.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] >= key) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+}
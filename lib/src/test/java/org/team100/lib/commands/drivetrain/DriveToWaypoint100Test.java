@@ -12,6 +12,7 @@ import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 import org.team100.lib.logging.primitive.TestPrimitiveLogger;
 import org.team100.lib.motion.drivetrain.Fixtured;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
 import org.team100.lib.visualization.TrajectoryVisualization;
 
 /**
@@ -21,6 +22,8 @@ class DriveToWaypoint100Test extends Fixtured {
     private static final double kDelta = 0.001;
     private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
     private static final TrajectoryVisualization viz = new TrajectoryVisualization(logger);
+    /** Plans synchronously. */
+    private static final AsyncTrajectoryPlanner planner = new AsyncTrajectoryPlanner(Runnable::run);
 
     @Test
     void testWithPID() {
@@ -37,7 +40,8 @@ class DriveToWaypoint100Test extends Fixtured {
                 controller,
                 fixture.swerveKinodynamics,
                 0,
-                viz);
+                viz,
+                planner);
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
         command.execute();
@@ -55,7 +59,8 @@ class DriveToWaypoint100Test extends Fixtured {
                 controller,
                 fixture.swerveKinodynamics,
                 0,
-                viz);
+                viz,
+                planner);
         assertEquals(GeometryUtil.kPoseZero, fixture.drive.getPose());
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
@@ -74,7 +79,8 @@ class DriveToWaypoint100Test extends Fixtured {
                 controller,
                 fixture.swerveKinodynamics,
                 0,
-                viz);
+                viz,
+                planner);
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
         command.execute();
@@ -95,7 +101,8 @@ class DriveToWaypoint100Test extends Fixtured {
                 controller,
                 fixture.swerveKinodynamics,
                 0,
-                viz);
+                viz,
+                planner);
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
         command.execute();
@@ -16,6 +16,7 @@ import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectoryProjector;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.trajectory.TrajectoryTimeSampler;
 
@@ -125,7 +126,7 @@ class DrivePursuitControllerTest {
     }
 
     @Test
-    void testPreviewDt() {
+    void testProject() {
         SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3();
         Pose2d start = GeometryUtil.kPoseZero;
         Pose2d end = start.plus(new Transform2d(1, 0, GeometryUtil.kRotationZero));
@@ -146,27 +147,22 @@ class DrivePursuitControllerTest {
 
         Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, constraints);
 
-        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(trajectory);
+        TrajectoryProjector projector = new TrajectoryProjector(trajectory);
 
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(sampler);
-
-        // iter is at zero so time is zero
-        assertEquals(0, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(0, 0, GeometryUtil.kRotationZero)).getAsDouble(), kDelta);
+        // at the start so time is zero
+        assertEquals(0, projector.project(
+                new Pose2d(0, 0, GeometryUtil.kRotationZero)), kDelta);
         // 0.828 is 1 second along the trajectory
-        assertEquals(1, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(0.828, 0, GeometryUtil.kRotationZero)).getAsDouble(),
-                kDelta);
-        // the whole trajectory takes 1.414 seconds, but the
-        // preview finds the "off the end" time instead.
-        // this seems like a bug.
-        assertEquals(2, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(1, 0, GeometryUtil.kRotationZero)).getAsDouble(), kDelta);
+        assertEquals(1, projector.project(
+                new Pose2d(0.828, 0, GeometryUtil.kRotationZero)), 0.01);
+        // the end is the end time, not past it.
+        assertEquals(trajectory.getTotalTimeSeconds(), projector.project(
+                new Pose2d(1, 0, GeometryUtil.kRotationZero)), kDelta);
 
     }
 
     @Test
-    void testNearPreviewDt() {
+    void testNearProject() {
         SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest3();
         Pose2d start = GeometryUtil.kPoseZero;
         Pose2d end = start.plus(new Transform2d(1, 0, GeometryUtil.kRotationZero));
@@ -187,17 +183,15 @@ class DrivePursuitControllerTest {
 
         Trajectory100 trajectory = TrajectoryPlanner.restToRest(waypointsM, headings, constraints);
 
-        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(trajectory);
-
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(sampler);
+        TrajectoryProjector projector = new TrajectoryProjector(trajectory);
 
         // for a pose that isn't on the trajectory at all, it picks the nearest point
-        assertEquals(0, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(0, 1, GeometryUtil.kRotationZero)).getAsDouble(), kDelta);
-        assertEquals(1, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(0.828, 1, GeometryUtil.kRotationZero)).getAsDouble(), kDelta);
-        assertEquals(2, DrivePursuitFollower.previewDt(iter,
-                new Pose2d(1, 1, GeometryUtil.kRotation90)).getAsDouble(), kDelta);
+        assertEquals(0, projector.project(
+                new Pose2d(0, 1, GeometryUtil.kRotationZero)), kDelta);
+        assertEquals(1, projector.project(
+                new Pose2d(0.828, 1, GeometryUtil.kRotationZero)), 0.01);
+        assertEquals(trajectory.getTotalTimeSeconds(), projector.project(
+                new Pose2d(1, 1, GeometryUtil.kRotation90)), kDelta);
     }
 
     void verify(double vx, double vy, double omega, ChassisSpeeds output) {
@@ -0,0 +1,84 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    private static final boolean PRINT = false;
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(0.5), kDelta);
+        assertEquals(0, h.max(), kDelta);
+    }
+
+    /** Every value lands in a bucket that contains it, and buckets are in order. */
+    @Test
+    void testBuckets() {
+        int prev = -1;
+        for (long us = 0; us < 100000; ++us) {
+            int i = LatencyHistogram.index(us);
+            assertTrue(i >= prev);
+            assertTrue(us <= LatencyHistogram.upperUs(i));
+            if (i > 0)
+                assertTrue(us > LatencyHistogram.upperUs(i - 1));
+            // within about 3%
+            assertTrue(LatencyHistogram.upperUs(i) - us <= us / 32);
+            prev = i;
+        }
+        // clamped
+        assertEquals(LatencyHistogram.index(1L << 40), LatencyHistogram.index((1L << 24) - 1));
+    }
+
+    @Test
+    void testPercentile() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 1 to 100 ms
+        for (int ms = 1; ms <= 100; ++ms) {
+            h.record(ms * 1000000L);
+        }
+        assertEquals(100, h.count());
+        assertEquals(0.050, h.percentile(0.5), 0.002);
+        assertEquals(0.099, h.percentile(0.99), 0.003);
+        assertEquals(0.100, h.percentile(1.0), 1e-9);
+        assertEquals(0.100, h.max(), 1e-9);
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.max(), kDelta);
+    }
+
+    /** The max is exact, even past the last bucket. */
+    @Test
+    void testHuge() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(100_000_000_000L);
+        assertEquals(100, h.max(), 1e-9);
+        assertEquals(16.777, h.percentile(0.5), kDelta);
+    }
+
+    @Test
+    void testPerformance() {
+        LatencyHistogram h = new LatencyHistogram();
+        Random random = new Random(0);
+        long[] values = new long[1024];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (long) (20e6 * random.nextDouble());
+        }
+        final int n = 10000000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            h.record(values[i & 1023]);
+        }
+        long t1 = System.nanoTime();
+        assertEquals(n, h.count());
+        if (PRINT)
+            System.out.printf("record %.1f ns, p99 %.4f s\n", (double) (t1 - t0) / n, h.percentile(0.99));
+    }
+}
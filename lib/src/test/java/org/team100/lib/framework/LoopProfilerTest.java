@@ -0,0 +1,105 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+
+class LoopProfilerTest {
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+    /** 30 ms, over the 20 ms budget. */
+    private static final long kSlowNs = 30_000_000;
+    /** 10 ms, within budget. */
+    private static final long kFastNs = 10_000_000;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        // overruns dump traces, keep them out of the way.
+        Trace.setDirectory(Files.createTempDirectory("trace"));
+    }
+
+    @Test
+    void testSharedByName() {
+        LoopProfiler p = new LoopProfiler(logger);
+        LoopProfiler.Section a = p.section("a", 0.02);
+        // the budget of the first one wins.
+        assertSame(a, p.section("a"));
+        a.record(kSlowNs);
+        assertEquals(1, p.section("a").overruns());
+        // no budget, no overruns.
+        LoopProfiler.Section b = p.section("b");
+        b.record(kSlowNs);
+        assertEquals(0, b.overruns());
+    }
+
+    /** Overruns are blamed on the commands running at the time. */
+    @Test
+    void testBlame() {
+        LoopProfiler p = new LoopProfiler(logger);
+        LoopProfiler.Section loop = p.loop("loop", 0.02);
+        p.started("a");
+        loop.record(kSlowNs);
+        p.started("b");
+        loop.record(kSlowNs);
+        p.ended("a");
+        loop.record(kSlowNs);
+        loop.record(kSlowNs + 1_000_000);
+        // not an overrun
+        loop.record(kFastNs);
+        p.ended("b");
+        // after it ended
+        loop.record(kSlowNs);
+        assertEquals(5, loop.overruns());
+        List<LoopProfiler.Blame> worst = p.worst();
+        assertEquals(2, worst.size());
+        assertEquals("b", worst.get(0).m_name);
+        assertEquals(3, worst.get(0).m_overruns);
+        assertEquals(kSlowNs + 1_000_000, worst.get(0).m_maxNs);
+        assertEquals("a", worst.get(1).m_name);
+        assertEquals(2, worst.get(1).m_overruns);
+        assertEquals(kSlowNs, worst.get(1).m_maxNs);
+    }
+
+    /** Other sections don't blame anyone. */
+    @Test
+    void testOnlyLoopBlames() {
+        LoopProfiler p = new LoopProfiler(logger);
+        p.loop("loop", 0.02);
+        LoopProfiler.Section other = p.section("other", 0.001);
+        p.started("a");
+        other.record(kSlowNs);
+        assertEquals(1, other.overruns());
+        assertEquals(0, p.worst().size());
+    }
+
+    /** Worst first, at most five, and only commands with overruns. */
+    @Test
+    void testWorst() {
+        LoopProfiler p = new LoopProfiler(logger);
+        LoopProfiler.Section loop = p.loop("loop", 0.02);
+        for (int i = 0; i < 7; ++i) {
+            p.started("c" + i);
+        }
+        // c0 gets 1 overrun, c1 gets 2, and so on.
+        for (int i = 0; i < 7; ++i) {
+            loop.record(kSlowNs);
+            p.ended("c" + i);
+        }
+        p.started("never");
+        loop.record(kFastNs);
+        List<LoopProfiler.Blame> worst = p.worst();
+        assertEquals(5, worst.size());
+        for (int i = 0; i < 5; ++i) {
+            assertEquals("c" + (6 - i), worst.get(i).m_name);
+            assertEquals(7 - i, worst.get(i).m_overruns);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.team100.lib.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class TraceTest {
+    private static final boolean PRINT = false;
+
+    private static String dump() throws IOException {
+        Path file = Files.createTempDirectory("trace").resolve("trace.json");
+        Trace.dump(file);
+        String json = Files.readString(file);
+        assertTrue(json.startsWith("{"));
+        assertTrue(json.endsWith("]}\n"));
+        return json;
+    }
+
+    private static int count(String json, String name) {
+        Matcher m = Pattern.compile("\"name\":\"" + Pattern.quote(name) + "\",\"ph\":\"X\"").matcher(json);
+        int n = 0;
+        while (m.find())
+            ++n;
+        return n;
+    }
+
+    @Test
+    void testNested() throws IOException {
+        Trace.begin("nested/outer");
+        Trace.begin("nested/inner");
+        Trace.end();
+        // still open, so not dumped.
+        assertEquals(0, count(dump(), "nested/outer"));
+        Trace.end();
+        String json = dump();
+        assertEquals(1, count(json, "nested/outer"));
+        assertEquals(1, count(json, "nested/inner"));
+        // an extra end is ignored.
+        Trace.end();
+    }
+
+    @Test
+    void testEscape() throws IOException {
+        Trace.begin("escape/\"quoted\"");
+        Trace.end();
+        assertEquals(1, count(dump(), "escape/\\\"quoted\\\""));
+    }
+
+    /** Only the newest spans are kept. */
+    @Test
+    void testWrap() throws IOException {
+        Trace.begin("wrap/first");
+        Trace.end();
+        for (int i = 0; i < 20000; ++i) {
+            Trace.begin("wrap/many");
+            Trace.end();
+        }
+        String json = dump();
+        assertEquals(0, count(json, "wrap/first"));
+        assertEquals(1 << 14, count(json, "wrap/many"));
+    }
+
+    /** Each thread gets its own ring, and its own tid. */
+    @Test
+    void testThreads() throws Exception {
+        Thread t = new Thread(() -> {
+            Trace.begin("threads/other");
+            Trace.end();
+        }, "other");
+        t.start();
+        t.join();
+        Trace.begin("threads/main");
+        Trace.end();
+        String json = dump();
+        assertEquals(1, count(json, "threads/other"));
+        assertEquals(1, count(json, "threads/main"));
+        assertTrue(json.contains("\"args\":{\"name\":\"other\"}"));
+    }
+
+    @Test
+    void testPerformance() {
+        final int n = 10000000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; ++i) {
+            Trace.begin("perf/span");
+            Trace.end();
+        }
+        long t1 = System.nanoTime();
+        if (PRINT)
+            System.out.printf("begin/end %.1f ns\n", (double) (t1 - t0) / n);
+    }
+}
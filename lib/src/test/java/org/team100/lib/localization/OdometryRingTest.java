@@ -0,0 +1,104 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OdometryRingTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testCapacity() {
+        assertEquals(8, new OdometryRing(8, 1).capacity());
+        assertEquals(16, new OdometryRing(9, 1).capacity());
+        assertEquals(1024, new OdometryRing(750, 1).capacity());
+    }
+
+    @Test
+    void testAppend() {
+        OdometryRing r = new OdometryRing(8, 10);
+        for (int i = 0; i < 5; ++i) {
+            int idx = r.insert(i);
+            assertEquals(i, idx);
+            r.setState(idx, i, 0, 0, 0, 0, 0);
+        }
+        assertEquals(5, r.size());
+        assertEquals(-1, r.lower(0));
+        assertEquals(0, r.floor(0));
+        assertEquals(1, r.lower(1.5));
+        assertEquals(1, r.floor(1.5));
+        assertEquals(2, r.ceiling(1.5));
+        assertEquals(2, r.floor(2));
+        assertEquals(1, r.lower(2));
+        assertEquals(5, r.ceiling(10));
+    }
+
+    @Test
+    void testInsertMiddle() {
+        OdometryRing r = new OdometryRing(8, 10);
+        for (int i = 0; i < 4; ++i) {
+            r.setState(r.insert(i), i, 0, 0, 0, 0, 0);
+        }
+        int idx = r.insert(1.5);
+        assertEquals(2, idx);
+        r.setState(idx, 1.5, 0, 0, 0, 0, 0);
+        assertEquals(5, r.size());
+        double[] expected = { 0, 1, 1.5, 2, 3 };
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(expected[i], r.t(i), kDelta);
+            assertEquals(expected[i], r.x(i), kDelta);
+        }
+        // same time replaces
+        assertEquals(2, r.insert(1.5));
+        assertEquals(5, r.size());
+    }
+
+    @Test
+    void testHistory() {
+        OdometryRing r = new OdometryRing(8, 1);
+        r.insert(0);
+        r.insert(0.5);
+        assertFalse(r.tooOld(0));
+        r.insert(1.0);
+        // the oldest is exactly one second old, so it's gone.
+        assertEquals(2, r.size());
+        assertEquals(0.5, r.t(0), kDelta);
+        assertTrue(r.tooOld(-0.1));
+        assertFalse(r.tooOld(0.1));
+    }
+
+    @Test
+    void testWrap() {
+        OdometryRing r = new OdometryRing(4, 100);
+        for (int i = 0; i < 10; ++i) {
+            r.setState(r.insert(i), i, 0, 0, 0, 0, 0);
+        }
+        // only the newest four remain
+        assertEquals(4, r.size());
+        assertEquals(6, r.t(0), kDelta);
+        assertEquals(9, r.x(3), kDelta);
+        // insert in the middle of a full, wrapped buffer drops the oldest
+        int idx = r.insert(7.5);
+        assertEquals(1, idx);
+        assertEquals(7, r.t(0), kDelta);
+        assertEquals(7.5, r.t(1), kDelta);
+        assertEquals(8, r.t(2), kDelta);
+        assertEquals(9, r.t(3), kDelta);
+        // full and older than everything: refused
+        assertEquals(-1, r.insert(1));
+    }
+
+    @Test
+    void testPositions() {
+        OdometryRing r = new OdometryRing(4, 100);
+        int idx = r.insert(0);
+        r.setPositions(idx, new double[] { 1, 2, 3, 4 }, new double[] { 0.1, Double.NaN, 0.3, 0.4 });
+        r.insert(-1);
+        assertEquals(1, r.dist(1, 0), kDelta);
+        assertEquals(4, r.dist(1, 3), kDelta);
+        assertTrue(Double.isNaN(r.angle(1, 1)));
+        assertEquals(0.3, r.angle(1, 2), kDelta);
+    }
+}
@@ -0,0 +1,155 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.motion.drivetrain.SwerveModel;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePosition100;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePositions;
+import org.team100.lib.sensors.MockGyro;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class OdometrySamplerTest {
+    private static final double kDelta = 0.001;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+
+    private double m_timeS;
+    private SwerveModulePositions m_positions = positions(0);
+
+    private static SwerveModulePositions positions(double distM) {
+        SwerveModulePosition100 p = new SwerveModulePosition100(
+                distM, Optional.of(GeometryUtil.kRotationZero));
+        return new SwerveModulePositions(p, p, p, p);
+    }
+
+    private SwerveDrivePoseEstimator100 estimator(MockGyro gyro) {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        return kinodynamics.newPoseEstimator(
+                logger,
+                gyro,
+                positions(0),
+                GeometryUtil.kPoseZero,
+                0);
+    }
+
+    @Test
+    void testDrain() {
+        MockGyro gyro = new MockGyro();
+        SwerveDrivePoseEstimator100 estimator = estimator(gyro);
+        OdometrySampler sampler = new OdometrySampler(
+                logger, gyro, () -> m_positions, () -> m_timeS);
+        // five samples per 20 ms main loop cycle, moving 1 m/s
+        for (int i = 1; i <= 5; ++i) {
+            m_timeS = i * 0.004;
+            m_positions = positions(m_timeS);
+            sampler.sample();
+        }
+        assertEquals(5, sampler.drain(estimator));
+        SwerveModel state = estimator.get(0.02);
+        assertEquals(0.02, state.pose().getX(), kDelta);
+        assertEquals(1, state.velocity().x(), kDelta);
+        // the intermediate samples are there too.
+        assertEquals(0.008, estimator.get(0.008).pose().getX(), kDelta);
+        // nothing left
+        assertEquals(0, sampler.drain(estimator));
+    }
+
+    @Test
+    void testOverflow() {
+        MockGyro gyro = new MockGyro();
+        SwerveDrivePoseEstimator100 estimator = estimator(gyro);
+        OdometrySampler sampler = new OdometrySampler(
+                logger, gyro, () -> m_positions, () -> m_timeS);
+        for (int i = 1; i <= 100; ++i) {
+            m_timeS = i * 0.004;
+            sampler.sample();
+        }
+        // the ring holds 64, the rest are dropped.
+        assertEquals(36, sampler.dropped());
+        assertEquals(64, sampler.drain(estimator));
+        // now there's room again.
+        m_timeS = 0.5;
+        sampler.sample();
+        assertEquals(1, sampler.drain(estimator));
+    }
+
+    @Test
+    void testClear() {
+        MockGyro gyro = new MockGyro();
+        SwerveDrivePoseEstimator100 estimator = estimator(gyro);
+        OdometrySampler sampler = new OdometrySampler(
+                logger, gyro, () -> m_positions, () -> m_timeS);
+        for (int i = 1; i <= 3; ++i) {
+            m_timeS = i * 0.004;
+            sampler.sample();
+        }
+        sampler.clear();
+        assertEquals(0, sampler.drain(estimator));
+    }
+
+    /** A reset during the sensor read makes that sample stale. */
+    @Test
+    void testClearInFlight() {
+        MockGyro gyro = new MockGyro();
+        SwerveDrivePoseEstimator100 estimator = estimator(gyro);
+        OdometrySampler[] sampler = new OdometrySampler[1];
+        boolean[] reset = new boolean[1];
+        sampler[0] = new OdometrySampler(
+                logger, gyro, () -> {
+                    if (reset[0])
+                        sampler[0].clear();
+                    return m_positions;
+                }, () -> m_timeS);
+        m_timeS = 0.004;
+        reset[0] = true;
+        sampler[0].sample();
+        assertEquals(0, sampler[0].drain(estimator));
+        // the next one is fine.
+        m_timeS = 0.008;
+        reset[0] = false;
+        sampler[0].sample();
+        assertEquals(1, sampler[0].drain(estimator));
+    }
+
+    /** The sampling thread doesn't use the gyro accessors that log. */
+    @Test
+    void testGyroSampleAccessors() {
+        MockGyro gyro = new MockGyro() {
+            @Override
+            public Rotation2d getYawNWU() {
+                fail("logging accessor on the sampling thread");
+                return null;
+            }
+
+            @Override
+            public double getYawRateNWU() {
+                fail("logging accessor on the sampling thread");
+                return 0;
+            }
+
+            @Override
+            public double sampleYawNWU() {
+                return 0;
+            }
+
+            @Override
+            public double sampleYawRateNWU() {
+                return 0;
+            }
+        };
+        OdometrySampler sampler = new OdometrySampler(
+                logger, gyro, () -> m_positions, () -> m_timeS);
+        m_timeS = 0.004;
+        sampler.sample();
+    }
+}
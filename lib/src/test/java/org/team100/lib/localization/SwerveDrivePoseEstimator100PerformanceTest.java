@@ -0,0 +1,94 @@
+package org.team100.lib.localization;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePosition100;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePositions;
+import org.team100.lib.sensors.MockGyro;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Reports time and allocation per update of the ring-buffer estimator.
+ */
+class SwerveDrivePoseEstimator100PerformanceTest {
+    private static final boolean PRINT = false;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+    private static final int ITERATIONS = 200000;
+    /** 250 Hz */
+    private static final double DT = 0.004;
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    void testOdometry() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        SwerveModulePosition100 p = new SwerveModulePosition100(0, Optional.of(GeometryUtil.kRotationZero));
+        SwerveModulePositions positions = new SwerveModulePositions(p, p, p, p);
+        SwerveDrivePoseEstimator100 estimator = kinodynamics.newPoseEstimator(
+                logger, new MockGyro(), positions, GeometryUtil.kPoseZero, 0);
+        double t = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            t += DT;
+            p.distanceMeters += 0.01;
+            estimator.put(t, 0, 0, positions);
+        }
+        long b0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            t += DT;
+            p.distanceMeters += 0.01;
+            estimator.put(t, 0, 0, positions);
+        }
+        long t1 = System.nanoTime();
+        long b1 = allocatedBytes();
+        if (PRINT)
+            System.out.printf("ring odometry ns/op %.1f bytes/op %.1f\n",
+                    (double) (t1 - t0) / ITERATIONS, (double) (b1 - b0) / ITERATIONS);
+    }
+
+    /**
+     * A vision update 100 ms in the past, every 50 ms, replays 25 odometry
+     * entries.
+     */
+    @Test
+    void testVisionReplay() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        SwerveModulePosition100 p = new SwerveModulePosition100(0, Optional.of(GeometryUtil.kRotationZero));
+        SwerveModulePositions positions = new SwerveModulePositions(p, p, p, p);
+        SwerveDrivePoseEstimator100 estimator = kinodynamics.newPoseEstimator(
+                logger, new MockGyro(), positions, GeometryUtil.kPoseZero, 0);
+        double[] stateSigma = new double[] { 0.1, 0.1, 0.1 };
+        double[] visionSigma = new double[] { 0.5, 0.5, Double.MAX_VALUE };
+        double t = 0;
+        int visionUpdates = 0;
+        long b0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            t += DT;
+            p.distanceMeters += 0.01;
+            estimator.put(t, 0, 0, positions);
+            if (i % 12 == 0 && t > 0.1) {
+                estimator.put(t - 0.1, new Pose2d(p.distanceMeters, 0, GeometryUtil.kRotationZero),
+                        stateSigma, visionSigma);
+                visionUpdates++;
+            }
+        }
+        long t1 = System.nanoTime();
+        long b1 = allocatedBytes();
+        if (PRINT)
+            System.out.printf("ring with vision: ns/odometry op %.1f bytes/vision op %.1f\n",
+                    (double) (t1 - t0) / ITERATIONS, (double) (b1 - b0) / visionUpdates);
+    }
+}
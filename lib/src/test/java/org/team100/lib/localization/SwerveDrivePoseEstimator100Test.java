@@ -3,6 +3,7 @@ package org.team100.lib.localization;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -832,4 +833,49 @@ class SwerveDrivePoseEstimator100Test {
                 odometryPose.getRotation().getRadians(),
                 visionPose.getRotation().getRadians(), kDelta);
     }
-}
\ No newline at end of file
+
+    /** A batch of vision updates gives the same result as putting them in order. */
+    @Test
+    void testBatchMatchesSequential() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        SwerveModulePosition100 p = new SwerveModulePosition100(0, Optional.of(GeometryUtil.kRotationZero));
+        SwerveModulePositions positions = new SwerveModulePositions(p, p, p, p);
+        SwerveDrivePoseEstimator100 sequential = kinodynamics.newPoseEstimator(
+                logger, new MockGyro(), positions, GeometryUtil.kPoseZero, 0);
+        SwerveDrivePoseEstimator100 batch = kinodynamics.newPoseEstimator(
+                logger, new MockGyro(), positions, GeometryUtil.kPoseZero, 0);
+        double[] stateSigma = new double[] { 0.1, 0.1, 0.1 };
+        double[] visionSigma = new double[] { 0.5, 0.5, Double.MAX_VALUE };
+        Random random = new Random(0);
+        for (int i = 1; i <= 100; ++i) {
+            double t = i * 0.02;
+            p.distanceMeters += 0.02;
+            sequential.put(t, 0, 0, positions);
+            batch.put(t, 0, 0, positions);
+            // several measurements, out of order, some at the same time,
+            // some between odometry samples.
+            List<VisionUpdate> updates = new ArrayList<>();
+            for (int j = 0; j < 6; ++j) {
+                double vt = t - 0.01 * random.nextInt(8) - (j % 2) * 0.005;
+                Pose2d measurement = new Pose2d(
+                        p.distanceMeters + random.nextGaussian() * 0.1,
+                        random.nextGaussian() * 0.1,
+                        GeometryUtil.kRotationZero);
+                updates.add(new VisionUpdate(vt, measurement, stateSigma, visionSigma));
+            }
+            List<VisionUpdate> sorted = new ArrayList<>(updates);
+            sorted.sort((a, b) -> Double.compare(a.timestampS(), b.timestampS()));
+            for (VisionUpdate u : sorted) {
+                sequential.put(u.timestampS(), u.measurement(), u.stateSigma(), u.visionSigma());
+            }
+            batch.put(updates);
+            for (double st = t - 0.2; st <= t; st += 0.0025) {
+                Pose2d a = sequential.get(st).pose();
+                Pose2d b = batch.get(st).pose();
+                assertEquals(a.getX(), b.getX(), 1e-9);
+                assertEquals(a.getY(), b.getY(), 1e-9);
+                assertEquals(a.getRotation().getRadians(), b.getRotation().getRadians(), 1e-9);
+            }
+        }
+    }
+}
@@ -6,12 +6,19 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 import org.team100.lib.logging.primitive.TestPrimitiveLogger;
 import org.team100.lib.motion.drivetrain.SwerveModel;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePosition100;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModulePositions;
+import org.team100.lib.sensors.MockGyro;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
@@ -23,6 +30,7 @@ import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Timer;
 
 class VisionDataProviderPerformanceTest {
+    private static final boolean PRINT = false;
     private static final double kDelta = 0.01;
     private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
 
@@ -79,4 +87,73 @@ class VisionDataProviderPerformanceTest {
         assertTrue(true);
     }
 
+    /**
+     * Vision latency per main-loop cycle, for 1 to 8 cameras, each seeing
+     * several tags, with odometry at 250 Hz. Each camera has a different delay,
+     * so the measurements have different timestamps. Compares putting the
+     * measurements one at a time (a replay for each) with a batch for each
+     * camera (one replay per camera), which is what VisionDataProvider24 does, so
+     * that each camera sees the corrections from the ones before it.
+     */
+    @Test
+    void testBatchLatency() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        double[] stateSigma = new double[] { 0.1, 0.1, 0.1 };
+        double[] visionSigma = new double[] { 0.5, 0.5, Double.MAX_VALUE };
+        final int tags = 4;
+        final int cycles = 2000;
+        for (int cameras = 1; cameras <= 8; ++cameras) {
+            long sequentialNs = 0;
+            long batchNs = 0;
+            for (int batch = 0; batch < 2; ++batch) {
+                SwerveModulePosition100 p = new SwerveModulePosition100(
+                        0, Optional.of(GeometryUtil.kRotationZero));
+                SwerveModulePositions positions = new SwerveModulePositions(p, p, p, p);
+                SwerveDrivePoseEstimator100 estimator = kinodynamics.newPoseEstimator(
+                        logger, new MockGyro(), positions, GeometryUtil.kPoseZero, 0);
+                List<VisionUpdate> updates = new ArrayList<>();
+                double t = 0;
+                long elapsed = 0;
+                for (int cycle = 0; cycle < cycles; ++cycle) {
+                    // five odometry samples per 20 ms cycle
+                    for (int i = 0; i < 5; ++i) {
+                        t += 0.004;
+                        p.distanceMeters += 0.01;
+                        estimator.put(t, 0, 0, positions);
+                    }
+                    if (t < 0.2)
+                        continue;
+                    for (int c = 0; c < cameras; ++c) {
+                        // cameras have different latency, 30 to 100 ms.
+                        double frameTimeS = t - 0.03 - 0.01 * c;
+                        Pose2d measurement = new Pose2d(p.distanceMeters, 0, GeometryUtil.kRotationZero);
+                        updates.clear();
+                        for (int tag = 0; tag < tags; ++tag) {
+                            updates.add(new VisionUpdate(frameTimeS, measurement, stateSigma, visionSigma));
+                        }
+                        long t0 = System.nanoTime();
+                        if (batch == 0) {
+                            for (VisionUpdate u : updates) {
+                                estimator.put(u.timestampS(), u.measurement(), u.stateSigma(), u.visionSigma());
+                            }
+                        } else {
+                            estimator.put(updates);
+                        }
+                        elapsed += System.nanoTime() - t0;
+                    }
+                }
+                if (batch == 0) {
+                    sequentialNs = elapsed;
+                } else {
+                    batchNs = elapsed;
+                }
+            }
+            if (PRINT)
+                System.out.printf("cameras %d tags %d sequential us/cycle %6.2f batch us/cycle %6.2f\n",
+                        cameras, tags,
+                        sequentialNs / 1000.0 / cycles,
+                        batchNs / 1000.0 / cycles);
+        }
+    }
+
 }
@@ -0,0 +1,126 @@
+package org.team100.lib.logging;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory.ChassisSpeedsLogger;
+import org.team100.lib.logging.LoggerFactory.Control100Logger;
+import org.team100.lib.logging.LoggerFactory.DoubleLogger;
+import org.team100.lib.logging.LoggerFactory.FieldRelativeVelocityLogger;
+import org.team100.lib.logging.LoggerFactory.Model100Logger;
+import org.team100.lib.logging.LoggerFactory.Pose2dLogger;
+import org.team100.lib.logging.LoggerFactory.Rotation2dLogger;
+import org.team100.lib.logging.LoggerFactory.SwerveModelLogger;
+import org.team100.lib.logging.LoggerFactory.Translation2dLogger;
+import org.team100.lib.logging.LoggerFactory.Twist2dLogger;
+import org.team100.lib.logging.primitive.UdpPrimitiveLogger;
+import org.team100.lib.motion.drivetrain.SwerveModel;
+import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
+import org.team100.lib.state.Control100;
+import org.team100.lib.state.Model100;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Per-call time and allocation for the supplier and primitive forms of each
+ * logger, with the level enabled and disabled.
+ *
+ * The supplier cases look like typical call sites, which make the domain
+ * object inside a capturing lambda.
+ */
+class LoggerFactoryPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final int ITERATIONS = 2000000;
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void run(String name, IntConsumer body) {
+        // warm up
+        for (int i = 0; i < ITERATIONS; ++i) {
+            body.accept(i);
+        }
+        long b0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            body.accept(i);
+        }
+        long t1 = System.nanoTime();
+        long b1 = allocatedBytes();
+        if (PRINT)
+            System.out.printf("%-40s ns/op %6.1f bytes/op %6.1f\n", name,
+                    (double) (t1 - t0) / ITERATIONS, (double) (b1 - b0) / ITERATIONS);
+    }
+
+    @Test
+    void testEnabled() {
+        UdpPrimitiveLogger udp = new UdpPrimitiveLogger(x -> {
+        }, x -> {
+        });
+        measure("enabled", new LoggerFactory(() -> Level.TRACE, "test", udp));
+    }
+
+    @Test
+    void testDisabled() {
+        UdpPrimitiveLogger udp = new UdpPrimitiveLogger(x -> {
+        }, x -> {
+        });
+        measure("disabled", new LoggerFactory(() -> Level.COMP, "test", udp));
+    }
+
+    /** All the loggers are TRACE. */
+    private static void measure(String label, LoggerFactory log) {
+        DoubleLogger d = log.doubleLogger(Level.TRACE, "double");
+        run(label + " double supplier", i -> d.log(() -> i));
+        run(label + " double primitive", i -> d.log(i));
+
+        Rotation2dLogger r = log.rotation2dLogger(Level.TRACE, "rotation");
+        run(label + " rotation2d supplier", i -> r.log(() -> new Rotation2d(i)));
+        run(label + " rotation2d primitive", i -> r.log(i));
+
+        Translation2dLogger t = log.translation2dLogger(Level.TRACE, "translation");
+        run(label + " translation2d supplier", i -> t.log(() -> new Translation2d(i, 1)));
+        run(label + " translation2d primitive", i -> t.log(i, 1));
+
+        Pose2dLogger p = log.pose2dLogger(Level.TRACE, "pose");
+        run(label + " pose2d supplier", i -> p.log(() -> new Pose2d(i, 1, new Rotation2d(2))));
+        run(label + " pose2d primitive", i -> p.log(i, 1, 2));
+
+        Twist2dLogger tw = log.twist2dLogger(Level.TRACE, "twist");
+        run(label + " twist2d supplier", i -> tw.log(() -> new Twist2d(i, 1, 2)));
+        run(label + " twist2d primitive", i -> tw.log(i, 1, 2));
+
+        ChassisSpeedsLogger c = log.chassisSpeedsLogger(Level.TRACE, "speeds");
+        run(label + " chassisspeeds supplier", i -> c.log(() -> new ChassisSpeeds(i, 1, 2)));
+        run(label + " chassisspeeds primitive", i -> c.log(i, 1, 2));
+
+        FieldRelativeVelocityLogger v = log.fieldRelativeVelocityLogger(Level.TRACE, "velocity");
+        run(label + " fieldrelativevelocity supplier", i -> v.log(() -> new FieldRelativeVelocity(i, 1, 2)));
+        run(label + " fieldrelativevelocity primitive", i -> v.log(i, 1, 2));
+
+        Model100Logger m = log.model100Logger(Level.TRACE, "model");
+        run(label + " model100 supplier", i -> m.log(() -> new Model100(i, 1)));
+        run(label + " model100 primitive", i -> m.log(i, 1));
+
+        Control100Logger co = log.control100Logger(Level.TRACE, "control");
+        run(label + " control100 supplier", i -> co.log(() -> new Control100(i, 1, 2)));
+        run(label + " control100 primitive", i -> co.log(i, 1, 2));
+
+        SwerveModelLogger s = log.swerveModelLogger(Level.TRACE, "swerve");
+        run(label + " swervemodel supplier", i -> s.log(() -> new SwerveModel(
+                new Model100(i, 1), new Model100(2, 3), new Model100(4, 5))));
+        run(label + " swervemodel primitive", i -> s.log(i, 1, 2, 3, 4, 5));
+
+        run(label + " pose2d guarded", i -> {
+            if (p.enabled())
+                p.log(i, 1, 2);
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package org.team100.lib.logging.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveDoubleLogger;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveIntLogger;
+
+class UdpBatchSenderTest {
+    private final List<ByteBuffer> packets = new ArrayList<>();
+
+    private void collect(ByteBuffer bb) {
+        ByteBuffer copy = ByteBuffer.allocate(bb.remaining());
+        copy.put(bb);
+        copy.flip();
+        synchronized (packets) {
+            packets.add(copy);
+        }
+    }
+
+    private int size() {
+        synchronized (packets) {
+            return packets.size();
+        }
+    }
+
+    @Test
+    void testOnePacket() {
+        UdpBatchSender sender = new UdpBatchSender(this::collect);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        PrimitiveIntLogger a = l.intLogger("a");
+        a.log(1); // overwritten
+        a.log(2);
+        l.flush();
+        // nothing is sent on the main loop.
+        assertEquals(0, packets.size());
+        assertTrue(sender.sendPending());
+        assertEquals(1, packets.size());
+        ByteBuffer p = packets.get(0);
+        // timestamp, key, type, value
+        assertEquals(15, p.remaining());
+        p.getLong();
+        assertEquals(1, p.getChar());
+        assertEquals(UdpType.INT.id, p.get());
+        assertEquals(2, p.getInt());
+        // nothing more to send
+        assertFalse(sender.sendPending());
+    }
+
+    @Test
+    void testEmpty() {
+        UdpBatchSender sender = new UdpBatchSender(this::collect);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        l.flush();
+        assertTrue(sender.sendPending());
+        // at least one packet, like the synchronous flush
+        assertEquals(1, packets.size());
+        assertEquals(8, packets.get(0).remaining());
+    }
+
+    @Test
+    void testSplit() {
+        UdpBatchSender sender = new UdpBatchSender(this::collect);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        final int keys = 1000;
+        for (int i = 0; i < keys; ++i) {
+            l.doubleLogger("d" + i).log(i);
+        }
+        l.flush();
+        assertTrue(sender.sendPending());
+        // each double is 11 bytes, so 133 fit in a packet after the timestamp.
+        assertEquals(8, packets.size());
+        int count = 0;
+        for (ByteBuffer p : packets) {
+            assertTrue(p.remaining() <= UdpSender.MTU);
+            p.getLong();
+            while (p.hasRemaining()) {
+                assertEquals(count + 1, p.getChar());
+                assertEquals(UdpType.DOUBLE.id, p.get());
+                assertEquals((double) count, p.getDouble());
+                ++count;
+            }
+        }
+        assertEquals(keys, count);
+    }
+
+    @Test
+    void testDropped() {
+        UdpBatchSender sender = new UdpBatchSender(this::collect);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        PrimitiveDoubleLogger a = l.doubleLogger("a");
+        a.log(1);
+        l.flush();
+        a.log(2);
+        l.flush();
+        // the sender didn't keep up, so the first batch is gone.
+        assertEquals(1, sender.dropped());
+        assertTrue(sender.sendPending());
+        assertEquals(1, packets.size());
+        ByteBuffer p = packets.get(0);
+        p.getLong();
+        p.getChar();
+        p.get();
+        assertEquals(2.0, p.getDouble());
+    }
+
+    @Test
+    void testOverflow() {
+        UdpBatchSender sender = new UdpBatchSender(this::collect, 64);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        for (int i = 0; i < 10; ++i) {
+            l.doubleLogger("d" + i).log(i);
+        }
+        l.flush();
+        // (64 - 8) / 11 = 5 fit
+        assertEquals(5, l.batchOverflow());
+    }
+
+    @Test
+    void testThread() throws InterruptedException {
+        UdpBatchSender sender = new UdpBatchSender(this::collect);
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(sender, x -> {
+        });
+        l.intLogger("a").log(1);
+        sender.start();
+        l.flush();
+        for (int i = 0; i < 100 && size() == 0; ++i) {
+            Thread.sleep(10);
+        }
+        sender.close();
+        assertEquals(1, size());
+    }
+}
@@ -0,0 +1,188 @@
+package org.team100.lib.logging.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
+
+class UdpCompactProtocolTest {
+    @Test
+    void testVarint() throws ProtocolException {
+        ByteBuffer buf = ByteBuffer.allocate(100);
+        for (long v : new long[] { 0, 1, 127, 128, 65535, Long.MAX_VALUE, -1 }) {
+            buf.clear();
+            UdpCompactProtocol.putVarint(buf, v);
+            buf.flip();
+            assertEquals(v, UdpCompactProtocol.decodeVarint(buf));
+            assertEquals(0, buf.remaining());
+        }
+        buf.clear();
+        UdpCompactProtocol.putVarint(buf, 127);
+        assertEquals(1, buf.position());
+        buf.clear();
+        UdpCompactProtocol.putVarint(buf, 65535);
+        assertEquals(3, buf.position());
+    }
+
+    @Test
+    void testBoolean() throws ProtocolException {
+        ByteBuffer buf = ByteBuffer.allocate(100);
+        assertTrue(UdpCompactProtocol.encodeBoolean(buf, 5, true));
+        assertTrue(UdpCompactProtocol.encodeBoolean(buf, 6, false));
+        // key and tag only
+        assertEquals(4, buf.position());
+        buf.flip();
+        assertEquals(5, UdpCompactProtocol.decodeKey(buf));
+        int tag = UdpCompactProtocol.decodeTag(buf);
+        assertEquals(UdpType.BOOLEAN, UdpCompactProtocol.type(tag));
+        assertTrue(UdpCompactProtocol.flag(tag));
+        assertEquals(6, UdpCompactProtocol.decodeKey(buf));
+        assertFalse(UdpCompactProtocol.flag(UdpCompactProtocol.decodeTag(buf)));
+    }
+
+    @Test
+    void testLong() throws ProtocolException {
+        ByteBuffer buf = ByteBuffer.allocate(100);
+        assertTrue(UdpCompactProtocol.encodeLong(buf, 1, UdpType.INT, -3));
+        // key, tag, one byte of zigzag
+        assertEquals(3, buf.position());
+        assertTrue(UdpCompactProtocol.encodeLong(buf, 1, UdpType.LONG, Long.MIN_VALUE));
+        buf.flip();
+        UdpCompactProtocol.decodeKey(buf);
+        assertEquals(UdpType.INT, UdpCompactProtocol.type(UdpCompactProtocol.decodeTag(buf)));
+        assertEquals(-3, UdpCompactProtocol.decodeZigzag(buf));
+        UdpCompactProtocol.decodeKey(buf);
+        assertEquals(UdpType.LONG, UdpCompactProtocol.type(UdpCompactProtocol.decodeTag(buf)));
+        assertEquals(Long.MIN_VALUE, UdpCompactProtocol.decodeZigzag(buf));
+    }
+
+    @Test
+    void testDouble() throws ProtocolException {
+        ByteBuffer buf = ByteBuffer.allocate(100);
+        long[] ref = new long[1];
+        assertTrue(UdpCompactProtocol.encodeDouble(buf, 1, 1.5, ref, 7, true));
+        // key, tag, gen, value
+        assertEquals(11, buf.position());
+        int p = buf.position();
+        assertTrue(UdpCompactProtocol.encodeDouble(buf, 1, 1.5, ref, 7, false));
+        // unchanged: key, tag, gen, zero header
+        assertEquals(4, buf.position() - p);
+        p = buf.position();
+        assertTrue(UdpCompactProtocol.encodeDouble(buf, 1, 1.75, ref, 7, false));
+        // one byte differs: key, tag, gen, header, one byte
+        assertEquals(5, buf.position() - p);
+
+        buf.flip();
+        long refBits = 0;
+        for (double expected : new double[] { 1.5, 1.5, 1.75 }) {
+            UdpCompactProtocol.decodeKey(buf);
+            int tag = UdpCompactProtocol.decodeTag(buf);
+            assertEquals(UdpType.DOUBLE, UdpCompactProtocol.type(tag));
+            assertEquals(7, UdpCompactProtocol.decodeGeneration(buf));
+            boolean delta = UdpCompactProtocol.flag(tag);
+            long bits = UdpCompactProtocol.decodeField(buf, delta, refBits);
+            if (!delta)
+                refBits = bits;
+            assertEquals(expected, Double.longBitsToDouble(bits));
+        }
+        assertEquals(0, buf.remaining());
+    }
+
+    /** Any value, against any reference. */
+    @Test
+    void testXorRandom() throws ProtocolException {
+        Random random = new Random(0);
+        ByteBuffer buf = ByteBuffer.allocate(100);
+        for (int i = 0; i < 100000; ++i) {
+            long[] ref = new long[] { random.nextLong() };
+            long bits = switch (i % 3) {
+                case 0 -> random.nextLong();
+                case 1 -> ref[0] ^ (1L << random.nextInt(64));
+                default -> ref[0];
+            };
+            buf.clear();
+            UdpCompactProtocol.encodeDouble(buf, 1, Double.longBitsToDouble(bits), ref, 0, false);
+            buf.flip();
+            UdpCompactProtocol.decodeKey(buf);
+            UdpCompactProtocol.decodeTag(buf);
+            UdpCompactProtocol.decodeGeneration(buf);
+            assertEquals(bits, UdpCompactProtocol.decodeField(buf, true, ref[0]));
+        }
+    }
+
+    @Test
+    void testOverflow() {
+        ByteBuffer buf = ByteBuffer.allocate(10);
+        long[] ref = new long[1];
+        assertFalse(UdpCompactProtocol.encodeDouble(buf, 1, 1.0, ref, 0, true));
+        assertEquals(0, buf.position());
+        assertEquals(0, ref[0]);
+    }
+
+    /** Labels the receiver has acked are not sent again. */
+    @Test
+    void testLabelAcks() throws ProtocolException {
+        List<ByteBuffer> sent = new ArrayList<>();
+        ByteBuffer[] ack = new ByteBuffer[1];
+        UdpPrimitiveLogger logger = new UdpPrimitiveLogger(x -> {
+        }, x -> {
+            ByteBuffer copy = ByteBuffer.allocate(x.remaining());
+            copy.put(x.duplicate());
+            copy.flip();
+            sent.add(copy);
+        });
+        logger.useLabelAcks(dst -> {
+            if (ack[0] == null)
+                return 0;
+            int n = ack[0].remaining();
+            dst.put(ack[0]);
+            ack[0] = null;
+            return n;
+        });
+        for (int i = 0; i < 10; ++i) {
+            logger.doubleLogger("key" + i);
+        }
+        logger.dumpLabels();
+        assertEquals(10, countLabels(sent.remove(0)));
+
+        // receiver has the first 4
+        ack[0] = ByteBuffer.allocate(12);
+        UdpMetadataProtocol.encodeAck(ack[0], UdpMetadataProtocol.timestamp, 4);
+        ack[0].flip();
+        logger.dumpLabels();
+        assertEquals(6, countLabels(sent.remove(0)));
+
+        // receiver has them all, so just the timestamp
+        ack[0] = ByteBuffer.allocate(12);
+        UdpMetadataProtocol.encodeAck(ack[0], UdpMetadataProtocol.timestamp, 10);
+        ack[0].flip();
+        logger.dumpLabels();
+        assertEquals(0, countLabels(sent.remove(0)));
+        logger.dumpLabels();
+        assertEquals(0, countLabels(sent.remove(0)));
+
+        // a new label
+        logger.doubleLogger("key10");
+        logger.dumpLabels();
+        assertEquals(1, countLabels(sent.remove(0)));
+    }
+
+    private static int countLabels(ByteBuffer buf) throws ProtocolException {
+        UdpPrimitiveProtocol.decodeLong(buf);
+        int n = 0;
+        while (buf.hasRemaining()) {
+            UdpPrimitiveProtocol.decodeKey(buf);
+            UdpPrimitiveProtocol.decodeType(buf);
+            UdpPrimitiveProtocol.decodeString(buf);
+            ++n;
+        }
+        return n;
+    }
+}
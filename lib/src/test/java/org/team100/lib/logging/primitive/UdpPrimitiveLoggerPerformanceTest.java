@@ -0,0 +1,62 @@
+package org.team100.lib.logging.primitive;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveDoubleLogger;
+
+/**
+ * Flush time versus the number of registered keys, with a few of them, or all
+ * of them, changing each cycle.
+ * 
+ * Flushing should scale with the number of changed values, so the "sparse"
+ * case should be about the same at any number of keys.
+ */
+class UdpPrimitiveLoggerPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final int ITERATIONS = 2000;
+    /** Values changed per cycle in the sparse case. */
+    private static final int SPARSE = 100;
+
+    @Test
+    void testFlush() {
+        for (int keys : new int[] { 1000, 10000, 50000 }) {
+            measure(keys, SPARSE);
+            measure(keys, keys);
+        }
+    }
+
+    private static void measure(int keys, int dirty) {
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(x -> {
+        }, x -> {
+        });
+        PrimitiveDoubleLogger[] loggers = new PrimitiveDoubleLogger[keys];
+        for (int j = 0; j < keys; ++j) {
+            loggers[j] = l.doubleLogger("doublekey" + j);
+        }
+        final int stride = keys / dirty;
+        // warm up
+        for (int i = 0; i < ITERATIONS; ++i) {
+            cycle(l, loggers, stride, i);
+        }
+        long flushNs = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            for (int j = 0; j < keys; j += stride) {
+                loggers[j].log(i);
+            }
+            long t0 = System.nanoTime();
+            l.flush();
+            flushNs += System.nanoTime() - t0;
+        }
+        if (PRINT)
+            System.out.printf("keys %6d dirty %6d flush us %8.3f ns/dirty key %6.1f\n",
+                    keys, dirty,
+                    flushNs / 1000.0 / ITERATIONS,
+                    (double) flushNs / ITERATIONS / dirty);
+    }
+
+    private static void cycle(UdpPrimitiveLogger l, PrimitiveDoubleLogger[] loggers, int stride, int i) {
+        for (int j = 0; j < loggers.length; j += stride) {
+            loggers[j].log(i);
+        }
+        l.flush();
+    }
+}
@@ -15,6 +15,7 @@ import org.team100.lib.logging.LoggerFactory.DoubleArrayLogger;
 import org.team100.lib.logging.LoggerFactory.DoubleLogger;
 import org.team100.lib.logging.LoggerFactory.IntLogger;
 import org.team100.lib.logging.LoggerFactory.LongLogger;
+import org.team100.lib.logging.LoggerFactory.Pose2dLogger;
 import org.team100.lib.logging.LoggerFactory.StringLogger;
 import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveBooleanLogger;
 import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveIntLogger;
@@ -447,4 +448,71 @@ class UdpPrimitiveLoggerTest {
         assertEquals((byte) 111, b[22]);// "o"
         assertEquals((byte) 111, b[23]);// "o"
     }
+
+    @Test
+    void testStructToBuffer() {
+        UdpPrimitiveLogger udpLogger = new UdpPrimitiveLogger(x -> bb = x, x -> mb = x);
+        LoggerFactory logger = new LoggerFactory(() -> Level.COMP, "root", udpLogger);
+        Pose2dLogger poseLogger = logger.pose2dLogger(Level.COMP, "pose");
+        poseLogger.log(1, 2, 3);
+        udpLogger.flush();
+        // one key for the whole pose, instead of one per field
+        assertEquals(1, udpLogger.metadata.size());
+        assertEquals("root/pose", udpLogger.metadata.get(0).label());
+        // timestamp, key, type, three doubles
+        assertEquals(35, bb.remaining());
+        bb.get(new byte[8]); // skip
+        HexFormat hex = HexFormat.of();
+        String expectedStr = "0001" // key
+                + "07" // type = pose2d
+                + "3ff0000000000000" // x
+                + "4000000000000000" // y
+                + "4008000000000000"; // theta
+        byte[] actualBB = new byte[27];
+        bb.get(actualBB);
+        assertArrayEquals(hex.parseHex(expectedStr), actualBB);
+    }
+
+    @Test
+    void testStructExpansion() {
+        // loggers without struct support get one key per field, as before.
+        TestPrimitiveLogger test = new TestPrimitiveLogger();
+        LoggerFactory logger = new LoggerFactory(() -> Level.COMP, "root", test);
+        logger.pose2dLogger(Level.COMP, "pose").log(1, 2, 3);
+        assertEquals(3, test.keyCount());
+    }
+
+    @Test
+    void testNewestWins() {
+        UdpPrimitiveLogger l = new UdpPrimitiveLogger(x -> bb = x, x -> mb = x);
+        PrimitiveIntLogger a = l.intLogger("a");
+        PrimitiveIntLogger b = l.intLogger("b");
+        PrimitiveIntLogger c = l.intLogger("c");
+        a.log(1); // overwritten
+        c.log(3);
+        a.log(2);
+        l.flush();
+        // timestamp, then a and c once each, b is clean.
+        assertEquals(22, bb.remaining());
+        bb.get(new byte[8]); // skip
+        HexFormat hex = HexFormat.of();
+        String expectedStr = "0001" // key a
+                + "03" // type = int
+                + "00000002" // newest value
+                + "0003" // key c
+                + "03" // type = int
+                + "00000003"; // value
+        byte[] actualBB = new byte[14];
+        bb.get(actualBB);
+        assertArrayEquals(hex.parseHex(expectedStr), actualBB);
+
+        // nothing changed, so nothing but the timestamp.
+        l.flush();
+        assertEquals(8, bb.remaining());
+
+        // dirty again after flush
+        b.log(4);
+        l.flush();
+        assertEquals(15, bb.remaining());
+    }
 }
@@ -425,4 +425,48 @@ class UdpPrimitiveProtocol2Test {
         assertEquals((byte) 0, b[3]); //
         assertEquals((byte) 0, b[4]); //
     }
+
+    @Test
+    void testStruct() throws ProtocolException {
+        byte[] b = new byte[32];
+        ByteBuffer bb = ByteBuffer.wrap(b);
+        bb.position(2);
+        int len = UdpPrimitiveProtocol.encodeStruct(bb, 16, UdpType.POSE2D, new double[] { 1.0, 2.0, 3.0 });
+        // key, type, three doubles, no length
+        assertEquals(27, len);
+        assertEquals((byte) 0, b[2]); // key high byte
+        assertEquals((byte) 16, b[3]); // key low byte
+        assertEquals((byte) 7, b[4]); // type
+        assertEquals((byte) 0x3f, b[5]); // 1.0
+        assertEquals((byte) 0xf0, b[6]);
+
+        bb.rewind();
+        bb.position(2);
+        assertEquals(16, UdpPrimitiveProtocol.decodeKey(bb));
+        assertEquals(UdpType.POSE2D, UdpPrimitiveProtocol.decodeType(bb));
+        double[] v = new double[3];
+        UdpPrimitiveProtocol.decodeStruct(bb, UdpType.POSE2D, v);
+        assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, v);
+        assertEquals(29, bb.position());
+    }
+
+    @Test
+    void testStructTooLong() {
+        ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
+        assertEquals(0, UdpPrimitiveProtocol.encodeStruct(bb, 16, UdpType.POSE2D, new double[3]));
+        assertEquals(0, bb.position());
+    }
+
+    @Test
+    void testStructUnderflow() {
+        ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
+        assertThrows(ProtocolException.class,
+                () -> UdpPrimitiveProtocol.decodeStruct(bb, UdpType.POSE2D, new double[3]));
+    }
+
+    @Test
+    void testTypeBounds() {
+        assertEquals(UdpType.UNKNOWN, UdpType.get((byte) UdpType.values().length));
+        assertEquals(UdpType.SWERVE_MODEL, UdpType.get((byte) (UdpType.values().length - 1)));
+    }
 }
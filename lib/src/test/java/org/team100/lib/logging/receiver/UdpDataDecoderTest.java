@@ -0,0 +1,173 @@
+package org.team100.lib.logging.receiver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveBooleanLogger;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveDoubleLogger;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveIntLogger;
+import org.team100.lib.logging.primitive.PrimitiveLogger.PrimitiveStructLogger;
+import org.team100.lib.logging.primitive.UdpPrimitiveLogger;
+import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
+import org.team100.lib.logging.primitive.UdpType;
+
+/** Logger to decoder, in both encodings. */
+class UdpDataDecoderTest {
+    private static final boolean PRINT = false;
+
+    /** Keeps the newest value for each key. */
+    private static class Recorder extends DummyUdpConsumers {
+        final Map<Integer, Object> values = new HashMap<>();
+
+        @Override
+        public void acceptBoolean(int key, boolean val) {
+            values.put(key, val);
+        }
+
+        @Override
+        public void acceptDouble(int key, double val) {
+            values.put(key, val);
+        }
+
+        @Override
+        public void acceptInt(int key, int val) {
+            values.put(key, val);
+        }
+
+        @Override
+        public void acceptStruct(int key, UdpType type, double[] val) {
+            values.put(key, val.clone());
+        }
+    }
+
+    /** A robot-ish mix of keys, logged for some cycles. */
+    private static class Robot {
+        final List<ByteBuffer> packets = new ArrayList<>();
+        final UdpPrimitiveLogger logger;
+        final PrimitiveDoubleLogger[] doubles = new PrimitiveDoubleLogger[100];
+        final PrimitiveBooleanLogger[] booleans = new PrimitiveBooleanLogger[20];
+        final PrimitiveIntLogger[] ints = new PrimitiveIntLogger[10];
+        final PrimitiveStructLogger[] poses = new PrimitiveStructLogger[10];
+
+        Robot(boolean compact) {
+            logger = new UdpPrimitiveLogger(x -> {
+                ByteBuffer copy = ByteBuffer.allocate(x.remaining());
+                copy.put(x.duplicate());
+                copy.flip();
+                packets.add(copy);
+            }, x -> {
+            });
+            logger.setCompact(compact);
+            for (int i = 0; i < doubles.length; ++i)
+                doubles[i] = logger.doubleLogger("double" + i);
+            for (int i = 0; i < booleans.length; ++i)
+                booleans[i] = logger.booleanLogger("boolean" + i);
+            for (int i = 0; i < ints.length; ++i)
+                ints[i] = logger.intLogger("int" + i);
+            for (int i = 0; i < poses.length; ++i)
+                poses[i] = logger.structLogger(UdpType.POSE2D, "pose" + i);
+        }
+
+        /**
+         * Half the doubles are constants, like config, the other half are
+         * measurements that change a little each cycle.
+         */
+        void cycle(int t) {
+            for (int i = 0; i < doubles.length; ++i)
+                doubles[i].log(i % 2 == 0 ? i : Math.sin(0.02 * t + i));
+            for (int i = 0; i < booleans.length; ++i)
+                booleans[i].log((t / 50 + i) % 2 == 0);
+            for (int i = 0; i < ints.length; ++i)
+                ints[i].log(t % 100 - 50);
+            for (int i = 0; i < poses.length; ++i)
+                poses[i].log(new double[] { 0.01 * t, 2.0, 0.1 });
+            logger.flush();
+        }
+    }
+
+    private static void decode(UdpDataDecoder decoder, ByteBuffer packet) throws ProtocolException {
+        ByteBuffer buf = packet.duplicate();
+        decoder.validateTimestamp(buf);
+        while (buf.remaining() > 0) {
+            decoder.decode(buf);
+        }
+    }
+
+    private static int bytes(List<ByteBuffer> packets) {
+        int total = 0;
+        for (ByteBuffer b : packets)
+            total += b.remaining();
+        return total;
+    }
+
+    /** Both encodings decode to the same values; compact is smaller. */
+    @Test
+    void testCompact() throws ProtocolException {
+        Robot plain = new Robot(false);
+        Robot compact = new Robot(true);
+        Recorder plainValues = new Recorder();
+        Recorder compactValues = new Recorder();
+        UdpDataDecoder plainDecoder = new UdpDataDecoder(plainValues);
+        UdpDataDecoder compactDecoder = new UdpDataDecoder(compactValues);
+        for (int t = 0; t < 200; ++t) {
+            plain.cycle(t);
+            compact.cycle(t);
+            for (ByteBuffer p : plain.packets)
+                decode(plainDecoder, p);
+            for (ByteBuffer p : compact.packets)
+                decode(compactDecoder, p);
+            assertEquals(plainValues.values.size(), compactValues.values.size());
+            for (Map.Entry<Integer, Object> e : plainValues.values.entrySet()) {
+                Object c = compactValues.values.get(e.getKey());
+                if (e.getValue() instanceof double[] d)
+                    assertEquals(Arrays.toString(d), Arrays.toString((double[]) c));
+                else
+                    assertEquals(e.getValue(), c);
+            }
+            if (t == 199) {
+                int plainBytes = bytes(plain.packets);
+                int compactBytes = bytes(compact.packets);
+                if (PRINT)
+                    System.out.printf("bytes per cycle plain %d compact %d\n", plainBytes, compactBytes);
+                // noisy measurements don't compress much; the rest does.
+                assertTrue(3 * compactBytes < 2 * plainBytes);
+            }
+            plain.packets.clear();
+            compact.packets.clear();
+        }
+    }
+
+    /** Deltas against a lost full value are dropped, not decoded wrong. */
+    @Test
+    void testLoss() throws ProtocolException {
+        Robot compact = new Robot(true);
+        Recorder values = new Recorder();
+        UdpDataDecoder decoder = new UdpDataDecoder(values);
+        // the first cycle is all full values; lose it.
+        compact.cycle(0);
+        compact.packets.clear();
+        for (int t = 1; t < 16; ++t) {
+            compact.cycle(t);
+            for (ByteBuffer p : compact.packets)
+                decode(decoder, p);
+            compact.packets.clear();
+            // booleans and ints don't depend on anything.
+            assertEquals(30, values.values.size());
+        }
+        // the next full value
+        compact.cycle(16);
+        for (ByteBuffer p : compact.packets)
+            decode(decoder, p);
+        assertEquals(140, values.values.size());
+        // key 2 is the second double, sin(0.02 * 16 + 1)
+        assertEquals(Math.sin(0.32 + 1), (double) values.values.get(2), 0);
+    }
+}
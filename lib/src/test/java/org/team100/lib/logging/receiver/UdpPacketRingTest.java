@@ -0,0 +1,68 @@
+package org.team100.lib.logging.receiver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class UdpPacketRingTest {
+    @Test
+    void testSize() {
+        assertThrows(IllegalArgumentException.class, () -> new UdpPacketRing(3));
+    }
+
+    @Test
+    void testFull() {
+        UdpPacketRing ring = new UdpPacketRing(2);
+        assertNull(ring.poll());
+        for (int i = 0; i < 2; ++i) {
+            ByteBuffer buf = ring.claim();
+            assertNotNull(buf);
+            buf.putInt(i);
+            buf.flip();
+            ring.publish();
+        }
+        assertNull(ring.claim());
+        assertEquals(0, ring.poll().getInt());
+        ring.release();
+        // the released slot is reused
+        ByteBuffer buf = ring.claim();
+        assertNotNull(buf);
+        buf.putInt(2);
+        buf.flip();
+        ring.publish();
+        assertEquals(1, ring.poll().getInt());
+        ring.release();
+        assertEquals(2, ring.poll().getInt());
+        ring.release();
+        assertNull(ring.poll());
+    }
+
+    /** Everything arrives, in order, across threads. */
+    @Test
+    void testThreads() throws InterruptedException {
+        final int n = 100000;
+        UdpPacketRing ring = new UdpPacketRing(16);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < n; ++i) {
+                ByteBuffer buf;
+                while ((buf = ring.claim()) == null)
+                    Thread.onSpinWait();
+                buf.putInt(i);
+                buf.flip();
+                ring.publish();
+            }
+        });
+        producer.start();
+        for (int i = 0; i < n; ++i) {
+            assertEquals(i, ring.take().getInt());
+            ring.release();
+        }
+        producer.join();
+        assertEquals(0, ring.dropped());
+    }
+}
@@ -0,0 +1,214 @@
+package org.team100.lib.logging.receiver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.UdpPrimitiveProtocol.ProtocolException;
+import org.team100.lib.logging.primitive.UdpSender;
+import org.team100.lib.logging.primitive.UdpType;
+
+/**
+ * Keys per second through the receiver, replaying the same packets: first
+ * just the decoder, in memory, then over loopback, both the old way (read and
+ * decode on one thread) and through the ring.
+ *
+ * Over loopback the sender can outrun the receiver, so some packets are
+ * dropped; the point is how many keys get through.
+ */
+class UdpReceiverPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final long kTimestamp = 1234567890L;
+    private static final int PACKETS = 256;
+    private static final int REPLAYS = 200;
+
+    /** Counts everything, does nothing else. */
+    private static class CountingConsumers implements UdpConsumersInterface {
+        volatile long count;
+
+        @Override
+        public boolean validateTimestamp(long timestamp) {
+            return timestamp == kTimestamp;
+        }
+
+        @Override
+        public void acceptBoolean(int key, boolean val) {
+            count++;
+        }
+
+        @Override
+        public void acceptDouble(int key, double val) {
+            count++;
+        }
+
+        @Override
+        public void acceptInt(int key, int val) {
+            count++;
+        }
+
+        @Override
+        public void acceptDoubleArray(int key, double[] val) {
+            count++;
+        }
+
+        @Override
+        public void acceptString(int key, String val) {
+            count++;
+        }
+
+        @Override
+        public void acceptStruct(int key, UdpType type, double[] val) {
+            count++;
+        }
+
+        @Override
+        public void acceptMeta(int key, UdpType type, String val) {
+            count++;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Full packets of doubles, in the wire format UdpPrimitiveProtocol writes:
+     * timestamp, then key, type, value.
+     */
+    private static ByteBuffer[] packets() {
+        ByteBuffer[] packets = new ByteBuffer[PACKETS];
+        int key = 0;
+        for (int i = 0; i < PACKETS; ++i) {
+            ByteBuffer b = ByteBuffer.allocateDirect(UdpSender.MTU);
+            b.order(ByteOrder.BIG_ENDIAN);
+            b.putLong(kTimestamp);
+            while (b.remaining() >= 11) {
+                b.putChar((char) (key++ % 5000));
+                b.put(UdpType.DOUBLE.id);
+                b.putDouble(key);
+            }
+            b.flip();
+            packets[i] = b;
+        }
+        return packets;
+    }
+
+    private static int keysPerPacket() {
+        return (UdpSender.MTU - 8) / 11;
+    }
+
+    @Test
+    void testDecode() throws ProtocolException {
+        ByteBuffer[] packets = packets();
+        CountingConsumers consumers = new CountingConsumers();
+        UdpDataDecoder decoder = new UdpDataDecoder(consumers);
+        // warm up
+        decodeAll(decoder, packets);
+        consumers.count = 0;
+        long t0 = System.nanoTime();
+        decodeAll(decoder, packets);
+        long t1 = System.nanoTime();
+        assertEquals((long) REPLAYS * PACKETS * keysPerPacket(), consumers.count);
+        if (PRINT)
+            System.out.printf("decode only: keys/sec %.3e\n", 1e9 * consumers.count / (t1 - t0));
+    }
+
+    private static void decodeAll(UdpDataDecoder decoder, ByteBuffer[] packets) throws ProtocolException {
+        for (int r = 0; r < REPLAYS; ++r) {
+            for (ByteBuffer p : packets) {
+                ByteBuffer buf = p.duplicate();
+                decoder.validateTimestamp(buf);
+                while (buf.remaining() > 0) {
+                    decoder.decode(buf);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLoopbackInline() throws Exception {
+        CountingConsumers consumers = new CountingConsumers();
+        UdpDataDecoder decoder = new UdpDataDecoder(consumers);
+        DatagramChannel channel = bind();
+        Thread reader = new Thread(() -> {
+            ByteBuffer buf = ByteBuffer.allocateDirect(UdpSender.MTU);
+            try {
+                while (true) {
+                    buf.clear();
+                    channel.receive(buf);
+                    buf.flip();
+                    if (!decoder.validateTimestamp(buf))
+                        return;
+                    while (buf.remaining() > 0) {
+                        decoder.decode(buf);
+                    }
+                }
+            } catch (IOException | ProtocolException e) {
+                // closed
+            }
+        });
+        reader.start();
+        long ns = send(channel);
+        channel.close();
+        reader.join();
+        if (PRINT)
+            System.out.printf("inline: keys/sec %.3e received %d of %d\n",
+                    1e9 * consumers.count / ns, consumers.count, (long) REPLAYS * PACKETS * keysPerPacket());
+    }
+
+    @Test
+    void testLoopbackRing() throws Exception {
+        CountingConsumers consumers = new CountingConsumers();
+        UdpDataDecoder decoder = new UdpDataDecoder(consumers);
+        DatagramChannel channel = bind();
+        UdpPacketRing ring = new UdpPacketRing(1024);
+        Thread reader = new Thread(new UdpDataReader(channel, ring));
+        Thread decoderLoop = new Thread(new UdpDataDecoderLoop(ring, decoder));
+        decoderLoop.start();
+        reader.start();
+        long ns = send(channel);
+        channel.close();
+        reader.join();
+        // let the decoder catch up
+        Thread.sleep(100);
+        decoderLoop.interrupt();
+        decoderLoop.join();
+        if (PRINT)
+            System.out.printf("ring: keys/sec %.3e received %d of %d ring drops %d\n",
+                    1e9 * consumers.count / ns, consumers.count, (long) REPLAYS * PACKETS * keysPerPacket(),
+                    ring.dropped());
+    }
+
+    private static DatagramChannel bind() throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.configureBlocking(true);
+        channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        return channel;
+    }
+
+    /** @return elapsed ns, including a short wait for the receiver to drain. */
+    private static long send(DatagramChannel receiver) throws IOException, InterruptedException {
+        ByteBuffer[] packets = packets();
+        try (DatagramChannel sender = DatagramChannel.open()) {
+            sender.connect(receiver.getLocalAddress());
+            long t0 = System.nanoTime();
+            for (int r = 0; r < REPLAYS; ++r) {
+                for (ByteBuffer p : packets) {
+                    sender.write(p.duplicate());
+                }
+            }
+            Thread.sleep(100);
+            return System.nanoTime() - t0;
+        }
+    }
+}
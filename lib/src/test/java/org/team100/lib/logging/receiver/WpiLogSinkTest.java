@@ -0,0 +1,193 @@
+package org.team100.lib.logging.receiver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.primitive.UdpType;
+
+class WpiLogSinkTest {
+    private static final boolean PRINT = false;
+
+    /** Just enough of a .wpilog reader to check the records. */
+    private record Rec(int entry, long timestamp, byte[] payload) {
+        ByteBuffer buf() {
+            return ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        String startName() {
+            ByteBuffer b = buf();
+            assertEquals(0, b.get());
+            b.getInt();
+            byte[] name = new byte[b.getInt()];
+            b.get(name);
+            return new String(name, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<Rec> read(Path file) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[6];
+        b.get(magic);
+        assertEquals("WPILOG", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(0x0100, b.getShort());
+        int extra = b.getInt();
+        b.position(b.position() + extra);
+        List<Rec> recs = new ArrayList<>();
+        while (b.hasRemaining()) {
+            int bits = b.get();
+            int entry = (int) little(b, (bits & 3) + 1);
+            int size = (int) little(b, ((bits >> 2) & 3) + 1);
+            long timestamp = little(b, ((bits >> 4) & 7) + 1);
+            byte[] payload = new byte[size];
+            b.get(payload);
+            recs.add(new Rec(entry, timestamp, payload));
+        }
+        return recs;
+    }
+
+    private static long little(ByteBuffer b, int bytes) {
+        long val = 0;
+        for (int i = 0; i < bytes; ++i) {
+            val |= (b.get() & 0xffL) << (8 * i);
+        }
+        return val;
+    }
+
+    @Test
+    void testWriter() throws IOException {
+        Path file = Files.createTempDirectory("wpilog").resolve("test.wpilog");
+        try (WpiLogWriter w = new WpiLogWriter(file, "extra")) {
+            w.start(1, "a", "double", 5);
+            w.start(70000, "b", "boolean", 5);
+            w.appendDouble(1, 300, 1.5);
+            w.appendBoolean(70000, 1L << 40, true);
+            w.appendDoubleArray(1, 0, new double[] { 1, 2 });
+        }
+        List<Rec> recs = read(file);
+        assertEquals(5, recs.size());
+        assertEquals(0, recs.get(0).entry());
+        assertEquals(5, recs.get(0).timestamp());
+        assertEquals("a", recs.get(0).startName());
+        assertEquals("b", recs.get(1).startName());
+        assertEquals(1, recs.get(2).entry());
+        assertEquals(300, recs.get(2).timestamp());
+        assertEquals(1.5, recs.get(2).buf().getDouble());
+        assertEquals(70000, recs.get(3).entry());
+        assertEquals(1L << 40, recs.get(3).timestamp());
+        assertEquals(1, recs.get(3).payload()[0]);
+        assertEquals(16, recs.get(4).payload().length);
+        assertEquals(2.0, recs.get(4).buf().getDouble(8));
+    }
+
+    @Test
+    void testSink() throws IOException {
+        Path dir = Files.createTempDirectory("wpilog");
+        WpiLogSink sink = new WpiLogSink(dir);
+        UdpConsumersInterface meta = sink.meta();
+        UdpConsumersInterface data = sink.data();
+        meta.validateTimestamp(1000);
+        meta.acceptMeta(1, UdpType.DOUBLE, "foo");
+        meta.acceptMeta(2, UdpType.TRANSLATION2D, "bar");
+        // labels are picked up at the start of the packet.
+        data.validateTimestamp(1000);
+        data.acceptDouble(1, 2.0);
+        data.acceptStruct(2, UdpType.TRANSLATION2D, new double[] { 3, 4 });
+        // no label, ignored
+        data.acceptDouble(3, 5.0);
+        // new session, new file
+        data.validateTimestamp(2000);
+        data.acceptDouble(1, 6.0);
+        data.close();
+
+        Path first;
+        Path second;
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> list = files.sorted().toList();
+            assertEquals(2, list.size());
+            first = list.get(0);
+            second = list.get(1);
+        }
+        assertEquals("FRC_19700101_001640.wpilog", first.getFileName().toString());
+        List<Rec> recs = read(first);
+        assertEquals(6, recs.size());
+        assertEquals("foo", recs.get(0).startName());
+        assertEquals("bar/x", recs.get(1).startName());
+        assertEquals("bar/y", recs.get(2).startName());
+        assertEquals(1, recs.get(3).entry());
+        assertEquals(2.0, recs.get(3).buf().getDouble());
+        assertEquals(2, recs.get(4).entry());
+        assertEquals(3.0, recs.get(4).buf().getDouble());
+        assertEquals(3, recs.get(5).entry());
+        assertEquals(4.0, recs.get(5).buf().getDouble());
+        // the label was for the first session
+        assertTrue(read(second).isEmpty());
+    }
+
+    /** Labels may come once, ahead of the data for their session. */
+    @Test
+    void testEarlyLabel() throws IOException {
+        Path dir = Files.createTempDirectory("wpilog");
+        WpiLogSink sink = new WpiLogSink(dir);
+        UdpConsumersInterface meta = sink.meta();
+        UdpConsumersInterface data = sink.data();
+        data.validateTimestamp(1000);
+        meta.validateTimestamp(2000);
+        meta.acceptMeta(1, UdpType.DOUBLE, "foo");
+        // still the old session
+        data.validateTimestamp(1000);
+        data.acceptDouble(1, 1.0);
+        data.validateTimestamp(2000);
+        data.acceptDouble(1, 2.0);
+        data.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> list = files.sorted().toList();
+            assertTrue(read(list.get(0)).isEmpty());
+            List<Rec> recs = read(list.get(1));
+            assertEquals(2, recs.size());
+            assertEquals("foo", recs.get(0).startName());
+            assertEquals(2.0, recs.get(1).buf().getDouble());
+        }
+    }
+
+    @Test
+    void testPerformance() throws IOException {
+        final int packets = 100000;
+        final int keys = 130;
+        Path dir = Files.createTempDirectory("wpilog");
+        WpiLogSink sink = new WpiLogSink(dir);
+        UdpConsumersInterface meta = sink.meta();
+        UdpConsumersInterface data = sink.data();
+        meta.validateTimestamp(1000);
+        for (int k = 1; k <= keys; ++k) {
+            meta.acceptMeta(k, UdpType.DOUBLE, "key" + k);
+        }
+        long t0 = System.nanoTime();
+        for (int p = 0; p < packets; ++p) {
+            data.validateTimestamp(1000);
+            for (int k = 1; k <= keys; ++k) {
+                data.acceptDouble(k, p);
+            }
+            data.flush();
+        }
+        data.close();
+        long t1 = System.nanoTime();
+        long bytes;
+        try (Stream<Path> files = Files.list(dir)) {
+            bytes = Files.size(files.findFirst().orElseThrow());
+        }
+        if (PRINT)
+            System.out.printf("values/sec %.3e MB/sec %.1f\n",
+                    1e9 * packets * keys / (t1 - t0), 1e3 * bytes / (t1 - t0));
+    }
+}
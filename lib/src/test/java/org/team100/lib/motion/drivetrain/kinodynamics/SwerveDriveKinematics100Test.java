@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
+import java.util.Random;
 
+import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.util.DriveUtil;
@@ -17,6 +19,7 @@ import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 
 class SwerveDriveKinematics100Test {
+    private static final boolean PRINT = false;
     private static final double kDelta = 0.001;
 
     @Test
@@ -700,4 +703,123 @@ class SwerveDriveKinematics100Test {
                 () -> assertEquals(-1.0, arr.rearLeft().speedMetersPerSecond, kEpsilon),
                 () -> assertEquals(-1.0, arr.rearRight().speedMetersPerSecond, kEpsilon));
     }
+
+    /** A lopsided drivetrain, so the forward matrix isn't all quarters. */
+    private static SwerveDriveKinematics100 lopsided() {
+        return new SwerveDriveKinematics100(
+                new Translation2d(0.3, 0.25),
+                new Translation2d(0.3, -0.25),
+                new Translation2d(-0.2, 0.25),
+                new Translation2d(-0.2, -0.25));
+    }
+
+    /** The primitive inverse should match the matrix. */
+    @Test
+    void testModuleVectorMatchesMatrix() {
+        SwerveDriveKinematics100 kinematics = lopsided();
+        Random random = new Random(0);
+        double[] moduleVector = new double[8];
+        for (int i = 0; i < 1000; ++i) {
+            double vx = 10 * random.nextGaussian();
+            double vy = 10 * random.nextGaussian();
+            double omega = 10 * random.nextGaussian();
+            SimpleMatrix expected = kinematics.m_inverseKinematics.mult(
+                    new SimpleMatrix(new double[] { vx, vy, omega }));
+            kinematics.toModuleVector(vx, vy, omega, moduleVector);
+            for (int j = 0; j < 8; ++j) {
+                assertEquals(expected.get(j, 0), moduleVector[j], 1e-12);
+            }
+        }
+    }
+
+    /** The primitive forward should match the matrix. */
+    @Test
+    void testChassisSpeedsMatchesMatrix() {
+        SwerveDriveKinematics100 kinematics = lopsided();
+        Random random = new Random(0);
+        double[] moduleVector = new double[8];
+        double[] speeds = new double[3];
+        for (int i = 0; i < 1000; ++i) {
+            for (int j = 0; j < 8; ++j) {
+                moduleVector[j] = 10 * random.nextGaussian();
+            }
+            SimpleMatrix expected = kinematics.m_forwardKinematics.mult(
+                    new SimpleMatrix(8, 1, true, moduleVector));
+            kinematics.toChassisSpeeds(moduleVector, speeds);
+            for (int j = 0; j < 3; ++j) {
+                assertEquals(expected.get(j, 0), speeds[j], 1e-12);
+            }
+        }
+    }
+
+    /** Other than four modules uses the loop. */
+    @Test
+    void testThreeModules() {
+        SwerveDriveKinematics100 kinematics = new SwerveDriveKinematics100(
+                new Translation2d(0.3, 0),
+                new Translation2d(-0.2, 0.25),
+                new Translation2d(-0.2, -0.25));
+        double[] moduleVector = new double[6];
+        kinematics.toModuleVector(1, 2, 3, moduleVector);
+        SimpleMatrix expected = kinematics.m_inverseKinematics.mult(
+                new SimpleMatrix(new double[] { 1, 2, 3 }));
+        for (int j = 0; j < 6; ++j) {
+            assertEquals(expected.get(j, 0), moduleVector[j], 1e-12);
+        }
+        double[] speeds = new double[3];
+        kinematics.toChassisSpeeds(moduleVector, speeds);
+        assertEquals(1, speeds[0], 1e-12);
+        assertEquals(2, speeds[1], 1e-12);
+        assertEquals(3, speeds[2], 1e-12);
+    }
+
+    /** The object methods use the primitive path; they should agree. */
+    @Test
+    void testObjectMatchesPrimitive() {
+        SwerveDriveKinematics100 kinematics = lopsided();
+        ChassisSpeeds speeds = new ChassisSpeeds(1, -2, 3);
+        SwerveModuleStates states = kinematics.toSwerveModuleStates(speeds);
+        double[] moduleVector = new double[8];
+        kinematics.toModuleVector(1, -2, 3, moduleVector);
+        SwerveModuleState100[] all = states.all();
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(Math.hypot(moduleVector[2 * i], moduleVector[2 * i + 1]),
+                    all[i].speedMetersPerSecond, 1e-12);
+        }
+        ChassisSpeeds back = kinematics.toChassisSpeeds(states);
+        assertEquals(1, back.vxMetersPerSecond, 1e-12);
+        assertEquals(-2, back.vyMetersPerSecond, 1e-12);
+        assertEquals(3, back.omegaRadiansPerSecond, 1e-12);
+    }
+
+    /** Matrix vs primitive, per call. */
+    @Test
+    void testPerformance() {
+        SwerveDriveKinematics100 kinematics = lopsided();
+        final int ITERATIONS = 1000000;
+        double[] moduleVector = new double[8];
+        double[] speeds = new double[3];
+        double sum = 0;
+        for (int round = 0; round < 2; ++round) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; ++i) {
+                SimpleMatrix m = kinematics.m_inverseKinematics.mult(
+                        new SimpleMatrix(new double[] { i, 1, 2 }));
+                SimpleMatrix c = kinematics.m_forwardKinematics.mult(m);
+                sum += c.get(0, 0);
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; ++i) {
+                kinematics.toModuleVector(i, 1, 2, moduleVector);
+                kinematics.toChassisSpeeds(moduleVector, speeds);
+                sum += speeds[0];
+            }
+            long t2 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("matrix ns %6.1f primitive ns %6.1f (%f)\n",
+                        (double) (t1 - t0) / ITERATIONS,
+                        (double) (t2 - t1) / ITERATIONS,
+                        sum);
+        }
+    }
 }
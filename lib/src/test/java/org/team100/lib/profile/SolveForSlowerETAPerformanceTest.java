@@ -0,0 +1,75 @@
+package org.team100.lib.profile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.state.Model100;
+import org.team100.lib.util.Util;
+
+/** Compare the closed-form ETA solver with the root finder. */
+class SolveForSlowerETAPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final double kDt = 0.02;
+    private static final double kTol = 0.01;
+    private static final double kEtaTolerance = 0.02;
+
+    /**
+     * Random initial and goal states, and random desired ETA's that are slower
+     * than the fastest one.
+     */
+    @Test
+    void testPerformance() {
+        final int N = 2000;
+        Random random = new Random(0);
+        Model100[] initial = new Model100[N];
+        Model100[] goal = new Model100[N];
+        double[] eta = new double[N];
+        TrapezoidProfile100 p = new TrapezoidProfile100(1, 1, kTol);
+        for (int i = 0; i < N; ++i) {
+            initial[i] = new Model100(4 * random.nextDouble() - 2, 2 * random.nextDouble() - 1);
+            goal[i] = new Model100(4 * random.nextDouble() - 2, 2 * random.nextDouble() - 1);
+            double fastest = p.calculateWithETA(kDt, initial[i], goal[i]).etaS();
+            eta[i] = fastest * (1 + 3 * random.nextDouble());
+        }
+
+        // warm up
+        for (int i = 0; i < N; ++i) {
+            TrapezoidProfile100.solveForSlowerETA(1, 1, kTol, kDt, initial[i], goal[i], eta[i], kEtaTolerance);
+            TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, kTol, kDt, initial[i], goal[i], eta[i],
+                    kEtaTolerance);
+        }
+
+        int rootHits = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < N; ++i) {
+            double s = TrapezoidProfile100.solveForSlowerETA(
+                    1, 1, kTol, kDt, initial[i], goal[i], eta[i], kEtaTolerance);
+            if (hit(p, s, initial[i], goal[i], eta[i]))
+                rootHits++;
+        }
+        long t1 = System.nanoTime();
+        int closedHits = 0;
+        for (int i = 0; i < N; ++i) {
+            double s = TrapezoidProfile100.solveForSlowerETAClosedForm(
+                    1, 1, kTol, kDt, initial[i], goal[i], eta[i], kEtaTolerance);
+            if (hit(p, s, initial[i], goal[i], eta[i]))
+                closedHits++;
+        }
+        long t2 = System.nanoTime();
+        if (PRINT) {
+            Util.printf("root finder  hits %5d/%d per solve us %8.3f\n",
+                    rootHits, N, 1e-3 * (t1 - t0) / N);
+            Util.printf("closed form  hits %5d/%d per solve us %8.3f\n",
+                    closedHits, N, 1e-3 * (t2 - t1) / N);
+        }
+        assertTrue(closedHits >= rootHits);
+    }
+
+    /** True if the scaled profile actually reaches the goal at the desired ETA. */
+    private static boolean hit(TrapezoidProfile100 p, double s, Model100 initial, Model100 goal, double eta) {
+        double etaS = p.scale(s).calculateWithETA(kDt, initial, goal).etaS();
+        return Math.abs(etaS - eta) <= kEtaTolerance;
+    }
+}
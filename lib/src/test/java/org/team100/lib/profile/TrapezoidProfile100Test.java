@@ -152,6 +152,47 @@ class TrapezoidProfile100Test {
         assertEquals(0.053, s, kDelta);
     }
 
+    /** The closed form gives the actual scale, a bit larger than the root finder. */
+    @Test
+    void testETASolveClosedForm() {
+        Model100 initial = new Model100(0, 0);
+        Model100 goal = new Model100(1, 0);
+        double s = TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, 0.01, 0.02, initial, goal, 2, kDelta);
+        assertEquals(1.0, s, kDelta);
+        // triangle: T = 2 sqrt(d/a)
+        s = TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, 0.01, 0.02, initial, goal, 3, kDelta);
+        assertEquals(0.444, s, kDelta);
+        s = TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, 0.01, 0.02, initial, goal, 4, kDelta);
+        assertEquals(0.25, s, kDelta);
+        s = TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, 0.01, 0.02, initial, goal, 8, kDelta);
+        assertEquals(0.0625, s, kDelta);
+        // stationary
+        s = TrapezoidProfile100.solveForSlowerETAClosedForm(1, 1, 0.01, 0.02, initial, initial, 2, kDelta);
+        assertEquals(1.0, s, kDelta);
+    }
+
+    /** The result should actually produce the desired ETA. */
+    @Test
+    void testETASolveClosedFormCruise() {
+        TrapezoidProfile100 p = new TrapezoidProfile100(1, 1, 0.01);
+        Model100 initial = new Model100(0, 0.5);
+        Model100 goal = new Model100(3, 0.2);
+        double s = p.solve(0.02, initial, goal, 5, kDelta);
+        assertTrue(s < 1);
+        ResultWithETA r = p.scale(s).calculateWithETA(0.02, initial, goal);
+        assertEquals(5, r.etaS(), 0.02);
+    }
+
+    /** Cruising in the negative direction should mirror the positive. */
+    @Test
+    void testETANegativeCruise() {
+        TrapezoidProfile100 p = new TrapezoidProfile100(1, 1, 0.01);
+        ResultWithETA r = p.calculateWithETA(0.02, new Model100(0, 0), new Model100(3, 0.5));
+        assertEquals(3.625, r.etaS(), kDelta);
+        r = p.calculateWithETA(0.02, new Model100(0, 0), new Model100(-3, -0.5));
+        assertEquals(3.625, r.etaS(), kDelta);
+    }
+
     @Test
     void testETASolveStationary() {
         Model100 initial = new Model100(0, 0);
@@ -0,0 +1,151 @@
+package org.team100.lib.spline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+/** Same cases as QuinticHermiteOptimizerTest. */
+class HolonomicSplineOptimizerTest {
+    private static final boolean PRINT = false;
+    private static final double kDelta = 0.001;
+
+    private static List<HolonomicSpline> splines(List<Pose2d> waypoints) {
+        List<HolonomicSpline> splines = new ArrayList<>();
+        for (int i = 1; i < waypoints.size(); ++i) {
+            splines.add(new HolonomicSpline(
+                    waypoints.get(i - 1), waypoints.get(i), new Rotation2d(), new Rotation2d()));
+        }
+        return splines;
+    }
+
+    /** Back and forth across the x axis, n + 1 waypoints. */
+    private static List<Pose2d> zigzag(int n) {
+        List<Pose2d> waypoints = new ArrayList<>();
+        for (int i = 0; i <= n; ++i) {
+            waypoints.add(new Pose2d(new Translation2d(i, i % 2), Rotation2d.fromDegrees(0)));
+        }
+        return waypoints;
+    }
+
+    @Test
+    void testOptimize() {
+        List<HolonomicSpline> splines = splines(List.of(
+                new Pose2d(new Translation2d(0, 100), Rotation2d.fromDegrees(270)),
+                new Pose2d(new Translation2d(50, 0), Rotation2d.fromDegrees(0)),
+                new Pose2d(new Translation2d(100, 100), Rotation2d.fromDegrees(90))));
+        assertTrue(HolonomicSplineOptimizer.optimize(splines) < 0.014);
+
+        splines = splines(List.of(
+                new Pose2d(new Translation2d(0, 0), Rotation2d.fromDegrees(90)),
+                new Pose2d(new Translation2d(0, 50), Rotation2d.fromDegrees(0)),
+                new Pose2d(new Translation2d(100, 50), Rotation2d.fromDegrees(-90)),
+                new Pose2d(new Translation2d(100, 0), Rotation2d.fromDegrees(-180))));
+        assertEquals(0.54, HolonomicSplineOptimizer.optimize(splines), 0.01);
+
+        splines = splines(List.of(
+                new Pose2d(new Translation2d(0, 0), Rotation2d.fromDegrees(0)),
+                new Pose2d(new Translation2d(50, 0), Rotation2d.fromDegrees(0)),
+                new Pose2d(new Translation2d(100, 50), Rotation2d.fromDegrees(45)),
+                new Pose2d(new Translation2d(150, 0), Rotation2d.fromDegrees(270)),
+                new Pose2d(new Translation2d(150, -50), Rotation2d.fromDegrees(270))));
+        assertTrue(HolonomicSplineOptimizer.optimize(splines) < 0.05);
+        // colinear control points aren't moved.
+        assertEquals(0.0, splines.get(0).getCurvature(1.0), 1e-12);
+        assertEquals(0.0, splines.get(2).getCurvature(1.0), 1e-12);
+    }
+
+    /** The cached integrals should match the spline's own. */
+    @Test
+    void testIntegral() {
+        List<HolonomicSpline> splines = splines(zigzag(4));
+        HolonomicSplineOptimizer optimizer = new HolonomicSplineOptimizer(splines, false);
+        optimizer.run();
+        optimizer.update(splines);
+        double[] zero = { 0, 0, 0, 0 };
+        for (HolonomicSpline s : splines) {
+            assertEquals(s.sumDCurvature2(),
+                    HolonomicSplineOptimizer.integral(
+                            s.x().getCoefs(), zero, 0, s.y().getCoefs(), zero, 0),
+                    1e-9);
+        }
+    }
+
+    /** Serial and parallel should give the same answer. */
+    @Test
+    void testParallel() {
+        List<HolonomicSpline> serial = splines(zigzag(16));
+        List<HolonomicSpline> parallel = splines(zigzag(16));
+        HolonomicSplineOptimizer a = new HolonomicSplineOptimizer(serial, false);
+        HolonomicSplineOptimizer b = new HolonomicSplineOptimizer(parallel, true);
+        assertEquals(a.run(), b.run(), 1e-12);
+        assertEquals(a.iterations(), b.iterations());
+    }
+
+    /** Should be about as good as the original. */
+    @Test
+    void testCompare() {
+        List<HolonomicSpline> original = splines(zigzag(8));
+        List<HolonomicSpline> fast = splines(zigzag(8));
+        double before = HolonomicSpline.sumDCurvature2(original);
+        double a = HolonomicSpline.optimizeSpline(original);
+        double b = HolonomicSplineOptimizer.optimize(fast);
+        if (PRINT)
+            System.out.printf("before %.6f original %.6f fast %.6f\n", before, a, b);
+        assertTrue(b < before);
+        assertEquals(a, b, 0.05 * a + kDelta);
+        assertEquals(b, HolonomicSpline.sumDCurvature2(fast), 1e-9);
+    }
+
+    /**
+     * Optimizes paths with more and more waypoints. Iterations per second for
+     * the original includes the time to check for convergence.
+     */
+    @Test
+    void testPerformance() {
+        final int ITERATIONS = 5;
+        for (int n : new int[] { 2, 4, 8, 16, 32 }) {
+            List<Pose2d> waypoints = zigzag(n);
+            // warm up
+            HolonomicSpline.optimizeSpline(splines(waypoints));
+            new HolonomicSplineOptimizer(splines(waypoints), true).run();
+
+            long t0 = System.nanoTime();
+            for (int j = 0; j < ITERATIONS; ++j) {
+                HolonomicSpline.optimizeSpline(splines(waypoints));
+            }
+            long t1 = System.nanoTime();
+            int serialIterations = 0;
+            for (int j = 0; j < ITERATIONS; ++j) {
+                HolonomicSplineOptimizer o = new HolonomicSplineOptimizer(splines(waypoints), false);
+                o.run();
+                serialIterations += o.iterations();
+            }
+            long t2 = System.nanoTime();
+            int parallelIterations = 0;
+            for (int j = 0; j < ITERATIONS; ++j) {
+                HolonomicSplineOptimizer o = new HolonomicSplineOptimizer(splines(waypoints), true);
+                o.run();
+                parallelIterations += o.iterations();
+            }
+            long t3 = System.nanoTime();
+            if (PRINT) {
+                System.out.printf(
+                        "splines %3d original ms %8.3f serial ms %8.3f iter/s %8.0f parallel ms %8.3f iter/s %8.0f\n",
+                        n,
+                        1e-6 * (t1 - t0) / ITERATIONS,
+                        1e-6 * (t2 - t1) / ITERATIONS,
+                        1e9 * serialIterations / (t2 - t1),
+                        1e-6 * (t3 - t2) / ITERATIONS,
+                        1e9 * parallelIterations / (t3 - t2));
+            }
+        }
+    }
+}
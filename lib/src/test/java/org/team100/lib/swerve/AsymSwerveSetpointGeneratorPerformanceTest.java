@@ -0,0 +1,60 @@
+package org.team100.lib.swerve;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Reports time and allocation per generateSetpoint() call. The only
+ * allocation left should be the returned setpoint, and what the kinematics
+ * allocates to make it.
+ */
+class AsymSwerveSetpointGeneratorPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+    private static final int ITERATIONS = 100000;
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Chases a goal that changes direction every second, so that all the
+     * limiters have something to do.
+     */
+    private static SwerveSetpoint run(AsymSwerveSetpointGenerator generator, SwerveSetpoint setpoint) {
+        ChassisSpeeds[] goals = new ChassisSpeeds[] {
+                new ChassisSpeeds(2, 0, 0),
+                new ChassisSpeeds(0, 2, 1),
+                new ChassisSpeeds(-2, -1, -1),
+                new ChassisSpeeds(0, 0, 0) };
+        for (int i = 0; i < ITERATIONS; ++i) {
+            setpoint = generator.generateSetpoint(setpoint, goals[(i / 50) % goals.length]);
+        }
+        return setpoint;
+    }
+
+    @Test
+    void testGenerateSetpoint() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.limiting();
+        AsymSwerveSetpointGenerator generator = new AsymSwerveSetpointGenerator(logger, limits, () -> 12);
+        // warm up
+        SwerveSetpoint setpoint = run(generator, new SwerveSetpoint());
+        long b0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        setpoint = run(generator, setpoint);
+        long t1 = System.nanoTime();
+        long b1 = allocatedBytes();
+        if (PRINT)
+            System.out.printf("generateSetpoint ns/op %.1f bytes/op %.1f\n",
+                    (double) (t1 - t0) / ITERATIONS, (double) (b1 - b0) / ITERATIONS);
+    }
+}
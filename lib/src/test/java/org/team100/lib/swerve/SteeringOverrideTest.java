@@ -1,6 +1,7 @@
 package org.team100.lib.swerve;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Optional;
 
@@ -14,8 +15,6 @@ import org.team100.lib.logging.primitive.TestPrimitiveLogger;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 
-import edu.wpi.first.math.geometry.Rotation2d;
-
 class SteeringOverrideTest {
     private static final double kDelta = 0.001;
     private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
@@ -35,7 +34,7 @@ class SteeringOverrideTest {
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)),
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)),
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)));
-        Rotation2d[] overrideSteering = new Rotation2d[4];
+        double[] overrideSteering = new double[4];
 
         double s = c.overrideIfStopped(
                 desiredModuleStates,
@@ -60,7 +59,7 @@ class SteeringOverrideTest {
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)),
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)),
                 new SwerveModuleState100(0, Optional.of(GeometryUtil.kRotationZero)));
-        Rotation2d[] overrideSteering = new Rotation2d[4];
+        double[] overrideSteering = new double[4];
 
         double s = c.overrideIfStopped(
                 desiredModuleStates,
@@ -71,7 +70,35 @@ class SteeringOverrideTest {
         assertEquals(0, s, kDelta);
         assertEquals(4, overrideSteering.length);
         // limit is 1 radian per second, time step is 0.02 sec, so 0.02 radians
-        assertEquals(0.02, overrideSteering[0].getRadians(), kDelta);
+        assertEquals(0.02, overrideSteering[0], kDelta);
     }
 
+    /** Moving modules get NaN, whatever was there from the last cycle. */
+    @Test
+    void testMoving() {
+        SwerveKinodynamics l = SwerveKinodynamicsFactory.forTest2();
+        SteeringOverride c = new SteeringOverride(logger, l);
+
+        SwerveModuleStates desiredModuleStates = new SwerveModuleStates(
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)));
+        SwerveModuleStates prevModuleStates = new SwerveModuleStates(
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)),
+                new SwerveModuleState100(1, Optional.of(GeometryUtil.kRotationZero)));
+        double[] overrideSteering = new double[] { 1, 1, 1, 1 };
+
+        double s = c.overrideIfStopped(
+                desiredModuleStates,
+                prevModuleStates,
+                overrideSteering);
+
+        assertEquals(1.0, s, kDelta);
+        for (double v : overrideSteering) {
+            assertTrue(Double.isNaN(v));
+        }
+    }
 }
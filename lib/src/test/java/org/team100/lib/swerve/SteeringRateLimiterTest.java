@@ -2,15 +2,12 @@ package org.team100.lib.swerve;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.Test;
-import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
 import org.team100.lib.logging.LoggerFactory;
 import org.team100.lib.logging.TestLoggerFactory;
 import org.team100.lib.logging.primitive.TestPrimitiveLogger;
 
-import edu.wpi.first.math.geometry.Rotation2d;
-
 class SteeringRateLimiterTest {
     private static final double kDelta = 0.001;
     private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
@@ -22,11 +19,11 @@ class SteeringRateLimiterTest {
 
         double[] prev_vx = new double[] { 0 };
         double[] prev_vy = new double[] { 0 };
-        Rotation2d[] prev_heading = new Rotation2d[] { GeometryUtil.kRotationZero };
+        double[] prev_heading = new double[] { 0 };
         double[] desired_vx = new double[] { 0 };
         double[] desired_vy = new double[] { 0 };
-        Rotation2d[] desired_heading = new Rotation2d[] { GeometryUtil.kRotationZero };
-        Rotation2d[] overrideSteering = new Rotation2d[1];
+        double[] desired_heading = new double[] { 0 };
+        double[] overrideSteering = new double[] { Double.NaN };
 
         double s = c.enforceSteeringLimit(
                 prev_vx,
@@ -47,11 +44,11 @@ class SteeringRateLimiterTest {
 
         double[] prev_vx = new double[] { 0 };
         double[] prev_vy = new double[] { 0 };
-        Rotation2d[] prev_heading = new Rotation2d[] { GeometryUtil.kRotationZero };
+        double[] prev_heading = new double[] { 0 };
         double[] desired_vx = new double[] { 0 };
         double[] desired_vy = new double[] { 1 };
-        Rotation2d[] desired_heading = new Rotation2d[] { GeometryUtil.kRotation90 };
-        Rotation2d[] overrideSteering = new Rotation2d[1];
+        double[] desired_heading = new double[] { Math.PI / 2 };
+        double[] overrideSteering = new double[] { Double.NaN };
 
         double s = c.enforceSteeringLimit(
                 prev_vx,
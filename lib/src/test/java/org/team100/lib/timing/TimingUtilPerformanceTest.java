@@ -0,0 +1,72 @@
+package org.team100.lib.timing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.path.Path100;
+import org.team100.lib.path.PathDistanceSampler;
+import org.team100.lib.trajectory.Trajectory100;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+class TimingUtilPerformanceTest {
+    private static final boolean PRINT = false;
+    /** Same as TrajectoryPlanner. */
+    private static final double kStep = 0.0127;
+
+    /** A straight line, with points as far apart as the planner would make. */
+    private static Path100 line(double lengthM) {
+        int n = (int) Math.ceil(lengthM / kStep) + 1;
+        List<Pose2dWithMotion> states = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            states.add(new Pose2dWithMotion(
+                    new Pose2d(Math.min(i * kStep, lengthM), 0, GeometryUtil.kRotationZero)));
+        }
+        return new Path100(states);
+    }
+
+    /**
+     * Generation time should be proportional to path length, i.e. the time
+     * per sample should be about constant.
+     */
+    @Test
+    void testPerformance() {
+        final int ITERATIONS = 20;
+        TimingUtil u = new TimingUtil(List.of(new ConstantConstraint(4, 4)));
+        for (double lengthM : new double[] { 1, 4, 16, 64 }) {
+            PathDistanceSampler sampler = new PathDistanceSampler(line(lengthM));
+            // warm up
+            for (int i = 0; i < ITERATIONS; ++i) {
+                u.timeParameterizeTrajectory(sampler, kStep, 0, 0);
+            }
+            int samples = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; ++i) {
+                Trajectory100 t = u.timeParameterizeTrajectory(sampler, kStep, 0, 0);
+                samples += t.length();
+            }
+            long t1 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("length m %5.1f samples %6d per trajectory ms %8.3f per sample us %.3f\n",
+                        lengthM, samples / ITERATIONS,
+                        1e-6 * (t1 - t0) / ITERATIONS,
+                        1e-3 * (t1 - t0) / samples);
+        }
+    }
+
+    @Test
+    void testEndpoints() {
+        TimingUtil u = new TimingUtil(List.of(new ConstantConstraint(4, 4)));
+        Trajectory100 t = u.timeParameterizeTrajectory(
+                new PathDistanceSampler(line(16)), kStep, 0, 0);
+        assertEquals(0, t.getPoint(0).state().velocityM_S(), 1e-9);
+        assertEquals(0, t.getPoint(t.length() - 1).state().velocityM_S(), 1e-9);
+        // trapezoid: 1 s to accelerate, 3 s cruise, 1 s to stop.
+        assertEquals(5, t.getTotalTimeSeconds(), 0.05);
+    }
+}
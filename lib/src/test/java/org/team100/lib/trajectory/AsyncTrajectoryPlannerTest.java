@@ -0,0 +1,94 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveDriveKinematics100;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleHeadings;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveModuleState100;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraintFactory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+class AsyncTrajectoryPlannerTest {
+    private final List<Runnable> m_work = new ArrayList<>();
+
+    @Test
+    void testPending() {
+        // the work waits until we run it.
+        AsyncTrajectoryPlanner planner = new AsyncTrajectoryPlanner(m_work::add);
+        List<Pose2d> waypoints = List.of(new Pose2d(), new Pose2d(1, 0, new Rotation2d()));
+        List<Rotation2d> headings = List.of(new Rotation2d(), new Rotation2d());
+        List<TimingConstraint> constraints = new ArrayList<>();
+        CompletableFuture<Trajectory100> future = planner.restToRest(waypoints, headings, constraints);
+        assertNull(AsyncTrajectoryPlanner.getNow(future));
+        assertEquals(1, m_work.size());
+        m_work.get(0).run();
+        Trajectory100 t = AsyncTrajectoryPlanner.getNow(future);
+        // same as TrajectoryPlannerTest.testLinear
+        assertEquals(80, t.length());
+    }
+
+    @Test
+    void testFailure() {
+        // a failed plan yields an empty trajectory.
+        CompletableFuture<Trajectory100> future = CompletableFuture.failedFuture(
+                new IllegalStateException("planning failed"));
+        assertTrue(AsyncTrajectoryPlanner.getNow(future).isEmpty());
+    }
+
+    @Test
+    void testBackground() {
+        AsyncTrajectoryPlanner planner = AsyncTrajectoryPlanner.get();
+        List<Pose2d> waypoints = List.of(new Pose2d(), new Pose2d(1, 0, new Rotation2d()));
+        List<Rotation2d> headings = List.of(new Rotation2d(), new Rotation2d());
+        CompletableFuture<Trajectory100> future = planner.restToRest(waypoints, headings, new ArrayList<>());
+        assertEquals(80, future.join().length());
+    }
+
+    /**
+     * Planning uses the drivetrain's kinematics, but mustn't touch its saved
+     * module headings, which the drivetrain reads, e.g. when stopped while
+     * waiting for the plan.
+     */
+    @Test
+    void testHeadingsUntouched() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.forTest();
+        SwerveDriveKinematics100 kinematics = limits.getKinematics();
+        Rotation2d heading = Rotation2d.fromDegrees(17);
+        kinematics.resetHeadings(new SwerveModuleHeadings(heading, heading, heading, heading));
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).forTest();
+        // curvy, with turning, so the constraints see every module direction.
+        List<Pose2d> waypoints = List.of(
+                new Pose2d(0, 0, new Rotation2d()),
+                new Pose2d(2, 1, Rotation2d.fromDegrees(90)),
+                new Pose2d(0, 2, Rotation2d.fromDegrees(180)));
+        List<Rotation2d> headings = List.of(
+                new Rotation2d(),
+                Rotation2d.fromDegrees(90),
+                Rotation2d.fromDegrees(-90));
+        CompletableFuture<Trajectory100> future = AsyncTrajectoryPlanner.get()
+                .restToRest(waypoints, headings, constraints);
+        // the drivetrain stopping, on this thread, meanwhile.
+        do {
+            for (SwerveModuleState100 s : kinematics.toSwerveModuleStates(new ChassisSpeeds()).all()) {
+                assertEquals(heading.getRadians(), s.angle.get().getRadians(), 1e-9);
+            }
+        } while (!future.isDone());
+        assertTrue(future.join().length() > 0);
+        for (SwerveModuleState100 s : kinematics.toSwerveModuleStates(new ChassisSpeeds()).all()) {
+            assertEquals(heading.getRadians(), s.angle.get().getRadians(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.timing.ConstantConstraint;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraintFactory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class TrajectoryCacheTest {
+    private static final List<Pose2d> waypoints = List.of(
+            new Pose2d(0, 0, GeometryUtil.kRotationZero),
+            new Pose2d(2, 1, GeometryUtil.kRotation90));
+    private static final List<Rotation2d> headings = List.of(
+            GeometryUtil.kRotationZero,
+            GeometryUtil.fromDegrees(45));
+
+    @Test
+    void testKey() {
+        List<TimingConstraint> c = new TimingConstraintFactory(SwerveKinodynamicsFactory.forTest3()).fast();
+        String key = TrajectoryCache.key(waypoints, headings, c, 0, 0);
+        assertEquals(64, key.length());
+        // same inputs, same key
+        assertEquals(key, TrajectoryCache.key(
+                List.copyOf(waypoints), List.copyOf(headings),
+                new TimingConstraintFactory(SwerveKinodynamicsFactory.forTest3()).fast(), 0, 0));
+        // anything different, different key
+        assertNotEquals(key, TrajectoryCache.key(waypoints, headings, c, 0, 1));
+        assertNotEquals(key, TrajectoryCache.key(
+                List.of(waypoints.get(0), new Pose2d(2, 1.001, GeometryUtil.kRotation90)),
+                headings, c, 0, 0));
+        assertNotEquals(key, TrajectoryCache.key(
+                waypoints, List.of(GeometryUtil.kRotationZero, GeometryUtil.kRotationZero), c, 0, 0));
+        assertNotEquals(key, TrajectoryCache.key(waypoints, headings,
+                new TimingConstraintFactory(SwerveKinodynamicsFactory.forTest2()).fast(), 0, 0));
+        assertNotEquals(key, TrajectoryCache.key(waypoints, headings,
+                new TimingConstraintFactory(SwerveKinodynamicsFactory.forTest3()).slow(), 0, 0));
+    }
+
+    @Test
+    void testUnidentifiable() {
+        TimingConstraint c = new TimingConstraint() {
+            @Override
+            public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+                return new NonNegativeDouble(1);
+            }
+
+            @Override
+            public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S) {
+                return new MinMaxAcceleration(-1, 1);
+            }
+        };
+        assertNull(TrajectoryCache.key(waypoints, headings, List.of(c), 0, 0));
+    }
+
+    @Test
+    void testStoreAndLoad() throws IOException {
+        Path dir = Files.createTempDirectory("trajectories");
+        List<TimingConstraint> c = List.of(new ConstantConstraint(1, 1));
+
+        // read-only cache doesn't write
+        Trajectory100 t0 = new TrajectoryCache(dir, false).restToRest(waypoints, headings, c);
+        assertEquals(0, count(dir));
+
+        TrajectoryCache cache = new TrajectoryCache(dir, true);
+        // miss, writes the file
+        Trajectory100 t1 = cache.restToRest(waypoints, headings, c);
+        assertEquals(1, count(dir));
+        // hit
+        Trajectory100 t2 = new TrajectoryCache(dir, false).restToRest(waypoints, headings, c);
+        assertEquals(t0.length(), t1.length());
+        assertEquals(t1.length(), t2.length());
+        for (int i = 0; i < t1.length(); ++i) {
+            assertEquals(t1.getPoint(i).state(), t2.getPoint(i).state());
+            assertEquals(t1.getPoint(i).state().velocityM_S(), t2.getPoint(i).state().velocityM_S(), 0);
+        }
+
+        // garbage is ignored
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : files.toList()) {
+                Files.write(p, new byte[] { 1, 2, 3 });
+            }
+        }
+        Trajectory100 t3 = new TrajectoryCache(dir, false).restToRest(waypoints, headings, c);
+        assertEquals(t1.length(), t3.length());
+        assertTrue(t3.getTotalTimeSeconds() > 0);
+    }
+
+    @Test
+    void testUnidentifiableNotStored() throws IOException {
+        Path dir = Files.createTempDirectory("trajectories");
+        List<TimingConstraint> c = new ArrayList<>();
+        c.add(new ConstantConstraint(1, 1));
+        c.add(new TimingConstraint() {
+            @Override
+            public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+                return new NonNegativeDouble(1);
+            }
+
+            @Override
+            public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S) {
+                return new MinMaxAcceleration(-1, 1);
+            }
+        });
+        Trajectory100 t = new TrajectoryCache(dir, true).restToRest(waypoints, headings, c);
+        assertTrue(t.length() > 0);
+        assertEquals(0, count(dir));
+    }
+
+    private static long count(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
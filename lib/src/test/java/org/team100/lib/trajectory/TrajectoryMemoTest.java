@@ -0,0 +1,121 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.logging.LoggerFactory;
+import org.team100.lib.logging.TestLoggerFactory;
+import org.team100.lib.logging.primitive.TestPrimitiveLogger;
+import org.team100.lib.timing.ConstantConstraint;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingConstraint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class TrajectoryMemoTest {
+    private static final LoggerFactory logger = new TestLoggerFactory(new TestPrimitiveLogger());
+    private static final List<Rotation2d> headings = List.of(new Rotation2d(), new Rotation2d());
+    private static final List<TimingConstraint> constraints = List.of(new ConstantConstraint(1, 1));
+
+    /** Counts calls, and returns a new nonempty trajectory each time. */
+    private int m_calls;
+
+    private Trajectory100 plan(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel) {
+        m_calls++;
+        return new Trajectory100(List.of(new TimedPose(
+                new Pose2dWithMotion(waypoints.get(0)), 0, 0, 0)));
+    }
+
+    private static List<Pose2d> from(double x) {
+        return List.of(new Pose2d(x, 0, new Rotation2d()), new Pose2d(5, 0, new Rotation2d()));
+    }
+
+    @Test
+    void testNearbyHits() {
+        TrajectoryMemo memo = new TrajectoryMemo(logger, 4, this::plan);
+        Trajectory100 t1 = memo.restToRest(from(1), headings, constraints);
+        // a millimeter away is the same
+        Trajectory100 t2 = memo.restToRest(from(1.001), headings, constraints);
+        assertSame(t1, t2);
+        assertEquals(1, m_calls);
+        assertEquals(1, memo.hits());
+        assertEquals(1, memo.misses());
+        // ten centimeters is not
+        Trajectory100 t3 = memo.restToRest(from(1.1), headings, constraints);
+        assertNotSame(t1, t3);
+        assertEquals(2, m_calls);
+        // nor is a different velocity
+        memo.generateTrajectory(from(1), headings, constraints, 1, 0);
+        assertEquals(3, m_calls);
+        // nor different constraints
+        memo.restToRest(from(1), headings, List.of(new ConstantConstraint(2, 1)));
+        assertEquals(4, m_calls);
+        assertEquals(4, memo.size());
+        memo.periodic();
+    }
+
+    @Test
+    void testEviction() {
+        TrajectoryMemo memo = new TrajectoryMemo(logger, 2, this::plan);
+        memo.restToRest(from(1), headings, constraints);
+        memo.restToRest(from(2), headings, constraints);
+        // use 1, so 2 is the least recent
+        memo.restToRest(from(1), headings, constraints);
+        memo.restToRest(from(3), headings, constraints);
+        assertEquals(2, memo.size());
+        assertEquals(1, memo.evictions());
+        assertEquals(3, m_calls);
+        // 1 is still there
+        memo.restToRest(from(1), headings, constraints);
+        assertEquals(3, m_calls);
+        // 2 is gone
+        memo.restToRest(from(2), headings, constraints);
+        assertEquals(4, m_calls);
+        assertEquals(2, memo.evictions());
+    }
+
+    @Test
+    void testUnidentifiable() {
+        TrajectoryMemo memo = new TrajectoryMemo(logger, 2, this::plan);
+        List<TimingConstraint> c = new ArrayList<>();
+        c.add(new TimingConstraint() {
+            @Override
+            public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+                return new NonNegativeDouble(1);
+            }
+
+            @Override
+            public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S) {
+                return new MinMaxAcceleration(-1, 1);
+            }
+        });
+        memo.restToRest(from(1), headings, c);
+        memo.restToRest(from(1), headings, c);
+        assertEquals(2, m_calls);
+        assertEquals(0, memo.size());
+    }
+
+    @Test
+    void testEmptyNotRemembered() {
+        TrajectoryMemo memo = new TrajectoryMemo(logger, 2, (w, h, c, v0, v1) -> {
+            m_calls++;
+            return new Trajectory100();
+        });
+        memo.restToRest(from(1), headings, constraints);
+        memo.restToRest(from(1), headings, constraints);
+        assertEquals(2, m_calls);
+        assertEquals(0, memo.size());
+    }
+}
@@ -0,0 +1,191 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimedPose;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class TrajectoryProjectorTest {
+    private static final boolean PRINT = false;
+    private static final double kDelta = 0.001;
+
+    /** Along +x at 1 m/s, then back along y = 0.1, 1 cm apart. */
+    private static Trajectory100 hairpin() {
+        List<TimedPose> poses = new ArrayList<>();
+        for (int i = 0; i <= 100; ++i) {
+            poses.add(pose(0.01 * i, 0, 0.01 * i));
+        }
+        for (int i = 0; i <= 100; ++i) {
+            poses.add(pose(1 - 0.01 * i, 0.1, 1.1 + 0.01 * i));
+        }
+        return new Trajectory100(poses);
+    }
+
+    private static TimedPose pose(double x, double y, double t) {
+        return new TimedPose(
+                new Pose2dWithMotion(new Pose2d(x, y, GeometryUtil.kRotationZero)), t, 1, 0);
+    }
+
+    /** Turn in place at the origin, 1 second, from a0 to a1. */
+    private static Trajectory100 spin(double a0, double a1) {
+        List<TimedPose> poses = new ArrayList<>();
+        for (int i = 0; i <= 100; ++i) {
+            double a = a0 + (a1 - a0) * 0.01 * i;
+            // wrapped, like the planner would make.
+            Rotation2d r = new Rotation2d(Math.cos(a), Math.sin(a));
+            poses.add(new TimedPose(new Pose2dWithMotion(new Pose2d(0, 0, r)), 0.01 * i, 0, 0));
+        }
+        return new Trajectory100(poses);
+    }
+
+    private static Pose2d at(double x, double y) {
+        return new Pose2d(x, y, GeometryUtil.kRotationZero);
+    }
+
+    /** A straight line at constant speed, 1 cm between points. */
+    private static Trajectory100 line(int n) {
+        List<TimedPose> poses = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            poses.add(pose(0.01 * i, 0, 0.01 * i));
+        }
+        return new Trajectory100(poses);
+    }
+
+    @Test
+    void testProject() {
+        TrajectoryProjector p = new TrajectoryProjector(hairpin());
+        assertEquals(0, p.project(at(0, 0)), kDelta);
+        // off to the side
+        assertEquals(0.205, p.project(at(0.205, -0.5)), kDelta);
+        assertEquals(0.305, p.ahead(0.1), kDelta);
+        // a big jump is fine, as long as it's forward.
+        assertEquals(0.9, p.project(at(0.9, 0)), kDelta);
+    }
+
+    @Test
+    void testMonotone() {
+        TrajectoryProjector p = new TrajectoryProjector(hairpin());
+        assertEquals(0.5, p.project(at(0.5, 0)), kDelta);
+        // never goes backwards
+        assertEquals(0.5, p.project(at(0.3, 0)), kDelta);
+        // the return leg is closer, but it's not found from here.
+        assertEquals(0.5, p.project(at(0.3, 0.09)), kDelta);
+        p.reset();
+        assertEquals(0.3, p.project(at(0.3, 0)), kDelta);
+    }
+
+    @Test
+    void testHairpin() {
+        TrajectoryProjector p = new TrajectoryProjector(hairpin());
+        assertEquals(0.95, p.project(at(0.95, 0)), kDelta);
+        // from near the turn, the return leg is in reach.
+        assertEquals(1.15, p.project(at(0.95, 0.1)), kDelta);
+        // time and path length advance together here.
+        assertEquals(1.25, p.ahead(0.1), kDelta);
+    }
+
+    @Test
+    void testEnd() {
+        TrajectoryProjector p = new TrajectoryProjector(hairpin());
+        assertEquals(2.1, p.ahead(10), kDelta);
+        assertEquals(0.5, p.project(at(0.5, 0)), kDelta);
+        assertEquals(2.1, p.ahead(10), kDelta);
+    }
+
+    /** Rotation counts too, so turning in place makes progress. */
+    @Test
+    void testSpin() {
+        TrajectoryProjector p = new TrajectoryProjector(spin(0, Math.PI / 2));
+        assertEquals(0, p.project(at(0, 0)), kDelta);
+        assertEquals(0.5, p.project(new Pose2d(0, 0, new Rotation2d(Math.PI / 4))), kDelta);
+        // the lookahead is translation only, so the rest of the turn is skipped.
+        assertEquals(1.0, p.ahead(0.1), kDelta);
+        assertEquals(1.0, p.project(new Pose2d(0, 0, new Rotation2d(Math.PI / 2))), kDelta);
+        assertEquals(1.0, p.ahead(10), kDelta);
+    }
+
+    /** Turning while moving doesn't shorten the lookahead. */
+    @Test
+    void testAheadIgnoresHeading() {
+        List<TimedPose> poses = new ArrayList<>();
+        for (int i = 0; i <= 100; ++i) {
+            Rotation2d r = new Rotation2d(Math.PI / 2 * 0.01 * i);
+            poses.add(new TimedPose(new Pose2dWithMotion(new Pose2d(0.01 * i, 0, r)), 0.01 * i, 1, 0));
+        }
+        TrajectoryProjector p = new TrajectoryProjector(new Trajectory100(poses));
+        assertEquals(0.5, p.project(new Pose2d(0.5, 0, new Rotation2d(Math.PI / 4))), kDelta);
+        // 0.1 m of translation, at 1 m/s
+        assertEquals(0.6, p.ahead(0.1), kDelta);
+    }
+
+    /** Turning through pi, where the headings wrap. */
+    @Test
+    void testSpinWrap() {
+        TrajectoryProjector p = new TrajectoryProjector(spin(3.0, 3.3));
+        assertEquals(0.5, p.project(new Pose2d(0, 0, new Rotation2d(3.15 - 2 * Math.PI))), kDelta);
+        assertEquals(0.5, p.project(new Pose2d(0, 0, new Rotation2d(3.15))), kDelta);
+    }
+
+    /** Repeated points, e.g. a pause, don't stop progress. */
+    @Test
+    void testPause() {
+        List<TimedPose> poses = new ArrayList<>();
+        for (int i = 0; i <= 50; ++i) {
+            poses.add(pose(0.01 * i, 0, 0.01 * i));
+        }
+        for (int i = 1; i <= 10; ++i) {
+            poses.add(pose(0.5, 0, 0.5 + 0.01 * i));
+        }
+        for (int i = 1; i <= 50; ++i) {
+            poses.add(pose(0.5 + 0.01 * i, 0, 0.6 + 0.01 * i));
+        }
+        TrajectoryProjector p = new TrajectoryProjector(new Trajectory100(poses));
+        // past the end of the pause
+        assertEquals(0.6, p.project(at(0.5, 0)), kDelta);
+        assertEquals(0.7, p.project(at(0.6, 0)), kDelta);
+    }
+
+    @Test
+    void testSinglePoint() {
+        TrajectoryProjector p = new TrajectoryProjector(
+                new Trajectory100(List.of(pose(1, 1, 0))));
+        assertEquals(0, p.project(at(0, 0)), kDelta);
+        assertEquals(0, p.ahead(1), kDelta);
+    }
+
+    /**
+     * Follows each trajectory at 20 ms intervals, a little off to the side, like
+     * the pursuit follower would. The time per cycle should be about constant.
+     */
+    @Test
+    void testPerformance() {
+        final int ITERATIONS = 20;
+        for (int n : new int[] { 100, 1000, 10000 }) {
+            Trajectory100 t = line(n);
+            double end = 0.01 * (n - 1);
+            TrajectoryProjector p = new TrajectoryProjector(t);
+            int samples = 0;
+            long t0 = System.nanoTime();
+            for (int j = 0; j < ITERATIONS; ++j) {
+                p.reset();
+                for (double x = 0; x < end; x += 0.02) {
+                    p.project(at(x, 0.05));
+                    p.ahead(0.1);
+                    samples++;
+                }
+            }
+            long t1 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("points %5d per cycle us %.3f\n",
+                        n, 0.001 * (t1 - t0) / samples);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimedPose;
+
+import edu.wpi.first.math.geometry.Pose2d;
+
+class TrajectoryTimeSamplerPerformanceTest {
+    private static final boolean PRINT = false;
+    private static final double kDelta = 0.001;
+
+    /** A straight line at constant speed, 1 cm between points. */
+    private static Trajectory100 line(int n) {
+        List<TimedPose> poses = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            Pose2d p = new Pose2d(0.01 * i, 0, GeometryUtil.kRotationZero);
+            poses.add(new TimedPose(new Pose2dWithMotion(p), 0.01 * i, 1, 0));
+        }
+        return new Trajectory100(poses);
+    }
+
+    /** The old linear scan, for comparison. */
+    private static Optional<TrajectorySamplePoint> linearScan(Trajectory100 t, double timeS) {
+        for (int i = 1; i < t.length(); ++i) {
+            final TrajectoryPoint point = t.getPoint(i);
+            if (point.state().getTimeS() >= timeS) {
+                final TrajectoryPoint prev_s = t.getPoint(i - 1);
+                return Optional.of(new TrajectorySamplePoint(
+                        prev_s.state().interpolate2(point.state(),
+                                (timeS - prev_s.state().getTimeS())
+                                        / (point.state().getTimeS() - prev_s.state().getTimeS())),
+                        i - 1, i));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Test
+    void testSameAnswer() {
+        Trajectory100 t = line(1000);
+        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(t);
+        for (double s = 0.001; s < 9.98; s += 0.0173) {
+            TrajectorySamplePoint a = linearScan(t, s).get();
+            TrajectorySamplePoint b = sampler.sample(s).get();
+            assertEquals(a.getIndexFloor(), b.getIndexFloor());
+            assertEquals(a.getIndexCeil(), b.getIndexCeil());
+            assertEquals(a.state().state().getPose().getX(), b.state().state().getPose().getX(), kDelta);
+        }
+        // backwards
+        for (double s = 9.98; s > 0.001; s -= 0.31) {
+            TrajectorySamplePoint a = linearScan(t, s).get();
+            TrajectorySamplePoint b = sampler.sample(s).get();
+            assertEquals(a.getIndexCeil(), b.getIndexCeil());
+        }
+    }
+
+    /**
+     * Samples each trajectory at 20 ms intervals from start to end, like a
+     * follower would, and also at random times.
+     * 
+     * The linear scan grows with trajectory length; the cursor should be
+     * roughly constant, and random access should grow with log(n).
+     */
+    @Test
+    void testPerformance() {
+        final int ITERATIONS = 20;
+        for (int n : new int[] { 100, 1000, 10000 }) {
+            Trajectory100 t = line(n);
+            double end = t.getTotalTimeSeconds();
+            int samples = 0;
+            long t0 = System.nanoTime();
+            for (int j = 0; j < ITERATIONS; ++j) {
+                for (double s = 0; s < end; s += 0.02) {
+                    linearScan(t, s);
+                    samples++;
+                }
+            }
+            long t1 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("points %5d linear scan per sample us %.3f\n",
+                        n, 0.001 * (t1 - t0) / samples);
+
+            TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(t);
+            samples = 0;
+            t0 = System.nanoTime();
+            for (int j = 0; j < ITERATIONS; ++j) {
+                for (double s = 0; s < end; s += 0.02) {
+                    sampler.sample(s);
+                    samples++;
+                }
+            }
+            t1 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("points %5d cursor      per sample us %.3f\n",
+                        n, 0.001 * (t1 - t0) / samples);
+
+            samples = 0;
+            t0 = System.nanoTime();
+            for (int j = 0; j < ITERATIONS; ++j) {
+                for (double s = 0; s < end; s += 0.02) {
+                    // scramble the order
+                    sampler.sample((s * 7919) % end);
+                    samples++;
+                }
+            }
+            t1 = System.nanoTime();
+            if (PRINT)
+                System.out.printf("points %5d random      per sample us %.3f\n",
+                        n, 0.001 * (t1 - t0) / samples);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.team100.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SearchCursorTest {
+
+    /** The old way, for comparison. */
+    private static int linear(double[] keys, double key) {
+        for (int i = 1; i < keys.length; ++i) {
+            if (keys[i] >= key)
+                return i;
+        }
+        return keys.length - 1;
+    }
+
+    @Test
+    void testStateless() {
+        double[] keys = { 0, 1, 2, 3 };
+        assertEquals(1, SearchCursor.ceiling(keys, 0.5));
+        assertEquals(1, SearchCursor.ceiling(keys, 1.0));
+        assertEquals(2, SearchCursor.ceiling(keys, 1.5));
+        assertEquals(3, SearchCursor.ceiling(keys, 2.5));
+        assertEquals(3, SearchCursor.ceiling(keys, 3.0));
+        // clamped
+        assertEquals(1, SearchCursor.ceiling(keys, -1));
+        assertEquals(3, SearchCursor.ceiling(keys, 4));
+    }
+
+    @Test
+    void testDuplicates() {
+        // duplicate keys yield the first match, like the linear scan.
+        double[] keys = { 0, 1, 1, 1, 2 };
+        assertEquals(1, SearchCursor.ceiling(keys, 1.0));
+        SearchCursor c = new SearchCursor(keys);
+        assertEquals(1, c.ceiling(0.5));
+        assertEquals(1, c.ceiling(1.0));
+        assertEquals(4, c.ceiling(1.5));
+    }
+
+    @Test
+    void testForward() {
+        double[] keys = new double[1000];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = i * 0.02;
+        }
+        SearchCursor c = new SearchCursor(keys);
+        for (double t = 0.001; t < 19.98; t += 0.0123) {
+            assertEquals(linear(keys, t), c.ceiling(t));
+        }
+    }
+
+    @Test
+    void testJumps() {
+        double[] keys = new double[1000];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = i * i * 0.001;
+        }
+        SearchCursor c = new SearchCursor(keys);
+        // big jumps in both directions
+        double[] queries = { 500, 1, 900, 899.9, 0.0005, 998, 0.5, 0.5, 700 };
+        for (double q : queries) {
+            assertEquals(linear(keys, q), c.ceiling(q));
+        }
+        c.reset();
+        assertEquals(linear(keys, 0.002), c.ceiling(0.002));
+    }
+}